@@ -27,6 +27,7 @@ import com.b2international.collections.bytes.ByteSet;
 import com.b2international.collections.ints.IntCollection;
 import com.b2international.collections.ints.IntIterator;
 import com.b2international.collections.ints.IntSet;
+import com.b2international.collections.longs.LongBitmapSet;
 import com.b2international.collections.longs.LongCollection;
 import com.b2international.collections.longs.LongSet;
 import com.b2international.collections.longs.LongSortedSet;
@@ -161,6 +162,18 @@ public abstract class PrimitiveSets {
 		}
 	}
 
+	public static LongBitmapSet newLongBitmapSet(long... source) {
+		return LongBitmapSet.of(source);
+	}
+	
+	public static LongBitmapSet newLongBitmapSet(LongCollection source) {
+		if (source == null) {
+			return newLongBitmapSet();
+		} else {
+			return LongBitmapSet.copyOf(source);
+		}
+	}
+
 	public static LongSet emptyLongSet() {
 		return EMPTY_SET;
 	}
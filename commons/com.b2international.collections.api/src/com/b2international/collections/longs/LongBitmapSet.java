@@ -0,0 +1,719 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.collections.longs;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Compressed, sorted {@link LongSet} implementation in the style of Roaring bitmaps. Values are partitioned by their upper 48 bits into chunks;
+ * each chunk stores the lower 16 bits of its values either in a sorted <code>char</code> array (sparse chunks, at most {@value #ARRAY_MAX_SIZE}
+ * values) or in a fixed size 8 KB bitmap (dense chunks). Set algebra between two bitmap sets ({@link #and(LongBitmapSet, LongBitmapSet)},
+ * {@link #or(LongBitmapSet, LongBitmapSet)}, {@link #andNot(LongBitmapSet, LongBitmapSet)}) is performed chunk-by-chunk without materializing
+ * individual values.
+ * <p>
+ * Iteration returns values in ascending (signed) order. The iterator does not support removal.
+ *
+ * @since 7.14
+ */
+public final class LongBitmapSet extends AbstractLongSet implements LongSortedSet {
+
+	private static final long serialVersionUID = 1L;
+
+	/*Sparse chunks are converted to bitmap chunks above this size (the point where an array chunk would use more memory than a bitmap chunk)*/
+	static final int ARRAY_MAX_SIZE = 4096;
+
+	private static final int BITMAP_WORDS = 1 << 10;
+
+	private static final int INITIAL_CAPACITY = 4;
+
+	private long[] keys;
+	private Chunk[] chunks;
+	private int chunkCount;
+
+	public LongBitmapSet() {
+		this(INITIAL_CAPACITY);
+	}
+
+	private LongBitmapSet(int chunkCapacity) {
+		this.keys = new long[chunkCapacity];
+		this.chunks = new Chunk[chunkCapacity];
+	}
+
+	public static LongBitmapSet of(long... values) {
+		final LongBitmapSet result = new LongBitmapSet();
+		if (values != null) {
+			for (long value : values) {
+				result.add(value);
+			}
+		}
+		return result;
+	}
+
+	public static LongBitmapSet copyOf(LongCollection source) {
+		checkNotNull(source, "Source collection may not be null.");
+		if (source instanceof LongBitmapSet) {
+			return ((LongBitmapSet) source).copy();
+		}
+		final LongBitmapSet result = new LongBitmapSet();
+		final LongIterator itr = source.iterator();
+		while (itr.hasNext()) {
+			result.add(itr.next());
+		}
+		return result;
+	}
+
+	/**
+	 * @return a new set containing the values present in both sets
+	 */
+	public static LongBitmapSet and(LongBitmapSet left, LongBitmapSet right) {
+		final LongBitmapSet result = new LongBitmapSet(Math.max(1, Math.min(left.chunkCount, right.chunkCount)));
+		int l = 0;
+		int r = 0;
+		while (l < left.chunkCount && r < right.chunkCount) {
+			final int cmp = Long.compare(left.keys[l], right.keys[r]);
+			if (cmp < 0) {
+				l++;
+			} else if (cmp > 0) {
+				r++;
+			} else {
+				result.appendIfNotEmpty(left.keys[l], left.chunks[l].and(right.chunks[r]));
+				l++;
+				r++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return a new set containing the values present in any of the two sets
+	 */
+	public static LongBitmapSet or(LongBitmapSet left, LongBitmapSet right) {
+		final LongBitmapSet result = new LongBitmapSet(Math.max(1, left.chunkCount + right.chunkCount));
+		int l = 0;
+		int r = 0;
+		while (l < left.chunkCount || r < right.chunkCount) {
+			final int cmp;
+			if (l == left.chunkCount) {
+				cmp = 1;
+			} else if (r == right.chunkCount) {
+				cmp = -1;
+			} else {
+				cmp = Long.compare(left.keys[l], right.keys[r]);
+			}
+
+			if (cmp < 0) {
+				result.appendIfNotEmpty(left.keys[l], left.chunks[l].copy());
+				l++;
+			} else if (cmp > 0) {
+				result.appendIfNotEmpty(right.keys[r], right.chunks[r].copy());
+				r++;
+			} else {
+				result.appendIfNotEmpty(left.keys[l], left.chunks[l].or(right.chunks[r]));
+				l++;
+				r++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return a new set containing the values present in the left set, but not in the right set
+	 */
+	public static LongBitmapSet andNot(LongBitmapSet left, LongBitmapSet right) {
+		final LongBitmapSet result = new LongBitmapSet(Math.max(1, left.chunkCount));
+		int l = 0;
+		int r = 0;
+		while (l < left.chunkCount) {
+			final int cmp = r == right.chunkCount ? -1 : Long.compare(left.keys[l], right.keys[r]);
+			if (cmp < 0) {
+				result.appendIfNotEmpty(left.keys[l], left.chunks[l].copy());
+				l++;
+			} else if (cmp > 0) {
+				r++;
+			} else {
+				result.appendIfNotEmpty(left.keys[l], left.chunks[l].andNot(right.chunks[r]));
+				l++;
+				r++;
+			}
+		}
+		return result;
+	}
+
+	public LongBitmapSet copy() {
+		final LongBitmapSet result = new LongBitmapSet(Math.max(1, chunkCount));
+		for (int i = 0; i < chunkCount; i++) {
+			result.appendIfNotEmpty(keys[i], chunks[i].copy());
+		}
+		return result;
+	}
+
+	@Override
+	public boolean add(long value) {
+		final long key = highBits(value);
+		final int index = indexOf(key);
+		if (index >= 0) {
+			final Chunk chunk = chunks[index];
+			final int sizeBefore = chunk.size();
+			chunks[index] = chunk.add(lowBits(value));
+			return chunks[index].size() > sizeBefore;
+		} else {
+			insertChunk(-(index + 1), key, new ArrayChunk().add(lowBits(value)));
+			return true;
+		}
+	}
+
+	@Override
+	public boolean addAll(LongCollection collection) {
+		if (collection instanceof LongBitmapSet) {
+			return replaceWith(or(this, (LongBitmapSet) collection));
+		} else {
+			return super.addAll(collection);
+		}
+	}
+
+	@Override
+	public boolean contains(long value) {
+		final int index = indexOf(highBits(value));
+		return index >= 0 && chunks[index].contains(lowBits(value));
+	}
+
+	@Override
+	public boolean containsAll(LongCollection collection) {
+		if (collection instanceof LongBitmapSet) {
+			final LongBitmapSet other = (LongBitmapSet) collection;
+			return and(this, other).size() == other.size();
+		} else {
+			return super.containsAll(collection);
+		}
+	}
+
+	@Override
+	public boolean remove(long value) {
+		final int index = indexOf(highBits(value));
+		if (index < 0) {
+			return false;
+		}
+
+		final Chunk chunk = chunks[index];
+		final int sizeBefore = chunk.size();
+		final Chunk updated = chunk.remove(lowBits(value));
+		if (updated.size() == 0) {
+			removeChunk(index);
+		} else {
+			chunks[index] = updated;
+		}
+		return updated.size() < sizeBefore;
+	}
+
+	@Override
+	public boolean removeAll(LongCollection collection) {
+		checkNotNull(collection);
+		if (collection instanceof LongBitmapSet) {
+			return replaceWith(andNot(this, (LongBitmapSet) collection));
+		} else {
+			boolean changed = false;
+			final LongIterator itr = collection.iterator();
+			while (itr.hasNext()) {
+				changed |= remove(itr.next());
+			}
+			return changed;
+		}
+	}
+
+	@Override
+	public boolean retainAll(LongCollection collection) {
+		checkNotNull(collection);
+		final LongBitmapSet other = collection instanceof LongBitmapSet ? (LongBitmapSet) collection : copyOf(collection);
+		return replaceWith(and(this, other));
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(chunks, 0, chunkCount, null);
+		chunkCount = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return chunkCount == 0;
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (int i = 0; i < chunkCount; i++) {
+			size += chunks[i].size();
+		}
+		return size;
+	}
+
+	@Override
+	public void trimToSize() {
+		if (keys.length > chunkCount) {
+			final int capacity = Math.max(1, chunkCount);
+			keys = Arrays.copyOf(keys, capacity);
+			chunks = Arrays.copyOf(chunks, capacity);
+		}
+	}
+
+	@Override
+	public LongIterator iterator() {
+		return new AbstractLongIterator() {
+
+			private int chunkIndex = 0;
+			private long high;
+			private ChunkIterator chunkIterator;
+
+			@Override
+			protected long computeNext() {
+				while (chunkIterator == null || !chunkIterator.hasNext()) {
+					if (chunkIndex == chunkCount) {
+						return endOfData();
+					}
+					high = keys[chunkIndex] << 16;
+					chunkIterator = chunks[chunkIndex].iterator();
+					chunkIndex++;
+				}
+				return high | chunkIterator.next();
+			}
+
+		};
+	}
+
+	private boolean replaceWith(LongBitmapSet other) {
+		// results of the set operations are either subsets or supersets of this set, so the size tells if the content has changed
+		final boolean changed = size() != other.size();
+		keys = other.keys;
+		chunks = other.chunks;
+		chunkCount = other.chunkCount;
+		return changed;
+	}
+
+	private void appendIfNotEmpty(long key, Chunk chunk) {
+		if (chunk.size() > 0) {
+			insertChunk(chunkCount, key, chunk);
+		}
+	}
+
+	private void insertChunk(int index, long key, Chunk chunk) {
+		if (chunkCount == keys.length) {
+			final int capacity = Math.max(INITIAL_CAPACITY, keys.length + (keys.length >> 1));
+			keys = Arrays.copyOf(keys, capacity);
+			chunks = Arrays.copyOf(chunks, capacity);
+		}
+		System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+		System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+		keys[index] = key;
+		chunks[index] = chunk;
+		chunkCount++;
+	}
+
+	private void removeChunk(int index) {
+		System.arraycopy(keys, index + 1, keys, index, chunkCount - index - 1);
+		System.arraycopy(chunks, index + 1, chunks, index, chunkCount - index - 1);
+		chunkCount--;
+		chunks[chunkCount] = null;
+	}
+
+	private int indexOf(long key) {
+		// fast path for values appended in ascending order
+		if (chunkCount > 0 && keys[chunkCount - 1] == key) {
+			return chunkCount - 1;
+		}
+		return Arrays.binarySearch(keys, 0, chunkCount, key);
+	}
+
+	private static long highBits(long value) {
+		return value >> 16;
+	}
+
+	private static char lowBits(long value) {
+		return (char) value;
+	}
+
+	/*Iterates over the lower 16 bits of the values stored in a chunk in ascending order*/
+	private interface ChunkIterator {
+
+		boolean hasNext();
+
+		char next();
+
+	}
+
+	/*Stores the lower 16 bits of values sharing the same upper 48 bits*/
+	private static abstract class Chunk implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		abstract int size();
+
+		abstract boolean contains(char value);
+
+		/*Returns the chunk that contains the value; might be this instance or a new chunk with a different representation*/
+		abstract Chunk add(char value);
+
+		/*Returns the chunk that does not contain the value; might be this instance or a new chunk with a different representation*/
+		abstract Chunk remove(char value);
+
+		abstract Chunk and(Chunk other);
+
+		abstract Chunk or(Chunk other);
+
+		abstract Chunk andNot(Chunk other);
+
+		abstract Chunk copy();
+
+		abstract ChunkIterator iterator();
+
+	}
+
+	private static final class ArrayChunk extends Chunk {
+
+		private static final long serialVersionUID = 1L;
+
+		private char[] values;
+		private int size;
+
+		ArrayChunk() {
+			this(new char[INITIAL_CAPACITY], 0);
+		}
+
+		ArrayChunk(char[] values, int size) {
+			this.values = values;
+			this.size = size;
+		}
+
+		@Override
+		int size() {
+			return size;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return Arrays.binarySearch(values, 0, size, value) >= 0;
+		}
+
+		@Override
+		Chunk add(char value) {
+			// fast path for values appended in ascending order
+			final int index = size > 0 && values[size - 1] < value ? -(size + 1) : Arrays.binarySearch(values, 0, size, value);
+			if (index >= 0) {
+				return this;
+			}
+			if (size == ARRAY_MAX_SIZE) {
+				return toBitmapChunk().add(value);
+			}
+			final int insertionPoint = -(index + 1);
+			if (size == values.length) {
+				values = Arrays.copyOf(values, Math.min(ARRAY_MAX_SIZE, Math.max(INITIAL_CAPACITY, values.length << 1)));
+			}
+			System.arraycopy(values, insertionPoint, values, insertionPoint + 1, size - insertionPoint);
+			values[insertionPoint] = value;
+			size++;
+			return this;
+		}
+
+		@Override
+		Chunk remove(char value) {
+			final int index = Arrays.binarySearch(values, 0, size, value);
+			if (index >= 0) {
+				System.arraycopy(values, index + 1, values, index, size - index - 1);
+				size--;
+			}
+			return this;
+		}
+
+		@Override
+		Chunk and(Chunk other) {
+			final char[] result = new char[Math.min(size, other.size())];
+			int resultSize = 0;
+			if (other instanceof ArrayChunk) {
+				final ArrayChunk right = (ArrayChunk) other;
+				int l = 0;
+				int r = 0;
+				while (l < size && r < right.size) {
+					if (values[l] < right.values[r]) {
+						l++;
+					} else if (values[l] > right.values[r]) {
+						r++;
+					} else {
+						result[resultSize++] = values[l];
+						l++;
+						r++;
+					}
+				}
+			} else {
+				for (int i = 0; i < size; i++) {
+					if (other.contains(values[i])) {
+						result[resultSize++] = values[i];
+					}
+				}
+			}
+			return new ArrayChunk(result, resultSize);
+		}
+
+		@Override
+		Chunk or(Chunk other) {
+			if (other instanceof BitmapChunk) {
+				return other.or(this);
+			}
+
+			final ArrayChunk right = (ArrayChunk) other;
+			if (size + right.size > ARRAY_MAX_SIZE) {
+				return toBitmapChunk().or(right);
+			}
+
+			final char[] result = new char[size + right.size];
+			int resultSize = 0;
+			int l = 0;
+			int r = 0;
+			while (l < size || r < right.size) {
+				if (r == right.size || (l < size && values[l] < right.values[r])) {
+					result[resultSize++] = values[l++];
+				} else if (l == size || values[l] > right.values[r]) {
+					result[resultSize++] = right.values[r++];
+				} else {
+					result[resultSize++] = values[l];
+					l++;
+					r++;
+				}
+			}
+			return new ArrayChunk(result, resultSize);
+		}
+
+		@Override
+		Chunk andNot(Chunk other) {
+			final char[] result = new char[size];
+			int resultSize = 0;
+			for (int i = 0; i < size; i++) {
+				if (!other.contains(values[i])) {
+					result[resultSize++] = values[i];
+				}
+			}
+			return new ArrayChunk(result, resultSize);
+		}
+
+		@Override
+		Chunk copy() {
+			return new ArrayChunk(Arrays.copyOf(values, Math.max(1, size)), size);
+		}
+
+		@Override
+		ChunkIterator iterator() {
+			return new ChunkIterator() {
+
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < size;
+				}
+
+				@Override
+				public char next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return values[index++];
+				}
+			};
+		}
+
+		private BitmapChunk toBitmapChunk() {
+			final BitmapChunk bitmap = new BitmapChunk();
+			for (int i = 0; i < size; i++) {
+				bitmap.set(values[i]);
+			}
+			return bitmap;
+		}
+
+	}
+
+	private static final class BitmapChunk extends Chunk {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] words;
+		private int size;
+
+		BitmapChunk() {
+			this(new long[BITMAP_WORDS], 0);
+		}
+
+		BitmapChunk(long[] words, int size) {
+			this.words = words;
+			this.size = size;
+		}
+
+		@Override
+		int size() {
+			return size;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return (words[value >>> 6] & (1L << value)) != 0;
+		}
+
+		@Override
+		Chunk add(char value) {
+			set(value);
+			return this;
+		}
+
+		@Override
+		Chunk remove(char value) {
+			final int index = value >>> 6;
+			final long word = words[index];
+			final long updated = word & ~(1L << value);
+			if (word != updated) {
+				words[index] = updated;
+				size--;
+			}
+			return size <= ARRAY_MAX_SIZE ? toArrayChunk() : this;
+		}
+
+		@Override
+		Chunk and(Chunk other) {
+			if (other instanceof ArrayChunk) {
+				return other.and(this);
+			}
+			final long[] otherWords = ((BitmapChunk) other).words;
+			final long[] result = new long[BITMAP_WORDS];
+			int resultSize = 0;
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				result[i] = words[i] & otherWords[i];
+				resultSize += Long.bitCount(result[i]);
+			}
+			return normalize(result, resultSize);
+		}
+
+		@Override
+		Chunk or(Chunk other) {
+			final long[] result = Arrays.copyOf(words, BITMAP_WORDS);
+			int resultSize = size;
+			if (other instanceof ArrayChunk) {
+				final ArrayChunk right = (ArrayChunk) other;
+				for (int i = 0; i < right.size; i++) {
+					final char value = right.values[i];
+					final long word = result[value >>> 6];
+					final long updated = word | (1L << value);
+					if (word != updated) {
+						result[value >>> 6] = updated;
+						resultSize++;
+					}
+				}
+			} else {
+				final long[] otherWords = ((BitmapChunk) other).words;
+				resultSize = 0;
+				for (int i = 0; i < BITMAP_WORDS; i++) {
+					result[i] |= otherWords[i];
+					resultSize += Long.bitCount(result[i]);
+				}
+			}
+			return new BitmapChunk(result, resultSize);
+		}
+
+		@Override
+		Chunk andNot(Chunk other) {
+			final long[] result = Arrays.copyOf(words, BITMAP_WORDS);
+			int resultSize = size;
+			if (other instanceof ArrayChunk) {
+				final ArrayChunk right = (ArrayChunk) other;
+				for (int i = 0; i < right.size; i++) {
+					final char value = right.values[i];
+					final long word = result[value >>> 6];
+					final long updated = word & ~(1L << value);
+					if (word != updated) {
+						result[value >>> 6] = updated;
+						resultSize--;
+					}
+				}
+			} else {
+				final long[] otherWords = ((BitmapChunk) other).words;
+				resultSize = 0;
+				for (int i = 0; i < BITMAP_WORDS; i++) {
+					result[i] &= ~otherWords[i];
+					resultSize += Long.bitCount(result[i]);
+				}
+			}
+			return normalize(result, resultSize);
+		}
+
+		@Override
+		Chunk copy() {
+			return new BitmapChunk(Arrays.copyOf(words, BITMAP_WORDS), size);
+		}
+
+		@Override
+		ChunkIterator iterator() {
+			return new ChunkIterator() {
+
+				private int wordIndex = 0;
+				private long word = words[0];
+
+				@Override
+				public boolean hasNext() {
+					while (word == 0 && wordIndex < BITMAP_WORDS - 1) {
+						word = words[++wordIndex];
+					}
+					return word != 0;
+				}
+
+				@Override
+				public char next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					final int bit = Long.numberOfTrailingZeros(word);
+					word &= word - 1;
+					return (char) ((wordIndex << 6) + bit);
+				}
+			};
+		}
+
+		void set(char value) {
+			final int index = value >>> 6;
+			final long word = words[index];
+			final long updated = word | (1L << value);
+			if (word != updated) {
+				words[index] = updated;
+				size++;
+			}
+		}
+
+		private ArrayChunk toArrayChunk() {
+			final char[] values = new char[size];
+			final ChunkIterator itr = iterator();
+			int i = 0;
+			while (itr.hasNext()) {
+				values[i++] = itr.next();
+			}
+			return new ArrayChunk(values, size);
+		}
+
+		private static Chunk normalize(long[] words, int size) {
+			final BitmapChunk result = new BitmapChunk(words, size);
+			return size <= ARRAY_MAX_SIZE ? result.toArrayChunk() : result;
+		}
+
+	}
+
+}
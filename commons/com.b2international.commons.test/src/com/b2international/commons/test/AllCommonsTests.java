@@ -23,6 +23,7 @@ import com.b2international.commons.test.collect.BitSetTest;
 import com.b2international.commons.test.collect.ByteOpenHashSetTest;
 import com.b2international.commons.test.collect.EmptyLongListTest;
 import com.b2international.commons.test.collect.IntOpenHashSetTest;
+import com.b2international.commons.test.collect.LongBitmapSetTest;
 import com.b2international.commons.test.collect.LongOpenHashSetTest;
 import com.b2international.commons.test.config.ConfigurationFactoryTest;
 
@@ -39,6 +40,7 @@ import com.b2international.commons.test.config.ConfigurationFactoryTest;
 	ByteOpenHashSetTest.class,
 	IntOpenHashSetTest.class,
 	LongOpenHashSetTest.class,
+	LongBitmapSetTest.class,
 	EmptyLongListTest.class
 })
 public class AllCommonsTests {
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.commons.test.collect;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongBitmapSet;
+import com.b2international.collections.longs.LongIterator;
+
+/**
+ * @since 7.14
+ */
+public class LongBitmapSetTest {
+
+	@Test
+	public void create() {
+		LongBitmapSet longSet = PrimitiveSets.newLongBitmapSet();
+		assertTrue("Long set should be empty.", longSet.isEmpty());
+		assertEquals(0, longSet.size());
+	}
+
+	@Test
+	public void addAndContains() {
+		LongBitmapSet longSet = PrimitiveSets.newLongBitmapSet(138875005L, 404684003L, 138875005L, -1L);
+		assertEquals(3, longSet.size());
+		assertTrue(longSet.contains(138875005L));
+		assertTrue(longSet.contains(404684003L));
+		assertTrue(longSet.contains(-1L));
+		assertFalse(longSet.contains(1L));
+		assertFalse(longSet.add(404684003L));
+	}
+
+	@Test
+	public void iterateInAscendingOrder() {
+		LongBitmapSet longSet = PrimitiveSets.newLongBitmapSet(404684003L, -5L, 1L, 138875005L, 65536L, 65535L);
+		assertArrayEquals(new long[] { -5L, 1L, 65535L, 65536L, 138875005L, 404684003L }, longSet.toArray());
+	}
+
+	@Test
+	public void denseChunk() {
+		LongBitmapSet longSet = PrimitiveSets.newLongBitmapSet();
+		for (long i = 0; i < 10_000L; i++) {
+			longSet.add(i * 3);
+		}
+		assertEquals(10_000, longSet.size());
+
+		for (long i = 0; i < 10_000L; i += 2) {
+			assertTrue(longSet.remove(i * 3));
+		}
+		assertEquals(5_000, longSet.size());
+		assertFalse(longSet.contains(0L));
+		assertTrue(longSet.contains(3L));
+
+		LongIterator itr = longSet.iterator();
+		long expected = 3L;
+		while (itr.hasNext()) {
+			assertEquals(expected, itr.next());
+			expected += 6L;
+		}
+	}
+
+	@Test
+	public void and() {
+		LongBitmapSet left = denseAndSparse(0L, 2L);
+		LongBitmapSet right = denseAndSparse(0L, 3L);
+		LongBitmapSet result = LongBitmapSet.and(left, right);
+		for (long value : result.toArray()) {
+			assertTrue(value % 6L == 0L || value >= 100_000_000L);
+			assertTrue(left.contains(value) && right.contains(value));
+		}
+		assertEquals(countByMembership(left, right, true), result.size());
+	}
+
+	@Test
+	public void or() {
+		LongBitmapSet left = denseAndSparse(0L, 2L);
+		LongBitmapSet right = denseAndSparse(1_000_000_000L, 3L);
+		LongBitmapSet result = LongBitmapSet.or(left, right);
+		assertEquals(countByMembership(left, right, false) + right.size(), result.size());
+		assertTrue(result.containsAll(left));
+		assertTrue(result.containsAll(right));
+	}
+
+	@Test
+	public void andNot() {
+		LongBitmapSet left = denseAndSparse(0L, 2L);
+		LongBitmapSet right = denseAndSparse(0L, 3L);
+		LongBitmapSet result = LongBitmapSet.andNot(left, right);
+		assertEquals(countByMembership(left, right, false), result.size());
+		for (long value : result.toArray()) {
+			assertTrue(left.contains(value) && !right.contains(value));
+		}
+	}
+
+	@Test
+	public void retainAndRemoveAll() {
+		LongBitmapSet longSet = PrimitiveSets.newLongBitmapSet(1L, 2L, 3L, 4L);
+		assertTrue(longSet.retainAll(PrimitiveSets.newLongOpenHashSet(2L, 3L, 5L)));
+		assertArrayEquals(new long[] { 2L, 3L }, longSet.toArray());
+		assertFalse(longSet.removeAll(PrimitiveSets.newLongBitmapSet(4L)));
+		assertTrue(longSet.removeAll(PrimitiveSets.newLongBitmapSet(2L)));
+		assertArrayEquals(new long[] { 3L }, longSet.toArray());
+	}
+
+	@Test
+	public void equalsOtherLongSet() {
+		LongBitmapSet longSet = PrimitiveSets.newLongBitmapSet(1L, 2L, 65536L);
+		assertTrue(longSet.equals(PrimitiveSets.newLongOpenHashSet(65536L, 2L, 1L)));
+		assertFalse(longSet.equals(PrimitiveSets.newLongOpenHashSet(65536L, 2L)));
+	}
+
+	private static LongBitmapSet denseAndSparse(long offset, long step) {
+		LongBitmapSet longSet = PrimitiveSets.newLongBitmapSet();
+		// dense values, stored in bitmap chunks
+		for (long i = 0; i < 200_000L; i += step) {
+			longSet.add(offset + i);
+		}
+		// sparse values, stored in array chunks
+		for (long i = 0; i < 100L; i++) {
+			longSet.add(offset + 100_000_000L + i * 100_003L * step);
+		}
+		return longSet;
+	}
+
+	/*Counts the values of the left set that are (or are not) contained by the right set*/
+	private static int countByMembership(LongBitmapSet left, LongBitmapSet right, boolean containedByRight) {
+		int count = 0;
+		LongIterator itr = left.iterator();
+		while (itr.hasNext()) {
+			if (right.contains(itr.next()) == containedByRight) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.index.Fixtures.Data;
+import com.b2international.index.aggregations.Aggregation;
+import com.b2international.index.aggregations.AggregationBuilder;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.query.SortBy;
+import com.b2international.index.query.SortBy.Order;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * @since 7.14
+ */
+public class SearchAfterIteratorTest extends BaseIndexTest {
+
+	private static final int NUM_DOCS = 25;
+	private static final int PAGE_SIZE = 10;
+
+	private ExecutorService prefetchExecutor;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableList.of(Data.class);
+	}
+
+	@Before
+	public void setup() {
+		prefetchExecutor = Executors.newSingleThreadExecutor();
+
+		final Map<String, Data> docs = newHashMap();
+		for (int i = 0; i < NUM_DOCS; i++) {
+			final Data data = new Data();
+			data.setField1(field1(i));
+			docs.put(Integer.toString(i), data);
+		}
+		indexDocuments(docs);
+	}
+
+	@After
+	public void teardown() {
+		prefetchExecutor.shutdownNow();
+	}
+
+	@Test
+	public void iterateInSortOrder() throws Exception {
+		final List<String> expected = IntStream.range(0, NUM_DOCS).mapToObj(SearchAfterIteratorTest::field1).collect(Collectors.toList());
+
+		assertEquals(expected, iterate(query(Order.ASC, NUM_DOCS), null));
+		assertEquals(expected, iterate(query(Order.ASC, NUM_DOCS), prefetchExecutor));
+		assertEquals(Lists.reverse(expected), iterate(query(Order.DESC, NUM_DOCS), prefetchExecutor));
+	}
+
+	@Test
+	public void iterateUpToLimit() throws Exception {
+		final List<String> expected = IntStream.range(0, 15).mapToObj(SearchAfterIteratorTest::field1).collect(Collectors.toList());
+
+		assertEquals(expected, iterate(query(Order.ASC, 15), prefetchExecutor));
+	}
+
+	@Test
+	public void exhaustedAfterLastPage() throws Exception {
+		index().read(searcher -> {
+			final CountingSearcher countingSearcher = new CountingSearcher(searcher, -1);
+			try (SearchAfterIterator<Data> iterator = new SearchAfterIterator<>(countingSearcher, query(Order.ASC, Integer.MAX_VALUE), PAGE_SIZE, prefetchExecutor)) {
+				assertThat(iterator).hasSize(NUM_DOCS);
+				assertFalse(iterator.hasNext());
+			}
+			// the last page is smaller than the page size, so no additional request is sent after it
+			assertEquals(3, countingSearcher.searches.get());
+			return null;
+		});
+	}
+
+	@Test
+	public void exhaustedWithoutMatches() throws Exception {
+		final Query<Data> query = Query.select(Data.class)
+				.where(Expressions.exactMatch("field1", "unknown"))
+				.sortBy(SortBy.field("field1", Order.ASC))
+				.limit(Integer.MAX_VALUE)
+				.build();
+
+		assertThat(iterate(query, prefetchExecutor)).isEmpty();
+	}
+
+	@Test
+	public void prefetchErrorPropagatesToConsumer() throws Exception {
+		index().read(searcher -> {
+			// the second page is loaded by the prefetch executor
+			final CountingSearcher failingSearcher = new CountingSearcher(searcher, 2);
+			final AtomicReference<Thread> failingThread = new AtomicReference<>();
+			failingSearcher.onFailure = () -> failingThread.set(Thread.currentThread());
+
+			try (SearchAfterIterator<Data> iterator = new SearchAfterIterator<>(failingSearcher, query(Order.ASC, NUM_DOCS), PAGE_SIZE, prefetchExecutor)) {
+				for (int i = 0; i < PAGE_SIZE; i++) {
+					iterator.next();
+				}
+				iterator.next();
+				fail("Failure of the prefetched page should have been propagated");
+			} catch (IndexException e) {
+				assertThat(e.getCause()).isInstanceOf(IOException.class);
+			}
+
+			assertNotEquals(Thread.currentThread(), failingThread.get());
+			return null;
+		});
+	}
+
+	@Test
+	public void fetchOnDemandWhenPrefetchRejected() throws Exception {
+		prefetchExecutor.shutdown();
+
+		final List<String> expected = IntStream.range(0, NUM_DOCS).mapToObj(SearchAfterIteratorTest::field1).collect(Collectors.toList());
+		assertEquals(expected, iterate(query(Order.ASC, NUM_DOCS), prefetchExecutor));
+	}
+
+	private List<String> iterate(Query<Data> query, ExecutorService executor) {
+		return index().read(searcher -> {
+			try (SearchAfterIterator<Data> iterator = new SearchAfterIterator<>(searcher, query, PAGE_SIZE, executor)) {
+				return ImmutableList.copyOf(iterator)
+						.stream()
+						.map(Data::getField1)
+						.collect(Collectors.toList());
+			}
+		});
+	}
+
+	private static Query<Data> query(Order order, int limit) {
+		return Query.select(Data.class)
+				.where(Expressions.matchAll())
+				.sortBy(SortBy.field("field1", order))
+				.limit(limit)
+				.build();
+	}
+
+	private static String field1(int i) {
+		return String.format("field%02d", i);
+	}
+
+	/*Counts the executed searches and fails the nth search with an IOException*/
+	private static final class CountingSearcher implements Searcher {
+
+		private final Searcher delegate;
+		private final int failingSearch;
+		private final AtomicInteger searches = new AtomicInteger();
+		private Runnable onFailure = () -> {};
+
+		CountingSearcher(Searcher delegate, int failingSearch) {
+			this.delegate = delegate;
+			this.failingSearch = failingSearch;
+		}
+
+		@Override
+		public <T> Hits<T> search(Query<T> query) throws IOException {
+			if (searches.incrementAndGet() == failingSearch) {
+				onFailure.run();
+				throw new IOException("Failed to execute search");
+			}
+			return delegate.search(query);
+		}
+
+		@Override
+		public <T> Hits<T> scroll(Scroll<T> scroll) throws IOException {
+			return delegate.scroll(scroll);
+		}
+
+		@Override
+		public void cancelScroll(String scrollId) {
+			delegate.cancelScroll(scrollId);
+		}
+
+		@Override
+		public <T> Aggregation<T> aggregate(AggregationBuilder<T> aggregation) throws IOException {
+			return delegate.aggregate(aggregation);
+		}
+
+		@Override
+		public <T> T get(Class<T> type, String key) throws IOException {
+			return delegate.get(type, key);
+		}
+
+		@Override
+		public <T> Iterable<T> get(Class<T> type, Iterable<String> keys) throws IOException {
+			return delegate.get(type, keys);
+		}
+
+	}
+
+}
@@ -350,6 +350,32 @@ public class SortIndexTest extends BaseIndexTest {
 		checkDocumentOrder(ascendingQuery, data -> data.getField1(), ImmutableSet.copyOf(Lists.reverse(orderedItems)), String.class);
 	}
 
+	@Test
+	public void collapseByField() throws Exception {
+		final Map<String, Data> documents = newHashMap();
+		
+		for (int i = 0; i < NUM_DOCS; i++) {
+			final Data data = new Data();
+			data.setField1("field" + i);
+			data.setField2("group" + (i % 10));
+			data.setIntField(i);
+			documents.put(Integer.toString(i), data);
+		}
+		
+		indexDocuments(documents);
+		
+		final Query<Data> collapsedQuery = Query.select(Data.class)
+				.where(Expressions.matchAll())
+				.collapse("field2")
+				.limit(NUM_DOCS)
+				.sortBy(SortBy.field("intField", Order.DESC))
+				.build();
+		
+		// the top hit of each group, in sort order
+		final Set<String> expected = ImmutableSet.of("field999", "field998", "field997", "field996", "field995", "field994", "field993", "field992", "field991", "field990");
+		checkDocumentOrder(collapsedQuery, data -> data.getField1(), expected, String.class);
+	}
+
 	private <T> void checkDocumentOrder(Query<Data> query, Function<? super Data, T> hitFunction, Set<T> keySet, Class<T> clazz) {
 		final Hits<Data> hits = search(query);
 		final T[] actual = FluentIterable.from(hits).transform(hitFunction).toArray(clazz);
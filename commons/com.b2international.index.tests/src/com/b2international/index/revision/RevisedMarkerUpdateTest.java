@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.revision;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.index.BulkUpdate;
+import com.b2international.index.IndexClientFactory;
+import com.b2international.index.query.Expression;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.RevisionFixtures.RevisionData;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Verifies that revised markers are updated with the same semantics as the {@link Revision#UPDATE_REVISED} painless script: the old marker is
+ * replaced in place if present, otherwise the new marker is appended.
+ *
+ * @since 7.14
+ */
+public class RevisedMarkerUpdateTest extends BaseRevisionIndexTest {
+
+	private static final int BULK_ACTIONS_SIZE = 4;
+	private static final int NUMBER_OF_DOCUMENTS = 50;
+	private static final int NUMBER_OF_WRITERS = 4;
+	private static final long TIMEOUT = 60L;
+
+	private static final String MARKER1 = new RevisionBranchPoint(1L, 1L).toIpAddress();
+	private static final String MARKER2 = new RevisionBranchPoint(1L, 2L).toIpAddress();
+	private static final String MARKER3 = new RevisionBranchPoint(2L, 3L).toIpAddress();
+
+	private Object previousBulkActionsSize;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableList.<Class<?>>of(RevisionData.class);
+	}
+
+	@Before
+	public void setBulkActionsSize() {
+		// scroll pages and bulk requests are limited to a few documents, so updates span multiple pages
+		previousBulkActionsSize = rawIndex().admin().settings().put(IndexClientFactory.BULK_ACTIONS_SIZE, BULK_ACTIONS_SIZE);
+	}
+
+	@After
+	public void restoreBulkActionsSize() {
+		rawIndex().admin().settings().put(IndexClientFactory.BULK_ACTIONS_SIZE, previousBulkActionsSize);
+	}
+
+	@Test
+	public void appendWhenOldMarkerIsMissing() throws Exception {
+		final List<String> ids = indexDocuments(NUMBER_OF_DOCUMENTS);
+
+		updateRevised(Expressions.matchAll(), MARKER3, MARKER1);
+		updateRevised(Expressions.matchAll(), MARKER3, MARKER2);
+
+		for (String id : ids) {
+			assertThat(getRevised(id)).containsExactly(MARKER1, MARKER2);
+		}
+	}
+
+	@Test
+	public void replaceOldMarkerInPlace() throws Exception {
+		final List<String> ids = indexDocuments(NUMBER_OF_DOCUMENTS);
+
+		updateRevised(Expressions.matchAll(), MARKER3, MARKER1);
+		updateRevised(Expressions.matchAll(), MARKER3, MARKER2);
+		updateRevised(Expressions.matchAll(), MARKER1, MARKER3);
+
+		for (String id : ids) {
+			assertThat(getRevised(id)).containsExactly(MARKER3, MARKER2);
+		}
+	}
+
+	@Test
+	public void updateOnlyMatchingDocuments() throws Exception {
+		final List<String> ids = indexDocuments(NUMBER_OF_DOCUMENTS);
+		final List<String> updatedIds = ids.subList(0, NUMBER_OF_DOCUMENTS / 2);
+
+		updateRevised(Expressions.matchAny(Revision.Fields.ID, updatedIds), MARKER2, MARKER1);
+
+		for (String id : ids) {
+			if (updatedIds.contains(id)) {
+				assertThat(getRevised(id)).containsExactly(MARKER1);
+			} else {
+				assertThat(getRevised(id)).isEmpty();
+			}
+		}
+	}
+
+	@Test
+	public void concurrentUpdatesAreNotLost() throws Exception {
+		final List<String> ids = indexDocuments(NUMBER_OF_DOCUMENTS);
+		final List<String> markers = Lists.newArrayList();
+		for (int i = 0; i < NUMBER_OF_WRITERS; i++) {
+			markers.add(new RevisionBranchPoint(3L, i).toIpAddress());
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_WRITERS);
+		try {
+			final CountDownLatch start = new CountDownLatch(1);
+			final List<Future<?>> futures = Lists.newArrayList();
+			for (String marker : markers) {
+				futures.add(executor.submit(() -> {
+					Uninterruptibles.awaitUninterruptibly(start);
+					// documents changed after they have been fetched by another writer fail on their sequence number and are updated again
+					updateRevised(Expressions.matchAll(), MARKER1, marker);
+				}));
+			}
+
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(TIMEOUT, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		for (String id : ids) {
+			assertThat(getRevised(id)).containsOnlyElementsOf(markers).hasSize(NUMBER_OF_WRITERS);
+		}
+	}
+
+	@Test
+	public void commitReplacesRevisedMarkerOfChangedRevision() throws Exception {
+		final RevisionData first = new RevisionData(STORAGE_KEY1, "field1", "field2");
+		indexRevision(MAIN, first);
+		final RevisionData second = new RevisionData(STORAGE_KEY1, "field1Changed", "field2");
+		indexChange(MAIN, first, second);
+
+		final List<Map> documents = getDocuments(STORAGE_KEY1);
+		assertEquals(2, documents.size());
+
+		final Map<?, ?> oldDocument = documents.stream().filter(doc -> "field1".equals(doc.get("field1"))).findFirst().get();
+		final Map<?, ?> newDocument = documents.stream().filter(doc -> "field1Changed".equals(doc.get("field1"))).findFirst().get();
+
+		// the old revision is revised at the point where the new one was created
+		assertThat((List<?>) oldDocument.get(Revision.Fields.REVISED)).containsExactly(newDocument.get(Revision.Fields.CREATED));
+		assertThat((List<?>) newDocument.get(Revision.Fields.REVISED)).isEmpty();
+	}
+
+	private List<String> indexDocuments(final int numberOfDocuments) {
+		final List<String> ids = Lists.newArrayList();
+		rawIndex().write(writer -> {
+			for (int i = 0; i < numberOfDocuments; i++) {
+				final String id = nextId();
+				writer.put(id, new RevisionData(id, "field1", "field2"));
+				ids.add(id);
+			}
+			writer.commit();
+			return null;
+		});
+		return ids;
+	}
+
+	private void updateRevised(final Expression filter, final String oldRevised, final String newRevised) {
+		rawIndex().write(writer -> {
+			writer.bulkUpdate(new BulkUpdate<>(RevisionData.class, filter, Revision.UPDATE_REVISED, ImmutableMap.of("oldRevised", oldRevised, "newRevised", newRevised)));
+			writer.commit();
+			return null;
+		});
+	}
+
+	private List<?> getRevised(final String id) {
+		final List<Map> documents = getDocuments(id);
+		assertEquals(1, documents.size());
+		return (List<?>) documents.get(0).get(Revision.Fields.REVISED);
+	}
+
+	private List<Map> getDocuments(final String id) {
+		return searchRaw(Query.select(Map.class)
+				.from(RevisionData.class)
+				.where(Expressions.exactMatch(Revision.Fields.ID, id))
+				.limit(Integer.MAX_VALUE)
+				.build())
+				.getHits();
+	}
+
+}
@@ -229,6 +229,55 @@ public class RevisionBranchTest {
 				.build();
 	}
 
+	@Test
+	public void differenceAndIntersectionKeepMergeableSegments() throws Exception {
+		// the first two segments of the left branch could be merged into one, but the matching segments of the right branch can not
+		RevisionBranch left = segmentBranch(
+				new RevisionSegment(0, 100, 150), 
+				new RevisionSegment(0, 151, 200), 
+				new RevisionSegment(1, 201, 250));
+		RevisionBranch right = segmentBranch(
+				new RevisionSegment(0, 100, 150), 
+				new RevisionSegment(0, 160, 180), 
+				new RevisionSegment(1, 201, 220));
+		
+		assertEquals(left.getSegments(), left.ref().segments());
+		
+		RevisionBranchRef leftDiff = left.difference(right);
+		RevisionBranchRef intersection = left.intersection(right);
+		
+		assertThat(leftDiff.segments())
+			.contains(new RevisionSegment(1, 221, 250))
+			.doesNotContain(new RevisionSegment(1, 201, 250));
+		assertThat(intersection.segments())
+			.contains(new RevisionSegment(1, 201, 220));
+	}
+	
+	@Test
+	public void revisionFilterCompactsMergeableSegments() throws Exception {
+		RevisionBranch branch = segmentBranch(
+				new RevisionSegment(0, 100, 150), 
+				new RevisionSegment(0, 151, 200), 
+				new RevisionSegment(1, 201, 250));
+		
+		RevisionBranchRef compacted = new RevisionBranchRef(branch.getId(), branch.getPath(), ImmutableSortedSet.of(
+				new RevisionSegment(0, 100, 200), 
+				new RevisionSegment(1, 201, 250)));
+		
+		assertEquals(compacted.toRevisionFilter(), branch.ref().toRevisionFilter());
+	}
+	
+	private RevisionBranch segmentBranch(RevisionSegment...segments) {
+		return RevisionBranch.builder()
+				.id(1)
+				.deleted(false)
+				.parentPath(main.getPath())
+				.name("segments")
+				.segments(ImmutableSortedSet.copyOf(segments))
+				.mergeSources(Collections.emptyList())
+				.build();
+	}
+	
 	private RevisionBranch commit(RevisionBranch branch, long timestamp) {
 		return commit(branch, null, timestamp);
 	}
@@ -72,6 +72,21 @@ public class RevisionBranchingTest extends BaseRevisionIndexTest {
 		assertThat(main.getBaseTimestamp()).isEqualTo(main.getHeadTimestamp());
 		assertThat(branching().getBranchState(MAIN)).isEqualTo(BranchState.UP_TO_DATE);
 	}
+	
+	@Test
+	public void branchPathById() throws Exception {
+		final String branchA = createBranch(MAIN, "a");
+		final long branchAId = getBranch(branchA).getId();
+		assertThat(branching().getBranchPath(branchAId)).isEqualTo(branchA);
+		assertThat(branching().getBranchPaths(ImmutableList.of(getMainBranch().getId(), branchAId)))
+			.containsEntry(getMainBranch().getId(), MAIN)
+			.containsEntry(branchAId, branchA);
+	}
+	
+	@Test(expected = NotFoundException.class)
+	public void branchPathByUnknownId() throws Exception {
+		branching().getBranchPath(Long.MAX_VALUE);
+	}
 
 	@Test
 	public void commitUpdatesHeadTimestamp() throws Exception {
@@ -176,6 +176,19 @@ public class RevisionCompareTest extends BaseRevisionIndexTest {
 		assertThat(compare.getTotalRemoved()).isEqualTo(0);
 	}
 	
+	@Test
+	public void compareBranchTotalsOverLimit() throws Exception {
+		final String branch = createBranch(MAIN, "a");
+		indexRevision(branch, new RevisionData(STORAGE_KEY1, "field1", "field2"), new RevisionData(STORAGE_KEY2, "field1", "field2"));
+		indexRevision(branch, new RevisionData(nextId(), "field1", "field2"));
+		
+		final RevisionCompare compare = index().compare(MAIN, branch, 1);
+		assertThat(compare.getDetails()).hasSize(1);
+		assertThat(compare.getTotalAdded()).isEqualTo(3);
+		assertThat(compare.getTotalChanged()).isEqualTo(0);
+		assertThat(compare.getTotalRemoved()).isEqualTo(0);
+	}
+	
 	@Test
 	public void compareBranchWithRevertedChanges() throws Exception {
 		RevisionData rev1 = new RevisionData(STORAGE_KEY1, "field1", "field2");
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.revision;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.b2international.index.mapping.DocumentMapping;
+import com.b2international.index.revision.RevisionFixtures.RevisionData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Micro benchmark comparing the field based revision diff with the JSON tree based diff, run it as a Java application. Each round diffs the
+ * same set of revision pairs, where one third of the pairs has no changes, one third changes an untracked field only and one third changes a
+ * tracked scalar and a tracked collection field.
+ *
+ * @since 7.14
+ */
+public class RevisionDiffBenchmark {
+
+	private static final int NUMBER_OF_PAIRS = 10_000;
+	private static final int WARMUP_ROUNDS = 10;
+	private static final int MEASUREMENT_ROUNDS = 20;
+
+	public static void main(String[] args) {
+		final ObjectMapper mapper = new ObjectMapper();
+		final DocumentMapping mapping = new DocumentMapping(RevisionData.class);
+		final RevisionDiffer differ = RevisionDiffer.get(mapping);
+		final List<String> terms = IntStream.range(0, 20).mapToObj(i -> "term" + i).collect(Collectors.toList());
+
+		final RevisionData[] oldRevisions = new RevisionData[NUMBER_OF_PAIRS];
+		final RevisionData[] newRevisions = new RevisionData[NUMBER_OF_PAIRS];
+		for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+			final String id = Integer.toString(i);
+			oldRevisions[i] = new RevisionData(id, "field1", "field2", terms, "derived");
+			switch (i % 3) {
+			case 0:
+				newRevisions[i] = new RevisionData(id, "field1", "field2", List.copyOf(terms), "derived");
+				break;
+			case 1:
+				newRevisions[i] = new RevisionData(id, "field1", "field2", List.copyOf(terms), "derivedChanged");
+				break;
+			default:
+				newRevisions[i] = new RevisionData(id, "field1Changed", "field2", terms.subList(1, terms.size()), "derived");
+				break;
+			}
+		}
+
+		final Runnable jsonDiff = () -> {
+			for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+				RevisionDiffer.jsonDiff(mapper, mapping, oldRevisions[i], newRevisions[i]);
+			}
+		};
+		final Runnable fieldDiff = () -> {
+			for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+				if (differ.hasChanges(mapper, oldRevisions[i], newRevisions[i])) {
+					differ.diff(mapper, oldRevisions[i], newRevisions[i]);
+				}
+			}
+		};
+
+		System.out.println(String.format("JSON tree diff: %.3f ms/round", measure(jsonDiff)));
+		System.out.println(String.format("Field diff: %.3f ms/round", measure(fieldDiff)));
+	}
+
+	private static double measure(Runnable round) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			round.run();
+		}
+		final long start = System.nanoTime();
+		for (int i = 0; i < MEASUREMENT_ROUNDS; i++) {
+			round.run();
+		}
+		return (double) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / 1000 / MEASUREMENT_ROUNDS;
+	}
+
+}
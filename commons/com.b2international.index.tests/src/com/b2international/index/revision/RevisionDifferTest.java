@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.revision;
+
+import static com.b2international.index.revision.RevisionFixtures.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.b2international.index.Fixtures.Data;
+import com.b2international.index.mapping.DocumentMapping;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+/**
+ * @since 7.14
+ */
+public class RevisionDifferTest {
+
+	private static final String STORAGE_KEY1 = "1";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	public void noChanges() throws Exception {
+		RevisionData oldRevision = new RevisionData(STORAGE_KEY1, "field1", "field2", List.of("a", "b"), null);
+		RevisionData newRevision = new RevisionData(STORAGE_KEY1, "field1", "field2", List.of("a", "b"), null);
+		assertSameDiff(mapper, oldRevision, newRevision);
+		assertFalse(differ(RevisionData.class).hasChanges(mapper, oldRevision, newRevision));
+	}
+
+	@Test
+	public void untrackedFieldChange() throws Exception {
+		RevisionData oldRevision = new RevisionData(STORAGE_KEY1, "field1", "field2", null, "derived");
+		RevisionData newRevision = new RevisionData(STORAGE_KEY1, "field1", "field2", null, "derivedChanged");
+		assertSameDiff(mapper, oldRevision, newRevision);
+		assertTrue(differ(RevisionData.class).hasChanges(mapper, oldRevision, newRevision));
+		assertEquals(0, differ(RevisionData.class).diff(mapper, oldRevision, newRevision).size());
+	}
+
+	@Test
+	public void scalarAndCollectionChange() throws Exception {
+		RevisionData oldRevision = new RevisionData(STORAGE_KEY1, "field1", "field2", List.of("a", "b"), null);
+		RevisionData newRevision = new RevisionData(STORAGE_KEY1, "field1Changed", "field2", List.of("b", "c", "d"), null);
+		assertSameDiff(mapper, oldRevision, newRevision);
+		assertEquals(2, differ(RevisionData.class).diff(mapper, oldRevision, newRevision).size());
+	}
+
+	@Test
+	public void addAndRemoveWithNullsOmitted() throws Exception {
+		final ObjectMapper mapper = new ObjectMapper();
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		RevisionData oldRevision = new RevisionData(STORAGE_KEY1, "field1", null, null, null);
+		RevisionData newRevision = new RevisionData(STORAGE_KEY1, null, "field2", List.of("a"), null);
+		assertSameDiff(mapper, oldRevision, newRevision);
+		assertEquals(3, differ(RevisionData.class).diff(mapper, oldRevision, newRevision).size());
+	}
+
+	@Test
+	public void objectArrayWithoutEquals() throws Exception {
+		ObjectArrayPropertyData oldRevision = new ObjectArrayPropertyData(STORAGE_KEY1, List.of(new ObjectArrayPropertyItem("a", "b")));
+		ObjectArrayPropertyData sameRevision = new ObjectArrayPropertyData(STORAGE_KEY1, List.of(new ObjectArrayPropertyItem("a", "b")));
+		ObjectArrayPropertyData newRevision = new ObjectArrayPropertyData(STORAGE_KEY1, List.of(new ObjectArrayPropertyItem("a", "c")));
+		assertFalse(differ(ObjectArrayPropertyData.class).hasChanges(mapper, oldRevision, sameRevision));
+		assertTrue(differ(ObjectArrayPropertyData.class).hasChanges(mapper, oldRevision, newRevision));
+		assertSameDiff(mapper, oldRevision, newRevision);
+	}
+
+	@Test
+	public void nestedObjectChange() throws Exception {
+		final Data oldData = new Data();
+		oldData.setField1("field1");
+		oldData.setLongField(1L);
+		final Data newData = new Data();
+		newData.setField1("field1Changed");
+		newData.setLongField(2L);
+		NestedRevisionData oldRevision = new NestedRevisionData(STORAGE_KEY1, "parent", oldData);
+		NestedRevisionData newRevision = new NestedRevisionData(STORAGE_KEY1, "parent", newData);
+		assertSameDiff(mapper, oldRevision, newRevision);
+		assertEquals(2, differ(NestedRevisionData.class).diff(mapper, oldRevision, newRevision).size());
+	}
+
+	private static RevisionDiffer differ(Class<? extends Revision> type) {
+		return RevisionDiffer.get(new DocumentMapping(type));
+	}
+
+	private static void assertSameDiff(ObjectMapper mapper, Revision oldRevision, Revision newRevision) {
+		final DocumentMapping mapping = new DocumentMapping(oldRevision.getClass());
+		final Set<JsonNode> expected = Sets.newHashSet();
+		for (JsonNode change : RevisionDiffer.jsonDiff(mapper, mapping, oldRevision, newRevision)) {
+			final String path = change.get("path").asText();
+			final String property = path.substring(1).split("/")[0];
+			if (mapping.getRevisionFields().contains(property)) {
+				expected.add(change);
+			}
+		}
+		// patch operations are compared regardless of their order
+		assertEquals(expected, ImmutableSet.copyOf(differ(oldRevision.getClass()).diff(mapper, oldRevision, newRevision)));
+	}
+
+}
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertNotNull;
 
 import java.util.Collection;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -148,4 +149,74 @@ public class RevisionPurgeTest extends BaseRevisionIndexTest {
 		assertEquals(2, revisionsInSegment2);
 	}
 	
+	@Test
+	public void purgeAllRemovesRevisedRevisionsOfBranchOnly() throws Exception {
+		final String branchA = createBranch(MAIN, "a");
+		final String branchB = createBranch(MAIN, "b");
+		changeTwice(branchA, STORAGE_KEY1);
+		changeTwice(branchB, STORAGE_KEY2);
+		
+		index().purge(branchA, Purge.ALL, new NullProgressMonitor());
+		
+		// only the latest revision remains on the purged branch
+		assertEquals(1, countRevisions(STORAGE_KEY1));
+		assertDocEquals(new RevisionData(STORAGE_KEY1, "field1Latest", "field2"), getRevision(branchA, RevisionData.class, STORAGE_KEY1));
+		// revisions of the unrelated branch are untouched
+		assertEquals(3, countRevisions(STORAGE_KEY2));
+		assertDocEquals(new RevisionData(STORAGE_KEY2, "field1Latest", "field2"), getRevision(branchB, RevisionData.class, STORAGE_KEY2));
+	}
+	
+	@Test
+	public void purgeHistoryKeepsLatestSegment() throws Exception {
+		changeTwice(MAIN, STORAGE_KEY1);
+		final String branchA = createBranch(MAIN, "a");
+		final String branchB = createBranch(MAIN, "b");
+		changeTwice(branchA, STORAGE_KEY2);
+		changeTwice(branchB, "3");
+		
+		index().purge(branchA, Purge.HISTORY, new NullProgressMonitor());
+		
+		// revisions revised in the parent segment are purged
+		assertEquals(1, countRevisions(STORAGE_KEY1));
+		assertDocEquals(new RevisionData(STORAGE_KEY1, "field1Latest", "field2"), getRevision(MAIN, RevisionData.class, STORAGE_KEY1));
+		// revisions of the branch's own (latest) segment and the unrelated branch are untouched
+		assertEquals(3, countRevisions(STORAGE_KEY2));
+		assertEquals(3, countRevisions("3"));
+	}
+	
+	@Test
+	public void purgeLatestKeepsHistorySegments() throws Exception {
+		changeTwice(MAIN, STORAGE_KEY1);
+		final String branchA = createBranch(MAIN, "a");
+		final String branchB = createBranch(MAIN, "b");
+		changeTwice(branchA, STORAGE_KEY2);
+		changeTwice(branchB, "3");
+		
+		index().purge(branchA, Purge.LATEST, new NullProgressMonitor());
+		
+		// revisions revised in the branch's own segment are purged
+		assertEquals(1, countRevisions(STORAGE_KEY2));
+		assertDocEquals(new RevisionData(STORAGE_KEY2, "field1Latest", "field2"), getRevision(branchA, RevisionData.class, STORAGE_KEY2));
+		// revisions of the parent segment and the unrelated branch are untouched
+		assertEquals(3, countRevisions(STORAGE_KEY1));
+		assertEquals(3, countRevisions("3"));
+	}
+	
+	private void changeTwice(String branchPath, String key) {
+		final RevisionData rev1 = new RevisionData(key, "field1", "field2");
+		final RevisionData rev2 = new RevisionData(key, "field1Changed", "field2");
+		final RevisionData rev3 = new RevisionData(key, "field1Latest", "field2");
+		indexRevision(branchPath, rev1);
+		indexChange(branchPath, rev1, rev2);
+		indexChange(branchPath, rev2, rev3);
+	}
+	
+	private int countRevisions(String key) {
+		return searchRaw(Query.select(RevisionData.class)
+				.where(Expressions.exactMatch(Revision.Fields.ID, key))
+				.limit(0)
+				.build())
+				.getTotal();
+	}
+	
 }
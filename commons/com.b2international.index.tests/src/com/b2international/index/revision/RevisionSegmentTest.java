@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.revision;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSortedSet;
+
+/**
+ * @since 7.14
+ */
+public class RevisionSegmentTest {
+
+	@Test
+	public void compactOverlappingSegments() throws Exception {
+		assertThat(RevisionSegment.compact(ImmutableSortedSet.of(
+				new RevisionSegment(1, 0, 100),
+				new RevisionSegment(1, 50, 80),
+				new RevisionSegment(1, 90, 200)
+		))).containsOnly(new RevisionSegment(1, 0, 200));
+	}
+
+	@Test
+	public void compactAdjacentSegments() throws Exception {
+		assertThat(RevisionSegment.compact(ImmutableSortedSet.of(
+				new RevisionSegment(1, 0, 100),
+				new RevisionSegment(1, 101, 200)
+		))).containsOnly(new RevisionSegment(1, 0, 200));
+	}
+
+	@Test
+	public void compactKeepsDisjointSegments() throws Exception {
+		assertThat(RevisionSegment.compact(ImmutableSortedSet.of(
+				new RevisionSegment(1, 0, 100),
+				new RevisionSegment(1, 102, 200),
+				new RevisionSegment(2, 201, 300)
+		))).containsOnly(
+				new RevisionSegment(1, 0, 100),
+				new RevisionSegment(1, 102, 200),
+				new RevisionSegment(2, 201, 300)
+		);
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.revision;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.index.IndexClientFactory;
+import com.b2international.index.es.admin.EsIndexAdmin;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.RevisionFixtures.RevisionData;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Staged revisions are kept in their serialized form until the writer is committed, and are sent to the index in multiple bulk requests.
+ * 
+ * @since 7.14
+ */
+public class RevisionStreamingTest extends BaseRevisionIndexTest {
+
+	private static final int BULK_ACTIONS_SIZE = 4;
+	private static final int NUMBER_OF_REVISIONS = 10;
+
+	private Object previousBulkActionsSize;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableList.<Class<?>>of(RevisionData.class);
+	}
+
+	@Before
+	public void setBulkActionsSize() {
+		// bulk requests are limited to a few revisions, so a commit is sent in multiple requests
+		previousBulkActionsSize = rawIndex().admin().settings().put(IndexClientFactory.BULK_ACTIONS_SIZE, BULK_ACTIONS_SIZE);
+	}
+
+	@After
+	public void restoreBulkActionsSize() {
+		rawIndex().admin().settings().put(IndexClientFactory.BULK_ACTIONS_SIZE, previousBulkActionsSize);
+	}
+
+	@Test
+	public void commitMoreRevisionsThanBulkActionsSize() throws Exception {
+		final RevisionData[] revisions = new RevisionData[NUMBER_OF_REVISIONS];
+		for (int i = 0; i < NUMBER_OF_REVISIONS; i++) {
+			revisions[i] = new RevisionData(nextId(), "field1", "field2");
+		}
+
+		indexRevision(MAIN, revisions);
+
+		assertEquals(NUMBER_OF_REVISIONS, countOnMain());
+		assertEquals(NUMBER_OF_REVISIONS, countInIndex());
+	}
+
+	@Test
+	public void revisionsAreNotSentBeforeCommit() throws Exception {
+		revisionIndex().write(MAIN, currentTime(), writer -> {
+			for (int i = 0; i < NUMBER_OF_REVISIONS; i++) {
+				final String id = nextId();
+				writer.put(id, new RevisionData(id, "field1", "field2"));
+			}
+
+			// a commit interrupted at this point must not leave revisions in the index, which would become visible with the next commit
+			assertEquals(0, countInIndex());
+
+			writer.commit();
+			return null;
+		});
+
+		assertEquals(NUMBER_OF_REVISIONS, countInIndex());
+		assertEquals(NUMBER_OF_REVISIONS, countOnMain());
+	}
+
+	@Test
+	public void failedWriteLeavesNoRevisions() throws Exception {
+		try {
+			revisionIndex().write(MAIN, currentTime(), writer -> {
+				for (int i = 0; i < NUMBER_OF_REVISIONS; i++) {
+					final String id = nextId();
+					writer.put(id, new RevisionData(id, "field1", "field2"));
+				}
+
+				throw new IllegalStateException("Failed to prepare commit");
+			});
+			fail("Write should have failed");
+		} catch (IllegalStateException expected) {
+			// expected
+		}
+
+		assertEquals(0, countInIndex());
+	}
+
+	@Test
+	public void documentsAreSerializedOnCallingThreadWhenPut() throws Exception {
+		final SerializationProbe probe = new SerializationProbe();
+
+		rawIndex().write(writer -> {
+			writer.put(nextId(), probe);
+
+			// serialization does not wait for the commit, so later changes to the object cannot affect the written document
+			assertEquals(Thread.currentThread(), probe.serializingThread);
+			return null;
+		});
+	}
+
+	private DefaultRevisionIndex revisionIndex() {
+		return (DefaultRevisionIndex) index();
+	}
+
+	private int countOnMain() {
+		return search(MAIN, Query.select(RevisionData.class)
+				.where(Expressions.matchAll())
+				.limit(0)
+				.build())
+				.getTotal();
+	}
+
+	private int countInIndex() {
+		((EsIndexAdmin) rawIndex().admin()).refresh(Collections.singleton(rawIndex().admin().mappings().getMapping(RevisionData.class)));
+		return searchRaw(Query.select(RevisionData.class)
+				.where(Expressions.matchAll())
+				.limit(0)
+				.build())
+				.getTotal();
+	}
+
+	public static final class SerializationProbe {
+
+		@JsonIgnore
+		private volatile Thread serializingThread;
+
+		@JsonProperty
+		public String getValue() {
+			serializingThread = Thread.currentThread();
+			return "value";
+		}
+	}
+
+}
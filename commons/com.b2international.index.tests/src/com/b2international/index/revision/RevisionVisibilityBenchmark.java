@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.revision;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.b2international.commons.options.MetadataImpl;
+import com.b2international.index.DefaultIndex;
+import com.b2international.index.Indexes;
+import com.b2international.index.mapping.Mappings;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.RevisionFixtures.RevisionData;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmark measuring revision query latency as a function of the branch depth, run it as a Java application. Each level of the branch
+ * hierarchy receives a number of revisions and merges from task branches, and is rebased once, to grow the number of segments visible from
+ * the deeper branches, then the same query is run on each level.
+ *
+ * @since 7.14
+ */
+public class RevisionVisibilityBenchmark {
+
+	private static final String USER_ID = "benchmark";
+	private static final int MAX_DEPTH = 6;
+	private static final int REVISIONS_PER_LEVEL = 1_000;
+	private static final int TASKS_PER_LEVEL = 5;
+	private static final int WARMUP_QUERIES = 50;
+	private static final int MEASUREMENT_QUERIES = 200;
+
+	public static void main(String[] args) {
+		final ObjectMapper mapper = new ObjectMapper();
+		mapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+		final DefaultIndex rawIndex = new DefaultIndex(Indexes.createIndexClient(UUID.randomUUID().toString(), mapper, new Mappings(RevisionData.class)));
+		final DefaultRevisionIndex index = new DefaultRevisionIndex(rawIndex, new TimestampProvider.Default(), mapper);
+		index.admin().create();
+		try {
+			final String[] paths = new String[MAX_DEPTH + 1];
+			paths[0] = RevisionBranch.MAIN_PATH;
+			int nextId = 0;
+			nextId = populate(index, paths[0], nextId);
+			for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+				paths[depth] = index.branching().createBranch(paths[depth - 1], "level" + depth, new MetadataImpl());
+				nextId = populate(index, paths[depth], nextId);
+			}
+
+			for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+				// rebase each level on the (possibly rebased) parent after all levels have been populated
+				index.branching().prepareMerge(paths[depth - 1], paths[depth]).merge();
+			}
+
+			for (int depth = 0; depth <= MAX_DEPTH; depth++) {
+				final int segments = index.branching().getBranch(paths[depth]).ref().segments().size();
+				System.out.println(String.format("Depth %d (%d segments): %.3f ms/query", depth, segments, measure(index, paths[depth])));
+			}
+		} finally {
+			index.admin().delete();
+			index.admin().close();
+		}
+	}
+
+	private static int populate(RevisionIndex index, String path, int nextId) {
+		final StagingArea staging = index.prepareCommit(path);
+		for (int i = 0; i < REVISIONS_PER_LEVEL; i++) {
+			final String id = Integer.toString(nextId++);
+			staging.stageNew(id, new RevisionData(id, "field1", "field2"));
+		}
+		staging.commit(index.branching().currentTime(), USER_ID, "Populate " + path);
+
+		for (int task = 0; task < TASKS_PER_LEVEL; task++) {
+			final String taskPath = index.branching().createBranch(path, "task" + task, new MetadataImpl());
+			final String id = Integer.toString(nextId++);
+			index.prepareCommit(taskPath)
+				.stageNew(id, new RevisionData(id, "field1", "field2"))
+				.commit(index.branching().currentTime(), USER_ID, "Task commit");
+			index.branching().prepareMerge(taskPath, path).merge();
+		}
+		return nextId;
+	}
+
+	private static double measure(RevisionIndex index, String path) {
+		final Query<RevisionData> query = Query.select(RevisionData.class)
+				.where(Expressions.matchAll())
+				.limit(100)
+				.build();
+		for (int i = 0; i < WARMUP_QUERIES; i++) {
+			index.read(path, searcher -> searcher.search(query));
+		}
+		final long start = System.nanoTime();
+		for (int i = 0; i < MEASUREMENT_QUERIES; i++) {
+			index.read(path, searcher -> searcher.search(query));
+		}
+		return (double) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / 1000 / MEASUREMENT_QUERIES;
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.b2international.index.query.Query;
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+
+/**
+ * Iterates over all matches of a query (up to the query's limit) by fetching the results page-by-page via the search after API. When a
+ * prefetch executor is given, the next page is fetched on it while the current page is consumed, so at most two pages of converted hits are
+ * kept in memory at any given time. The executor is owned by the caller, the iterator submits at most one task to it at any given time.
+ *
+ * @since 7.14
+ * @param <T> - the type of the returned documents
+ */
+public final class SearchAfterIterator<T> extends AbstractIterator<T> implements AutoCloseable {
+
+	/**
+	 * The default number of hits to fetch in a single page (equal to the default maximum result window).
+	 */
+	public static final int DEFAULT_PAGE_SIZE = IndexClientFactory.DEFAULT_RESULT_WINDOW;
+
+	private final Searcher searcher;
+	private final Query<T> query;
+	private final int pageSize;
+	private final Executor prefetchExecutor;
+
+	private int remaining;
+	private String searchAfter;
+	private boolean lastPage;
+	private Iterator<T> currentPage;
+	private CompletableFuture<Hits<T>> nextPage;
+
+	public SearchAfterIterator(Searcher searcher, Query<T> query, int pageSize) {
+		this(searcher, query, pageSize, null);
+	}
+
+	/**
+	 * @param searcher
+	 * @param query
+	 * @param pageSize - the number of hits to fetch in a single page
+	 * @param prefetchExecutor - the executor to fetch the next page on while the current one is consumed, or <code>null</code> if pages
+	 *            should be fetched on demand only
+	 */
+	public SearchAfterIterator(Searcher searcher, Query<T> query, int pageSize, Executor prefetchExecutor) {
+		checkArgument(pageSize > 0, "Page size must be greater than zero, was: %s", pageSize);
+		checkArgument(Strings.isNullOrEmpty(query.getScrollKeepAlive()), "Scroll keep alive cannot be specified when iterating via search after.");
+		this.searcher = searcher;
+		this.query = query;
+		this.pageSize = pageSize;
+		this.prefetchExecutor = prefetchExecutor;
+		this.remaining = query.getLimit();
+		this.searchAfter = query.getSearchAfter();
+	}
+
+	@Override
+	protected T computeNext() {
+		while (currentPage == null || !currentPage.hasNext()) {
+			if (lastPage || remaining <= 0) {
+				return endOfData();
+			}
+
+			final Hits<T> hits = nextPage();
+			currentPage = hits.iterator();
+			remaining -= hits.getHits().size();
+			searchAfter = hits.getSearchAfter();
+			// a page smaller than requested is always the last one
+			lastPage = hits.getHits().size() < hits.getLimit() || searchAfter == null;
+
+			if (prefetchExecutor != null && !lastPage && remaining > 0) {
+				final String prefetchFrom = searchAfter;
+				final int prefetchSize = Math.min(pageSize, remaining);
+				try {
+					nextPage = CompletableFuture.supplyAsync(() -> fetch(prefetchFrom, prefetchSize), prefetchExecutor);
+				} catch (RejectedExecutionException e) {
+					// the executor is saturated, the next page will be fetched on demand
+				}
+			}
+		}
+		return currentPage.next();
+	}
+
+	private Hits<T> nextPage() {
+		if (nextPage == null) {
+			return fetch(searchAfter, Math.min(pageSize, remaining));
+		}
+
+		try {
+			return nextPage.join();
+		} catch (CompletionException e) {
+			Throwables.throwIfUnchecked(e.getCause());
+			throw new IndexException("Failed to load next page of documents", e.getCause());
+		} finally {
+			nextPage = null;
+		}
+	}
+
+	private Hits<T> fetch(String searchAfter, int limit) {
+		final Query<T> pageQuery = Query.select(query.getSelect())
+				.from(query.getFrom())
+				.parent(query.getParentType())
+				.fields(query.getFields())
+				.where(query.getWhere())
+				.sortBy(query.getSortBy())
+				.withScores(query.isWithScores())
+				.searchAfter(searchAfter)
+				.limit(limit)
+				.build();
+		try {
+			return searcher.search(pageQuery);
+		} catch (IOException e) {
+			throw new IndexException("Failed to load next page of documents", e);
+		}
+	}
+
+	/**
+	 * Cancels the prefetch of the next page, if any.
+	 */
+	@Override
+	public void close() {
+		lastPage = true;
+		currentPage = null;
+		if (nextPage != null) {
+			nextPage.cancel(true);
+			nextPage = null;
+		}
+	}
+
+}
@@ -17,6 +17,11 @@ package com.b2international.index;
 
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.b2international.index.aggregations.Aggregation;
 import com.b2international.index.aggregations.AggregationBuilder;
@@ -102,4 +107,44 @@ public interface Searcher {
 		};
 	}
 	
+	/**
+	 * Returns a lazily evaluated {@link Stream} of all matches of the given query, up to the query's limit. Matches are fetched page-by-page
+	 * on demand using the search after API with the {@link SearchAfterIterator#DEFAULT_PAGE_SIZE default page size}, so the memory required to
+	 * process the matches does not depend on the number of matches. The stream should be closed if it is not consumed completely.
+	 * 
+	 * @param query
+	 * @return
+	 * @see #stream(Query, int)
+	 */
+	default <T> Stream<T> stream(Query<T> query) {
+		return stream(query, SearchAfterIterator.DEFAULT_PAGE_SIZE);
+	}
+	
+	/**
+	 * Returns a lazily evaluated {@link Stream} of all matches of the given query, up to the query's limit, fetched in pages of the given size.
+	 * 
+	 * @param query
+	 * @param pageSize - the number of matches to fetch in a single request
+	 * @return
+	 */
+	default <T> Stream<T> stream(Query<T> query, int pageSize) {
+		return stream(query, pageSize, null);
+	}
+	
+	/**
+	 * Returns a lazily evaluated {@link Stream} of all matches of the given query, up to the query's limit, fetched in pages of the given size.
+	 * The next page is fetched on the given executor while the current one is consumed.
+	 * 
+	 * @param query
+	 * @param pageSize - the number of matches to fetch in a single request
+	 * @param prefetchExecutor - the executor to prefetch the next page on, or <code>null</code> to fetch pages on demand only
+	 * @return
+	 * @since 7.14
+	 */
+	default <T> Stream<T> stream(Query<T> query, int pageSize, Executor prefetchExecutor) {
+		final SearchAfterIterator<T> iterator = new SearchAfterIterator<>(this, query, pageSize, prefetchExecutor);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(iterator::close);
+	}
+	
 }
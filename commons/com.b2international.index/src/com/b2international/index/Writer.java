@@ -38,7 +38,25 @@ public interface Writer {
 	
 	void removeAll(Map<Class<?>, Set<String>> keysToRemoveByType);
 
-	void commit() throws IOException;
+	/**
+	 * Applies all pending operations and refreshes the affected indexes, so the changes are visible to subsequent searches.
+	 * 
+	 * @throws IOException
+	 */
+	default void commit() throws IOException {
+		commit(true);
+	}
+
+	/**
+	 * Applies all pending operations. When <code>refresh</code> is <code>false</code>, the changes only become visible to searches after
+	 * the next refreshing commit or the periodic refresh of the affected indexes. Use it for intermediate commits of large, write-only
+	 * batches.
+	 * 
+	 * @param refresh - whether to refresh the affected indexes after the operations have been applied
+	 * @throws IOException
+	 * @since 7.14
+	 */
+	void commit(boolean refresh) throws IOException;
 
 	Searcher searcher();
 
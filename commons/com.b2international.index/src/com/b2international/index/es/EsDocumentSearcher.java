@@ -23,11 +23,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.TotalHits.Relation;
@@ -52,6 +54,7 @@ import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilde
 import org.elasticsearch.search.aggregations.metrics.TopHits;
 import org.elasticsearch.search.aggregations.metrics.TopHitsAggregationBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.collapse.CollapseBuilder;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.search.sort.ScriptSortBuilder.ScriptSortType;
 import org.elasticsearch.search.sort.SortBuilders;
@@ -176,6 +179,13 @@ public class EsDocumentSearcher implements Searcher {
 			reqSource.searchAfter(fromSearchAfterToken(query.getSearchAfter()));
 		}
 		
+		// collapse config
+		if (!Strings.isNullOrEmpty(query.getCollapse())) {
+			checkArgument(!isLocalScroll, "Cannot collapse more number of items (%s) than the max result window (%s).", limit, resultWindow);
+			checkArgument(!isScrolled && !isLiveScrolled, "Cannot collapse scrolled queries");
+			reqSource.collapse(new CollapseBuilder(query.getCollapse()));
+		}
+		
 		// sorting config with a default sort field based on scroll config
 		addSort(mapping, reqSource, query.getSortBy(), !isScrolled && !isLocalScroll);
 		// disable explain explicitly, just in case
@@ -195,14 +205,18 @@ public class EsDocumentSearcher implements Searcher {
 		TotalHits totalHits = response.getHits().getTotalHits();
 		checkState(totalHits.relation == Relation.EQUAL_TO, "Searches should always track total hits accurately");
 		final int totalHitCount = (int) totalHits.value;
-		final ImmutableList.Builder<SearchHit> allHits = ImmutableList.builder();
+		final Class<T> select = query.getSelect();
+		final Class<?> from = query.getFrom();
+		final HitConverter<T> hitConverter = HitConverter.getConverter(mapper, select, from, fetchSource, query.getFields());
+		final ImmutableList.Builder<T> allHits = ImmutableList.builder();
 		int numDocsToFetch = Math.min(limit, totalHitCount) - response.getHits().getHits().length;
+		Object[] searchAfterSortValues;
 
 		// if the client requested all data at once and there are more data in the index
 		// throw away the first batch and perform a local scroll
 		if (isLocalScroll && numDocsToFetch > 0) {
 			// WARN the caller that this might not be the most efficient way of fetching the data, consider using SearchAfter API or explicit Scroll API
-			admin.log().warn("Returning all matches (totalHits: '{}') larger than the currently configured result_window ('{}') might not be the most efficient way of getting the data. Consider using the index pagination APIs (searchAfter or explicit scroll) instead.", totalHitCount, resultWindow);
+			admin.log().warn("Returning all matches (totalHits: '{}') larger than the currently configured result_window ('{}') might not be the most efficient way of getting the data. Consider using the index pagination APIs (searchAfter, explicit scroll or stream) instead.", totalHitCount, resultWindow);
 
 			// perform search again with a default 60s scroll enabled
 			final TimeValue scrollTime = TimeValue.timeValueSeconds(60);
@@ -215,8 +229,8 @@ public class EsDocumentSearcher implements Searcher {
 
 			// recalc if there were index changes in the middle
 			numDocsToFetch = Math.min(limit, totalHitCount) - response.getHits().getHits().length;
-			// register all hits
-			allHits.add(response.getHits().getHits());
+			// convert hits batch-by-batch, so raw search hits of only a single batch are kept in memory
+			searchAfterSortValues = convertHits(hitConverter, response.getHits().getHits(), allHits);
 
 			// then continue scroll
 			while (numDocsToFetch > 0) {
@@ -229,7 +243,7 @@ public class EsDocumentSearcher implements Searcher {
 					break;
 				}
 				numDocsToFetch -= fetchedDocs;
-				allHits.add(response.getHits().getHits());
+				searchAfterSortValues = convertHits(hitConverter, response.getHits().getHits(), allHits);
 			}
 			
 			// clear the custom local scroll
@@ -237,15 +251,18 @@ public class EsDocumentSearcher implements Searcher {
 			clearScrollRequest.addScrollId(response.getScrollId());
 			client.clearScroll(clearScrollRequest);
 		} else {
-			allHits.add(response.getHits().getHits());
+			searchAfterSortValues = convertHits(hitConverter, response.getHits().getHits(), allHits);
 		}
 
-		final Class<T> select = query.getSelect();
-		final Class<?> from = query.getFrom();
-		
-		return toHits(select, from, query.getFields(), fetchSource, limit, totalHitCount, response.getScrollId(), query.getSortBy(), allHits.build());
+		return new Hits<T>(allHits.build(), response.getScrollId(), toSearchAfterToken(searchAfterSortValues), limit, totalHitCount);
 	}
 
+	@Override
+	public <T> Stream<T> stream(Query<T> query) {
+		// use the largest page that can be fetched without falling back to a local scroll
+		return stream(query, resultWindow);
+	}
+	
 	private <T> boolean applySourceFiltering(List<String> fields, boolean isDocIdOnly, final DocumentMapping mapping, final SearchSourceBuilder reqSource) {
 		// No specific fields requested? Use _source to retrieve all of them
 		if (fields.isEmpty()) {
@@ -330,8 +347,14 @@ public class EsDocumentSearcher implements Searcher {
 			final SortBy sortBy,
 			final Iterable<SearchHit> hits) throws IOException {
 		final HitConverter<T> hitConverter = HitConverter.getConverter(mapper, select, from, fetchSource, fields);
-		Object[] searchAfterSortValues = null;
 		final ImmutableList.Builder<T> result = ImmutableList.builder();
+		final Object[] searchAfterSortValues = convertHits(hitConverter, hits, result);
+		return new Hits<T>(result.build(), scrollId, toSearchAfterToken(searchAfterSortValues), limit, totalHits);
+	}
+	
+	/*Converts and adds the given hits to the result, returns the sort values of the last hit (if any) for searchAfter*/
+	private <T> Object[] convertHits(final HitConverter<T> hitConverter, final Iterable<SearchHit> hits, final ImmutableList.Builder<T> result) throws IOException {
+		Object[] searchAfterSortValues = null;
 		for (Iterator<SearchHit> iterator = hits.iterator(); iterator.hasNext();) {
 			SearchHit hit = iterator.next();
 			// if this was the last value then collect the sort values for searchAfter
@@ -344,7 +367,11 @@ public class EsDocumentSearcher implements Searcher {
 				searchAfterSortValues = hit.getSortValues();
 			}
 		}
-		return new Hits<T>(result.build(), scrollId, toSearchAfterToken(searchAfterSortValues), limit, totalHits);
+		return searchAfterSortValues;
+	}
+	
+	private <T> Object[] convertHits(final HitConverter<T> hitConverter, final SearchHit[] hits, final ImmutableList.Builder<T> result) throws IOException {
+		return convertHits(hitConverter, Arrays.asList(hits), result);
 	}
 	
 	private String toSearchAfterToken(final Object[] searchAfter) {
@@ -20,6 +20,7 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -47,10 +48,11 @@ import com.b2international.index.IndexException;
 import com.b2international.index.Searcher;
 import com.b2international.index.Writer;
 import com.b2international.index.es.admin.EsIndexAdmin;
-import com.b2international.index.es.client.EsClient;
 import com.b2international.index.mapping.DocumentMapping;
 import com.b2international.index.revision.Revision;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
@@ -61,17 +63,34 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
+ * Documents are serialized on the calling thread as soon as they are staged, so only their JSON form is kept in memory until commit and
+ * later changes to a staged object do not affect what is written. Nothing is sent to Elasticsearch before {@link #commit()}, so a write
+ * that fails or is lost with its JVM leaves no partial revisions behind in the index.
+ * 
  * @since 5.10 
  */
 public class EsDocumentWriter implements Writer {
 
+	private static final ListeningExecutorService BULK_OPERATION_EXECUTOR = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(
+			4, 
+			new ThreadFactoryBuilder()
+				.setNameFormat("index-bulk-operation-%d")
+				.setDaemon(true)
+				.build()));
+	
+	// commits taking longer than this are logged with the time spent in each phase on INFO level
+	private static final long SLOW_COMMIT_THRESHOLD_MILLIS = 1_000L;
+	
 	private final EsIndexAdmin admin;
 	private final Searcher searcher;
 
-	private final Table<Class<?>, String, Object> indexOperations = HashBasedTable.create();
+	private final Table<Class<?>, String, byte[]> indexOperations = HashBasedTable.create();
 	private final Multimap<Class<?>, String> deleteOperations = HashMultimap.create();
+	// mappings changed since the last refreshing commit
+	private final Set<DocumentMapping> mappingsToRefresh = Collections.synchronizedSet(newHashSet());
 	private final ObjectMapper mapper;
 	private List<BulkUpdate<?>> bulkUpdateOperations = newArrayList();
 	private List<BulkDelete<?>> bulkDeleteOperations = newArrayList();
@@ -84,7 +103,11 @@ public class EsDocumentWriter implements Writer {
 	
 	@Override
 	public void put(String key, Object object) {
-		indexOperations.put(object.getClass(), key, object);
+		try {
+			indexOperations.put(object.getClass(), key, mapper.writeValueAsBytes(object));
+		} catch (JsonProcessingException e) {
+			throw new IndexException("Couldn't serialize document", e);
+		}
 	}
 
 	@Override
@@ -120,18 +143,19 @@ public class EsDocumentWriter implements Writer {
 	}
 
 	@Override
-	public void commit() throws IOException {
-		if (isEmpty()) {
+	public void commit(boolean refresh) throws IOException {
+		// a refreshing commit without pending operations still has to make earlier, non-refreshing commits visible
+		if (isEmpty() && (!refresh || mappingsToRefresh.isEmpty())) {
 			return;
 		}
 		
-		final Set<DocumentMapping> mappingsToRefresh = Collections.synchronizedSet(newHashSet());
-		final EsClient client = admin.client();
+		final Stopwatch bulkOperationsWatch = Stopwatch.createStarted();
+		final int numberOfBulkOperations = bulkUpdateOperations.size() + bulkDeleteOperations.size();
+		
 		// apply bulk updates first
 		final ListeningExecutorService executor;
 		if (bulkUpdateOperations.size() > 1 || bulkDeleteOperations.size() > 1) {
-			final int threads = Math.min(4, Math.max(bulkUpdateOperations.size(), bulkDeleteOperations.size()));
-			executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threads));
+			executor = BULK_OPERATION_EXECUTOR;
 		} else {
 			executor = MoreExecutors.newDirectExecutorService();
 		}
@@ -143,17 +167,21 @@ public class EsDocumentWriter implements Writer {
 			updateFutures.add(executor.submit(() -> admin.bulkDelete(delete, mappingsToRefresh)));
 		}
 		try {
-			executor.shutdown();
 			Futures.allAsList(updateFutures).get();
-			executor.awaitTermination(10, TimeUnit.SECONDS);
 		} catch (InterruptedException | ExecutionException e) {
 			admin.log().error("Couldn't execute bulk updates", e);
 			throw new IndexException("Couldn't execute bulk updates", e);
 		}
+		// applied bulk operations should not run again when the writer is committed multiple times
+		bulkUpdateOperations.clear();
+		bulkDeleteOperations.clear();
+		bulkOperationsWatch.stop();
 		
 		// then bulk indexes/deletes
+		final Stopwatch indexWatch = Stopwatch.createStarted();
+		final int numberOfDocuments = indexOperations.size() + deleteOperations.size();
 		if (!indexOperations.isEmpty() || !deleteOperations.isEmpty()) {
-			final BulkProcessor processor = client.bulk(new BulkProcessor.Listener() {
+			final BulkProcessor processor = admin.client().bulk(new BulkProcessor.Listener() {
 				@Override
 				public void beforeBulk(long executionId, BulkRequest request) {
 					admin.log().debug("Sending bulk request {}", request.numberOfActions());
@@ -180,24 +208,23 @@ public class EsDocumentWriter implements Writer {
 			.build();
 			
 			for (Class<?> type : ImmutableSet.copyOf(indexOperations.rowKeySet())) {
-				final Map<String, Object> indexOperationsForType = indexOperations.row(type);
+				final Map<String, byte[]> indexOperationsForType = indexOperations.row(type);
 				
 				final DocumentMapping mapping = admin.mappings().getMapping(type);
 				final String typeIndex = admin.getTypeIndex(mapping);
+				final boolean revision = Revision.class.isAssignableFrom(type);
 				
 				mappingsToRefresh.add(mapping);
 				
-				for (Entry<String, Object> entry : Iterables.consumingIterable(indexOperationsForType.entrySet())) {
+				for (Entry<String, byte[]> entry : Iterables.consumingIterable(indexOperationsForType.entrySet())) {
 					final String id = entry.getKey();
 					if (!deleteOperations.containsValue(id)) {
-						final Object obj = entry.getValue();
-						final byte[] _source = mapper.writeValueAsBytes(obj);
-						IndexRequest indexRequest = new IndexRequest()
+						final IndexRequest indexRequest = new IndexRequest()
 								.index(typeIndex)
 								.opType(OpType.INDEX)
-								.source(_source, XContentType.JSON);
+								.source(entry.getValue(), XContentType.JSON);
 						// XXX revisions has their special local ID, but that's not needed when sending them to ES, ES will autogenerate a non-conflicting ID for them 
-						if (!(obj instanceof Revision)) {
+						if (!revision) {
 							indexRequest.id(id);
 						}
 						processor.add(indexRequest);
@@ -234,8 +261,25 @@ public class EsDocumentWriter implements Writer {
 			}
 		}
 
+		indexWatch.stop();
+
 		// refresh the index if there were only updates
-		admin.refresh(mappingsToRefresh);
+		final Stopwatch refreshWatch = Stopwatch.createStarted();
+		if (refresh) {
+			admin.refresh(mappingsToRefresh);
+			// mappings changed by non-refreshing commits are kept until the next refreshing one
+			mappingsToRefresh.clear();
+		}
+		refreshWatch.stop();
+		
+		final long totalMillis = bulkOperationsWatch.elapsed(TimeUnit.MILLISECONDS) + indexWatch.elapsed(TimeUnit.MILLISECONDS) + refreshWatch.elapsed(TimeUnit.MILLISECONDS);
+		if (totalMillis >= SLOW_COMMIT_THRESHOLD_MILLIS) {
+			admin.log().info("Commit took {} ms, bulk operations ({}): {}, documents ({}): {}, refresh: {}", 
+					totalMillis, numberOfBulkOperations, bulkOperationsWatch, numberOfDocuments, indexWatch, refreshWatch);
+		} else {
+			admin.log().debug("Commit took {} ms, bulk operations ({}): {}, documents ({}): {}, refresh: {}", 
+					totalMillis, numberOfBulkOperations, bulkOperationsWatch, numberOfDocuments, indexWatch, refreshWatch);
+		}
 	}
 
 	@Override
@@ -252,9 +296,9 @@ public class EsDocumentWriter implements Writer {
 	 */
 	private void dumpOps() throws IOException {
 		System.err.println("Added documents:");
-		for (Entry<Class<?>, Map<String, Object>> indexOperationsByType  : indexOperations.rowMap().entrySet()) {
-			for (Entry<String, Object> entry : indexOperationsByType.getValue().entrySet()) {
-				System.err.format("\t%s -> %s\n", entry.getKey(), mapper.writeValueAsString(entry.getValue()));
+		for (Entry<Class<?>, Map<String, byte[]>> indexOperationsByType  : indexOperations.rowMap().entrySet()) {
+			for (Entry<String, byte[]> entry : indexOperationsByType.getValue().entrySet()) {
+				System.err.format("\t%s -> %s\n", entry.getKey(), new String(entry.getValue(), StandardCharsets.UTF_8));
 			}
 		}
 		System.err.println("Deleted documents: ");
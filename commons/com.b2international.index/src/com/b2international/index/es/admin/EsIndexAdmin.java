@@ -16,6 +16,7 @@
 package com.b2international.index.es.admin;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
 import static com.google.common.collect.Sets.newHashSet;
@@ -36,6 +37,8 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequest;
@@ -49,16 +52,32 @@ import org.elasticsearch.action.admin.indices.mapping.put.PutMappingRequest;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
 import org.elasticsearch.action.admin.indices.refresh.RefreshResponse;
 import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkItemResponse.Failure;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.cluster.metadata.MappingMetadata;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.reindex.BulkByScrollResponse;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.script.ScriptType;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,6 +91,7 @@ import com.b2international.index.es.query.EsQueryBuilder;
 import com.b2international.index.mapping.DocumentMapping;
 import com.b2international.index.mapping.Mappings;
 import com.b2international.index.query.Expressions;
+import com.b2international.index.revision.Revision;
 import com.b2international.index.util.NumericClassUtils;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -616,6 +636,11 @@ public final class EsIndexAdmin implements IndexAdmin {
 	
 	public void bulkUpdate(final BulkUpdate<?> update, Set<DocumentMapping> mappingsToRefresh) {
 		final DocumentMapping mapping = mappings().getMapping(update.getType());
+		// revised markers are set on a large number of documents during commits and merges, avoid running a script on each of them
+		if (Revision.class.isAssignableFrom(update.getType()) && Revision.UPDATE_REVISED.equals(update.getScript())) {
+			bulkUpdateRevised(update, mapping, mappingsToRefresh);
+			return;
+		}
 		final String rawScript = mapping.getScript(update.getScript()).script();
 		org.elasticsearch.script.Script script = new org.elasticsearch.script.Script(ScriptType.INLINE, "painless", rawScript, ImmutableMap.copyOf(update.getParams()));
 		bulkIndexByScroll(client, update, "update", script, mappingsToRefresh);
@@ -715,6 +740,166 @@ public final class EsIndexAdmin implements IndexAdmin {
 		} while (versionConflicts > 0);
 	}
 	
+	/*
+	 * Applies the Revision.UPDATE_REVISED script without scripting. The revised markers of the matching documents are fetched with a single
+	 * scroll, then the changed markers are sent back as partial document updates, conditional on the sequence number of the fetched
+	 * document. Documents changed concurrently are fetched and updated again.
+	 */
+	private void bulkUpdateRevised(final BulkUpdate<?> update, final DocumentMapping mapping, final Set<DocumentMapping> mappingsToRefresh) {
+		final String oldRevised = (String) update.getParams().get("oldRevised");
+		final String newRevised = (String) update.getParams().get("newRevised");
+		final String typeIndex = getTypeIndex(mapping);
+		final QueryBuilder query = new EsQueryBuilder(mapping, settings).build(update.getFilter());
+		
+		long updateCount = 0L;
+		Set<String> conflictingIds = Collections.emptySet();
+		int attempts = DEFAULT_MAX_NUMBER_OF_VERSION_CONFLICT_RETRIES;
+		
+		do {
+			
+			final QueryBuilder attemptQuery;
+			if (conflictingIds.isEmpty()) {
+				attemptQuery = query;
+			} else {
+				// retry only the documents that were changed after they have been fetched
+				attemptQuery = QueryBuilders.boolQuery()
+						.filter(query)
+						.filter(QueryBuilders.idsQuery().addIds(conflictingIds.toArray(new String[conflictingIds.size()])));
+			}
+			
+			final Set<String> attemptConflicts = Collections.synchronizedSet(newHashSet());
+			updateCount += updateRevised(typeIndex, attemptQuery, oldRevised, newRevised, attemptConflicts);
+			conflictingIds = attemptConflicts;
+			
+			if (!conflictingIds.isEmpty()) {
+				if (attempts <= 0) {
+					throw new IndexException("There were indexing failures during bulk updates. See logs for all failures.", null);
+				}
+				
+				log().warn("Bulk {} had version conflicts on {} {} documents, retrying", update, conflictingIds.size(), mapping.typeAsString());
+				--attempts;
+				try {
+					Thread.sleep(100 + random.nextInt(900));
+					refresh(Collections.singleton(mapping));
+				} catch (InterruptedException e) {
+					throw new IndexException("Interrupted", e);
+				}
+			}
+			
+		} while (!conflictingIds.isEmpty());
+		
+		if (updateCount > 0) {
+			mappingsToRefresh.add(mapping);
+			log().info("Updated {} {} documents with bulk {}", updateCount, mapping.typeAsString(), update);
+		} else {
+			log().warn("Bulk {} could not be applied to {} documents", update, mapping.typeAsString());
+		}
+	}
+
+	private long updateRevised(final String typeIndex, 
+			final QueryBuilder query, 
+			final String oldRevised, 
+			final String newRevised, 
+			final Set<String> conflictingIds) {
+		
+		final AtomicLong updateCount = new AtomicLong();
+		final List<String> failures = Collections.synchronizedList(newArrayList());
+		final BulkProcessor processor = client.bulk(new BulkProcessor.Listener() {
+			@Override
+			public void beforeBulk(long executionId, BulkRequest request) {
+				log().debug("Sending bulk revised update {}", request.numberOfActions());
+			}
+			
+			@Override
+			public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+				log().error("Failed bulk revised update", failure);
+				failures.add(failure.getMessage());
+			}
+			
+			@Override
+			public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+				for (BulkItemResponse itemResponse : response.getItems()) {
+					if (!itemResponse.isFailed()) {
+						updateCount.incrementAndGet();
+					} else if (itemResponse.getFailure().getStatus() == RestStatus.CONFLICT) {
+						log().warn("Version conflict reason: {}", itemResponse.getFailureMessage());
+						conflictingIds.add(itemResponse.getId());
+					} else {
+						log().error("Index failure during bulk update: {}", itemResponse.getFailureMessage());
+						failures.add(itemResponse.getFailureMessage());
+					}
+				}
+			}
+		})
+		.setConcurrentRequests(getConcurrencyLevel())
+		.setBulkActions((int) settings.get(IndexClientFactory.BULK_ACTIONS_SIZE))
+		.setBulkSize(new ByteSizeValue((int) settings.get(IndexClientFactory.BULK_ACTIONS_SIZE_IN_MB), ByteSizeUnit.MB))
+		.build();
+		
+		final TimeValue scrollTime = TimeValue.timeValueSeconds(60);
+		final SearchRequest req = new SearchRequest(typeIndex)
+				.source(SearchSourceBuilder.searchSource()
+					.query(query)
+					.size((int) settings.get(IndexClientFactory.BULK_ACTIONS_SIZE))
+					.fetchSource(new String[] { Revision.Fields.REVISED }, null)
+					.seqNoAndPrimaryTerm(true)
+					.sort(FieldSortBuilder.DOC_FIELD_NAME))
+				.scroll(scrollTime);
+		
+		String scrollId = null;
+		try {
+			SearchResponse response = client.search(req);
+			scrollId = response.getScrollId();
+			while (response.getHits().getHits().length > 0) {
+				for (SearchHit hit : response.getHits().getHits()) {
+					final List<Object> revised = newArrayList();
+					final Object currentRevised = hit.getSourceAsMap().get(Revision.Fields.REVISED);
+					if (currentRevised instanceof Collection<?>) {
+						revised.addAll((Collection<?>) currentRevised);
+					}
+					final int idx = revised.indexOf(oldRevised);
+					if (idx > -1) {
+						revised.set(idx, newRevised);
+					} else {
+						revised.add(newRevised);
+					}
+					processor.add(new UpdateRequest(typeIndex, hit.getId())
+							.doc(Collections.singletonMap(Revision.Fields.REVISED, revised))
+							.setIfSeqNo(hit.getSeqNo())
+							.setIfPrimaryTerm(hit.getPrimaryTerm()));
+				}
+				response = client.scroll(new SearchScrollRequest(scrollId).scroll(scrollTime));
+				scrollId = response.getScrollId();
+			}
+			processor.awaitClose(5, TimeUnit.MINUTES);
+		} catch (IOException e) {
+			throw new IndexException("Could not execute bulk update.", e);
+		} catch (InterruptedException e) {
+			throw new IndexException("Interrupted", e);
+		} finally {
+			processor.close();
+			if (scrollId != null) {
+				clearScroll(scrollId);
+			}
+		}
+		
+		if (!failures.isEmpty()) {
+			throw new IllegalStateException("There were indexing failures during bulk updates. See logs for all failures.");
+		}
+		
+		return updateCount.get();
+	}
+
+	private void clearScroll(final String scrollId) {
+		try {
+			final ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+			clearScrollRequest.addScrollId(scrollId);
+			client.clearScroll(clearScrollRequest);
+		} catch (IOException e) {
+			log().warn("Couldn't clear scroll context", e);
+		}
+	}
+	
 	public int getConcurrencyLevel() {
 		return (int) settings().get(IndexClientFactory.COMMIT_CONCURRENCY_LEVEL);
 	}
@@ -42,6 +42,7 @@ class DefaultQueryBuilder<T> implements QueryBuilder<T>, AfterWhereBuilder<T> {
 	private Expression where;
 	private SortBy sortBy = SortBy.DEFAULT;
 	private boolean withScores = false;
+	private String collapse;
 
 	private List<String> fields = Collections.emptyList();
 
@@ -104,6 +105,12 @@ class DefaultQueryBuilder<T> implements QueryBuilder<T>, AfterWhereBuilder<T> {
 		return this;
 	}
 
+	@Override
+	public AfterWhereBuilder<T> collapse(String collapse) {
+		this.collapse = collapse;
+		return this;
+	}
+
 	@Override
 	public Query<T> build() {
 		if (Revision.class.isAssignableFrom(select) && !CompareUtils.isEmpty(fields) && !fields.contains(Revision.Fields.ID)) {
@@ -120,6 +127,7 @@ class DefaultQueryBuilder<T> implements QueryBuilder<T>, AfterWhereBuilder<T> {
 		query.setSortBy(sortBy);
 		query.setWithScores(withScores);
 		query.setFields(fields);
+		query.setCollapse(collapse);
 		return query;
 	}
 }
\ No newline at end of file
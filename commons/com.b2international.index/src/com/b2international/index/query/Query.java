@@ -106,6 +106,17 @@ public final class Query<T> {
 		 * @return
 		 */
 		AfterWhereBuilder<T> withScores(boolean withScores);
+		
+		/**
+		 * Collapse the hits by the value of the given field, returning only the top hit (in sort order) for each distinct field value. The
+		 * total number of hits still counts all matching documents. Collapsed queries can not be scrolled and can only return up to the
+		 * configured result window.
+		 * 
+		 * @param field - a single-valued keyword or numeric field
+		 * @return
+		 * @since 7.14
+		 */
+		AfterWhereBuilder<T> collapse(String field);
 	}
 
 	private String scrollKeepAlive;
@@ -118,6 +129,7 @@ public final class Query<T> {
 	private Class<?> parentType;
 	private boolean withScores;
 	private List<String> fields;
+	private String collapse;
 
 	Query() {}
 
@@ -201,6 +213,17 @@ public final class Query<T> {
 		this.searchAfter = searchAfter;
 	}
 	
+	/**
+	 * @return the field to collapse the hits by, or <code>null</code> if the hits should not be collapsed
+	 */
+	public String getCollapse() {
+		return collapse;
+	}
+	
+	void setCollapse(String collapse) {
+		this.collapse = collapse;
+	}
+	
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -210,6 +233,9 @@ public final class Query<T> {
 		if (!SortBy.DEFAULT.equals(sortBy)) {
 			sb.append(" SORT BY " + sortBy);
 		}
+		if (!Strings.isNullOrEmpty(collapse)) {
+			sb.append(" COLLAPSE BY " + collapse);
+		}
 		sb.append(" LIMIT " + limit);
 		if (!Strings.isNullOrEmpty(scrollKeepAlive)) {
 			sb.append(" SCROLL("+scrollKeepAlive+") ");
@@ -21,7 +21,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
@@ -48,6 +51,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * @since 6.5
@@ -58,6 +63,9 @@ public abstract class BaseRevisionBranching {
 	private final TimestampProvider timestampProvider;
 	private final List<Consumer<String>> onBranchChange = newArrayListWithCapacity(1);
 	
+	// branch ID to path registry, entries are registered on branch creation or first access and dropped on branch change notifications
+	private final ConcurrentMap<Long, String> branchPathsById = new ConcurrentHashMap<>();
+	
 	private final LoadingCache<String, ReentrantLock> locks = CacheBuilder.newBuilder()
 			.expireAfterAccess(5L, TimeUnit.MINUTES)
 			.build(new CacheLoader<String, ReentrantLock>() {
@@ -136,6 +144,56 @@ public abstract class BaseRevisionBranching {
 		return branch;
 	}
 	
+	/**
+	 * Returns the path of the branch with the given ID.
+	 * 
+	 * @param branchId
+	 * @return
+	 * @throws NotFoundException - if no branch exists with the given ID
+	 * @since 7.14
+	 */
+	public final String getBranchPath(long branchId) {
+		final String branchPath = getBranchPaths(Collections.singleton(branchId)).get(branchId);
+		if (branchPath == null) {
+			throw new NotFoundException("Branch", Long.toString(branchId));
+		}
+		return branchPath;
+	}
+	
+	/**
+	 * Returns the paths of the branches with the given IDs, resolving the IDs not yet registered with a single search. IDs without a
+	 * matching branch are not present in the returned map.
+	 * 
+	 * @param branchIds
+	 * @return
+	 * @since 7.14
+	 */
+	public final Map<Long, String> getBranchPaths(Collection<Long> branchIds) {
+		final Map<Long, String> branchPaths = Maps.newHashMapWithExpectedSize(branchIds.size());
+		final Set<Long> missingBranchIds = Sets.newHashSet();
+		for (Long branchId : branchIds) {
+			final String branchPath = branchPathsById.get(branchId);
+			if (branchPath != null) {
+				branchPaths.put(branchId, branchPath);
+			} else {
+				missingBranchIds.add(branchId);
+			}
+		}
+		
+		if (!missingBranchIds.isEmpty()) {
+			search(Query.select(RevisionBranch.class)
+					.where(Expressions.matchAnyLong(RevisionBranch.Fields.ID, missingBranchIds))
+					.limit(missingBranchIds.size())
+					.build())
+					.forEach(branch -> {
+						branchPathsById.put(branch.getId(), branch.getPath());
+						branchPaths.put(branch.getId(), branch.getPath());
+					});
+		}
+		
+		return branchPaths;
+	}
+	
 	/**
 	 * Returns the revision branch for the given branchPath.
 	 * 
@@ -446,6 +504,8 @@ public abstract class BaseRevisionBranching {
 	protected final IndexWrite<RevisionBranch> create(final RevisionBranch branch) {
 		return index -> {
 			index.put(branch.getPath(), branch);
+			// branch IDs might be reused after clearing the index, always register the latest path
+			branchPathsById.put(branch.getId(), branch.getPath());
 			return branch;
 		};
 	}
@@ -456,6 +516,7 @@ public abstract class BaseRevisionBranching {
 	 * @param branchPath the subject of the notification (may not be {@code null})
 	 */
 	protected final void sendChangeEvent(final String branchPath) {
+		branchPathsById.values().removeIf(branchPath::equals);
 		onBranchChange.forEach(c -> c.accept(branchPath));
 	}
 	
@@ -22,13 +22,24 @@ import static com.google.common.collect.Sets.newHashSet;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
-import com.b2international.index.Hits;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+
+import com.b2international.commons.exceptions.NotFoundException;
+import com.b2international.index.BulkDelete;
 import com.b2international.index.Index;
+import com.b2international.index.IndexException;
 import com.b2international.index.Searcher;
-import com.b2international.index.Writer;
 import com.b2international.index.mapping.DocumentMapping;
+import com.b2international.index.query.Expression;
 import com.b2international.index.query.Expressions;
 import com.b2international.index.query.Expressions.ExpressionBuilder;
 import com.b2international.index.query.Query;
@@ -38,19 +49,28 @@ import com.b2international.index.revision.RevisionCompare.Builder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @since 4.7
  */
 public final class DefaultRevisionIndex implements InternalRevisionIndex, Hooks {
 
-	private static final String SCROLL_KEEP_ALIVE = "2m";
+	// maximum number of revision types purged in parallel
+	private static final int PURGE_THREADS = 4;
 	
-	private static final int PURGE_LIMIT = 100_000;
+	// shared by all purges, concurrent purges queue their revision types; threads are released when no purge is running
+	private static final ListeningExecutorService PURGE_EXECUTOR = createPurgeExecutor();
 	
 	private static final int COMPARE_DEFAULT_LIMIT = 100_000;
 	
+	// number of commits loaded in a single batch during compare (import commits tend to be large, but each batch is released once applied)
+	private static final int COMPARE_COMMIT_BATCH_SIZE = 100;
+	
 	private final Index index;
 	private final BaseRevisionBranching branching;
 	private final RevisionIndexAdmin admin;
@@ -181,8 +201,17 @@ public final class DefaultRevisionIndex implements InternalRevisionIndex, Hooks
 		}
 		ExpressionBuilder compareCommitsQuery = Expressions.builder();
 		
+		// resolve all segment branches at once, usually from the branch registry without hitting the index
+		final Map<Long, String> segmentBranches = branching.getBranchPaths(compareRef.segments()
+				.stream()
+				.map(RevisionSegment::branchId)
+				.collect(Collectors.toSet()));
+		
 		for (RevisionSegment segment : compareRef.segments()) {
-			String segmentBranch = getBranchPath(searcher, segment.branchId());
+			String segmentBranch = segmentBranches.get(segment.branchId());
+			if (segmentBranch == null) {
+				throw new NotFoundException("Branch", Long.toString(segment.branchId()));
+			}
 			compareCommitsQuery.should(Expressions.builder()
 					.filter(Commit.Expressions.timestampRange(segment.start(), segment.end()))
 					.filter(Commit.Expressions.branches(Collections.singleton(segmentBranch)))
@@ -192,55 +221,38 @@ public final class DefaultRevisionIndex implements InternalRevisionIndex, Hooks
 		// apply commits happened on the compareRef segments in chronological order 
 		searcher.scroll(Query.select(Commit.class)
 				.where(compareCommitsQuery.build())
-				.limit(20) // load only 20 commits for each batch (import commits tend to be large, so if we load 20 of them we should not use that much memory)
+				.limit(COMPARE_COMMIT_BATCH_SIZE)
 				.sortBy(SortBy.field(Commit.Fields.TIMESTAMP, Order.ASC))
 				.build())
 				.forEach(commits -> commits.forEach(result::apply));
 	}
 
-	private String getBranchPath(Searcher searcher, long branchId) throws IOException {
-		return searcher.search(Query.select(String.class)
-				.from(RevisionBranch.class)
-				.fields(RevisionBranch.Fields.PATH)
-				.where(Expressions.exactMatch(RevisionBranch.Fields.ID, branchId))
-				.limit(1)
-				.build())
-				.stream()
-				.findFirst()
-				.get();
-	}
-
 	@Override
-	public void purge(final String branchPath, final Purge purge) {
+	public void purge(final String branchPath, final Purge purge, final IProgressMonitor monitor) {
 		final RevisionBranchRef branch = getBranchRef(branchPath);
-		index.write(index -> {
-			// TODO support selective type purging
-			final Set<Class<? extends Revision>> typesToPurge = getRevisionTypes();
-			
-			switch (purge) {
-			case ALL: 
-				purge(index, branch, typesToPurge);
-				break;
-			case HISTORY:
-				purge(index, branch.historyRef(), typesToPurge);
-				break;
-			case LATEST:
-				purge(index, branch.lastRef(), typesToPurge);
-				break;
-			default: throw new UnsupportedOperationException("Unsupported purge: " + purge);
-			}
-			return null;
-		});
+		// TODO support selective type purging
+		final Set<Class<? extends Revision>> typesToPurge = getRevisionTypes();
+		
+		switch (purge) {
+		case ALL: 
+			purge(branch, typesToPurge, monitor);
+			break;
+		case HISTORY:
+			purge(branch.historyRef(), typesToPurge, monitor);
+			break;
+		case LATEST:
+			purge(branch.lastRef(), typesToPurge, monitor);
+			break;
+		default: throw new UnsupportedOperationException("Unsupported purge: " + purge);
+		}
 	}
 	
-	private void purge(Writer writer, final RevisionBranchRef refToPurge, Set<Class<? extends Revision>> typesToPurge) throws IOException {
+	private void purge(final RevisionBranchRef refToPurge, Set<Class<? extends Revision>> typesToPurge, IProgressMonitor monitor) {
 		// if nothing to purge return
 		if (typesToPurge.isEmpty() || refToPurge.isEmpty()) {
 			return;
 		}
 		
-		final Searcher searcher = writer.searcher();
-		
 		final ExpressionBuilder purgeQuery = Expressions.builder();
 		// purge only documents added to the selected branch
 		for (RevisionSegment segmentToPurge : refToPurge.segments()) {
@@ -249,28 +261,69 @@ public final class DefaultRevisionIndex implements InternalRevisionIndex, Hooks
 				.filter(segmentToPurge.toRangeExpression(Revision.Fields.REVISED))
 				.build());
 		}
-		for (Class<? extends Revision> revisionType : typesToPurge) {
-			final String type = DocumentMapping.getType(revisionType);
-			
-			final Query<String> query = Query.select(String.class)
-				.from(revisionType)
-				.fields(DocumentMapping._ID)
-				.where(purgeQuery.build())
-				.scroll(SCROLL_KEEP_ALIVE) 
-				.limit(PURGE_LIMIT)
-				.build();
-			
-			int purged = 0;
-			for (Hits<String> revisionsToPurge : searcher.scroll(query)) {
-				purged += revisionsToPurge.getHits().size();
-				admin().log().info("Purging {}/{} '{}' documents...", purged, revisionsToPurge.getTotal(), type);
-				writer.removeAll(ImmutableMap.of(revisionType, newHashSet(revisionsToPurge)));
-				writer.commit();
+		final Expression purgeExpression = purgeQuery.build();
+		
+		final SubMonitor subMonitor = SubMonitor.convert(monitor, "Purging revisions...", typesToPurge.size());
+		final List<ListenableFuture<?>> purgeFutures = newArrayList();
+		try {
+			for (Class<? extends Revision> revisionType : typesToPurge) {
+				purgeFutures.add(PURGE_EXECUTOR.submit(() -> {
+					purge(revisionType, purgeExpression);
+					synchronized (subMonitor) {
+						subMonitor.worked(1);
+					}
+				}));
 			}
-			
+			Futures.allAsList(purgeFutures).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IndexException("Interrupted while purging revisions", e);
+		} catch (ExecutionException e) {
+			throw new IndexException("Couldn't purge revisions", e.getCause());
+		} finally {
+			// stop the remaining types of a failed or interrupted purge, no-op if all of them completed
+			purgeFutures.forEach(future -> future.cancel(true));
+			monitor.done();
 		}
 	}
 	
+	private static ListeningExecutorService createPurgeExecutor() {
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(PURGE_THREADS, 
+				PURGE_THREADS, 
+				1L, 
+				TimeUnit.MINUTES, 
+				new LinkedBlockingQueue<>(), 
+				new ThreadFactoryBuilder()
+					.setNameFormat("revision-purge-%d")
+					.setDaemon(true)
+					.build());
+		executor.allowCoreThreadTimeOut(true);
+		return MoreExecutors.listeningDecorator(executor);
+	}
+	
+	/*
+	 * Removes the matching documents of a single revision type with delete by query, the type's index is refreshed only once, after the delete
+	 */
+	private void purge(Class<? extends Revision> revisionType, Expression purgeExpression) {
+		final String type = DocumentMapping.getType(revisionType);
+		index.write(writer -> {
+			final int revisionsToPurge = writer.searcher().search(Query.select(String.class)
+					.from(revisionType)
+					.fields(DocumentMapping._ID)
+					.where(purgeExpression)
+					.limit(0)
+					.build())
+					.getTotal();
+			if (revisionsToPurge > 0) {
+				admin().log().info("Purging {} '{}' documents...", revisionsToPurge, type);
+				writer.bulkDelete(new BulkDelete<>(revisionType, purgeExpression));
+				writer.commit();
+				admin().log().info("Purged {} '{}' documents.", revisionsToPurge, type);
+			}
+			return null;
+		});
+	}
+	
 	@Override
 	public BaseRevisionBranching branching() {
 		return branching;
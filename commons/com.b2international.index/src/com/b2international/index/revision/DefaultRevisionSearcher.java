@@ -86,6 +86,7 @@ public class DefaultRevisionSearcher implements RevisionSearcher {
 					.scroll(query.getScrollKeepAlive())
 					.searchAfter(query.getSearchAfter())
 					.withScores(query.isWithScores())
+					.collapse(query.getCollapse())
 					.build();
 		} else {
 			checkArgument(Revision.class.isAssignableFrom(query.getParentType()), "Searching non-revision documents require a revision parent type: %s", query);
@@ -102,6 +103,7 @@ public class DefaultRevisionSearcher implements RevisionSearcher {
 					.scroll(query.getScrollKeepAlive())
 					.searchAfter(query.getSearchAfter())
 					.withScores(query.isWithScores())
+					.collapse(query.getCollapse())
 					.build();
 		}
 		return searcher.search(query);
@@ -82,21 +82,26 @@ final class RevisionBranchRef {
 				.toString();
 	}
 
+	/**
+	 * Returns the filter matching the revisions visible from this ref, ie. revisions created but not revised in any of the segments.
+	 * <p>
+	 * Both the created and revised part of the filter is split into a sub-filter of the history segments (inherited from ancestor branches
+	 * and merge sources, these change on rebase and merge only) and a range on the branch's own segment (which changes with every commit).
+	 * This way the history sub-filters remain the same between commits and Elasticsearch can serve them from its query cache, keyed by the
+	 * history segment set, instead of evaluating a range clause per segment in each query. Overlapping and adjacent segments of the same
+	 * branch are merged into a single range (see {@link RevisionSegment#compact(SortedSet)}). The segments of the ref itself are left intact,
+	 * as {@link #difference(RevisionBranchRef)} and {@link #intersection(RevisionBranchRef)} pair the segments of two refs by position.
+	 * 
+	 * @return
+	 */
 	public Expression toRevisionFilter() {
 		if (isEmpty()) {
 			return Expressions.matchNone();
 		}
 		
-		final ExpressionBuilder query = Expressions.builder();
-		final ExpressionBuilder created = Expressions.builder();
-		
-		for (RevisionSegment segment : segments) {
-			created.should(segment.toRangeExpression(Revision.Fields.CREATED));
-			query.mustNot(segment.toRangeExpression(Revision.Fields.REVISED));
-		}
-		
-		return query
-				.filter(created.build())
+		return Expressions.builder()
+				.filter(toCreatedInFilter())
+				.mustNot(toRevisedInFilter())
 				.build();
 	}
 	
@@ -105,12 +110,7 @@ final class RevisionBranchRef {
 			return Expressions.matchNone();
 		}
 		
-		final ExpressionBuilder createdIn = Expressions.builder();
-		for (RevisionSegment segment : segments) {
-			createdIn.should(segment.toRangeExpression(Revision.Fields.CREATED));
-		}
-		
-		return createdIn.build(); 
+		return toSegmentFilter(Revision.Fields.CREATED); 
 	}
 
 	public Expression toRevisedInFilter() {
@@ -118,12 +118,32 @@ final class RevisionBranchRef {
 			return Expressions.matchNone();
 		}
 		
-		final ExpressionBuilder revisedIn = Expressions.builder();
-		for (RevisionSegment segment : segments) {
-			revisedIn.should(segment.toRangeExpression(Revision.Fields.REVISED));
+		return toSegmentFilter(Revision.Fields.REVISED);
+	}
+	
+	private Expression toSegmentFilter(String field) {
+		final ExpressionBuilder history = Expressions.builder();
+		RevisionSegment head = null;
+		int numberOfHistorySegments = 0;
+		for (RevisionSegment segment : RevisionSegment.compact(segments)) {
+			if (head == null && segment.branchId() == branchId) {
+				head = segment;
+			} else {
+				history.should(segment.toRangeExpression(field));
+				numberOfHistorySegments++;
+			}
 		}
 		
-		return revisedIn.build();
+		if (numberOfHistorySegments == 0) {
+			return head.toRangeExpression(field);
+		} else if (head == null) {
+			return history.build();
+		} else {
+			return Expressions.builder()
+					.should(history.build())
+					.should(head.toRangeExpression(field))
+					.build();
+		}
 	}
 
 	public RevisionBranchRef difference(RevisionBranchRef other) {
@@ -197,7 +217,7 @@ final class RevisionBranchRef {
 	public boolean isEmpty() {
 		return segments.isEmpty();
 	}
-
+	
 	public RevisionBranchRef restrictTo(long timestamp) {
 		return new RevisionBranchRef(branchId(), path(), segments()
 				.stream()
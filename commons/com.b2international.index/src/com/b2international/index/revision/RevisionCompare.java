@@ -15,7 +15,6 @@
  */
 package com.b2international.index.revision;
 
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -33,6 +32,11 @@ public final class RevisionCompare {
 		return new Builder(base, compare, limit);
 	}
 	
+	/**
+	 * Merges the details of commits applied in chronological order into a single compare result. Commits are merged one by one as they
+	 * arrive, so only the merged details (one per changed component or property) are kept in memory, not the commits, and the totals are
+	 * maintained along the way.
+	 */
 	static class Builder {
 		
 		private final RevisionBranchRef base;
@@ -57,65 +61,74 @@ public final class RevisionCompare {
 					String object = objects.get(i);
 					final ObjectId objectId = ObjectId.of(detail.getObjectType(), object);
 					
-					final List<RevisionCompareDetail> details;
 					if (detail.isPropertyChange()) {
 						// ignore property change if an existing ADD detail has been added for the component
 						RevisionCompareDetail existingObjectDetail = detailsByComponent.get(objectId.toString());
-						if (existingObjectDetail != null && existingObjectDetail.isAdd()) {
-							details = Collections.emptyList();
-						} else {
-							details = Collections.singletonList(
-									RevisionCompareDetail.propertyChange(
-											detail.getOp(), 
-											objectId, 
-											detail.getProp(), 
-											detail.getFrom(), detail.getTo()));
+						if (existingObjectDetail == null || !existingObjectDetail.isAdd()) {
+							apply(RevisionCompareDetail.propertyChange(
+									detail.getOp(), 
+									objectId, 
+									detail.getProp(), 
+									detail.getFrom(), detail.getTo()));
 						}
 					} else {
-						details = detail.getComponents()
-								.get(i)
-								.stream()
-								.map(component -> RevisionCompareDetail.componentChange(detail.getOp(), objectId, ObjectId.of(detail.getComponentType(), component)))
-								.collect(Collectors.toList());
-					}
-					
-					details.forEach(compareDetail -> {
-						// if a REMOVED detail comes for a component, delete all previously registered property changes, ADD will be handled by the merge operation
-						if (compareDetail.isComponentChange() && compareDetail.isRemove()) {
-							final String propChangeKey = compareDetail.key() + RevisionCompareDetail.PROPERTY_CHANGE_KEY_SEPARATOR;
-							Iterator<Entry<String, RevisionCompareDetail>> followingCompareDetails = detailsByComponent.tailMap(propChangeKey, true).entrySet().iterator();
-							while (followingCompareDetails.hasNext()) {
-								Entry<String, RevisionCompareDetail> followingCompareDetail = followingCompareDetails.next();
-								if (followingCompareDetail.getValue().isPropertyChange() && followingCompareDetail.getKey().startsWith(propChangeKey)) {
-									followingCompareDetails.remove();
-								} else {
-									break;
-								}
-							}
+						for (String component : detail.getComponents().get(i)) {
+							apply(RevisionCompareDetail.componentChange(detail.getOp(), objectId, ObjectId.of(detail.getComponentType(), component)));
 						}
-						detailsByComponent.merge(compareDetail.key(), compareDetail, (oldV, newV) -> oldV.merge(newV));
-					});
+					}
 				}
 			}
 			return this;
 		}
 		
+		private void apply(RevisionCompareDetail compareDetail) {
+			// if a REMOVED detail comes for a component, delete all previously registered property changes, ADD will be handled by the merge operation
+			if (compareDetail.isComponentChange() && compareDetail.isRemove()) {
+				final String propChangeKey = compareDetail.key() + RevisionCompareDetail.PROPERTY_CHANGE_KEY_SEPARATOR;
+				Iterator<Entry<String, RevisionCompareDetail>> followingCompareDetails = detailsByComponent.tailMap(propChangeKey, true).entrySet().iterator();
+				while (followingCompareDetails.hasNext()) {
+					Entry<String, RevisionCompareDetail> followingCompareDetail = followingCompareDetails.next();
+					if (followingCompareDetail.getValue().isPropertyChange() && followingCompareDetail.getKey().startsWith(propChangeKey)) {
+						count(followingCompareDetail.getValue(), -1);
+						followingCompareDetails.remove();
+					} else {
+						break;
+					}
+				}
+			}
+			
+			final RevisionCompareDetail existingDetail = detailsByComponent.get(compareDetail.key());
+			if (existingDetail == null) {
+				detailsByComponent.put(compareDetail.key(), compareDetail);
+				count(compareDetail, 1);
+			} else {
+				count(existingDetail, -1);
+				final RevisionCompareDetail mergedDetail = existingDetail.merge(compareDetail);
+				if (mergedDetail == null) {
+					detailsByComponent.remove(compareDetail.key());
+				} else {
+					detailsByComponent.put(compareDetail.key(), mergedDetail);
+					count(mergedDetail, 1);
+				}
+			}
+		}
+		
+		private void count(RevisionCompareDetail compareDetail, int delta) {
+			switch (compareDetail.getOp()) {
+			case ADD:
+				added += delta;
+				break;
+			case CHANGE:
+				changed += delta;
+				break;
+			case REMOVE:
+				removed += delta;
+				break;
+			}
+		}
+		
 		public RevisionCompare build() {
 			final List<RevisionCompareDetail> details = detailsByComponent.values().stream()
-					.map(compareDetail -> {
-						switch (compareDetail.getOp()) {
-						case ADD:
-							added++;
-							break;
-						case CHANGE:
-							changed++;
-							break;
-						case REMOVE:
-							removed++;
-							break;
-						}
-						return compareDetail;
-					})
 					.limit(limit)
 					.collect(Collectors.toUnmodifiableList());
 			return new RevisionCompare(
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.index.revision;
+
+import java.lang.reflect.Field;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.b2international.commons.ClassUtils;
+import com.b2international.index.IndexException;
+import com.b2international.index.es.admin.EsIndexAdmin;
+import com.b2international.index.mapping.DocumentMapping;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.flipkart.zjsonpatch.JsonDiff;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Computes the differences between two revisions of the same document by comparing the mapped fields of the Java objects directly instead of
+ * converting both revisions to JSON trees and diffing the full trees. JSON conversion is only performed on the values of fields that are not
+ * equal according to {@link Object#equals(Object)}, and JSON patch operations are only generated for revision controlled fields (see
+ * {@link DocumentMapping#getRevisionFields()}). The generated patch operations have the same shape as the ones produced by
+ * {@link #jsonDiff(ObjectMapper, DocumentMapping, Revision, Revision) the JSON tree based diff}.
+ *
+ * @since 7.14
+ */
+final class RevisionDiffer {
+
+	private static final Map<Class<?>, RevisionDiffer> DIFFERS = new ConcurrentHashMap<>();
+
+	static RevisionDiffer get(DocumentMapping mapping) {
+		return DIFFERS.computeIfAbsent(mapping.type(), type -> new RevisionDiffer(mapping));
+	}
+
+	private final DocumentMapping mapping;
+	private final List<Field> fields;
+	private final List<Field> trackedFields;
+	private final Set<String> collectionFields;
+	private final boolean fieldLevelDiffSupported;
+
+	private RevisionDiffer(DocumentMapping mapping) {
+		this.mapping = mapping;
+		final Map<String, Field> fieldsByName = Maps.newHashMap();
+		final ImmutableList.Builder<Field> fields = ImmutableList.builder();
+		for (Field field : mapping.getFields()) {
+			if (!Revision.isRevisionField(field.getName())) {
+				fields.add(field);
+				fieldsByName.put(field.getName(), field);
+			}
+		}
+
+		boolean supported = true;
+		final ImmutableList.Builder<Field> trackedFields = ImmutableList.builder();
+		final Set<String> collectionFields = Sets.newHashSet();
+		for (String revisionField : mapping.getRevisionFields()) {
+			final Field field = fieldsByName.get(revisionField);
+			if (field == null) {
+				// tracked property is not backed by a field (eg. computed via a getter), fall back to JSON tree diffing for this type
+				supported = false;
+				break;
+			}
+			trackedFields.add(field);
+			if (mapping.isCollection(revisionField)) {
+				collectionFields.add(revisionField);
+			}
+		}
+
+		this.fields = fields.build();
+		this.trackedFields = trackedFields.build();
+		this.collectionFields = collectionFields;
+		this.fieldLevelDiffSupported = supported;
+	}
+
+	/**
+	 * @param mapper
+	 * @param oldRevision
+	 * @param newRevision
+	 * @return <code>true</code> if any of the non-revision fields of the two revisions differ, <code>false</code> otherwise
+	 */
+	boolean hasChanges(ObjectMapper mapper, Revision oldRevision, Revision newRevision) {
+		if (!fieldLevelDiffSupported) {
+			return jsonDiff(mapper, mapping, oldRevision, newRevision).size() > 0;
+		}
+
+		for (Field field : fields) {
+			final Object oldValue = getValue(field, oldRevision);
+			final Object newValue = getValue(field, newRevision);
+			if (!valueEquals(mapper, oldValue, newValue)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param mapper
+	 * @param oldRevision
+	 * @param newRevision
+	 * @return the JSON patch operations describing the changes of the revision controlled fields between the two revisions
+	 */
+	ArrayNode diff(ObjectMapper mapper, Revision oldRevision, Revision newRevision) {
+		final ArrayNode diff = mapper.createArrayNode();
+		if (!fieldLevelDiffSupported) {
+			final Set<String> revisionFields = mapping.getRevisionFields();
+			for (JsonNode change : jsonDiff(mapper, mapping, oldRevision, newRevision)) {
+				if (revisionFields.contains(getChangeRootProperty(change))) {
+					diff.add(change);
+				}
+			}
+			return diff;
+		}
+
+		for (Field field : trackedFields) {
+			final Object oldValue = getValue(field, oldRevision);
+			final Object newValue = getValue(field, newRevision);
+			if (Objects.equals(oldValue, newValue)) {
+				continue;
+			}
+
+			final JsonNode oldNode = toNode(mapper, oldValue);
+			final JsonNode newNode = toNode(mapper, newValue);
+			if (oldNode.equals(newNode)) {
+				continue;
+			}
+
+			final String path = "/".concat(field.getName());
+			if (collectionFields.contains(field.getName())) {
+				// collection-like tracked properties are always reported as a single replacement of the entire property
+				diff.add(createPatch(mapper, oldNode.isMissingNode() ? "add" : "replace", path, newNode, oldNode));
+			} else if (oldNode.isMissingNode()) {
+				diff.add(createPatch(mapper, "add", path, newNode, MissingNode.getInstance()));
+			} else if (newNode.isMissingNode()) {
+				diff.add(createPatch(mapper, "remove", path, oldNode, MissingNode.getInstance()));
+			} else if (oldNode.isContainerNode() && newNode.isContainerNode()) {
+				// diff nested objects property-by-property, like the full JSON tree diff would do
+				for (JsonNode nestedChange : JsonDiff.asJson(oldNode, newNode, EsIndexAdmin.DIFF_FLAGS)) {
+					final ObjectNode change = ClassUtils.checkAndCast(nestedChange, ObjectNode.class);
+					change.put("path", path.concat(change.get("path").asText()));
+					diff.add(change);
+				}
+			} else {
+				diff.add(createPatch(mapper, "replace", path, newNode, oldNode));
+			}
+		}
+		return diff;
+	}
+
+	private ObjectNode createPatch(ObjectMapper mapper, String op, String path, JsonNode value, JsonNode fromValue) {
+		final ObjectNode patch = mapper.createObjectNode();
+		patch.put("op", op);
+		patch.put("path", path);
+		if (!value.isMissingNode()) {
+			patch.set("value", value);
+		}
+		if (!fromValue.isMissingNode()) {
+			patch.set("fromValue", fromValue);
+		}
+		return patch;
+	}
+
+	private static Object getValue(Field field, Revision revision) {
+		try {
+			return field.get(revision);
+		} catch (IllegalAccessException e) {
+			throw new IndexException("Unable to read field '" + field.getName() + "' of revision: " + revision, e);
+		}
+	}
+
+	private static boolean valueEquals(ObjectMapper mapper, Object oldValue, Object newValue) {
+		if (Objects.equals(oldValue, newValue)) {
+			return true;
+		} else if (isScalar(oldValue) && isScalar(newValue)) {
+			return false;
+		} else {
+			// objects without value based equals (or arrays) can still have the same JSON representation
+			return toNode(mapper, oldValue).equals(toNode(mapper, newValue));
+		}
+	}
+
+	private static boolean isScalar(Object value) {
+		return value instanceof String
+				|| value instanceof Number
+				|| value instanceof Boolean
+				|| value instanceof Character
+				|| value instanceof Enum<?>;
+	}
+
+	private static JsonNode toNode(ObjectMapper mapper, Object value) {
+		if (value == null) {
+			return isNullIncluded(mapper) ? NullNode.getInstance() : MissingNode.getInstance();
+		}
+		return mapper.valueToTree(value);
+	}
+
+	private static boolean isNullIncluded(ObjectMapper mapper) {
+		final Include inclusion = mapper.getSerializationConfig().getDefaultPropertyInclusion().getValueInclusion();
+		return inclusion == Include.ALWAYS || inclusion == Include.USE_DEFAULTS;
+	}
+
+	/**
+	 * Computes the differences between the two revisions by converting them to JSON trees and diffing the trees. Changes of {@link Revision}
+	 * specific fields are removed, and the changes of collection-like tracked properties are collapsed into a single replacement operation.
+	 *
+	 * @param mapper
+	 * @param mapping
+	 * @param oldRevision
+	 * @param newRevision
+	 * @return the JSON patch operations describing all changes between the two revisions
+	 */
+	static ArrayNode jsonDiff(ObjectMapper mapper, DocumentMapping mapping, Revision oldRevision, Revision newRevision) {
+		final ObjectNode oldRevisionSource = mapper.valueToTree(oldRevision);
+		final ObjectNode newRevisionSource = mapper.valueToTree(newRevision);
+		final ArrayNode rawDiff = ClassUtils.checkAndCast(JsonDiff.asJson(oldRevisionSource, newRevisionSource, EsIndexAdmin.DIFF_FLAGS), ArrayNode.class);
+		final ArrayNode filteredRawDiff = mapper.createArrayNode();
+		final Iterator<JsonNode> elements = rawDiff.elements();
+		Set<String> fieldsToSkip = null;
+		while (elements.hasNext()) {
+			ObjectNode change = ClassUtils.checkAndCast(elements.next(), ObjectNode.class);
+			final String property = getChangeRootProperty(change);
+
+			if (Revision.isRevisionField(property) || (fieldsToSkip != null && fieldsToSkip.contains(property))) {
+				continue;
+			}
+
+			// in case of a collection-like tracked property, convert the first diff to a full prop diff and ignore the rest of the prop changes on the same property
+			if (mapping.getRevisionFields().contains(property) && mapping.isCollection(property)) {
+				// construct a replacement JSON array patch node
+				change = mapper.createObjectNode();
+				change.put("op", oldRevisionSource.has(property) ? "replace" : "add");
+				change.put("path", "/".concat(property));
+				if (newRevisionSource.has(property)) {
+					change.set("value", newRevisionSource.get(property));
+				}
+				if (oldRevisionSource.has(property)) {
+					change.set("fromValue", oldRevisionSource.get(property));
+				}
+				if (fieldsToSkip == null) {
+					fieldsToSkip = Sets.newHashSetWithExpectedSize(1); // expect a single array like property per type
+				}
+				fieldsToSkip.add(property);
+			}
+
+			filteredRawDiff.add(change);
+		}
+		return filteredRawDiff;
+	}
+
+	/**
+	 * Returns the root property of a JSON patch operation's path, eg. <code>"/terms/0"</code> becomes <code>"terms"</code>.
+	 */
+	private static String getChangeRootProperty(JsonNode change) {
+		final String path = change.get("path").asText().substring(1);
+		final int slashIdx = path.indexOf('/');
+		return slashIdx == -1 ? path : path.substring(0, slashIdx);
+	}
+
+}
@@ -17,6 +17,9 @@ package com.b2international.index.revision;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
 import com.b2international.index.Index;
 import com.b2international.index.admin.Administrable;
 import com.google.common.base.Strings;
@@ -76,7 +79,24 @@ public interface RevisionIndex extends Administrable<RevisionIndexAdmin> {
 	 * @param purge
 	 *            - the type of purge to execute
 	 */
-	void purge(String branchPath, Purge purge);
+	default void purge(String branchPath, Purge purge) {
+		purge(branchPath, purge, new NullProgressMonitor());
+	}
+	
+	/**
+	 * Purges selected revisions from the given branch in this index, reporting the progress of the purge to the given monitor. Revision types are
+	 * purged in parallel and the affected indexes are refreshed once, when the purge completes.
+	 * 
+	 * @param branchPath
+	 *            - the branch to purge
+	 * @param purge
+	 *            - the type of purge to execute
+	 * @param monitor
+	 *            - the monitor to report progress to
+	 * @since 7.14
+	 * @see #purge(String, Purge)
+	 */
+	void purge(String branchPath, Purge purge, IProgressMonitor monitor);
 
 	/**
 	 * Compares the given branch with its parent branch as base. The {@link RevisionCompare} response will contain the difference from the branch
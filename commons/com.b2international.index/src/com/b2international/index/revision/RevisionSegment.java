@@ -18,6 +18,8 @@ package com.b2international.index.revision;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import com.b2international.index.query.Expression;
 import com.b2international.index.query.Expressions;
@@ -146,6 +148,61 @@ public final class RevisionSegment implements Comparable<RevisionSegment> {
 		return new RevisionBranchPoint(branchId, end);
 	}
 	
+	/**
+	 * Returns whether this segment and the given segment cover overlapping or directly adjacent timestamp intervals on the same branch, so
+	 * they can be represented by a single segment.
+	 * 
+	 * @param other
+	 * @return
+	 * @since 7.14
+	 */
+	public boolean canMerge(RevisionSegment other) {
+		return branchId == other.branchId 
+				&& start - 1L <= other.end
+				&& other.start - 1L <= end;
+	}
+	
+	/**
+	 * Returns the segment covering both this and the given segment.
+	 * 
+	 * @param other
+	 * @return
+	 * @since 7.14
+	 * @see #canMerge(RevisionSegment)
+	 */
+	public RevisionSegment merge(RevisionSegment other) {
+		checkArgument(canMerge(other), "Cannot merge non-adjacent segments: %s, %s", this, other);
+		return new RevisionSegment(branchId, Math.min(start, other.start), Math.max(end, other.end));
+	}
+	
+	/**
+	 * Compacts the given segments by merging the overlapping and adjacent segments of each branch. The returned segments cover the exact
+	 * same branch points as the given ones, but with the fewest number of segments.
+	 * 
+	 * @param segments
+	 * @return
+	 * @since 7.14
+	 */
+	public static SortedSet<RevisionSegment> compact(SortedSet<RevisionSegment> segments) {
+		final TreeSet<RevisionSegment> compacted = new TreeSet<>();
+		RevisionSegment current = null;
+		// segments are ordered by branch and start, so mergeable segments are next to each other
+		for (RevisionSegment segment : segments) {
+			if (current == null) {
+				current = segment;
+			} else if (current.canMerge(segment)) {
+				current = current.merge(segment);
+			} else {
+				compacted.add(current);
+				current = segment;
+			}
+		}
+		if (current != null) {
+			compacted.add(current);
+		}
+		return compacted;
+	}
+	
 	public Expression toRangeExpression(String field) {
 		return toRangeExpression(field, true);
 	}
@@ -29,12 +29,10 @@ import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import com.b2international.commons.ClassUtils;
 import com.b2international.commons.CompareUtils;
 import com.b2international.commons.Pair;
 import com.b2international.index.BulkUpdate;
 import com.b2international.index.IndexException;
-import com.b2international.index.es.admin.EsIndexAdmin;
 import com.b2international.index.mapping.DocumentMapping;
 import com.b2international.index.query.Expressions;
 import com.b2international.index.query.Query;
@@ -46,7 +44,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.flipkart.zjsonpatch.JsonDiff;
 import com.flipkart.zjsonpatch.JsonPatch;
 import com.google.common.collect.*;
 
@@ -837,7 +834,7 @@ public final class StagingArea {
 		public final Revision oldRevision;
 		public final Revision newRevision;
 		
-		private ArrayNode rawDiff;
+		private Boolean hasChanges;
 		private ArrayNode diff;
 		private Map<String, RevisionPropertyDiff> propertyChanges;
 		
@@ -847,72 +844,24 @@ public final class StagingArea {
 		}
 
 		public boolean hasChanges() {
-			return rawDiff().size() > 0;
+			if (hasChanges == null) {
+				hasChanges = RevisionDiffer.get(getMapping()).hasChanges(mapper, oldRevision, newRevision);
+			}
+			return hasChanges;
 		}
 		
 		public DocumentMapping getMapping() {
 			return index.admin().mappings().getMapping(newRevision.getClass());
 		}
 
-		private ArrayNode rawDiff() {
-			if (rawDiff == null) {
-				final DocumentMapping mapping = getMapping();
-				ObjectNode oldRevisionSource = mapper.valueToTree(oldRevision);
-				ObjectNode newRevisionSource = mapper.valueToTree(newRevision);
-				final JsonNode diff = JsonDiff.asJson(oldRevisionSource, newRevisionSource, EsIndexAdmin.DIFF_FLAGS);
-				final ArrayNode rawDiff = ClassUtils.checkAndCast(diff, ArrayNode.class);
-				final ArrayNode filteredRawDiff = mapper.createArrayNode();
-				final Iterator<JsonNode> elements = rawDiff.elements();
-				Set<String> fieldsToSkip = null; 
-				while (elements.hasNext()) {
-					ObjectNode change = ClassUtils.checkAndCast(elements.next(), ObjectNode.class);
-					final String property = getChangeRootProperty(change);
-					
-					if (Revision.isRevisionField(property) || (fieldsToSkip != null && fieldsToSkip.contains(property))) {
-						continue;
-					}
-					
-					// in case of a collection-like tracked property, convert the first diff to a full prop diff and ignore the rest of the prop changes on the same property
-					if (mapping.getRevisionFields().contains(property) && mapping.isCollection(property)) {
-						// construct a replacement JSON array patch node
-						change = new RevisionPropertyDiff(property, serializeToCommitDetailValue(oldRevisionSource, property), serializeToCommitDetailValue(newRevisionSource, property))
-								.asPatch(mapper, oldRevisionSource, true /* includeFromValue */);
-						if (fieldsToSkip == null) {
-							fieldsToSkip = Sets.newHashSetWithExpectedSize(1); // expect a single array like property per type
-						}
-						fieldsToSkip.add(property);
-					}
-					
-					filteredRawDiff.add(change);
-				}
-				this.rawDiff = filteredRawDiff;
-			}
-			return this.rawDiff;
-		}
-		
 		public ArrayNode diff() {
 			if (diff == null) {
 				final DocumentMapping mapping = getMapping();
-				final Set<String> revisionFields = mapping.getRevisionFields();
-				if (revisionFields.isEmpty()) {
+				if (mapping.getRevisionFields().isEmpty()) {
 					return null; // in case of no fields to revision control, do NOT try to compute the diff
 				}
-				
-				final ArrayNode diff = mapper.createArrayNode();
-				final Iterator<JsonNode> elements = rawDiff().elements();
-				while (elements.hasNext()) {
-					JsonNode node = elements.next();
-					final ObjectNode change = ClassUtils.checkAndCast(node, ObjectNode.class);
-					
-					// Remove trailing segments in nested property paths (we are only interested in the top property)
-					String property = getChangeRootProperty(change);
-
-					// Keep revision fields only
-					if (revisionFields.contains(property)) {
-						diff.add(change);
-					}
-				}
-				this.diff = diff;
+				// compare tracked fields only, without converting the entire revisions to JSON
+				this.diff = RevisionDiffer.get(mapping).diff(mapper, oldRevision, newRevision);
 			}
 			return this.diff;
 		}
@@ -1074,22 +1023,6 @@ public final class StagingArea {
 		return new StagedObject(StageKind.REMOVED, object, diff, commit);
 	}
 	
-	/**
-	 * Returns the top/root level property that has been changed.
-	 * Ignores array indexes and nested property paths.
-	 * 
-	 * @param change - the change to extract the root level prop name from 
-	 * @return the root property name that has been changed
-	 */
-	private static String getChangeRootProperty(ObjectNode change) {
-		String property = getChangeProperty(change);
-		final int nextSegmentIdx = property.indexOf("/");
-		if (nextSegmentIdx >= 0) {
-			property = property.substring(0, nextSegmentIdx);
-		}
-		return property;
-	}
-
 	/**
 	 * Returns the actual property that has been changed, be it nested or an array index
 	 * 
@@ -15,7 +15,13 @@
  */
 package com.b2international.snowowl.core.locks;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -29,6 +35,7 @@ import com.b2international.snowowl.core.internal.locks.DatastoreLockTarget;
 import com.b2international.snowowl.core.internal.locks.Slf4jOperationLockTargetListener;
 import com.b2international.snowowl.core.repository.JsonSupport;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterables;
 
 /**
  * @since 7.1.0
@@ -128,6 +135,93 @@ public class DatastoreLockTests {
 		}
 	}
 	
+	@Test
+	public void testRepositoryLockConflictsWithBranchLock() throws Exception {
+		final DatastoreLockContext context = createContext(USER, DatastoreLockContextDescriptions.CREATE_VERSION);
+		final DatastoreLockContext otherContext = createContext("other", DatastoreLockContextDescriptions.CREATE_VERSION);
+		final DatastoreLockTarget branchTarget = new DatastoreLockTarget("snomedStore", "MAIN/task");
+		final DatastoreLockTarget otherBranchTarget = new DatastoreLockTarget("snomedStore", "MAIN/other");
+		final DatastoreLockTarget repositoryTarget = new DatastoreLockTarget("snomedStore", null);
+		
+		manager.lock(context, IOperationLockManager.IMMEDIATE, branchTarget);
+		manager.lock(otherContext, IOperationLockManager.IMMEDIATE, otherBranchTarget);
+		
+		try {
+			manager.lock(otherContext, IOperationLockManager.IMMEDIATE, repositoryTarget);
+			fail("Repository lock should not be granted while a branch of the repository is locked by another user");
+		} catch (OperationLockException expected) {
+			// expected
+		}
+		
+		manager.unlock(context, branchTarget);
+		manager.unlock(otherContext, otherBranchTarget);
+		manager.lock(otherContext, IOperationLockManager.IMMEDIATE, repositoryTarget);
+		assertEquals(1, manager.getLocks().size());
+	}
+	
+	@Test
+	public void testWaitingLockRequestIsGrantedOnRelease() throws Exception {
+		final DatastoreLockContext context = createContext(USER, DatastoreLockContextDescriptions.CREATE_VERSION);
+		final DatastoreLockContext otherContext = createContext("other", DatastoreLockContextDescriptions.CREATE_VERSION);
+		final DatastoreLockTarget target = new DatastoreLockTarget("snomedStore", "MAIN");
+		
+		manager.lock(context, IOperationLockManager.IMMEDIATE, target);
+		
+		final AtomicReference<Exception> failure = new AtomicReference<>();
+		final Thread waiting = new Thread(() -> {
+			try {
+				manager.lock(otherContext, TIMEOUT, target);
+			} catch (OperationLockException | InterruptedException e) {
+				failure.set(e);
+			}
+		});
+		waiting.start();
+		
+		// the request only waits for a release signal after its first attempt has failed
+		awaitState(waiting, Thread.State.TIMED_WAITING);
+		manager.unlock(context, target);
+		waiting.join(TIMEOUT);
+		
+		assertFalse("Waiting lock request should have completed", waiting.isAlive());
+		assertNull(failure.get());
+		
+		final OperationLockStatistics statistics = Iterables.getOnlyElement(manager.getLockStatistics());
+		assertEquals(target, statistics.getTarget());
+		assertEquals(2, statistics.getAcquisitions());
+		assertEquals(1, statistics.getContendedAcquisitions());
+		assertEquals(1, statistics.getHolders());
+	}
+	
+	@Test
+	public void testLockStatisticsBounded() throws Exception {
+		final ObjectMapper mapper = JsonSupport.getDefaultObjectMapper();
+		final Index index = Indexes.createIndex("bounded-locks", mapper, new Mappings(DatastoreLockIndexEntry.class));
+		final DatastoreOperationLockManager boundedManager = new DatastoreOperationLockManager(index, 2);
+		final DatastoreLockContext context = createContext(USER, DatastoreLockContextDescriptions.CREATE_VERSION);
+		
+		try {
+			for (int i = 0; i < 10; i++) {
+				final DatastoreLockTarget target = new DatastoreLockTarget("snomedStore", "MAIN/" + i);
+				boundedManager.lock(context, TIMEOUT, target);
+				boundedManager.unlock(context, target);
+			}
+			
+			assertTrue(boundedManager.getLockStatistics().size() <= 2);
+		} finally {
+			boundedManager.dispose();
+		}
+	}
+	
+	private static void awaitState(final Thread thread, final Thread.State state) {
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (thread.getState() != state) {
+			if (System.currentTimeMillis() > deadline) {
+				fail(String.format("Thread '%s' did not reach state %s", thread.getName(), state));
+			}
+			Thread.yield();
+		}
+	}
+	
 	private DatastoreLockContext createContext(final String user, final String description) {
 		return new DatastoreLockContext(user, description);
 	}
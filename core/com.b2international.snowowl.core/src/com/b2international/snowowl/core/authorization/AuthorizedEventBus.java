@@ -25,9 +25,11 @@ import java.util.concurrent.ExecutorService;
 import com.b2international.snowowl.core.ServiceProvider;
 import com.b2international.snowowl.core.identity.JWTGenerator;
 import com.b2international.snowowl.core.identity.User;
+import com.b2international.snowowl.eventbus.AddressLimit;
 import com.b2international.snowowl.eventbus.IEventBus;
 import com.b2international.snowowl.eventbus.IHandler;
 import com.b2international.snowowl.eventbus.IMessage;
+import com.b2international.snowowl.eventbus.IMessageMonitor;
 import com.google.common.collect.ImmutableMap;
 
 /**
@@ -111,6 +113,26 @@ public class AuthorizedEventBus implements IEventBus {
 		return bus.getExecutorService();
 	}
 
+	@Override
+	public void setAddressLimit(String address, AddressLimit limit) {
+		bus.setAddressLimit(address, limit);
+	}
+	
+	@Override
+	public AddressLimit getAddressLimit(String address) {
+		return bus.getAddressLimit(address);
+	}
+	
+	@Override
+	public void addMessageMonitor(IMessageMonitor monitor) {
+		bus.addMessageMonitor(monitor);
+	}
+	
+	@Override
+	public void removeMessageMonitor(IMessageMonitor monitor) {
+		bus.removeMessageMonitor(monitor);
+	}
+
 	@Override
 	public long getInQueueMessages(String tag) {
 		return bus.getInQueueMessages(tag);
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.core.config;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.b2international.snowowl.eventbus.AddressLimit;
+import com.b2international.snowowl.eventbus.AddressLimit.Overflow;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Concurrency and queue limits of a single event bus address, see {@link AddressLimit}.
+ *
+ * @since 7.14
+ */
+public class AddressLimitConfiguration {
+
+	@Min(1)
+	private int maxConcurrency = Integer.MAX_VALUE;
+
+	@Min(0)
+	private int maxQueueSize = Integer.MAX_VALUE;
+
+	@NotNull
+	private Overflow overflow = Overflow.REJECT;
+
+	@Min(0)
+	private long blockTimeout = 30_000L;
+
+	@JsonProperty
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	@JsonProperty
+	public void setMaxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	@JsonProperty
+	public int getMaxQueueSize() {
+		return maxQueueSize;
+	}
+
+	@JsonProperty
+	public void setMaxQueueSize(int maxQueueSize) {
+		this.maxQueueSize = maxQueueSize;
+	}
+
+	@JsonProperty
+	public Overflow getOverflow() {
+		return overflow;
+	}
+
+	@JsonProperty
+	public void setOverflow(Overflow overflow) {
+		this.overflow = overflow;
+	}
+
+	/**
+	 * @return the maximum time in milliseconds a sender waits for a free queue slot when using the {@link Overflow#BLOCK} policy
+	 */
+	@JsonProperty
+	public long getBlockTimeout() {
+		return blockTimeout;
+	}
+
+	@JsonProperty
+	public void setBlockTimeout(long blockTimeout) {
+		this.blockTimeout = blockTimeout;
+	}
+
+	public AddressLimit toAddressLimit() {
+		return new AddressLimit(maxConcurrency, maxQueueSize, overflow, blockTimeout);
+	}
+
+}
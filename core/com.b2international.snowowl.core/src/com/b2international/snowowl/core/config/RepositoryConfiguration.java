@@ -15,6 +15,9 @@
  */
 package com.b2international.snowowl.core.config;
 
+import java.util.Map;
+
+import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
@@ -23,6 +26,7 @@ import javax.validation.constraints.Pattern;
 import org.hibernate.validator.constraints.NotEmpty;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.net.HostAndPort;
 
 /**
@@ -46,6 +50,8 @@ public class RepositoryConfiguration {
 	@Min(1)
 	private int maxThreads = 200;
 	
+	private boolean elasticThreads = false;
+	
 	@Min(10)
 	@Max(1000)
 	private int mergeMaxResults = 100;
@@ -53,6 +59,10 @@ public class RepositoryConfiguration {
 	@Pattern(regexp = "^[a-zA-Z0-9_-]{0,32}$")
 	private String deploymentId = "";
 	
+	@Valid
+	@NotNull
+	private Map<String, AddressLimitConfiguration> addressLimits = ImmutableMap.of();
+	
 	/**
 	 * @return the host
 	 */
@@ -128,6 +138,23 @@ public class RepositoryConfiguration {
 		this.maxThreads = maxThreads;
 	}
 	
+	/**
+	 * @return <code>true</code> if the underlying event bus instance should start a new thread for each message handler until
+	 *         {@link #getMaxThreads()} is reached, <code>false</code> if it should use a pool of at most {@link #getMaxThreads()} threads that
+	 *         queues messages before scaling up. In elastic mode messages over the thread limit wait in a bounded queue and are rejected when
+	 *         it is full; {@link #getMaxThreads()} should be set considerably higher than the limit of the <code>/requests</code> address, as
+	 *         nested requests are not limited.
+	 */
+	@JsonProperty
+	public boolean isElasticThreads() {
+		return elasticThreads;
+	}
+	
+	@JsonProperty
+	public void setElasticThreads(boolean elasticThreads) {
+		this.elasticThreads = elasticThreads;
+	}
+	
 	@JsonProperty("index")
 	public IndexConfiguration getIndexConfiguration() {
 		return indexConfiguration;
@@ -160,4 +187,20 @@ public class RepositoryConfiguration {
 	public void setDeploymentId(String deploymentId) {
 		this.deploymentId = deploymentId;
 	}
+	
+	/**
+	 * @return the concurrency and queue limits of event bus addresses, keyed by address. Requests can be limited per request type by using
+	 *         the request address followed by the simple class name of the request as key (eg. <code>/requests/SnomedRf2ImportRequest</code>),
+	 *         requests of these types do not count against the limit of the <code>/requests</code> address. Requests sent while executing
+	 *         another request are not limited.
+	 */
+	@JsonProperty
+	public Map<String, AddressLimitConfiguration> getAddressLimits() {
+		return addressLimits;
+	}
+	
+	@JsonProperty
+	public void setAddressLimits(Map<String, AddressLimitConfiguration> addressLimits) {
+		this.addressLimits = addressLimits;
+	}
 }
@@ -16,13 +16,16 @@
 package com.b2international.snowowl.core.events;
 
 import java.util.Collections;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import com.b2international.commons.CompositeClassLoader;
+import com.b2international.commons.exceptions.TooManyRequestsException;
 import com.b2international.snowowl.core.ServiceProvider;
 import com.b2international.snowowl.core.events.util.Promise;
 import com.b2international.snowowl.core.jobs.JobRequests;
 import com.b2international.snowowl.core.jobs.ScheduleJobRequestBuilder;
+import com.b2international.snowowl.eventbus.AddressLimit;
 import com.b2international.snowowl.eventbus.IEventBus;
 import com.b2international.snowowl.eventbus.IHandler;
 import com.b2international.snowowl.eventbus.IMessage;
@@ -50,14 +53,20 @@ public final class AsyncRequest<R> {
 		classLoader.add(request.getClassLoader());
 		request.getNestedRequests().stream().map(Request::getClassLoader).forEach(classLoader::add);
 		request.getNestedRequests().stream().map(r -> r.getClass().getClassLoader()).forEach(classLoader::add);
-		bus.send(Request.ADDRESS, request, Request.TAG, Collections.emptyMap(), new IHandler<IMessage>() {
+		bus.send(Request.ADDRESS, request, Request.TAG, Collections.singletonMap(AddressLimit.GROUP_HEADER, getLimitGroup(request)), new IHandler<IMessage>() {
 			@Override
 			public void handle(IMessage message) {
 				try {
 					if (message.isSucceeded()) {
 						promise.resolve(message.body(responseType, classLoader), message.headers());
 					} else {
-						promise.reject(message.body(Throwable.class, AsyncRequest.class.getClassLoader()));
+						final Throwable failure = message.body(Throwable.class, AsyncRequest.class.getClassLoader());
+						if (failure instanceof RejectedExecutionException) {
+							// the request address is over its configured capacity
+							promise.reject(new TooManyRequestsException());
+						} else {
+							promise.reject(failure);
+						}
 					}
 				} catch (Throwable e) {
 					promise.reject(e);
@@ -67,6 +76,15 @@ public final class AsyncRequest<R> {
 		return promise;
 	}
 	
+	/*Requests are grouped by the type of the innermost request, so limits can be configured per request type (eg. /requests/SnomedRf2ImportRequest)*/
+	private static String getLimitGroup(Request<?, ?> request) {
+		Request<?, ?> current = request;
+		while (current instanceof DelegatingRequest<?, ?, ?>) {
+			current = ((DelegatingRequest<?, ?, ?>) current).next();
+		}
+		return current.getClass().getSimpleName();
+	}
+	
 	/**
 	 * @return the underlying request to be sent asynchronously.
 	 */
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.core.internal.validation;
+
+import java.util.Collection;
+
+import com.b2international.index.Doc;
+import com.b2international.index.ID;
+import com.b2international.index.query.Expression;
+import com.b2international.index.query.Expressions;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Records the branch head timestamp a validation rule was last successfully evaluated at on a resource. Incremental validation runs only
+ * consider the changes committed after this timestamp.
+ *
+ * @since 7.14
+ */
+@Doc
+public final class ValidationCheckpoint {
+
+	/**
+	 * @since 7.14
+	 */
+	public static final class Fields {
+		public static final String ID = "id";
+		public static final String RESOURCE_URI = "resourceURI";
+		public static final String RULE_ID = "ruleId";
+		public static final String TIMESTAMP = "timestamp";
+	}
+
+	/**
+	 * @since 7.14
+	 */
+	public static final class Expressions {
+
+		private Expressions() {}
+
+		public static Expression resourceUris(Collection<String> resourceUris) {
+			return com.b2international.index.query.Expressions.matchAny(Fields.RESOURCE_URI, resourceUris);
+		}
+
+		public static Expression ruleIds(Collection<String> ruleIds) {
+			return com.b2international.index.query.Expressions.matchAny(Fields.RULE_ID, ruleIds);
+		}
+
+	}
+
+	@ID
+	private final String id;
+	private final String resourceURI;
+	private final String ruleId;
+	private final long timestamp;
+
+	public ValidationCheckpoint(String resourceURI, String ruleId, long timestamp) {
+		this(toId(resourceURI, ruleId), resourceURI, ruleId, timestamp);
+	}
+
+	@JsonCreator
+	public ValidationCheckpoint(
+			@JsonProperty("id") String id,
+			@JsonProperty("resourceURI") String resourceURI,
+			@JsonProperty("ruleId") String ruleId,
+			@JsonProperty("timestamp") long timestamp) {
+		this.id = id;
+		this.resourceURI = resourceURI;
+		this.ruleId = ruleId;
+		this.timestamp = timestamp;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getResourceURI() {
+		return resourceURI;
+	}
+
+	public String getRuleId() {
+		return ruleId;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(getClass())
+				.add("id", id)
+				.add("resourceURI", resourceURI)
+				.add("ruleId", ruleId)
+				.add("timestamp", timestamp)
+				.toString();
+	}
+
+	public static String toId(String resourceURI, String ruleId) {
+		return String.join("#", resourceURI, ruleId);
+	}
+
+}
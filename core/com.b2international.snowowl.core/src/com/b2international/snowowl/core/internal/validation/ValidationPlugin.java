@@ -74,7 +74,7 @@ public final class ValidationPlugin extends Plugin {
 			final Index validationIndex = Indexes.createIndex(
 				"validations", 
 				mapper, 
-				new Mappings(ValidationIssue.class, ValidationRule.class, ValidationWhiteList.class), 
+				new Mappings(ValidationIssue.class, ValidationRule.class, ValidationWhiteList.class, ValidationCheckpoint.class), 
 				env.service(IndexSettings.class)
 			);
 			
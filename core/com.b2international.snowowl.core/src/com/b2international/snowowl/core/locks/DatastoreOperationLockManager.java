@@ -15,56 +15,79 @@
  */
 package com.b2international.snowowl.core.locks;
 
-import java.text.MessageFormat;
+import static com.google.common.collect.Lists.newArrayList;
+
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
-
-import javax.annotation.OverridingMethodsMustInvokeSuper;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.ListenerList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import com.b2international.index.Hits;
 import com.b2international.index.Index;
-import com.b2international.index.query.Expression;
-import com.b2international.index.query.Expressions;
-import com.b2international.index.query.Query;
-import com.b2international.index.query.SortBy;
 import com.b2international.snowowl.core.IDisposableService;
-import com.b2international.snowowl.core.identity.User;
 import com.b2international.snowowl.core.internal.locks.DatastoreLockContext;
-import com.b2international.snowowl.core.internal.locks.DatastoreLockContextDescriptions;
 import com.b2international.snowowl.core.internal.locks.DatastoreLockTarget;
-import com.b2international.snowowl.core.internal.locks.DatastoreOperationLockException;
 import com.b2international.snowowl.core.locks.DatastoreLockIndexEntry.Builder;
 import com.google.common.base.Strings;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
- * An abstract superclass of {@link IOperationLockManager} providing common methods.
- * 
+ * {@link IOperationLockManager} implementation keeping granted locks in memory and mirroring them to an index for administrative purposes.
+ * <p>
+ * Locks are striped by repository: acquiring or releasing a branch lock only excludes concurrent changes to repository-level locks of
+ * the same repository, and changes to the lock held for {@link DatastoreLockTarget#ALL all repositories}. Lock entries are written to and
+ * removed from the index asynchronously, in the order of the corresponding lock operations, so index writes do not delay lock requests.
+ * <p>
+ * The manager also collects contention statistics (acquisitions, time spent waiting for conflicting locks, current holders) for
+ * recently locked targets, see {@link #getLockStatistics()}.
  */
 public final class DatastoreOperationLockManager implements IOperationLockManager, IDisposableService {
 	
+	private static final Logger LOG = LoggerFactory.getLogger("locks");
+	
 	protected static final String ACQUIRE_FAILED_MESSAGE = "Could not acquire requested lock(s).";
 
 	private static final String RELEASE_FAILED_MESSAGE = "Could not release requested lock(s).";
 
-	private static final String LOCK_EXISTS_BUT_NOT_HELD_MESSAGE = "Lock for target {0} exists, but no lock is held.";
+	private static final String MANAGER_DISPOSED_MESSAGE = "Lock manager is disposed.";
 
 	private static final int EXPECTED_LOCKS = 128;
 	
+	private static final int MAX_STATISTICS_TARGETS = 1_000;
+	
+	private static final long STATISTICS_EXPIRE_MINUTES = 60L;
+	
 	private final AtomicBoolean disposed = new AtomicBoolean(false);
 
-	private final Object syncObject = new Object();
-	
 	private final Index index;
 
 	private final ListenerList listenerList = new ListenerList();
@@ -73,9 +96,42 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 	
 	private int lastAssignedId = 0;
 	
+	// held for reading while repository stripes are in use, and for writing while the lock for all repositories is acquired or released
+	private final ReadWriteLock globalGate = new ReentrantReadWriteLock();
+	
+	private final ConcurrentMap<DatastoreLockTarget, LockEntry> globalEntries = new ConcurrentHashMap<>();
+	
+	private final ConcurrentMap<String, Stripe> stripes = new ConcurrentHashMap<>();
+	
+	// incremented on each release, waiting lock requests retry when it changes
+	private final AtomicLong releases = new AtomicLong();
+	
+	private final Object releaseSignal = new Object();
+	
+	// statistics of targets not locked for a while are dropped, so branches locked once do not accumulate entries
+	private final LoadingCache<DatastoreLockTarget, TargetStatistics> statistics;
+	
+	// lock IDs mapped to the entry to index, or null if the entry should be removed
+	private final Queue<Map.Entry<String, DatastoreLockIndexEntry>> pendingIndexOperations = new ConcurrentLinkedQueue<>();
+	
+	private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+			.setNameFormat("datastore-locks-index")
+			.setDaemon(true)
+			.build());
+	
 	public DatastoreOperationLockManager(Index index) {
+		this(index, MAX_STATISTICS_TARGETS);
+	}
+	
+	DatastoreOperationLockManager(Index index, int maxStatisticsTargets) {
 		this.index = index;
+		this.statistics = CacheBuilder.newBuilder()
+				.maximumSize(maxStatisticsTargets)
+				.expireAfterAccess(STATISTICS_EXPIRE_MINUTES, TimeUnit.MINUTES)
+				.build(CacheLoader.from(TargetStatistics::new));
 		this.index.admin().create();
+		// entries left behind by a previous run do not belong to any lock held by this instance
+		this.index.admin().clear(Collections.singleton(DatastoreLockIndexEntry.class));
 	}
 	
 	@Override
@@ -86,35 +142,38 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 	@Override
 	public void lock(final DatastoreLockContext context, final long timeoutMillis, final Iterable<DatastoreLockTarget> targets) throws OperationLockException, InterruptedException {
 
-		final Map<DatastoreLockTarget, DatastoreLockContext> alreadyLockedTargets = Maps.newHashMap();
+		final Set<DatastoreLockTarget> targetsToLock = Sets.newLinkedHashSet(targets);
 		final long startTimeMillis = getCurrentTimeMillis();
+		boolean contended = false;
 		
-		synchronized (syncObject) {
-			while (true) {
-				
-				alreadyLockedTargets.clear();
-				canContextLockTargets(context, targets, alreadyLockedTargets);
-	
-				if (alreadyLockedTargets.isEmpty()) {
-					for (final DatastoreLockTarget newTarget : targets) {
-						final IOperationLock existingLock = getOrCreateLock(context, newTarget);
-						fireTargetAcquired(existingLock.getTarget(), context);
-					}
-					
-					syncObject.notifyAll();
-					return;
+		while (true) {
+			
+			final long observedReleases = releases.get();
+			if (tryLock(context, targetsToLock)) {
+				recordAcquisition(targetsToLock, contended, getCurrentTimeMillis() - startTimeMillis);
+				for (final DatastoreLockTarget newTarget : targetsToLock) {
+					fireTargetAcquired(newTarget, context);
 				}
-				
-				if (NO_TIMEOUT == timeoutMillis) {
-					syncObject.wait();
-				} else {
-					final long remainingTimeoutMillis = timeoutMillis - (getCurrentTimeMillis() - startTimeMillis);
-					
-					if (remainingTimeoutMillis < 1L) {
-						throwLockException(ACQUIRE_FAILED_MESSAGE, alreadyLockedTargets);
-					} else {
-						syncObject.wait(remainingTimeoutMillis);
-					}
+				return;
+			}
+			
+			contended = true;
+			
+			final long remainingTimeoutMillis;
+			if (NO_TIMEOUT == timeoutMillis) {
+				remainingTimeoutMillis = 0L;
+			} else {
+				remainingTimeoutMillis = timeoutMillis - (getCurrentTimeMillis() - startTimeMillis);
+				if (remainingTimeoutMillis < 1L) {
+					recordTimeout(targetsToLock, getCurrentTimeMillis() - startTimeMillis);
+					throw new OperationLockException(ACQUIRE_FAILED_MESSAGE);
+				}
+			}
+			
+			synchronized (releaseSignal) {
+				// wait only if no locks were released since the last attempt
+				if (observedReleases == releases.get()) {
+					releaseSignal.wait(remainingTimeoutMillis);
 				}
 			}
 		}
@@ -128,38 +187,38 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 	@Override
 	public void unlock(final DatastoreLockContext context, final Iterable<DatastoreLockTarget> targets) throws OperationLockException {
 
-		final Map<DatastoreLockTarget, DatastoreLockContext> notUnlockedTargets = Maps.newHashMap();
-
-		synchronized (syncObject) {
-
-			for (final DatastoreLockTarget targetToUnlock : targets) {
-				for (final IOperationLock existingLock : getExistingLocks()) {
-					if (existingLock.targetEquals(targetToUnlock) && !canContextUnlock(context, existingLock)) {
-						notUnlockedTargets.put(existingLock.getTarget(), existingLock.getContext());
+		final Set<DatastoreLockTarget> targetsToUnlock = Sets.newLinkedHashSet(targets);
+		final List<Lock> gates = acquireGates(targetsToUnlock);
+		
+		try {
+			
+			final List<LockEntry> entriesToRemove = newArrayList();
+			for (final DatastoreLockTarget targetToUnlock : targetsToUnlock) {
+				final LockEntry existingEntry = getEntries(targetToUnlock).get(targetToUnlock);
+				if (existingEntry != null) {
+					if (!existingEntry.context.userMatches(context)) {
+						throw new OperationLockException(RELEASE_FAILED_MESSAGE);
 					}
+					entriesToRemove.add(existingEntry);
 				}
 			}
-
-			if (!notUnlockedTargets.isEmpty()) {
-				throwLockException(RELEASE_FAILED_MESSAGE, notUnlockedTargets);
-			}
-
-			for (final DatastoreLockTarget targetToUnlock : targets) {
-				
-				final IOperationLock existingLock = getOrCreateLock(context, targetToUnlock);
-				
-				try {
-					existingLock.release(context);
-					fireTargetReleased(existingLock.getTarget(), context);
-				} finally {
-					if (!existingLock.isLocked()) {
-						removeLock(existingLock);
-					}
+			
+			// entries are only removed if they were not replaced concurrently
+			for (final LockEntry entryToRemove : entriesToRemove) {
+				if (getEntries(entryToRemove.target).remove(entryToRemove.target, entryToRemove)) {
+					removeEntry(entryToRemove);
 				}
 			}
 			
-			syncObject.notifyAll();
+		} finally {
+			releaseGates(gates);
+		}
+		
+		for (final DatastoreLockTarget targetToUnlock : targetsToUnlock) {
+			fireTargetReleased(targetToUnlock, context);
 		}
+		
+		signalRelease();
 	}
 
 	/**
@@ -169,19 +228,16 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 	 */
 	public void unlockAll() {
 
-		synchronized (syncObject) {
-			
-			for (IOperationLock lockToRemove : getExistingLocks()) {
-				
-				if (!lockToRemove.isLocked()) {
-					throw new IllegalStateException(MessageFormat.format(LOCK_EXISTS_BUT_NOT_HELD_MESSAGE, lockToRemove.getTarget()));
-				} else {
-					removeLock(lockToRemove);
-				}
-			}
-			
-			syncObject.notifyAll();
+		globalGate.writeLock().lock();
+		
+		try {
+			removeEntries(globalEntries);
+			stripes.values().forEach(stripe -> removeEntries(stripe.entries));
+		} finally {
+			globalGate.writeLock().unlock();
 		}
+		
+		signalRelease();
 	}
 
 	/**
@@ -194,23 +250,20 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 	 */
 	public boolean unlockById(final int id) {
 		
-		synchronized (syncObject) {
+		globalGate.writeLock().lock();
+		
+		try {
+			final boolean removed = Stream.concat(Stream.of(globalEntries), stripes.values().stream().map(stripe -> stripe.entries))
+					.anyMatch(entries -> removeEntry(entries, id));
 			
-			for (IOperationLock lockToRemove : getExistingLocks()) {
-				
-				if (!lockToRemove.isLocked()) {
-					throw new IllegalStateException(MessageFormat.format(LOCK_EXISTS_BUT_NOT_HELD_MESSAGE, lockToRemove.getTarget()));
-				} 
-				
-				if (id == lockToRemove.getId()) {
-					removeLock(lockToRemove);
-					syncObject.notifyAll();
-					return true;
-				}
-			}				
+			if (removed) {
+				signalRelease();
+			}
+			
+			return removed;
+		} finally {
+			globalGate.writeLock().unlock();
 		}
-		
-		return false;
 	}
 
 	/**
@@ -218,16 +271,39 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 	 * <p>
 	 * Collects a snapshot of currently granted locks.
 	 * <p>
-	 * @return a list of granted locks information objects, sorted by lock identifer (never {@code null})
+	 * @return a list of granted locks information objects, sorted by creation date (never {@code null})
 	 */
 	public List<OperationLockInfo> getLocks() {
 
 		final List<OperationLockInfo> result = Lists.newArrayList();
 		
-		synchronized (syncObject) {
-			for (final IOperationLock existingLock : getExistingLocks()) {
-				result.add(createLockInfo(existingLock));
-			}
+		globalGate.readLock().lock();
+		
+		try {
+			globalEntries.values().forEach(entry -> result.add(entry.toLockInfo()));
+			stripes.values().forEach(stripe -> stripe.entries.values().forEach(entry -> result.add(entry.toLockInfo())));
+		} finally {
+			globalGate.readLock().unlock();
+		}
+		
+		Collections.sort(result);
+		return result;
+	}
+	
+	/**
+	 * (non-API)
+	 * <p>
+	 * Collects contention statistics of recently locked targets. Statistics are kept for at most {@value #MAX_STATISTICS_TARGETS} targets,
+	 * and are dropped if the target has not been locked for {@value #STATISTICS_EXPIRE_MINUTES} minutes.
+	 * 
+	 * @return a list of lock statistics, sorted by total waiting time in descending order (never {@code null})
+	 */
+	public List<OperationLockStatistics> getLockStatistics() {
+		final List<OperationLockStatistics> result = Lists.newArrayList();
+		
+		for (final TargetStatistics targetStatistics : statistics.asMap().values()) {
+			final LockEntry entry = getEntries(targetStatistics.target).get(targetStatistics.target);
+			result.add(targetStatistics.toLockStatistics(entry == null ? 0 : entry.holders.get()));
 		}
 		
 		Collections.sort(result);
@@ -242,83 +318,221 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 		listenerList.remove(listener);
 	}
 
-	private void throwLockException(final String message, final Map<DatastoreLockTarget, DatastoreLockContext> targets) throws OperationLockException {
-		throw new OperationLockException(message);
-	}
-
-	@OverridingMethodsMustInvokeSuper
-	protected void canContextLockTargets(final DatastoreLockContext context, final Iterable<DatastoreLockTarget> targets, final Map<DatastoreLockTarget, DatastoreLockContext> alreadyLockedTargets) 
-			throws DatastoreOperationLockException {
-		if (!isDisposed()) {
+	/*returns true if all targets could be locked, false if a conflicting lock is held by an incompatible context*/
+	private boolean tryLock(final DatastoreLockContext context, final Set<DatastoreLockTarget> targets) throws OperationLockException {
+		final List<Lock> gates = acquireGates(targets);
+		
+		try {
+			
+			if (isDisposed()) {
+				throw new OperationLockException(MANAGER_DISPOSED_MESSAGE);
+			}
+			
 			for (final DatastoreLockTarget newTarget : targets) {
-				for (final IOperationLock existingLock : getExistingLocks()) {
-					if (existingLock.targetConflicts(newTarget) && !canContextLock(context, existingLock)) {
-						alreadyLockedTargets.put(newTarget, existingLock.getContext());
+				if (hasConflict(context, newTarget)) {
+					return false;
+				}
+			}
+			
+			/*
+			 * Branch locks of the same repository can be changed concurrently (the repository stripe is shared), so an incompatible
+			 * entry may have appeared since the check above; entries are re-checked atomically when registered.
+			 */
+			final Map<DatastoreLockTarget, LockEntry> createdEntries = Maps.newHashMap();
+			final List<LockEntry> reusedEntries = newArrayList();
+			for (final DatastoreLockTarget newTarget : targets) {
+				final AtomicBoolean conflict = new AtomicBoolean(false);
+				
+				getEntries(newTarget).compute(newTarget, (target, existingEntry) -> {
+					if (existingEntry == null) {
+						final LockEntry newEntry = new LockEntry(assignId(), target, context);
+						createdEntries.put(target, newEntry);
+						return newEntry;
+					} else if (context.isCompatible(existingEntry.context)) {
+						existingEntry.holders.incrementAndGet();
+						reusedEntries.add(existingEntry);
+						return existingEntry;
+					} else {
+						conflict.set(true);
+						return existingEntry;
 					}
+				});
+				
+				if (conflict.get()) {
+					reusedEntries.forEach(entry -> entry.holders.decrementAndGet());
+					createdEntries.forEach((target, entry) -> {
+						getEntries(target).remove(target, entry);
+						releaseId(entry.id);
+					});
+					
+					if (!createdEntries.isEmpty()) {
+						signalRelease();
+					}
+					
+					return false;
 				}
 			}
+			
+			createdEntries.values().forEach(this::putEntry);
+			return true;
+			
+		} finally {
+			releaseGates(gates);
+		}
+	}
+	
+	private boolean hasConflict(final DatastoreLockContext context, final DatastoreLockTarget newTarget) {
+		final Stream<LockEntry> candidates;
+		
+		if (DatastoreLockTarget.ALL.equals(newTarget)) {
+			candidates = Stream.concat(globalEntries.values().stream(), stripes.values().stream().flatMap(stripe -> stripe.entries.values().stream()));
 		} else {
-			final DatastoreLockContext disposedContext = createLockContext(User.SYSTEM.getUsername(), DatastoreLockContextDescriptions.DISPOSE_LOCK_MANAGER, null);
+			candidates = Stream.concat(globalEntries.values().stream(), getStripe(newTarget.getRepositoryId()).entries.values().stream());
+		}
+		
+		return candidates.anyMatch(existingEntry -> existingEntry.target.conflicts(newTarget) && !context.isCompatible(existingEntry.context));
+	}
+
+	/*
+	 * Gates are always acquired in the same order: the global gate first, then repository stripes sorted by repository ID. Locking or
+	 * unlocking a repository requires exclusive access to its stripe, while branch locks only need shared access.
+	 */
+	private List<Lock> acquireGates(final Set<DatastoreLockTarget> targets) {
+		final List<Lock> gates = newArrayList();
+		
+		if (targets.contains(DatastoreLockTarget.ALL)) {
+			gates.add(globalGate.writeLock());
+		} else {
+			gates.add(globalGate.readLock());
+			
+			final SortedMap<String, Boolean> exclusiveByRepository = Maps.newTreeMap();
 			for (final DatastoreLockTarget target : targets) {
-				alreadyLockedTargets.put(target, disposedContext);
+				exclusiveByRepository.merge(target.getRepositoryId(), isRepositoryTarget(target), Boolean::logicalOr);
 			}
 			
-			throwLockException(ACQUIRE_FAILED_MESSAGE, alreadyLockedTargets);
+			exclusiveByRepository.forEach((repositoryId, exclusive) -> {
+				final ReadWriteLock gate = getStripe(repositoryId).gate;
+				gates.add(exclusive ? gate.writeLock() : gate.readLock());
+			});
 		}
 		
+		gates.forEach(Lock::lock);
+		return gates;
 	}
 	
-	private boolean canContextLock(final DatastoreLockContext context, final IOperationLock existingLock) {
-		return context.isCompatible(existingLock.getContext());
+	private void releaseGates(final List<Lock> gates) {
+		Lists.reverse(gates).forEach(Lock::unlock);
 	}
 	
-	private boolean canContextUnlock(DatastoreLockContext context, IOperationLock existingLock) {
-		return context.userMatches(existingLock.getContext());
+	private boolean isRepositoryTarget(final DatastoreLockTarget target) {
+		return Strings.isNullOrEmpty(target.getBranchPath());
 	}
 
-
-	private void clearListeners() {
-		listenerList.clear();
+	private Stripe getStripe(final String repositoryId) {
+		return stripes.computeIfAbsent(repositoryId, key -> new Stripe());
 	}
 	
-	private long getCurrentTimeMillis() {
-		return System.nanoTime() / (1000L * 1000L);
+	private ConcurrentMap<DatastoreLockTarget, LockEntry> getEntries(final DatastoreLockTarget target) {
+		return DatastoreLockTarget.ALL.equals(target) ? globalEntries : getStripe(target.getRepositoryId()).entries;
+	}
+	
+	private void signalRelease() {
+		releases.incrementAndGet();
+		synchronized (releaseSignal) {
+			releaseSignal.notifyAll();
+		}
+	}
+	
+	private int assignId() {
+		synchronized (assignedIds) {
+			final int id = assignedIds.nextClearBit(lastAssignedId);
+			assignedIds.set(id);
+			/* 
+			 * XXX (apeteri): this makes the lock manager revisit low IDs after every 128 issued locks, but 
+			 * it can still assign a number over 128 if all of the early ones are in use, since the BitSet grows unbounded. 
+			 */
+			lastAssignedId = id % EXPECTED_LOCKS;
+			return id;
+		}
+	}
+	
+	private void releaseId(final int id) {
+		synchronized (assignedIds) {
+			assignedIds.clear(id);
+		}
 	}
 
-	private IOperationLock getOrCreateLock(DatastoreLockContext context, final DatastoreLockTarget target) {
-		synchronized (syncObject) {
-			final String repositoryId = target.getRepositoryId();
-			final String branchPath = target.getBranchPath();
-			
-			final Expression searchExpression = Expressions.builder()
-					.filter(DatastoreLockIndexEntry.Expressions.repositoryId(repositoryId))
-					.filter(DatastoreLockIndexEntry.Expressions.branchPath(branchPath))
-					.build();
-			
-			final DatastoreLockIndexEntry existingLockEntry = Iterables.getOnlyElement(search(searchExpression, 2), null);
-			final IOperationLock lock;
-			if (existingLockEntry == null) {
-				lastAssignedId = assignedIds.nextClearBit(lastAssignedId);
-				final String lockId = Integer.toString(lastAssignedId);
-				lock = createLock(lastAssignedId, target);
-				final DatastoreLockIndexEntry newEntry = buildIndexEntry(lockId, branchPath, repositoryId, context);
-				put(lockId, newEntry);
-				
-				assignedIds.set(lastAssignedId);
-				/* 
-				 * XXX (apeteri): this makes the lock manager revisit low IDs after every 128 issued locks, but 
-				 * it can still assign a number over 128 if all of the early ones are in use, since the BitSet grows unbounded. 
-				 */
-				lastAssignedId = lastAssignedId % EXPECTED_LOCKS;
-			} else {
-				lock = new OperationLock(Integer.parseInt(existingLockEntry.getId()), target);
+	private void removeEntries(final Map<DatastoreLockTarget, LockEntry> entries) {
+		for (final LockEntry entry : entries.values()) {
+			if (entries.remove(entry.target, entry)) {
+				removeEntry(entry);
+			}
+		}
+	}
+	
+	private boolean removeEntry(final Map<DatastoreLockTarget, LockEntry> entries, final int id) {
+		for (final LockEntry entry : entries.values()) {
+			if (entry.id == id && entries.remove(entry.target, entry)) {
+				removeEntry(entry);
+				return true;
 			}
-			
-			lock.acquire(context);
-			return lock;
 		}
+		return false;
+	}
+	
+	private void removeEntry(final LockEntry entry) {
+		// queue the removal before the ID can be re-assigned, so it can not overtake the index entry of the next lock with the same ID
+		submitIndexOperation(Integer.toString(entry.id), null);
+		releaseId(entry.id);
 	}
 
+	private void putEntry(final LockEntry entry) {
+		final String lockId = Integer.toString(entry.id);
+		submitIndexOperation(lockId, buildIndexEntry(lockId, entry.target.getBranchPath(), entry.target.getRepositoryId(), entry.context));
+	}
+	
+	private void submitIndexOperation(final String lockId, final DatastoreLockIndexEntry indexEntry) {
+		pendingIndexOperations.add(Maps.immutableEntry(lockId, indexEntry));
+		try {
+			indexExecutor.execute(this::flushIndexOperations);
+		} catch (final RejectedExecutionException e) {
+			// locks released after disposal are not reflected in the index
+		}
+	}
+	
+	/*
+	 * Operations are queued in the order locks are granted and released, and applied by a single thread. All pending operations are
+	 * written with a single commit; only the last operation is kept for lock IDs that were released and re-assigned in the meantime.
+	 */
+	private void flushIndexOperations() {
+		final Map<String, DatastoreLockIndexEntry> operations = new LinkedHashMap<>();
+		Map.Entry<String, DatastoreLockIndexEntry> operation;
+		while ((operation = pendingIndexOperations.poll()) != null) {
+			operations.remove(operation.getKey());
+			operations.put(operation.getKey(), operation.getValue());
+		}
+		
+		if (operations.isEmpty()) {
+			return;
+		}
+		
+		try {
+			index.write(writer -> {
+				operations.forEach((lockId, indexEntry) -> {
+					if (indexEntry == null) {
+						writer.remove(DatastoreLockIndexEntry.class, lockId);
+					} else {
+						writer.put(lockId, indexEntry);
+					}
+				});
+				writer.commit();
+				return null;
+			});
+		} catch (final RuntimeException e) {
+			LOG.error("Failed to update lock entries in the index.", e);
+		}
+	}
+	
 	private DatastoreLockIndexEntry buildIndexEntry(final String lockId, final String branchPath, final String repositoryId, final DatastoreLockContext context) {
 		final Builder entryBuilder = DatastoreLockIndexEntry.builder()
 			.id(lockId)
@@ -333,15 +547,22 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 		
 		return entryBuilder.build();
 	}
-
-	private void removeLock(final IOperationLock existingLock) {
-		final DatastoreLockIndexEntry entry = Iterables.getOnlyElement(search(DatastoreLockIndexEntry.Expressions.id(Integer.toString(existingLock.getId())), 2), null);
-		if (entry != null) {
-			remove(entry.getId());
-		} else {
-			System.err.println("Failed to remove lock: " + existingLock + " with id:" + existingLock.getId());
+	
+	private void recordAcquisition(final Collection<DatastoreLockTarget> targets, final boolean contended, final long waitMillis) {
+		for (final DatastoreLockTarget target : targets) {
+			getStatistics(target).recordAcquisition(contended, waitMillis);
+		}
+	}
+	
+	private void recordTimeout(final Collection<DatastoreLockTarget> targets, final long waitMillis) {
+		for (final DatastoreLockTarget target : targets) {
+			getStatistics(target).recordTimeout(waitMillis);
 		}
 	}
+	
+	private TargetStatistics getStatistics(final DatastoreLockTarget target) {
+		return statistics.getUnchecked(target);
+	}
 
 	@SuppressWarnings("unchecked")
 	private void fireTargetAcquired(final DatastoreLockTarget target, final DatastoreLockContext context) {
@@ -357,76 +578,12 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 		}
 	}
 	
-	private OperationLock createLock(final int id, final DatastoreLockTarget target) {
-		return new OperationLock(id, target);
-	}
-
-	private OperationLockInfo createLockInfo(final IOperationLock existingLock) {
-		final OperationLock lock = (OperationLock) existingLock;
-		return new OperationLockInfo(lock.getId(), lock.getLevel(), lock.getCreationDate(), lock.getTarget(), lock.getContext());
-	}
-	
-	private Collection<IOperationLock> getExistingLocks() {
-		return search(Expressions.matchAll(), Integer.MAX_VALUE).stream().map(entry -> {
-			final DatastoreLockContext context = createLockContext(entry.getUserId(), entry.getDescription(), entry.getParentDescription());
-			final OperationLock lock = new OperationLock(Integer.parseInt(entry.getId()), new DatastoreLockTarget(entry.getRepositoryId(), entry.getBranchPath()));
-			lock.acquire(context);
-			return lock;
-		}).collect(Collectors.toSet());
-	}
-	
-	private DatastoreLockContext createLockContext(String userId, String description, String parentDescription) {
-		if (Strings.isNullOrEmpty(parentDescription)) {
-			return new DatastoreLockContext(userId, description);
-		}
-		
-		return new DatastoreLockContext(userId, description, parentDescription);
-	}
-	
-	private DatastoreLocks search(Expression query, int limit) {
-		return search(query, ImmutableList.of(), SortBy.DEFAULT, limit); 
-	}
-	
-	private DatastoreLocks search(Expression query, List<String> fields, SortBy sortBy, int limit) {
-		final Hits<DatastoreLockIndexEntry> hits = searchHits(query, fields, sortBy, limit);
-		return new DatastoreLocks(hits.getHits(), null, hits.getLimit(), hits.getTotal());
-	}
-	
-	private Hits<DatastoreLockIndexEntry> searchHits(Expression query, List<String> fields, SortBy sortBy, int limit) {
-		return index.read(searcher -> {
-			return searcher.search(
-					Query.select(DatastoreLockIndexEntry.class)
-					.fields(fields)
-					.where(Expressions.builder()
-							.filter(query)
-							.build())
-					.sortBy(sortBy)
-					.limit(limit)
-					.build()
-					);
-		});
-	}
-	
-	private DatastoreLockIndexEntry get(String lockId) {
-		return index.read(searcher -> searcher.get(DatastoreLockIndexEntry.class, lockId));
-	}
-	
-	private void put(String lockId, DatastoreLockIndexEntry lock) {
-		index.write(writer -> {
-			writer.put(lockId, lock);
-			writer.commit();
-			return null;
-		});
+	private void clearListeners() {
+		listenerList.clear();
 	}
 	
-	private void remove(String lockId) {
-		index.write(writer -> {
-			writer.remove(DatastoreLockIndexEntry.class, lockId);
-			writer.commit();
-			
-			return null;
-		});
-		
+	private long getCurrentTimeMillis() {
+		return System.nanoTime() / (1000L * 1000L);
 	}
 	
 	@Override
@@ -434,6 +591,14 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 		if (disposed.compareAndSet(false, true)) {
 			unlockAll();
 			clearListeners();
+			indexExecutor.shutdown();
+			try {
+				if (!indexExecutor.awaitTermination(10L, TimeUnit.SECONDS)) {
+					LOG.warn("Lock entries could not be removed from the index in time.");
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
 		}
 	}
 
@@ -442,4 +607,68 @@ public final class DatastoreOperationLockManager implements IOperationLockManage
 		return disposed.get();
 	}
 	
-}
\ No newline at end of file
+	private static final class Stripe {
+		private final ReadWriteLock gate = new ReentrantReadWriteLock();
+		private final ConcurrentMap<DatastoreLockTarget, LockEntry> entries = new ConcurrentHashMap<>();
+	}
+	
+	private static final class LockEntry {
+		private final int id;
+		private final DatastoreLockTarget target;
+		private final DatastoreLockContext context;
+		private final Date creationDate = new Date();
+		// the number of lock requests served by this entry, including compatible nested requests
+		private final AtomicInteger holders = new AtomicInteger(1);
+		
+		private LockEntry(final int id, final DatastoreLockTarget target, final DatastoreLockContext context) {
+			this.id = id;
+			this.target = target;
+			this.context = context;
+		}
+		
+		private OperationLockInfo toLockInfo() {
+			return new OperationLockInfo(id, 1, creationDate, target, context);
+		}
+	}
+	
+	private static final class TargetStatistics {
+		private final DatastoreLockTarget target;
+		private final AtomicLong acquisitions = new AtomicLong();
+		private final AtomicLong contendedAcquisitions = new AtomicLong();
+		private final AtomicLong timeouts = new AtomicLong();
+		private final AtomicLong totalWaitMillis = new AtomicLong();
+		private final AtomicLong maxWaitMillis = new AtomicLong();
+		
+		private TargetStatistics(final DatastoreLockTarget target) {
+			this.target = target;
+		}
+		
+		private void recordAcquisition(final boolean contended, final long waitMillis) {
+			acquisitions.incrementAndGet();
+			if (contended) {
+				contendedAcquisitions.incrementAndGet();
+				recordWait(waitMillis);
+			}
+		}
+		
+		private void recordTimeout(final long waitMillis) {
+			timeouts.incrementAndGet();
+			recordWait(waitMillis);
+		}
+		
+		private void recordWait(final long waitMillis) {
+			totalWaitMillis.addAndGet(waitMillis);
+			maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+		}
+		
+		private OperationLockStatistics toLockStatistics(final int holders) {
+			return new OperationLockStatistics(target, 
+					acquisitions.get(), 
+					contendedAcquisitions.get(), 
+					timeouts.get(), 
+					totalWaitMillis.get(), 
+					maxWaitMillis.get(), 
+					holders);
+		}
+	}
+}
@@ -53,7 +53,8 @@ import picocli.CommandLine.Parameters;
 	subcommands = {
 		HelpCommand.class,
 		LocksCommand.AddLockCommand.class,
-		LocksCommand.RemoveLockCommand.class
+		LocksCommand.RemoveLockCommand.class,
+		LocksCommand.LockStatisticsCommand.class
 	}
 )
 public final class LocksCommand extends Command {
@@ -168,6 +169,42 @@ public final class LocksCommand extends Command {
 		
 	}
 
+	@CommandLine.Command(
+		name = "stats",
+		header = "Displays lock contention statistics",
+		description = "Displays the number of acquisitions, the time spent waiting for conflicting locks and the current holders of each locked resource"
+	)
+	public static final class LockStatisticsCommand extends Command {
+
+		private static final String STATISTICS_FORMAT = "%-50s | %8s | %9s | %8s | %12s | %10s | %7s";
+		
+		@Override
+		public void run(CommandLineStream out) {
+			final List<OperationLockStatistics> statistics = getLockManager().getLockStatistics();
+			
+			if (statistics.isEmpty()) {
+				out.println("No locks were requested on this server.");
+				return;
+			}
+			
+			out.println();
+			out.println(STATISTICS_FORMAT, "Locked area", "Acquired", "Contended", "Timeouts", "Total wait ms", "Max wait ms", "Holders");
+			out.println(Strings.repeat("-", 125));
+			
+			for (final OperationLockStatistics entry : statistics) {
+				out.println(STATISTICS_FORMAT, 
+						StringUtils.truncate(StringUtils.capitalizeFirstLetter(entry.getTarget().toString()), 50),
+						entry.getAcquisitions(),
+						entry.getContendedAcquisitions(),
+						entry.getTimeouts(),
+						entry.getTotalWaitMillis(),
+						entry.getMaxWaitMillis(),
+						entry.getHolders());
+			}
+		}
+		
+	}
+
 	private static DatastoreOperationLockManager getLockManager() {
 		return (DatastoreOperationLockManager) ApplicationContext.getInstance().getService(IOperationLockManager.class);
 	}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.core.locks;
+
+import com.b2international.snowowl.core.internal.locks.DatastoreLockTarget;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Contains contention statistics of a single lock target, collected since the lock manager was started. Sorts by total waiting time, in
+ * descending order.
+ *
+ * @since 7.14
+ */
+public final class OperationLockStatistics implements Comparable<OperationLockStatistics> {
+
+	private final DatastoreLockTarget target;
+	private final long acquisitions;
+	private final long contendedAcquisitions;
+	private final long timeouts;
+	private final long totalWaitMillis;
+	private final long maxWaitMillis;
+	private final int holders;
+
+	public OperationLockStatistics(final DatastoreLockTarget target,
+			final long acquisitions,
+			final long contendedAcquisitions,
+			final long timeouts,
+			final long totalWaitMillis,
+			final long maxWaitMillis,
+			final int holders) {
+		this.target = target;
+		this.acquisitions = acquisitions;
+		this.contendedAcquisitions = contendedAcquisitions;
+		this.timeouts = timeouts;
+		this.totalWaitMillis = totalWaitMillis;
+		this.maxWaitMillis = maxWaitMillis;
+		this.holders = holders;
+	}
+
+	public DatastoreLockTarget getTarget() {
+		return target;
+	}
+
+	/**
+	 * @return the number of successful lock requests
+	 */
+	public long getAcquisitions() {
+		return acquisitions;
+	}
+
+	/**
+	 * @return the number of successful lock requests that had to wait for a conflicting lock to be released
+	 */
+	public long getContendedAcquisitions() {
+		return contendedAcquisitions;
+	}
+
+	/**
+	 * @return the number of lock requests that failed because of a conflicting lock
+	 */
+	public long getTimeouts() {
+		return timeouts;
+	}
+
+	/**
+	 * @return the total time spent waiting for conflicting locks to be released, in milliseconds
+	 */
+	public long getTotalWaitMillis() {
+		return totalWaitMillis;
+	}
+
+	/**
+	 * @return the longest time a single lock request spent waiting, in milliseconds
+	 */
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	/**
+	 * @return the number of lock requests currently served by the lock of the target, including compatible nested requests; <code>0</code>
+	 *         if the target is not locked
+	 */
+	public int getHolders() {
+		return holders;
+	}
+
+	@Override
+	public int compareTo(final OperationLockStatistics other) {
+		return Long.compare(other.totalWaitMillis, totalWaitMillis);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+				.add("target", target)
+				.add("acquisitions", acquisitions)
+				.add("contendedAcquisitions", contendedAcquisitions)
+				.add("timeouts", timeouts)
+				.add("totalWaitMillis", totalWaitMillis)
+				.add("maxWaitMillis", maxWaitMillis)
+				.add("holders", holders)
+				.toString();
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.core.monitoring;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.b2international.snowowl.eventbus.IMessageMonitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the per-address queue depth, concurrency, queue wait and processing time histograms, and the number of rejected messages of an
+ * event bus in a {@link MeterRegistry}.
+ *
+ * @since 7.14
+ */
+public final class EventBusMessageMetrics implements IMessageMonitor {
+
+	private final MeterRegistry registry;
+	private final ConcurrentMap<String, AddressMeters> meters = new ConcurrentHashMap<>();
+
+	public EventBusMessageMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public void queued(String address) {
+		getMeters(address).queued.incrementAndGet();
+	}
+
+	@Override
+	public void started(String address, long waitTimeNanos) {
+		final AddressMeters addressMeters = getMeters(address);
+		addressMeters.queued.decrementAndGet();
+		addressMeters.processing.incrementAndGet();
+		addressMeters.waitTime.record(waitTimeNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void completed(String address, long processingTimeNanos, boolean succeeded) {
+		final AddressMeters addressMeters = getMeters(address);
+		addressMeters.processing.decrementAndGet();
+		(succeeded ? addressMeters.succeededTime : addressMeters.failedTime).record(processingTimeNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void rejected(String address) {
+		getMeters(address).rejected.increment();
+	}
+
+	private AddressMeters getMeters(String address) {
+		return meters.computeIfAbsent(address, key -> new AddressMeters(registry, key));
+	}
+
+	private static final class AddressMeters {
+
+		private final AtomicLong queued = new AtomicLong();
+		private final AtomicLong processing = new AtomicLong();
+		private final Timer waitTime;
+		private final Timer succeededTime;
+		private final Timer failedTime;
+		private final Counter rejected;
+
+		AddressMeters(MeterRegistry registry, String address) {
+			Gauge.builder("eventbus.messages.queued", queued, AtomicLong::get)
+				.description("The number of messages waiting for processing")
+				.tag("address", address)
+				.register(registry);
+
+			Gauge.builder("eventbus.messages.processing", processing, AtomicLong::get)
+				.description("The number of messages under processing")
+				.tag("address", address)
+				.register(registry);
+
+			this.waitTime = Timer.builder("eventbus.messages.wait")
+				.description("The time messages spend waiting for processing")
+				.tag("address", address)
+				.publishPercentileHistogram()
+				.register(registry);
+
+			this.succeededTime = processingTimer(registry, address, "success");
+			this.failedTime = processingTimer(registry, address, "failure");
+
+			this.rejected = Counter.builder("eventbus.messages.rejected")
+				.description("The number of messages rejected due to the limits of the address")
+				.tag("address", address)
+				.register(registry);
+		}
+
+		private static Timer processingTimer(MeterRegistry registry, String address, String outcome) {
+			return Timer.builder("eventbus.messages.processing.time")
+				.description("The time handlers spend processing messages")
+				.tag("address", address)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(registry);
+		}
+
+	}
+
+}
@@ -15,17 +15,23 @@
  */
 package com.b2international.snowowl.core.repository;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.eclipse.emf.common.util.WrappedException;
 import org.slf4j.LoggerFactory;
 
 import com.b2international.commons.exceptions.ApiException;
 import com.b2international.snowowl.core.ServiceProvider;
+import com.b2international.snowowl.core.authorization.AuthorizedEventBus;
 import com.b2international.snowowl.core.authorization.AuthorizedRequest;
 import com.b2international.snowowl.core.events.Request;
 import com.b2international.snowowl.core.events.util.RequestHeaders;
 import com.b2international.snowowl.core.events.util.ResponseHeaders;
 import com.b2international.snowowl.core.monitoring.MonitoredRequest;
 import com.b2international.snowowl.core.rate.RateLimitingRequest;
+import com.b2international.snowowl.eventbus.AddressLimit;
+import com.b2international.snowowl.eventbus.IEventBus;
 import com.b2international.snowowl.eventbus.IHandler;
 import com.b2international.snowowl.eventbus.IMessage;
 
@@ -36,6 +42,8 @@ import com.b2international.snowowl.eventbus.IMessage;
  */
 public final class ApiRequestHandler implements IHandler<IMessage> {
 
+	private static final Map<String, String> NESTED_HEADERS = Collections.singletonMap(AddressLimit.NESTED_HEADER, Boolean.TRUE.toString());
+	
 	private final ServiceProvider context;
 	private final ClassLoader classLoader;
 	
@@ -53,6 +61,8 @@ public final class ApiRequestHandler implements IHandler<IMessage> {
 			final ServiceProvider executionContext = context.inject()
 					.bind(RequestHeaders.class, new RequestHeaders(message.headers()))
 					.bind(ResponseHeaders.class, responseHeaders)
+					// requests sent while executing this request are not subject to the limits of the request address
+					.bind(IEventBus.class, new AuthorizedEventBus(context.service(IEventBus.class), NESTED_HEADERS))
 					.build();
 			
 			// monitor each request execution
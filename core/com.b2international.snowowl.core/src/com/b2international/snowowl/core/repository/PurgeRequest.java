@@ -15,6 +15,9 @@
  */
 package com.b2international.snowowl.core.repository;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
 import com.b2international.index.revision.Purge;
 import com.b2international.index.revision.RevisionIndex;
 import com.b2international.snowowl.core.authorization.RepositoryAccessControl;
@@ -42,7 +45,9 @@ public final class PurgeRequest implements Request<RepositoryContext, Boolean>,
 	
 	@Override
 	public Boolean execute(RepositoryContext context) {
-		context.service(RevisionIndex.class).purge(branchPath, purge);
+		// report progress to the remote job tracker when running as a job
+		final IProgressMonitor monitor = context.optionalService(IProgressMonitor.class).orElseGet(NullProgressMonitor::new);
+		context.service(RevisionIndex.class).purge(branchPath, purge, monitor);
 		return Boolean.TRUE;
 	}
 
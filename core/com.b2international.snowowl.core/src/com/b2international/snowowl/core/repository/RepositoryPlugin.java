@@ -48,6 +48,7 @@ import com.b2international.snowowl.core.events.Notifications;
 import com.b2international.snowowl.core.events.Request;
 import com.b2international.snowowl.core.jobs.RemoteJobEntry;
 import com.b2international.snowowl.core.jobs.RemoteJobTracker;
+import com.b2international.snowowl.core.monitoring.EventBusMessageMetrics;
 import com.b2international.snowowl.core.plugin.Component;
 import com.b2international.snowowl.core.setup.ConfigurationRegistry;
 import com.b2international.snowowl.core.setup.Environment;
@@ -88,10 +89,17 @@ public final class RepositoryPlugin extends Plugin {
 		final RpcConfiguration rpcConfig = configuration.getModuleConfig(RpcConfiguration.class);
 		LOG.debug("Preparing RPC communication (config={},gzip={})", rpcConfig, gzip);
 		RpcUtil.prepareContainer(container, rpcConfig, gzip);
-		LOG.debug("Preparing EventBus communication (gzip={})", gzip);
-		int maxThreads = configuration.getModuleConfig(RepositoryConfiguration.class).getMaxThreads();
-		EventBusNet4jUtil.prepareContainer(container, gzip, maxThreads);
-		env.services().registerService(IEventBus.class, EventBusNet4jUtil.getBus(container, maxThreads));
+		final RepositoryConfiguration repositoryConfig = configuration.getModuleConfig(RepositoryConfiguration.class);
+		final boolean elasticThreads = repositoryConfig.isElasticThreads();
+		LOG.debug("Preparing EventBus communication (gzip={},elasticThreads={})", gzip, elasticThreads);
+		int maxThreads = repositoryConfig.getMaxThreads();
+		EventBusNet4jUtil.prepareContainer(container, gzip, maxThreads, elasticThreads);
+		final IEventBus bus = EventBusNet4jUtil.getBus(container, maxThreads, elasticThreads);
+		repositoryConfig.getAddressLimits().forEach((address, limit) -> {
+			LOG.info("Limiting EventBus address '{}' to {}", address, limit.toAddressLimit());
+			bus.setAddressLimit(address, limit.toAddressLimit());
+		});
+		env.services().registerService(IEventBus.class, bus);
 		LOG.debug("Preparing JSON support");
 		final ObjectMapper mapper = JsonSupport.getDefaultObjectMapper();
 		mapper.registerModule(new PrimitiveCollectionModule());
@@ -128,6 +136,8 @@ public final class RepositoryPlugin extends Plugin {
 			final IEventBus eventBus = env.service(IEventBus.class);
 			// Add event bus based request metrics
 			registerRequestMetrics(registry, eventBus);
+			// and per address queue depth, latency and rejection metrics
+			eventBus.addMessageMonitor(new EventBusMessageMetrics(registry));
 			
 			final IManagedContainer container = env.container();
 			
@@ -15,9 +15,14 @@
  */
 package com.b2international.snowowl.core.request;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Function;
 
 import com.b2international.snowowl.core.domain.PageableCollectionResource;
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
 
 /**
@@ -32,11 +37,13 @@ public final class SearchResourceRequestIterator<
 	
 	private final B searchRequestBuilder;
 	private final Function<B, R> executeHandler;
+	private final Executor prefetchExecutor;
 
 	private boolean firstRun = true;
 	private String searchAfter;
 	private int visited;
 	private int total;
+	private CompletableFuture<R> nextPage;
 	
 	/**
 	 * @param searchRequestBuilder
@@ -46,8 +53,25 @@ public final class SearchResourceRequestIterator<
 	 *            through a request context or an event bus, and returns the results
 	 */
 	public SearchResourceRequestIterator(B searchRequestBuilder, Function<B, R> executeHandler) {
+		this(searchRequestBuilder, executeHandler, null);
+	}
+	
+	/**
+	 * @param searchRequestBuilder
+	 *            the pre-configured request builder (should have a batch limit set)
+	 * @param executeHandler
+	 *            a function that builds an appropriate request, executes it either
+	 *            through a request context or an event bus, and returns the results
+	 * @param prefetchExecutor
+	 *            the executor to use for fetching the next page while the current page is being processed by the caller, or
+	 *            <code>null</code> if pages should be fetched on demand only. At most one page is prefetched at any given time, and
+	 *            the page is fetched on demand if the executor rejects the prefetch.
+	 * @since 7.14
+	 */
+	public SearchResourceRequestIterator(B searchRequestBuilder, Function<B, R> executeHandler, Executor prefetchExecutor) {
 		this.searchRequestBuilder = searchRequestBuilder;
 		this.executeHandler = executeHandler;
+		this.prefetchExecutor = prefetchExecutor;
 	}
 	
 	@Override
@@ -57,9 +81,8 @@ public final class SearchResourceRequestIterator<
 			return endOfData();
 		}
 		
-		// Execute the request with the last recorded searchAfter value (can be null on first run) 
-		searchRequestBuilder.setSearchAfter(searchAfter);
-		R hits = executeHandler.apply(searchRequestBuilder);
+		// Execute the request with the last recorded searchAfter value (can be null on first run), unless it has been prefetched already
+		R hits = nextPage != null ? awaitNextPage() : fetch(searchAfter);
 
 		// Initialize total counter on first run
 		if (firstRun) {
@@ -75,6 +98,32 @@ public final class SearchResourceRequestIterator<
 		searchAfter = hits.getSearchAfter();
 		visited += hits.getItems().size();
 		
+		// Start fetching the next page while the caller processes the current one
+		if (prefetchExecutor != null && visited < total && !hits.getItems().isEmpty()) {
+			final String nextSearchAfter = searchAfter;
+			try {
+				nextPage = CompletableFuture.supplyAsync(() -> fetch(nextSearchAfter), prefetchExecutor);
+			} catch (RejectedExecutionException e) {
+				// the executor is saturated, the next page will be fetched on demand
+			}
+		}
+		
 		return hits;
 	}
+
+	private R fetch(String searchAfter) {
+		searchRequestBuilder.setSearchAfter(searchAfter);
+		return executeHandler.apply(searchRequestBuilder);
+	}
+	
+	private R awaitNextPage() {
+		try {
+			return nextPage.join();
+		} catch (CompletionException e) {
+			Throwables.throwIfUnchecked(e.getCause());
+			throw e;
+		} finally {
+			nextPage = null;
+		}
+	}
 }
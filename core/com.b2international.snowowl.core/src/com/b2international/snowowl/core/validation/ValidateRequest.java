@@ -21,30 +21,43 @@ import static com.google.common.collect.Lists.newArrayList;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.b2international.commons.CompareUtils;
 import com.b2international.index.Writer;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.query.SortBy;
+import com.b2international.index.query.SortBy.Order;
+import com.b2international.index.revision.Commit;
+import com.b2international.index.revision.CommitDetail;
+import com.b2international.index.revision.RevisionSearcher;
 import com.b2international.snowowl.core.ComponentIdentifier;
 import com.b2international.snowowl.core.api.SnowowlRuntimeException;
 import com.b2international.snowowl.core.authorization.BranchAccessControl;
 import com.b2international.snowowl.core.codesystem.CodeSystem;
 import com.b2international.snowowl.core.domain.BranchContext;
 import com.b2international.snowowl.core.events.Request;
-import com.b2international.snowowl.core.events.util.Promise;
 import com.b2international.snowowl.core.identity.Permission;
+import com.b2international.snowowl.core.internal.validation.ValidationCheckpoint;
 import com.b2international.snowowl.core.internal.validation.ValidationRepository;
 import com.b2international.snowowl.core.internal.validation.ValidationThreadPool;
 import com.b2international.snowowl.core.repository.RepositoryCodeSystemProvider;
+import com.b2international.snowowl.core.request.SearchResourceRequestIterator;
 import com.b2international.snowowl.core.uri.CodeSystemURI;
 import com.b2international.snowowl.core.uri.ComponentURI;
 import com.b2international.snowowl.core.validation.eval.ValidationRuleEvaluator;
 import com.b2international.snowowl.core.validation.issue.ValidationIssue;
 import com.b2international.snowowl.core.validation.issue.ValidationIssueDetailExtension;
 import com.b2international.snowowl.core.validation.issue.ValidationIssueDetailExtensionProvider;
+import com.b2international.snowowl.core.validation.issue.ValidationIssueSearchRequestBuilder;
 import com.b2international.snowowl.core.validation.rule.ValidationRule;
 import com.b2international.snowowl.core.validation.rule.ValidationRuleSearchRequestBuilder;
 import com.b2international.snowowl.core.validation.rule.ValidationRules;
@@ -52,6 +65,11 @@ import com.b2international.snowowl.core.validation.whitelist.ValidationWhiteList
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.*;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.Timer.Sample;
+
 /**
  * @since 6.0
  */
@@ -59,12 +77,15 @@ final class ValidateRequest implements Request<BranchContext, ValidationResult>,
 	
 	private static final long serialVersionUID = -2254266211853070728L;
 	private static final Logger LOG = LoggerFactory.getLogger("validation");
-	private static final long POLL_INTERVAL_MAX = 1000L;
+	private static final int ISSUE_PAGE_SIZE = 10_000;
+	private static final int COMMIT_PAGE_SIZE = 1_000;
 	
 	Collection<String> ruleIds;
 
 	private Map<String, Object> ruleParameters;
 	
+	private boolean incremental;
+	
 	ValidateRequest() {}
 	
 	@Override
@@ -88,133 +109,270 @@ final class ValidateRequest implements Request<BranchContext, ValidationResult>,
 				.build()
 				.execute(context);
 		
+		// checkpoints of the current run point to the branch head the rules are evaluated at
+		final long headTimestamp = context.branch().headTimestamp();
+		final Map<String, Long> checkpoints = incremental ? fetchCheckpoints(index, codeSystemURI, rules) : Map.of();
+		final Map<Long, Optional<Set<String>>> changedComponentsSince = Maps.newHashMap();
+		
+		final Map<String, ValidationRule> rulesById = Maps.newHashMap();
+		final Optional<MeterRegistry> registry = context.optionalService(MeterRegistry.class);
 		final ValidationThreadPool pool = context.service(ValidationThreadPool.class);
-		final BlockingQueue<IssuesToPersist> issuesToPersistQueue = Queues.newLinkedBlockingDeque();
-		final List<Promise<Object>> validationPromises = Lists.newArrayList();
-		// evaluate selected rules
+		final BlockingQueue<IssuesToPersist> issuesToPersistQueue = Queues.newLinkedBlockingQueue();
+		// evaluate selected rules, each rule reports its result (or failure) to the queue exactly once
 		for (ValidationRule rule : rules) {
 			checkArgument(rule.getCheckType() != null, "CheckType is missing for rule " + rule.getId());
 			final ValidationRuleEvaluator evaluator = ValidationRuleEvaluator.Registry.get(rule.getType());
 			if (evaluator != null) {
-				validationPromises.add(pool.submit(rule.getCheckType(), () -> {
+				rulesById.put(rule.getId(), rule);
+				final Set<String> scope = evaluator.isScopeSupported(context, rule) ? getScope(context, checkpoints.get(rule.getId()), changedComponentsSince) : null;
+				final AtomicBoolean reported = new AtomicBoolean(false);
+				final Consumer<IssuesToPersist> report = issuesToPersist -> {
+					if (reported.compareAndSet(false, true)) {
+						issuesToPersistQueue.offer(issuesToPersist);
+					}
+				};
+				
+				pool.submit(rule.getCheckType(), () -> {
 					Stopwatch w = Stopwatch.createStarted();
 					
 					try {
-						LOG.info("Executing rule '{}'...", rule.getId());
-						final List<?> evaluationResponse = evaluator.eval(context, rule, ruleParameters);
-						issuesToPersistQueue.offer(new IssuesToPersist(rule.getId(), evaluationResponse));
+						final List<?> evaluationResponse;
+						if (scope == null) {
+							LOG.info("Executing rule '{}'...", rule.getId());
+							evaluationResponse = evaluator.eval(context, rule, ruleParameters);
+						} else if (scope.isEmpty()) {
+							LOG.info("Skipping rule '{}', no components changed since its last execution.", rule.getId());
+							evaluationResponse = Collections.emptyList();
+						} else {
+							LOG.info("Executing rule '{}' on '{}' changed components...", rule.getId(), scope.size());
+							evaluationResponse = evaluator.eval(context, rule, ruleParameters, scope);
+						}
+						report.accept(new IssuesToPersist(rule.getId(), evaluationResponse, scope));
 						LOG.info("Execution of rule '{}' successfully completed in '{}'.", rule.getId(), w);
-						// TODO report successfully executed validation rule
 					} catch (Exception e) {
-						// TODO report failed validation rule
+						report.accept(new IssuesToPersist(rule.getId()));
 						LOG.error("Execution of rule '{}' failed after '{}'.", rule.getId(), w, e);
+					} finally {
+						registry.ifPresent(r -> r.timer("validation_rule_time", Tags.of("rule", rule.getId())).record(w.elapsed(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS));
 					}
-				}));
+				}).fail(e -> {
+					// the job itself failed or got cancelled before the rule could report its result
+					LOG.error("Execution of rule '{}' failed.", rule.getId(), e);
+					report.accept(new IssuesToPersist(rule.getId()));
+					return null;
+				});
 			}
 		}
 		
 		final Set<String> ruleIds = rules.stream().map(ValidationRule::getId).collect(Collectors.toSet());
 		final Multimap<String, ComponentIdentifier> whiteListedEntries = fetchWhiteListEntries(context, ruleIds);
 		
-		final Promise<List<Object>> promise = Promise.all(validationPromises);
+		int remainingRules = rulesById.size();
+		while (remainingRules > 0) {
+			final List<IssuesToPersist> issuesToPersist = newArrayList();
+			try {
+				// block until the next rule reports, then persist everything that is available at that point in one batch
+				issuesToPersist.add(issuesToPersistQueue.take());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SnowowlRuntimeException(e);
+			}
+			issuesToPersistQueue.drainTo(issuesToPersist);
+			remainingRules -= issuesToPersist.size();
+			
+			final Sample persistSample = registry.map(Timer::start).orElse(null);
+			persistIssues(context, index, codeSystemURI, headTimestamp, rulesById, whiteListedEntries, issuesToPersist);
+			registry.ifPresent(r -> persistSample.stop(r.timer("validation_persist_time")));
+		}
 		
-		while (!promise.isDone() || !issuesToPersistQueue.isEmpty()) {
-			if (!issuesToPersistQueue.isEmpty()) {
-				final Collection<IssuesToPersist> issuesToPersist = newArrayList(); 
-				issuesToPersistQueue.drainTo(issuesToPersist);
-				if (!issuesToPersist.isEmpty()) {
-					final List<String> rulesToPersist = issuesToPersist.stream().map(itp -> itp.ruleId).collect(Collectors.toList());
-					LOG.info("Persisting issues generated by rules '{}'...", rulesToPersist);
-					// persist new issues generated by rules so far, extending them using the Issue Extension API
-					int persistedIssues = 0;
-					
-					final Multimap<String, ValidationIssue> issuesToExtendWithDetailsByToolingId = HashMultimap.create();
-					for (IssuesToPersist ruleIssues : Iterables.consumingIterable(issuesToPersist)) {
-						final String ruleId = ruleIssues.ruleId;
-						final List<ValidationIssue> existingRuleIssues = ValidationRequests.issues().prepareSearch()
-								.all()
-								.filterByResourceUri(codeSystemURI)
-								.filterByRule(ruleId)
-								.build()
-								.execute(context)
-								.getItems();
-						
-						final Set<String> issueIdsToDelete = Sets.newHashSet();
-						
-						final Map<ComponentIdentifier, ValidationIssue> existingIsssuesByComponentIdentifier = new HashMap<>();
-						
-						for (ValidationIssue issue : existingRuleIssues) {
-							if (existingIsssuesByComponentIdentifier.containsKey(issue.getAffectedComponent())) {
-								issueIdsToDelete.add(issue.getId());
-							} else {
-								existingIsssuesByComponentIdentifier.put(issue.getAffectedComponent(), issue);
-							}
-						}
-						
-						// remove all processed whitelist entries 
-						final Collection<ComponentIdentifier> ruleWhiteListEntries = whiteListedEntries.removeAll(ruleId);
-						final String toolingId = rules.stream().filter(rule -> ruleId.equals(rule.getId())).findFirst().get().getToolingId();
-						for (ValidationIssueDetails issueDetails : ruleIssues.issueDetails) {
-							final ValidationIssue validationIssue;
-							ComponentIdentifier componentIdentifier = issueDetails.affectedComponentId;
-							
-							if (!existingIsssuesByComponentIdentifier.containsKey(componentIdentifier)) {
-								validationIssue = new ValidationIssue(
-										UUID.randomUUID().toString(),
-										ruleId,
-										ComponentURI.of(codeSystemURI, componentIdentifier),
-										ruleWhiteListEntries.contains(componentIdentifier));
-							} else {
-								final ValidationIssue issueToCopy = existingIsssuesByComponentIdentifier.get(componentIdentifier);
-								validationIssue = new ValidationIssue(
-									issueToCopy.getId(),
-									issueToCopy.getRuleId(),
-									ComponentURI.of(codeSystemURI, issueToCopy.getAffectedComponent()),
-									ruleWhiteListEntries.contains(issueToCopy.getAffectedComponent()));	
-								existingIsssuesByComponentIdentifier.remove(componentIdentifier);
-							}
-							validationIssue.setDetails(ValidationIssueDetails.HIGHLIGHT_DETAILS, issueDetails.stylingDetails);
-							issuesToExtendWithDetailsByToolingId.put(toolingId, validationIssue);
-							persistedIssues++; 
-						}
-						
-						existingRuleIssues
-							.stream()
-							.filter(issue -> existingIsssuesByComponentIdentifier.containsKey(issue.getAffectedComponent()))
-							.forEach(issue -> issueIdsToDelete.add(issue.getId()));
-						
-						if (!issueIdsToDelete.isEmpty()) {
-							index.removeAll(Collections.singletonMap(ValidationIssue.class, issueIdsToDelete));
-						}
-						
-					}
-					
-					for (String toolingId : issuesToExtendWithDetailsByToolingId.keySet()) {
-						final ValidationIssueDetailExtension extensions = context.service(ValidationIssueDetailExtensionProvider.class).getExtensions(toolingId);
-						final Collection<ValidationIssue> issues = issuesToExtendWithDetailsByToolingId.removeAll(toolingId);
-						extensions.extendIssues(context, issues, ruleParameters);
-						for (ValidationIssue issue : issues) {
-							index.put(issue.getId(), issue);
-						}
-					}
-					
-					index.commit();
-					LOG.info("Persisted '{}' issues generated by rules '{}'.", persistedIssues, rulesToPersist);
+		// TODO return ValidationResult object with status and new issue IDs as set
+		return new ValidationResult(context.id(), context.path());
+	}
+
+	private void persistIssues(BranchContext context, 
+			Writer index, 
+			CodeSystemURI codeSystemURI,
+			long headTimestamp,
+			Map<String, ValidationRule> rulesById,
+			Multimap<String, ComponentIdentifier> whiteListedEntries,
+			List<IssuesToPersist> issuesToPersist) throws IOException {
+		
+		final List<String> rulesToPersist = issuesToPersist.stream()
+				.filter(itp -> !itp.failed())
+				.map(itp -> itp.ruleId)
+				.collect(Collectors.toList());
+		
+		if (rulesToPersist.isEmpty()) {
+			return;
+		}
+		
+		LOG.info("Persisting issues generated by rules '{}'...", rulesToPersist);
+		final ListMultimap<String, ValidationIssue> existingIssuesByRule = fetchExistingIssues(context, codeSystemURI, issuesToPersist);
+		// persist new issues generated by rules so far, extending them using the Issue Extension API
+		final Multimap<String, ValidationIssue> issuesToExtendWithDetailsByToolingId = HashMultimap.create();
+		final Set<String> issueIdsToDelete = Sets.newHashSet();
+		final Map<String, ValidationCheckpoint> checkpointsToIndex = Maps.newHashMap();
+		
+		for (IssuesToPersist ruleIssues : issuesToPersist) {
+			if (ruleIssues.failed()) {
+				// keep the existing issues of failed rules intact
+				continue;
+			}
+			
+			final String ruleId = ruleIssues.ruleId;
+			final Map<ComponentIdentifier, ValidationIssue> existingIsssuesByComponentIdentifier = new HashMap<>();
+			for (ValidationIssue issue : existingIssuesByRule.removeAll(ruleId)) {
+				if (existingIsssuesByComponentIdentifier.containsKey(issue.getAffectedComponent())) {
+					issueIdsToDelete.add(issue.getId());
+				} else {
+					existingIsssuesByComponentIdentifier.put(issue.getAffectedComponent(), issue);
 				}
-			} else {
-				try {
-					// wait at least number of rules * 50ms for the next responses
-					Thread.sleep(Math.min(((long) ruleIds.size()) * 100, POLL_INTERVAL_MAX));
-				} catch (InterruptedException e) {
-					throw new SnowowlRuntimeException(e);
+			}
+			
+			// remove all processed whitelist entries 
+			final Collection<ComponentIdentifier> ruleWhiteListEntries = whiteListedEntries.removeAll(ruleId);
+			final String toolingId = rulesById.get(ruleId).getToolingId();
+			for (ValidationIssueDetails issueDetails : ruleIssues.issueDetails) {
+				final ComponentIdentifier componentIdentifier = issueDetails.affectedComponentId;
+				final ValidationIssue issueToCopy = existingIsssuesByComponentIdentifier.remove(componentIdentifier);
+				final ValidationIssue validationIssue;
+				
+				if (issueToCopy == null) {
+					validationIssue = new ValidationIssue(
+							UUID.randomUUID().toString(),
+							ruleId,
+							ComponentURI.of(codeSystemURI, componentIdentifier),
+							ruleWhiteListEntries.contains(componentIdentifier));
+				} else {
+					validationIssue = new ValidationIssue(
+						issueToCopy.getId(),
+						issueToCopy.getRuleId(),
+						ComponentURI.of(codeSystemURI, issueToCopy.getAffectedComponent()),
+						ruleWhiteListEntries.contains(issueToCopy.getAffectedComponent()));	
 				}
+				validationIssue.setDetails(ValidationIssueDetails.HIGHLIGHT_DETAILS, issueDetails.stylingDetails);
+				issuesToExtendWithDetailsByToolingId.put(toolingId, validationIssue);
 			}
+			
+			// existing issues not reported again by the rule are no longer valid (in case of a scoped evaluation only the issues of the evaluated components)
+			existingIsssuesByComponentIdentifier.values()
+				.stream()
+				.filter(issue -> ruleIssues.scope == null || ruleIssues.scope.contains(issue.getAffectedComponent().getComponentId()))
+				.forEach(issue -> issueIdsToDelete.add(issue.getId()));
+			
+			final ValidationCheckpoint checkpoint = new ValidationCheckpoint(codeSystemURI.toString(), ruleId, headTimestamp);
+			checkpointsToIndex.put(checkpoint.getId(), checkpoint);
 		}
 		
-		// TODO return ValidationResult object with status and new issue IDs as set
-		return new ValidationResult(context.id(), context.path());
+		final Map<String, ValidationIssue> issuesToIndex = Maps.newHashMapWithExpectedSize(issuesToExtendWithDetailsByToolingId.size());
+		for (String toolingId : issuesToExtendWithDetailsByToolingId.keySet()) {
+			final ValidationIssueDetailExtension extensions = context.service(ValidationIssueDetailExtensionProvider.class).getExtensions(toolingId);
+			final Collection<ValidationIssue> issues = issuesToExtendWithDetailsByToolingId.get(toolingId);
+			extensions.extendIssues(context, issues, ruleParameters);
+			for (ValidationIssue issue : issues) {
+				issuesToIndex.put(issue.getId(), issue);
+			}
+		}
+		
+		if (!issueIdsToDelete.isEmpty()) {
+			index.removeAll(Collections.singletonMap(ValidationIssue.class, issueIdsToDelete));
+		}
+		if (!issuesToIndex.isEmpty()) {
+			index.putAll(issuesToIndex);
+		}
+		index.putAll(checkpointsToIndex);
+		index.commit();
+		LOG.info("Persisted '{}' issues generated by rules '{}'.", issuesToIndex.size(), rulesToPersist);
 	}
 
+	private ListMultimap<String, ValidationIssue> fetchExistingIssues(BranchContext context, CodeSystemURI codeSystemURI, List<IssuesToPersist> issuesToPersist) {
+		// fetch the existing issues of the rules reported in the current batch only, they will be diffed against the new results rule by rule
+		final ListMultimap<String, ValidationIssue> existingIssuesByRule = ArrayListMultimap.create();
+		final Set<String> unscopedRuleIds = Sets.newHashSet();
+		for (IssuesToPersist ruleIssues : issuesToPersist) {
+			if (ruleIssues.failed()) {
+				continue;
+			}
+			if (ruleIssues.scope == null) {
+				unscopedRuleIds.add(ruleIssues.ruleId);
+			} else if (!ruleIssues.scope.isEmpty()) {
+				// scoped evaluations can only affect the issues of the evaluated components
+				fetchExistingIssues(context, ValidationRequests.issues().prepareSearch()
+						.filterByResourceUri(codeSystemURI)
+						.filterByRule(ruleIssues.ruleId)
+						.filterByAffectedComponentId(ruleIssues.scope), existingIssuesByRule);
+			}
+		}
+		
+		if (!unscopedRuleIds.isEmpty()) {
+			fetchExistingIssues(context, ValidationRequests.issues().prepareSearch()
+					.filterByResourceUri(codeSystemURI)
+					.filterByRules(unscopedRuleIds), existingIssuesByRule);
+		}
+		
+		return existingIssuesByRule;
+	}
+	
+	private void fetchExistingIssues(BranchContext context, ValidationIssueSearchRequestBuilder req, ListMultimap<String, ValidationIssue> existingIssuesByRule) {
+		new SearchResourceRequestIterator<>(req.setLimit(ISSUE_PAGE_SIZE), builder -> builder.build().execute(context))
+			.forEachRemaining(issues -> issues.forEach(issue -> existingIssuesByRule.put(issue.getRuleId(), issue)));
+	}
+
+	private Map<String, Long> fetchCheckpoints(Writer index, CodeSystemURI codeSystemURI, ValidationRules rules) throws IOException {
+		final Set<String> checkpointIds = rules.stream()
+				.map(rule -> ValidationCheckpoint.toId(codeSystemURI.toString(), rule.getId()))
+				.collect(Collectors.toSet());
+		
+		final Map<String, Long> checkpoints = Maps.newHashMap();
+		for (ValidationCheckpoint checkpoint : index.searcher().get(ValidationCheckpoint.class, checkpointIds)) {
+			checkpoints.put(checkpoint.getRuleId(), checkpoint.getTimestamp());
+		}
+		return checkpoints;
+	}
+	
+	/*
+	 * Returns the identifiers of the components a rule needs to be evaluated on, or null if the rule needs to be evaluated on all components.
+	 */
+	private Set<String> getScope(BranchContext context, Long checkpoint, Map<Long, Optional<Set<String>>> changedComponentsSince) {
+		// the branch has been created or rebased since the last run, changes coming from the parent are not recorded in the branch's commits
+		if (checkpoint == null || checkpoint < context.branch().baseTimestamp()) {
+			return null;
+		}
+		return changedComponentsSince.computeIfAbsent(checkpoint, timestamp -> getChangedComponents(context, timestamp)).orElse(null);
+	}
+	
+	private Optional<Set<String>> getChangedComponents(BranchContext context, long timestamp) {
+		final Set<String> changedComponents = Sets.newHashSet();
+		// commits are read page by page, and reading stops at the first commit that does not record its changes
+		try (Stream<Commit> commits = context.service(RevisionSearcher.class).searcher().stream(Query.select(Commit.class)
+				.where(Expressions.builder()
+						.filter(Commit.Expressions.branches(context.branch().path()))
+						.filter(Commit.Expressions.timestampRange(timestamp + 1, context.branch().headTimestamp()))
+						.build())
+				.sortBy(SortBy.field(Commit.Fields.TIMESTAMP, Order.ASC))
+				.limit(Integer.MAX_VALUE)
+				.build(), COMMIT_PAGE_SIZE)) {
+			
+			final Iterator<Commit> iterator = commits.iterator();
+			while (iterator.hasNext()) {
+				final Commit commit = iterator.next();
+				// regular merge commits do not record the merged components
+				if (commit.getMergeSource() != null && !Boolean.TRUE.equals(commit.getSquashMerge())) {
+					return Optional.empty();
+				}
+				for (CommitDetail detail : commit.getDetails()) {
+					if (detail.getObjects() != null) {
+						changedComponents.addAll(detail.getObjects());
+					}
+					if (detail.getComponents() != null) {
+						detail.getComponents().forEach(changedComponents::addAll);
+					}
+				}
+			}
+		}
+		return Optional.of(changedComponents);
+	}
+	
 	private Multimap<String, ComponentIdentifier> fetchWhiteListEntries(BranchContext context, final Set<String> ruleIds) {
 		// fetch all white list entries to determine whether an issue is whitelisted already or not
 		final Multimap<String, ComponentIdentifier> whiteListedEntries = HashMultimap.create();
@@ -243,22 +401,48 @@ final class ValidateRequest implements Request<BranchContext, ValidationResult>,
 		this.ruleParameters = ruleParameters;
 	}
 	
+	void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+	
 	private static final class IssuesToPersist {
 		
 		public final String ruleId;
 		public final Collection<ValidationIssueDetails> issueDetails;
+		public final Set<String> scope;
+		
+		/*Creates a result for a rule that failed to execute*/
+		public IssuesToPersist(String ruleId) {
+			this.ruleId = ruleId;
+			this.issueDetails = null;
+			this.scope = null;
+		}
 		
 		@SuppressWarnings("unchecked")
-		public IssuesToPersist(String ruleId, Collection<?> evaluationResult) {
+		public IssuesToPersist(String ruleId, Collection<?> evaluationResult, Set<String> scope) {
 			this.ruleId = ruleId;
+			this.scope = scope;
+			final Collection<ValidationIssueDetails> issueDetails;
 			if (evaluationResult.iterator().hasNext() && evaluationResult.iterator().next() instanceof ValidationIssueDetails) {
-				this.issueDetails = (Collection<ValidationIssueDetails>) evaluationResult;
+				issueDetails = (Collection<ValidationIssueDetails>) evaluationResult;
 			} else {
-				this.issueDetails = evaluationResult.stream()
+				issueDetails = evaluationResult.stream()
 					.map(result -> (ComponentIdentifier) result)
 					.map(identifier -> new ValidationIssueDetails(identifier))
 					.collect(Collectors.toList());
 			}
+			// the existing issues of components outside of the scope are kept as is, evaluators may still report them
+			if (scope == null) {
+				this.issueDetails = issueDetails;
+			} else {
+				this.issueDetails = issueDetails.stream()
+					.filter(details -> scope.contains(details.affectedComponentId.getComponentId()))
+					.collect(Collectors.toList());
+			}
+		}
+		
+		public boolean failed() {
+			return issueDetails == null;
 		}
 		
 	}
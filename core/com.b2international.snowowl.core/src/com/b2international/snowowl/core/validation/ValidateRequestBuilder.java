@@ -36,6 +36,8 @@ public final class ValidateRequestBuilder
 	
 	private Map<String, Object> ruleParameters = Map.of();
 	
+	private boolean incremental;
+	
 	public ValidateRequestBuilder setRuleIds(Collection<String> ruleIds) {
 		this.ruleIds = ruleIds;
 		return getSelf();
@@ -46,11 +48,25 @@ public final class ValidateRequestBuilder
 		return getSelf();
 	}
 	
+	/**
+	 * Enables incremental validation. Rules that support scoped evaluation are evaluated only on the components changed on the branch since
+	 * their last successful evaluation, and only the issues of those components are replaced. Other rules, or rules without a previous run
+	 * on the branch, are evaluated on all components.
+	 * 
+	 * @param incremental
+	 * @return
+	 */
+	public ValidateRequestBuilder setIncremental(boolean incremental) {
+		this.incremental = incremental;
+		return getSelf();
+	}
+	
 	@Override
 	protected Request<BranchContext, ValidationResult> doBuild() {
 		ValidateRequest validateRequest = new ValidateRequest();
 		validateRequest.setRuleIds(ruleIds);
 		validateRequest.setRuleParameters(ruleParameters);
+		validateRequest.setIncremental(incremental);
 		return validateRequest;
 	}
 
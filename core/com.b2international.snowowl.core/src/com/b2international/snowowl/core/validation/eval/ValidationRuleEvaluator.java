@@ -87,6 +87,43 @@ public interface ValidationRuleEvaluator {
 	 */
 	List<?> eval(BranchContext context, ValidationRule rule, Map<String, Object> params) throws Exception;
 
+	/**
+	 * Returns whether the given rule can be evaluated on a subset of the components only, see
+	 * {@link #eval(BranchContext, ValidationRule, Map, Set)}. Only rules reporting a component based on the state of the component itself
+	 * (and the components recorded together with it in a commit) can be scoped, rules depending on other components (eg. on the hierarchy or on
+	 * referencing components) need to be evaluated on all components. Evaluators not supporting scoped evaluation always evaluate rules on all
+	 * components.
+	 * 
+	 * @param context
+	 *            - the branch context where the evaluation should run
+	 * @param rule
+	 *            - the rule to check
+	 * @return <code>true</code> if the rule can be evaluated on a subset of the components, <code>false</code> otherwise
+	 */
+	default boolean isScopeSupported(BranchContext context, ValidationRule rule) {
+		return false;
+	}
+
+	/**
+	 * Evaluate the given rule on the given components only. Issues reported for components outside of the given set are ignored by the caller.
+	 * By default the rule is evaluated on all components.
+	 * 
+	 * @param context
+	 *            - the branch context where the evaluation should run
+	 * @param rule
+	 *            - the rule to evaluate
+	 * @param params
+	 *            - parameters for the rule evaluators
+	 * @param componentIds
+	 *            - the identifiers of the components to evaluate the rule on
+	 * @return
+	 * @throws Exception
+	 * @see #isScopeSupported(BranchContext, ValidationRule)
+	 */
+	default List<?> eval(BranchContext context, ValidationRule rule, Map<String, Object> params, Set<String> componentIds) throws Exception {
+		return eval(context, rule, params);
+	}
+
 	/**
 	 * Unique type identifier of this validation rule evaluator. The type should represent the kind of rules that this evaluator can evaluate using
 	 * the {@link #eval(BranchContext, ValidationRule)} method.
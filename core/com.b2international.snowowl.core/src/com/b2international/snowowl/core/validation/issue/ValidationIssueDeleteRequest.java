@@ -25,6 +25,7 @@ import com.b2international.index.query.Expressions;
 import com.b2international.index.query.Expressions.ExpressionBuilder;
 import com.b2international.snowowl.core.ServiceProvider;
 import com.b2international.snowowl.core.events.Request;
+import com.b2international.snowowl.core.internal.validation.ValidationCheckpoint;
 import com.b2international.snowowl.core.internal.validation.ValidationRepository;
 import com.b2international.snowowl.core.uri.CodeSystemURI;
 import com.b2international.snowowl.core.uri.ResourceURIPathResolver;
@@ -55,6 +56,8 @@ final class ValidationIssueDeleteRequest implements Request<ServiceProvider, Boo
 	@Override
 	public Boolean execute(ServiceProvider context) {
 		ExpressionBuilder query = Expressions.builder();
+		// checkpoints of incremental validation runs are no longer valid without the issues
+		ExpressionBuilder checkpointQuery = Expressions.builder();
 		
 		if (!CompareUtils.isEmpty(resourceURIs)) {
 			List<String> branchPaths = context.service(ResourceURIPathResolver.class).resolve(context, resourceURIs.stream().map(CodeSystemURI::new).collect(Collectors.toList()));
@@ -64,6 +67,7 @@ final class ValidationIssueDeleteRequest implements Request<ServiceProvider, Boo
 					.should(Expressions.matchAny(ValidationIssue.Fields.BRANCH_PATH, branchPaths))
 					.build()
 			);
+			checkpointQuery.filter(ValidationCheckpoint.Expressions.resourceUris(resourceURIs));
 		}
 		
 		if (!CompareUtils.isEmpty(toolingIds)) {
@@ -76,11 +80,13 @@ final class ValidationIssueDeleteRequest implements Request<ServiceProvider, Boo
 				.map(ValidationRule::getId)
 				.collect(Collectors.toSet());
 			query.filter(Expressions.matchAny(ValidationIssue.Fields.RULE_ID, rulesToDelete));
+			checkpointQuery.filter(ValidationCheckpoint.Expressions.ruleIds(rulesToDelete));
 		}
 		
 		return context.service(ValidationRepository.class).write(writer -> {
 			
 			writer.bulkDelete(new BulkDelete<>(ValidationIssue.class, query.build()));
+			writer.bulkDelete(new BulkDelete<>(ValidationCheckpoint.class, checkpointQuery.build()));
 			writer.commit();
 			
 			new ValidationDeleteNotification(resourceURIs, toolingIds).publish(context.service(IEventBus.class));
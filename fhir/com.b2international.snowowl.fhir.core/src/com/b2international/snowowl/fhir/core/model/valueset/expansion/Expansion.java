@@ -31,6 +31,7 @@ import com.b2international.snowowl.fhir.core.exceptions.FhirException;
 import com.b2international.snowowl.fhir.core.model.ValidatingBuilder;
 import com.b2international.snowowl.fhir.core.model.dt.Uri;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 
 /**
@@ -87,7 +88,7 @@ public class Expansion {
 		private Integer total; 
 		private Integer offset; 
 		private Collection<Parameter<?>> parameters = Sets.newHashSet();
-		private Collection<Contains> contains = Sets.newHashSet();
+		private Collection<Contains> contains = Sets.newLinkedHashSet();
 		
 		public Builder identifier(final String identifier) {
 			this.identifier = new Uri(identifier);
@@ -129,6 +130,18 @@ public class Expansion {
 			return this;
 		}
 		
+		/**
+		 * Adds the given entries to the expansion, keeping their order.
+		 * 
+		 * @param contains - the entries to add
+		 * @return
+		 * @since 7.14
+		 */
+		public Builder addContains(Iterable<Contains> contains) {
+			Iterables.addAll(this.contains, contains);
+			return this;
+		}
+		
 		@Override
 		protected Expansion doBuild() {
 			return new Expansion(identifier, timestamp, total, offset, parameters, contains);
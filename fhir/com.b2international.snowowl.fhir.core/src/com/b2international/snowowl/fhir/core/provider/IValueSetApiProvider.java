@@ -111,7 +111,20 @@ public interface IValueSetApiProvider extends IFhirApiProvider {
 	 * @return {@link ValueSet}
 	 * @throws BadRequestException if the value set is not supported by this provider
 	 */
-	ValueSet expandValueSet(LogicalId logicalId);
+	default ValueSet expandValueSet(LogicalId logicalId) {
+		return expandValueSet(logicalId, ExpandValueSetRequest.builder().build());
+	}
+	
+	/**
+	 * Returns the expanded form of the value set specified by its logical id, applying the filter and paging parameters (filter, offset,
+	 * count) of the given request.
+	 * @param logicalId
+	 * @param request - the expand request with the filter and paging parameters
+	 * @return {@link ValueSet}
+	 * @throws BadRequestException if the value set is not supported by this provider
+	 * @since 7.14
+	 */
+	ValueSet expandValueSet(LogicalId logicalId, ExpandValueSetRequest request);
 
 	/**
 	 * Returns the expanded value set for the passed in value set URI
@@ -119,10 +132,12 @@ public interface IValueSetApiProvider extends IFhirApiProvider {
 	 * @return {@link ValueSet}
 	 * @throws BadRequestException if the value set is not supported by this provider
 	 */
-	ValueSet expandValueSet(String url);
+	default ValueSet expandValueSet(String url) {
+		return expandValueSet(ExpandValueSetRequest.builder().url(url).build());
+	}
 	
 	/**
-	 * Returns the expanded value set for the passed in request
+	 * Returns the expanded value set for the passed in request, applying its filter and paging parameters (filter, offset, count).
 	 * @param request - the expand request
 	 * @return expanded {@link ValueSet}
 	 * @throws BadRequestException if the value set is not supported by this provider
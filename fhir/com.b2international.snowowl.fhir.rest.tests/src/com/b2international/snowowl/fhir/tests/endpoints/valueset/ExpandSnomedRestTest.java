@@ -19,6 +19,7 @@ import static com.b2international.snowowl.test.commons.rest.RestExtensions.given
 import static org.hamcrest.CoreMatchers.endsWith;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.startsWith;
 
@@ -95,6 +96,64 @@ public class ExpandSnomedRestTest extends SnomedFhirRestTest {
 			.statusCode(200);
 	}
 	
+	//paged isA subsumption based value set
+	@Test
+	public void implicitIsaPagedTest() {
+		givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.param("url", "http://snomed.info/sct?fhir_vs=isa/" + FhirTestConcepts.ORGANISM) 
+			.param("offset", 1) 
+			.param("count", 1) 
+			.when().get("/ValueSet/$expand")
+			.then()
+			.body("resourceType", equalTo("ValueSet"))
+			.body("expansion.total", notNullValue())
+			.body("expansion.offset", equalTo(1))
+			.body("expansion.contains.size()", equalTo(1))
+			.statusCode(200);
+	}
+	
+	//offset past the last member of the isA subsumption based value set
+	@Test
+	public void implicitIsaOffsetPastEndTest() {
+		givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.param("url", "http://snomed.info/sct?fhir_vs=isa/" + FhirTestConcepts.ORGANISM)
+			.param("offset", 100_000)
+			.param("count", 10)
+			.when().get("/ValueSet/$expand")
+			.then()
+			.body("resourceType", equalTo("ValueSet"))
+			.body("expansion.total", notNullValue())
+			.body("expansion.offset", equalTo(100_000))
+			.body("expansion.contains.code", not(hasItem(FhirTestConcepts.BACTERIA)))
+			.statusCode(200);
+	}
+	
+	//negative count is not allowed
+	@Test
+	public void implicitIsaNegativeCountTest() {
+		givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.param("url", "http://snomed.info/sct?fhir_vs=isa/" + FhirTestConcepts.ORGANISM) 
+			.param("count", -1) 
+			.when().get("/ValueSet/$expand")
+			.then()
+			.statusCode(400);
+	}
+	
+	//filtered isA subsumption based value set
+	@Test
+	public void implicitIsaFilterTest() {
+		givenAuthenticatedRequest(FHIR_ROOT_CONTEXT)
+			.param("url", "http://snomed.info/sct?fhir_vs=isa/" + FhirTestConcepts.ORGANISM) 
+			.param("filter", "Microorganism") 
+			.when().get("/ValueSet/$expand")
+			.then()
+			.statusCode(200)
+			.body("resourceType", equalTo("ValueSet"))
+			.body("expansion.total", notNullValue())
+			.body("expansion.contains.code", hasItem(FhirTestConcepts.MICROORGANISM))
+			.body("expansion.contains.display", hasItem("Microorganism"));
+	}
+	
 	//all SNOMED CT concepts
 	@Test
 	public void implicitSnomedCTTest() {
@@ -159,12 +159,21 @@ public class FhirValueSetRestService extends BaseFhirResourceRestService<ValueSe
 		@ApiResponse(code = HTTP_NOT_FOUND, message = "Value set not found", response = OperationOutcome.class)
 	})
 	@RequestMapping(value="/{valueSetId:**}/$expand", method=RequestMethod.GET)
-	public ValueSet expand(@ApiParam(value="The id of the value set to expand") @PathVariable("valueSetId") String valueSetId) {
+	public ValueSet expand(@ApiParam(value="The id of the value set to expand") @PathVariable("valueSetId") String valueSetId,
+			@ApiParam(value="Text filter to apply to the codes") @RequestParam(value="filter", required=false) final String filter,
+			@ApiParam(value="The number of codes to skip") @RequestParam(value="offset", required=false) final Integer offset,
+			@ApiParam(value="The maximum number of codes to return") @RequestParam(value="count", required=false) final Integer count) {
 		
 		LogicalId logicalId = LogicalId.fromIdString(valueSetId);
 		
+		ExpandValueSetRequest request = ExpandValueSetRequest.builder()
+			.filter(filter)
+			.offset(offset)
+			.count(count)
+			.build();
+		
 		IValueSetApiProvider valueSetProvider = valueSetProviderRegistry.getValueSetProvider(getBus(), locales, logicalId);
-		ValueSet valueSet = valueSetProvider.expandValueSet(logicalId);
+		ValueSet valueSet = valueSetProvider.expandValueSet(logicalId, request);
 		
 		applyEmptyContentFilter(valueSet);
 		return valueSet;
@@ -185,10 +194,20 @@ public class FhirValueSetRestService extends BaseFhirResourceRestService<ValueSe
 	})
 	@RequestMapping(value="/$expand", method=RequestMethod.GET)
 	public ValueSet expandByURL(
-			@ApiParam(value="Canonical URL of the value set") @RequestParam(value="url") final String url) {
+			@ApiParam(value="Canonical URL of the value set") @RequestParam(value="url") final String url,
+			@ApiParam(value="Text filter to apply to the codes") @RequestParam(value="filter", required=false) final String filter,
+			@ApiParam(value="The number of codes to skip") @RequestParam(value="offset", required=false) final Integer offset,
+			@ApiParam(value="The maximum number of codes to return") @RequestParam(value="count", required=false) final Integer count) {
+		
+		ExpandValueSetRequest request = ExpandValueSetRequest.builder()
+			.url(url)
+			.filter(filter)
+			.offset(offset)
+			.count(count)
+			.build();
 		
 		IValueSetApiProvider valueSetProvider = valueSetProviderRegistry.getValueSetProvider(getBus(), locales, url);
-		ValueSet valueSet = valueSetProvider.expandValueSet(url);
+		ValueSet valueSet = valueSetProvider.expandValueSet(request);
 		
 		applyEmptyContentFilter(valueSet);
 		return valueSet;
@@ -19,6 +19,8 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.b2international.snowowl.internal.eventbus.ElasticExecutorServiceFactoryTest;
+import com.b2international.snowowl.internal.eventbus.EventBusAddressLimitTest;
 import com.b2international.snowowl.internal.eventbus.EventBusHandlerRegistrationTest;
 import com.b2international.snowowl.internal.eventbus.EventBusSendPerformanceTest;
 import com.b2international.snowowl.internal.eventbus.EventBusSendTest;
@@ -28,7 +30,7 @@ import com.b2international.snowowl.internal.eventbus.net4j.EventBusProtocolTest;
  * @since 3.1
  */
 @RunWith(Suite.class)
-@SuiteClasses({ EventBusHandlerRegistrationTest.class, EventBusSendTest.class, EventBusProtocolTest.class, EventBusSendPerformanceTest.class })
+@SuiteClasses({ EventBusHandlerRegistrationTest.class, EventBusSendTest.class, EventBusProtocolTest.class, EventBusSendPerformanceTest.class, EventBusAddressLimitTest.class, ElasticExecutorServiceFactoryTest.class })
 public class AllEventBusTests {
 
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.internal.eventbus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since 7.14
+ */
+public class ElasticExecutorServiceFactoryTest {
+
+	private static final int WORKERS = 2;
+	private static final int QUEUE_SIZE = 2;
+
+	private ExecutorService executor;
+	private CountDownLatch release;
+
+	@Before
+	public void setup() {
+		executor = new ElasticExecutorServiceFactory(QUEUE_SIZE).createExecutorService("elastic-test", WORKERS);
+		release = new CountDownLatch(1);
+	}
+
+	@After
+	public void teardown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void newThreadPerTaskUpToWorkers() throws Exception {
+		final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+		final CountDownLatch started = new CountDownLatch(WORKERS);
+		for (int i = 0; i < WORKERS; i++) {
+			executor.submit(() -> {
+				threadNames.add(Thread.currentThread().getName());
+				started.countDown();
+				await(release);
+			});
+		}
+
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		assertEquals(WORKERS, threadNames.size());
+	}
+
+	@Test
+	public void rejectOverQueueCapacity() throws Exception {
+		final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+		for (int i = 0; i < WORKERS + QUEUE_SIZE; i++) {
+			executor.submit(() -> {
+				threadNames.add(Thread.currentThread().getName());
+				await(release);
+			});
+		}
+		assertEquals(QUEUE_SIZE, ((ThreadPoolExecutor) executor).getQueue().size());
+
+		try {
+			executor.submit(() -> threadNames.add(Thread.currentThread().getName()));
+			fail("Task over the queue's capacity should have been rejected");
+		} catch (RejectedExecutionException e) {
+			// expected
+		}
+
+		// the rejected task never runs on the submitting thread
+		release.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		assertFalse(threadNames.contains(Thread.currentThread().getName()));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.internal.eventbus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.b2international.snowowl.eventbus.AddressLimit;
+import com.b2international.snowowl.eventbus.AddressLimit.Overflow;
+import com.b2international.snowowl.eventbus.IHandler;
+import com.b2international.snowowl.eventbus.IMessage;
+import com.b2international.snowowl.eventbus.IMessageMonitor;
+
+/**
+ * @since 7.14
+ */
+public class EventBusAddressLimitTest extends AbstractEventBusTest {
+
+	@Test
+	public void rejectOverCapacity() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		bus.setAddressLimit(ADDRESS, new AddressLimit(1, 1, Overflow.REJECT, 0L));
+		bus.registerHandler(ADDRESS, message -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			running.decrementAndGet();
+			message.reply(REPLY_MESSAGE);
+		});
+
+		final CountDownLatch replies = new CountDownLatch(3);
+		final AtomicInteger succeeded = new AtomicInteger();
+		final AtomicReference<Object> failure = new AtomicReference<>();
+		for (int i = 0; i < 3; i++) {
+			bus.send(ADDRESS, SEND_MESSAGE, Collections.emptyMap(), reply -> {
+				if (reply.isSucceeded()) {
+					succeeded.incrementAndGet();
+				} else {
+					failure.set(reply.body());
+				}
+				replies.countDown();
+			});
+			if (i == 0) {
+				wait(started);
+			}
+		}
+
+		release.countDown();
+		wait(replies);
+		assertEquals(2, succeeded.get());
+		assertTrue(failure.get() instanceof RejectedExecutionException);
+		assertEquals(1, maxRunning.get());
+	}
+
+	@Test
+	public void monitorReceivesAddressEvents() throws Exception {
+		final AtomicInteger queued = new AtomicInteger();
+		final AtomicInteger started = new AtomicInteger();
+		final CountDownLatch completed = new CountDownLatch(2);
+		final AtomicInteger failed = new AtomicInteger();
+		bus.addMessageMonitor(new IMessageMonitor() {
+			@Override
+			public void queued(String address) {
+				queued.incrementAndGet();
+			}
+
+			@Override
+			public void started(String address, long waitTimeNanos) {
+				started.incrementAndGet();
+			}
+
+			@Override
+			public void completed(String address, long processingTimeNanos, boolean succeeded) {
+				if (!succeeded) {
+					failed.incrementAndGet();
+				}
+				completed.countDown();
+			}
+		});
+		bus.registerHandler(ADDRESS, message -> {
+			if (SEND_MESSAGE.equals(message.body())) {
+				message.reply(REPLY_MESSAGE);
+			} else {
+				message.fail(new IllegalArgumentException());
+			}
+		});
+
+		final CountDownLatch replies = new CountDownLatch(2);
+		bus.send(ADDRESS, SEND_MESSAGE, Collections.emptyMap(), reply -> replies.countDown());
+		bus.send(ADDRESS, "Unknown", Collections.emptyMap(), reply -> replies.countDown());
+		wait(replies);
+		wait(completed);
+
+		// reply handlers are not monitored
+		assertEquals(2, queued.get());
+		assertEquals(2, started.get());
+		assertEquals(1, failed.get());
+	}
+
+	@Test
+	public void nestedMessagesFromHelperThreadsBypassLimit() throws Exception {
+		final ExecutorService helper = Executors.newSingleThreadExecutor();
+		bus.setAddressLimit(ADDRESS, new AddressLimit(1, 0, Overflow.REJECT, 0L));
+		bus.registerHandler(ADDRESS, message -> {
+			if (SEND_MESSAGE.equals(message.body())) {
+				// wait for the nested message sent from another thread while holding the only slot of the address
+				final CountDownLatch nested = new CountDownLatch(1);
+				final AtomicReference<Object> nestedReply = new AtomicReference<>();
+				helper.execute(() -> bus.send(ADDRESS, "Nested", Collections.singletonMap(AddressLimit.NESTED_HEADER, "true"), reply -> {
+					nestedReply.set(reply.body());
+					nested.countDown();
+				}));
+				wait(nested);
+				message.reply(nestedReply.get());
+			} else {
+				message.reply(REPLY_MESSAGE);
+			}
+		});
+
+		final CountDownLatch replies = new CountDownLatch(1);
+		final AtomicReference<Object> reply = new AtomicReference<>();
+		bus.send(ADDRESS, SEND_MESSAGE, Collections.emptyMap(), message -> {
+			reply.set(message.body());
+			replies.countDown();
+		});
+		wait(replies);
+		helper.shutdown();
+		assertEquals(REPLY_MESSAGE, reply.get());
+	}
+	
+	@Test
+	public void nestedHeaderBypassesLimit() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		bus.setAddressLimit(ADDRESS, new AddressLimit(1, 0, Overflow.REJECT, 0L));
+		bus.registerHandler(ADDRESS, message -> {
+			if (SEND_MESSAGE.equals(message.body())) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			message.reply(REPLY_MESSAGE);
+		});
+
+		final CountDownLatch replies = new CountDownLatch(2);
+		final AtomicInteger succeeded = new AtomicInteger();
+		bus.send(ADDRESS, SEND_MESSAGE, Collections.emptyMap(), reply -> replies.countDown());
+		wait(started);
+		
+		// the only slot of the address is taken, but nested messages are not limited
+		final CountDownLatch nestedReply = new CountDownLatch(1);
+		bus.send(ADDRESS, "Nested", Collections.singletonMap(AddressLimit.NESTED_HEADER, "true"), reply -> {
+			if (reply.isSucceeded()) {
+				succeeded.incrementAndGet();
+			}
+			nestedReply.countDown();
+			replies.countDown();
+		});
+		wait(nestedReply);
+		
+		release.countDown();
+		wait(replies);
+		assertEquals(1, succeeded.get());
+	}
+	
+	@Test
+	public void groupLimitSeparatesWorkloads() throws Exception {
+		final String group = "Import";
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		bus.setAddressLimit(ADDRESS, new AddressLimit(1, 0, Overflow.REJECT, 0L));
+		bus.setAddressLimit(AddressLimit.getGroupAddress(ADDRESS, group), new AddressLimit(1, 0, Overflow.REJECT, 0L));
+		bus.registerHandler(ADDRESS, message -> {
+			if (group.equals(message.headers().get(AddressLimit.GROUP_HEADER))) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			message.reply(REPLY_MESSAGE);
+		});
+
+		final Map<String, String> groupHeaders = Collections.singletonMap(AddressLimit.GROUP_HEADER, group);
+		final CountDownLatch replies = new CountDownLatch(3);
+		final AtomicInteger succeeded = new AtomicInteger();
+		final AtomicReference<Object> failure = new AtomicReference<>();
+		final IHandler<IMessage> replyHandler = reply -> {
+			if (reply.isSucceeded()) {
+				succeeded.incrementAndGet();
+			} else {
+				failure.set(reply.body());
+			}
+			replies.countDown();
+		};
+		
+		bus.send(ADDRESS, SEND_MESSAGE, groupHeaders, replyHandler);
+		wait(started);
+		// the workload with its own limit is over capacity, other messages of the address are still accepted
+		bus.send(ADDRESS, SEND_MESSAGE, groupHeaders, replyHandler);
+		final CountDownLatch otherReply = new CountDownLatch(1);
+		bus.send(ADDRESS, SEND_MESSAGE, Collections.singletonMap(AddressLimit.GROUP_HEADER, "Search"), reply -> {
+			replyHandler.handle(reply);
+			otherReply.countDown();
+		});
+		wait(otherReply);
+		
+		release.countDown();
+		wait(replies);
+		assertEquals(2, succeeded.get());
+		assertTrue(failure.get() instanceof RejectedExecutionException);
+	}
+	
+	@Test
+	public void unlimitedByDefault() throws Exception {
+		assertTrue(bus.getAddressLimit(ADDRESS).isUnlimited());
+	}
+
+}
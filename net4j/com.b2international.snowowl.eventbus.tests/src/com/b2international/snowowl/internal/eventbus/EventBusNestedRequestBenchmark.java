@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.internal.eventbus;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
+
+import com.b2international.snowowl.eventbus.AddressLimit;
+import com.b2international.snowowl.eventbus.AddressLimit.Overflow;
+import com.b2international.snowowl.eventbus.IEventBus;
+
+/**
+ * Load benchmark comparing the worker pool and the elastic executor of the {@link EventBus} with a nested request workload, run it as a
+ * Java application. Each top-level request sends a number of nested requests to the same address and waits for them one by one, like
+ * request handlers do when they call <code>execute(bus).getSync()</code>, while nested requests simulate blocking I/O by sleeping.
+ * <p>
+ * With the worker pool, top-level requests can occupy all worker threads while waiting for their nested requests, which are then queued
+ * behind them; such nested requests time out and fail the top-level request. The elastic executor is measured with a concurrency limit on
+ * the address, which does not apply to nested requests.
+ *
+ * @since 7.14
+ */
+public class EventBusNestedRequestBenchmark {
+
+	private static final String ADDRESS = "/requests";
+	private static final String TOP_LEVEL = "TopLevel";
+	private static final String NESTED = "Nested";
+
+	private static final int WORKERS = 16;
+	private static final int CLIENTS = 64;
+	private static final int NESTED_REQUESTS = 4;
+	private static final long IO_MILLIS = 5L;
+	private static final long NESTED_TIMEOUT_MILLIS = 1_000L;
+	private static final int REQUESTS = 2_000;
+	private static final Map<String, String> NESTED_HEADERS = Collections.singletonMap(AddressLimit.NESTED_HEADER, "true");
+
+	public static void main(String[] args) throws Exception {
+		measure("Worker pool", new EventBus("benchmark-worker", WORKERS), AddressLimit.UNLIMITED);
+		// every top-level request waits for one nested request at a time
+		measure("Elastic", new EventBus("benchmark-elastic", CLIENTS * 2, new ElasticExecutorServiceFactory()), new AddressLimit(CLIENTS, CLIENTS, Overflow.BLOCK, 60_000L));
+	}
+
+	private static void measure(String name, IEventBus bus, AddressLimit limit) throws InterruptedException {
+		LifecycleUtil.activate(bus);
+		try {
+			bus.setAddressLimit(ADDRESS, limit);
+			bus.registerHandler(ADDRESS, message -> {
+				if (NESTED.equals(message.body())) {
+					sleep(IO_MILLIS);
+					message.reply(NESTED);
+					return;
+				}
+				for (int i = 0; i < NESTED_REQUESTS; i++) {
+					final CountDownLatch nested = new CountDownLatch(1);
+					bus.send(ADDRESS, NESTED, NESTED_HEADERS, reply -> nested.countDown());
+					try {
+						if (!nested.await(NESTED_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+							message.fail(new IllegalStateException("Nested request timed out"));
+							return;
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						message.fail(e);
+						return;
+					}
+				}
+				message.reply(TOP_LEVEL);
+			});
+
+			// keep the given number of top-level requests in flight
+			final Semaphore clients = new Semaphore(CLIENTS);
+			final CountDownLatch completed = new CountDownLatch(REQUESTS);
+			final AtomicInteger failed = new AtomicInteger();
+			final long start = System.nanoTime();
+			for (int i = 0; i < REQUESTS; i++) {
+				clients.acquire();
+				bus.send(ADDRESS, TOP_LEVEL, Collections.emptyMap(), reply -> {
+					if (!reply.isSucceeded()) {
+						failed.incrementAndGet();
+					}
+					clients.release();
+					completed.countDown();
+				});
+			}
+			completed.await();
+			final double seconds = (System.nanoTime() - start) / 1_000_000_000D;
+			System.out.println(String.format("%s: %.1f requests/s, %d of %d requests failed", name, REQUESTS / seconds, failed.get(), REQUESTS));
+		} finally {
+			LifecycleUtil.deactivate(bus);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.eventbus;
+
+import org.eclipse.net4j.util.CheckUtil;
+
+/**
+ * Limits the number of messages of a single address that can be processed concurrently, and the number of messages that can wait for
+ * processing. When the queue of an address is full, new messages are either rejected immediately or their sender is blocked until space
+ * becomes available (or the configured timeout elapses), depending on the {@link Overflow} policy. Rejected messages are failed with a
+ * {@link java.util.concurrent.RejectedExecutionException}.
+ *
+ * @since 7.14
+ */
+public final class AddressLimit {
+
+	/**
+	 * Header of messages sent by a handler while it processes an already admitted message (nested messages). Nested messages bypass the
+	 * limits of their address, as their sender already holds a slot of the capacity; holding them back could exhaust the capacity with
+	 * senders waiting for their own nested messages.
+	 */
+	public static final String NESTED_HEADER = "X-Nested-Message";
+	
+	/**
+	 * Header naming the workload a message belongs to. If a limit is registered for the address returned by
+	 * {@link #getGroupAddress(String, String)}, the message is limited by that limit instead of the limit of its address, and does not
+	 * compete with other workloads sent to the same address for capacity.
+	 */
+	public static final String GROUP_HEADER = "X-Limit-Group";
+
+	/**
+	 * Defines what happens with a message sent to an address with a full queue.
+	 *
+	 * @since 7.14
+	 */
+	public enum Overflow {
+		/**
+		 * Reject the message immediately.
+		 */
+		REJECT,
+		/**
+		 * Block the sender until the message can be queued, reject the message if the timeout elapses.
+		 */
+		BLOCK
+	}
+
+	/**
+	 * No concurrency and queue limits.
+	 */
+	public static final AddressLimit UNLIMITED = new AddressLimit(Integer.MAX_VALUE, Integer.MAX_VALUE, Overflow.REJECT, 0L);
+
+	private final int maxConcurrency;
+	private final int maxQueueSize;
+	private final Overflow overflow;
+	private final long blockTimeoutMillis;
+
+	public AddressLimit(int maxConcurrency, int maxQueueSize, Overflow overflow, long blockTimeoutMillis) {
+		CheckUtil.checkArg(maxConcurrency > 0, "Maximum concurrency must be greater than zero");
+		CheckUtil.checkArg(maxQueueSize >= 0, "Maximum queue size must be greater than or equal to zero");
+		CheckUtil.checkArg(overflow, "Overflow policy should be specified");
+		CheckUtil.checkArg(blockTimeoutMillis >= 0L, "Block timeout must be greater than or equal to zero");
+		this.maxConcurrency = maxConcurrency;
+		this.maxQueueSize = maxQueueSize;
+		this.overflow = overflow;
+		this.blockTimeoutMillis = blockTimeoutMillis;
+	}
+
+	/**
+	 * @return the maximum number of messages processed concurrently
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * @return the maximum number of messages waiting for processing
+	 */
+	public int getMaxQueueSize() {
+		return maxQueueSize;
+	}
+
+	public Overflow getOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * @return the maximum time in milliseconds a sender is blocked when using the {@link Overflow#BLOCK} policy
+	 */
+	public long getBlockTimeoutMillis() {
+		return blockTimeoutMillis;
+	}
+
+	public boolean isUnlimited() {
+		return maxConcurrency == Integer.MAX_VALUE && maxQueueSize == Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @param address - the address messages are sent to
+	 * @param group - the workload of the message, see {@link #GROUP_HEADER}
+	 * @return the address to register the limit of the given workload with, eg. <code>/requests/SnomedRf2ImportRequest</code>
+	 */
+	public static String getGroupAddress(String address, String group) {
+		return address + "/" + group;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("AddressLimit [maxConcurrency=%s, maxQueueSize=%s, overflow=%s, blockTimeoutMillis=%s]", maxConcurrency, maxQueueSize, overflow, blockTimeoutMillis);
+	}
+
+}
@@ -126,6 +126,36 @@ public interface IEventBus {
 	 */
 	ExecutorService getExecutorService();
 	
+	/**
+	 * Limits the concurrency and the queue size of the messages delivered to the local handlers of the given address. Messages accepted
+	 * before the limit change are processed according to the previous limit.
+	 * 
+	 * @param address
+	 * @param limit
+	 * @see AddressLimit
+	 */
+	void setAddressLimit(String address, AddressLimit limit);
+	
+	/**
+	 * @param address
+	 * @return the current limit of the given address, or {@link AddressLimit#UNLIMITED} if there is no limit set
+	 */
+	AddressLimit getAddressLimit(String address);
+	
+	/**
+	 * Registers a monitor to receive the message lifecycle events of locally registered handlers.
+	 * 
+	 * @param monitor
+	 */
+	void addMessageMonitor(IMessageMonitor monitor);
+	
+	/**
+	 * Unregisters a previously registered monitor.
+	 * 
+	 * @param monitor
+	 */
+	void removeMessageMonitor(IMessageMonitor monitor);
+	
 	/**
 	 * @param tag
 	 * @return the amount of messages that are currently in queue by tag.
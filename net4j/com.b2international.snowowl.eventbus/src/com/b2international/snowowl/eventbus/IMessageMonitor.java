@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.eventbus;
+
+/**
+ * Receives the lifecycle events of messages delivered to locally registered handlers, by address. Reply messages are not reported.
+ * Implementations are called on the sender's and the worker threads, so they should be thread-safe and return quickly.
+ *
+ * @since 7.14
+ */
+public interface IMessageMonitor {
+
+	/**
+	 * Called when a message has been queued for processing.
+	 *
+	 * @param address
+	 */
+	default void queued(String address) {}
+
+	/**
+	 * Called when the processing of a previously queued message starts.
+	 *
+	 * @param address
+	 * @param waitTimeNanos - the time the message has spent in the queue
+	 */
+	default void started(String address, long waitTimeNanos) {}
+
+	/**
+	 * Called when the processing of a message completes.
+	 *
+	 * @param address
+	 * @param processingTimeNanos - the time the handler has spent processing the message
+	 * @param succeeded - whether the message has been processed successfully or not
+	 */
+	default void completed(String address, long processingTimeNanos, boolean succeeded) {}
+
+	/**
+	 * Called when a message is rejected due to the {@link AddressLimit} of the address.
+	 *
+	 * @param address
+	 */
+	default void rejected(String address) {}
+
+}
@@ -38,10 +38,24 @@ public class EventBusNet4jUtil {
 	 * @param numberOfWorkers 
 	 */
 	public static final void prepareContainer(IManagedContainer container, boolean gzip, int numberOfWorkers) {
+		prepareContainer(container, gzip, numberOfWorkers, false);
+	}
+	
+	/**
+	 * Prepares the given {@link IManagedContainer} to deliver message through {@link IEventBus} instances over the
+	 * network.
+	 * 
+	 * @param container
+	 * @param gzip - to enable gzip compression on the protocol or not
+	 * @param numberOfWorkers
+	 * @param elastic - to run each message handler on its own thread instead of a pool of at most numberOfWorkers threads
+	 * @since 7.14
+	 */
+	public static final void prepareContainer(IManagedContainer container, boolean gzip, int numberOfWorkers, boolean elastic) {
 		container.registerFactory(new EventBusProtocol.ClientFactory());
 		container.registerFactory(new EventBusProtocol.ServerFactory());
 		container.registerFactory(new EventBus.Factory());
-		container.addPostProcessor(new EventBusProtocolInjector(numberOfWorkers));
+		container.addPostProcessor(new EventBusProtocolInjector(numberOfWorkers, elastic));
 		if (gzip) {
 			container.addPostProcessor(new GZIPStreamWrapperInjector(EventBusConstants.PROTOCOL_NAME));
 		}
@@ -66,7 +80,20 @@ public class EventBusNet4jUtil {
 	 * @return
 	 */
 	public static IEventBus getBus(IManagedContainer container, int numberOfWorkers) {
-		return getBus(container, EventBusConstants.GLOBAL_BUS, numberOfWorkers, true);
+		return getBus(container, numberOfWorkers, false);
+	}
+	
+	/**
+	 * Returns the event bus associated with the description of globalBus.
+	 * 
+	 * @param container
+	 * @param numberOfWorkers
+	 * @param elastic - to run each message handler on its own thread instead of a pool of at most numberOfWorkers threads
+	 * @return
+	 * @since 7.14
+	 */
+	public static IEventBus getBus(IManagedContainer container, int numberOfWorkers, boolean elastic) {
+		return getBus(container, EventBusConstants.GLOBAL_BUS, numberOfWorkers, true, elastic);
 	}
 
 	/**
@@ -77,9 +104,9 @@ public class EventBusNet4jUtil {
 	 * @param numberOfWorkers
 	 * @return
 	 */
-	private static IEventBus getBus(IManagedContainer container, String name, int numberOfWorkers, boolean worker) {
+	private static IEventBus getBus(IManagedContainer container, String name, int numberOfWorkers, boolean worker, boolean elastic) {
 		return (IEventBus) container.getElement(EventBusConstants.EVENT_BUS_PRODUCT_GROUP,
-				EventBusConstants.PROTOCOL_NAME, String.join(":", name, Integer.toString(numberOfWorkers), Boolean.toString(worker)), true);
+				EventBusConstants.PROTOCOL_NAME, String.join(":", name, Integer.toString(numberOfWorkers), Boolean.toString(worker), Boolean.toString(elastic)), true);
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.internal.eventbus;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.b2international.snowowl.eventbus.AddressLimit;
+import com.b2international.snowowl.eventbus.AddressLimit.Overflow;
+import com.b2international.snowowl.eventbus.IMessage;
+import com.b2international.snowowl.eventbus.IMessageMonitor;
+
+/**
+ * Dispatches the messages of a single address to the shared executor of the {@link EventBus}, keeping at most
+ * {@link AddressLimit#getMaxConcurrency()} messages submitted to the executor at a time. Messages over the concurrency limit wait in the
+ * address' own queue, so a burst of messages on one address can not fill up the shared executor queue in front of other addresses.
+ * <p>
+ * Nested messages (marked with {@link AddressLimit#NESTED_HEADER}) are not subject to the limits, as their sender has already been admitted.
+ * Holding them back could otherwise exhaust the address' capacity with senders waiting for their own nested messages. The mark travels with
+ * the message, so messages sent from helper threads of a handler are recognized as nested as well.
+ *
+ * @since 7.14
+ */
+final class AddressDispatcher {
+
+	private static final Logger LOG = LoggerFactory.getLogger(AddressDispatcher.class);
+
+	private final String address;
+	private final ExecutorService executor;
+	private final AddressLimit limit;
+	private final List<IMessageMonitor> monitors;
+
+	// permits for the messages accepted, but not yet completed (running and queued messages)
+	private final Semaphore permits;
+	private final Queue<Task> pending = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger submitted = new AtomicInteger();
+
+	AddressDispatcher(String address, ExecutorService executor, AddressLimit limit, List<IMessageMonitor> monitors) {
+		this.address = address;
+		this.executor = executor;
+		this.limit = limit;
+		this.monitors = monitors;
+		this.permits = limit.getMaxQueueSize() == Integer.MAX_VALUE ? null : new Semaphore((int) Math.min(Integer.MAX_VALUE, (long) limit.getMaxConcurrency() + limit.getMaxQueueSize()));
+	}
+
+	AddressLimit getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Queues the given message processing task for execution.
+	 *
+	 * @param message - the message to process
+	 * @param task - the task processing the message
+	 * @return <code>true</code> if the task has been accepted, <code>false</code> if it has been rejected due to the address' limits
+	 */
+	boolean submit(IMessage message, Runnable task) {
+		if (isNested(message)) {
+			monitors.forEach(monitor -> monitor.queued(address));
+			execute(new Task(message, task, System.nanoTime(), false));
+			return true;
+		}
+		
+		if (!acquire()) {
+			monitors.forEach(monitor -> monitor.rejected(address));
+			return false;
+		}
+
+		monitors.forEach(monitor -> monitor.queued(address));
+		pending.offer(new Task(message, task, System.nanoTime(), true));
+		dispatch();
+		return true;
+	}
+
+	private boolean isNested(IMessage message) {
+		return message.headers().containsKey(AddressLimit.NESTED_HEADER);
+	}
+	
+	private boolean acquire() {
+		if (permits == null) {
+			return true;
+		} else if (limit.getOverflow() == Overflow.BLOCK) {
+			try {
+				return permits.tryAcquire(limit.getBlockTimeoutMillis(), TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		} else {
+			return permits.tryAcquire();
+		}
+	}
+
+	/*Submits pending tasks to the executor while the concurrency limit allows*/
+	private void dispatch() {
+		while (!pending.isEmpty()) {
+			final int current = submitted.get();
+			if (current >= limit.getMaxConcurrency()) {
+				return;
+			}
+			if (!submitted.compareAndSet(current, current + 1)) {
+				continue;
+			}
+
+			final Task task = pending.poll();
+			if (task == null) {
+				// another thread took the last pending task
+				submitted.decrementAndGet();
+				continue;
+			}
+
+			execute(task);
+		}
+	}
+
+	private void execute(Task task) {
+		try {
+			executor.submit(() -> run(task));
+		} catch (RejectedExecutionException e) {
+			LOG.error("Executor rejected message on address '{}'", address, e);
+			if (task.admitted) {
+				release();
+			}
+			task.message.fail(e);
+		}
+	}
+
+	private void run(Task task) {
+		try {
+			final long startTime = System.nanoTime();
+			monitors.forEach(monitor -> monitor.started(address, startTime - task.queuedAt));
+			try {
+				task.runnable.run();
+			} finally {
+				final long processingTime = System.nanoTime() - startTime;
+				final boolean succeeded = task.message.isSucceeded();
+				monitors.forEach(monitor -> monitor.completed(address, processingTime, succeeded));
+			}
+		} finally {
+			if (task.admitted) {
+				release();
+				dispatch();
+			}
+		}
+	}
+
+	private void release() {
+		submitted.decrementAndGet();
+		if (permits != null) {
+			permits.release();
+		}
+	}
+
+	private static final class Task {
+
+		private final IMessage message;
+		private final Runnable runnable;
+		private final long queuedAt;
+		// whether the task holds a slot of the address' capacity
+		private final boolean admitted;
+
+		Task(IMessage message, Runnable runnable, long queuedAt, boolean admitted) {
+			this.message = message;
+			this.runnable = runnable;
+			this.queuedAt = queuedAt;
+			this.admitted = admitted;
+		}
+
+	}
+
+}
@@ -146,6 +146,8 @@ import com.google.common.collect.ImmutableMap;
 	@Override
 	public void fail(Object failure) {
 		if (failure != null) {
+			// mark the received message as failed as well, so the failure is visible to the delivering bus
+			succeeded = false;
 			final BaseMessage reply = new BaseMessage(replyAddress, failure, tag, Collections.emptyMap());
 			reply.succeeded = false;
 			sendReply(reply);
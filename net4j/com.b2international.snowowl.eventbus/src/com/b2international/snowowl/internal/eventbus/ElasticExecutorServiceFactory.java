@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.internal.eventbus;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates executors that start a new thread for each message handler until the given number of workers is reached, so messages are not
+ * queued behind handlers blocked on I/O or on nested requests while there is capacity left. The number of concurrently processed messages
+ * should be limited per address with {@link com.b2international.snowowl.eventbus.AddressLimit}s, well below the number of workers, as nested
+ * messages are not subject to address limits.
+ * <p>
+ * When all threads are busy, messages wait in a bounded queue. Messages over the queue's capacity are rejected with a
+ * {@link java.util.concurrent.RejectedExecutionException}, which fails the message; they are never processed on the sending thread, which
+ * may be a connection's I/O thread. Idle threads are stopped after one minute.
+ *
+ * @since 7.14
+ */
+public class ElasticExecutorServiceFactory implements ExecutorServiceFactory {
+
+	public static final int DEFAULT_MAX_QUEUE_SIZE = 10_000;
+	
+	private final int maxQueueSize;
+	
+	public ElasticExecutorServiceFactory() {
+		this(DEFAULT_MAX_QUEUE_SIZE);
+	}
+	
+	public ElasticExecutorServiceFactory(int maxQueueSize) {
+		this.maxQueueSize = maxQueueSize;
+	}
+	
+	@Override
+	public ExecutorService createExecutorService(String description, int numberOfWorkers) {
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+			numberOfWorkers, numberOfWorkers,
+			1L, TimeUnit.MINUTES,
+			new LinkedBlockingQueue<>(maxQueueSize),
+			WorkerExecutorServiceFactory.createThreadFactory(description),
+			new ThreadPoolExecutor.AbortPolicy()
+		);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+}
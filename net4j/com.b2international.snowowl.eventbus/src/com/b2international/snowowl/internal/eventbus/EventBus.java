@@ -20,10 +20,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -34,9 +36,11 @@ import org.eclipse.net4j.util.lifecycle.LifecycleUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.b2international.snowowl.eventbus.AddressLimit;
 import com.b2international.snowowl.eventbus.IEventBus;
 import com.b2international.snowowl.eventbus.IHandler;
 import com.b2international.snowowl.eventbus.IMessage;
+import com.b2international.snowowl.eventbus.IMessageMonitor;
 import com.b2international.snowowl.eventbus.net4j.EventBusConstants;
 import com.b2international.snowowl.eventbus.net4j.IEventBusProtocol;
 import com.google.common.collect.MapMaker;
@@ -57,6 +61,9 @@ public class EventBus extends Lifecycle implements IEventBus {
 	private final ConcurrentMap<String, AtomicLong> succeededMessages;
 	private final ConcurrentMap<String, AtomicLong> completedMessages;
 	private final ConcurrentMap<String, AtomicLong> failedMessages;
+	private final ConcurrentMap<String, AddressLimit> addressLimits = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, AddressDispatcher> dispatchers = new ConcurrentHashMap<>();
+	private final List<IMessageMonitor> monitors = new CopyOnWriteArrayList<>();
 	private final String description;
 	private final int maxThreads;
 	private final ExecutorServiceFactory executorServiceFactory;
@@ -68,11 +75,16 @@ public class EventBus extends Lifecycle implements IEventBus {
 	}
 	
 	public EventBus(String description, int maxThreads) {
+		this(description, maxThreads, maxThreads == 0 ? ExecutorServiceFactory.DIRECT : new WorkerExecutorServiceFactory());
+	}
+	
+	public EventBus(String description, int maxThreads, ExecutorServiceFactory executorServiceFactory) {
 		CheckUtil.checkArg(description, "Description should be specified");
 		CheckUtil.checkArg(maxThreads >= 0, "Number of workers must be greater than zero");
+		CheckUtil.checkArg(executorServiceFactory, "Executor service factory should be specified");
 		this.description = description;
 		this.maxThreads = maxThreads;
-		this.executorServiceFactory = maxThreads == 0 ? ExecutorServiceFactory.DIRECT : new WorkerExecutorServiceFactory();
+		this.executorServiceFactory = executorServiceFactory;
 		
 		// init stat maps with 1-4 concurrencyLevel
 		final int concurrencyLevel = Ints.constrainToRange(maxThreads, 1, 4);
@@ -156,7 +168,7 @@ public class EventBus extends Lifecycle implements IEventBus {
 	
 	private void doReceive(final IMessage message, final Handler holder) {
 		queue(message);
-		holder.context.submit(new Runnable() {
+		final Runnable task = new Runnable() {
 			@Override
 			public void run() {
 				try {
@@ -172,7 +184,72 @@ public class EventBus extends Lifecycle implements IEventBus {
 					}
 				}
 			}
-		});
+		};
+		
+		if (holder.isReplyHandler || holder.handler instanceof IEventBusProtocol) {
+			// replies and messages forwarded to remote nodes are not subject to address limits
+			try {
+				holder.context.submit(task);
+			} catch (RejectedExecutionException e) {
+				// the executor is saturated, the handler does not run, but the message is failed explicitly
+				if (holder.isReplyHandler) {
+					unregisterHandler(holder.address, holder.handler);
+				}
+				reject(message);
+			}
+		} else if (!getDispatcher(holder.address, message).submit(message, task)) {
+			reject(message);
+		}
+	}
+	
+	private AddressDispatcher getDispatcher(String address, IMessage message) {
+		final String group = message.headers().get(AddressLimit.GROUP_HEADER);
+		if (group != null) {
+			// workloads with their own limit are dispatched separately from the rest of the address' messages
+			final String groupAddress = AddressLimit.getGroupAddress(address, group);
+			if (addressLimits.containsKey(groupAddress)) {
+				return getDispatcher(groupAddress);
+			}
+		}
+		return getDispatcher(address);
+	}
+	
+	private AddressDispatcher getDispatcher(String address) {
+		return dispatchers.computeIfAbsent(address, key -> new AddressDispatcher(key, executorService, addressLimits.getOrDefault(key, AddressLimit.UNLIMITED), monitors));
+	}
+	
+	private void reject(IMessage message) {
+		LOG.warn("Rejected message due to the limits of address '{}'", message.address());
+		final String tag = message.tag();
+		decrement(tag, inQueueMessages);
+		increment(tag, failedMessages);
+		increment(tag, completedMessages);
+		message.fail(new RejectedExecutionException(String.format("Address '%s' is over capacity, try again later", message.address())));
+	}
+	
+	@Override
+	public void setAddressLimit(String address, AddressLimit limit) {
+		MessageFactory.checkAddress(address);
+		CheckUtil.checkArg(limit, "Limit should be specified");
+		addressLimits.put(address, limit);
+		// messages already accepted by the previous dispatcher are completed according to the previous limit
+		dispatchers.remove(address);
+	}
+	
+	@Override
+	public AddressLimit getAddressLimit(String address) {
+		return addressLimits.getOrDefault(address, AddressLimit.UNLIMITED);
+	}
+	
+	@Override
+	public void addMessageMonitor(IMessageMonitor monitor) {
+		CheckUtil.checkArg(monitor, "Monitor should be specified");
+		monitors.add(monitor);
+	}
+	
+	@Override
+	public void removeMessageMonitor(IMessageMonitor monitor) {
+		monitors.remove(monitor);
 	}
 	
 	@Override
@@ -368,7 +445,13 @@ public class EventBus extends Lifecycle implements IEventBus {
 		@Override
 		public Object create(String description) throws ProductCreationException {
 			final String[] values = description.split(":");
-			return new EventBus(values[0], Integer.parseInt(values[1]));
+			final int maxThreads = Integer.parseInt(values[1]);
+			final boolean elastic = values.length > 3 && Boolean.parseBoolean(values[3]);
+			if (maxThreads > 0 && elastic) {
+				return new EventBus(values[0], maxThreads, new ElasticExecutorServiceFactory());
+			} else {
+				return new EventBus(values[0], maxThreads);
+			}
 		}
 
 	}
@@ -31,18 +31,7 @@ public class WorkerExecutorServiceFactory implements ExecutorServiceFactory {
 
 	@Override
 	public ExecutorService createExecutorService(String description, int maxThreads) {
-		final ThreadGroup group = new ThreadGroup(description);
-
-		final ThreadFactory threadFactory = new ThreadFactory() {
-			@Override
-			public Thread newThread(Runnable r) {
-				final Thread thread = new Thread(group, r);
-				thread.setName(description + "-" + thread.getId());
-				thread.setDaemon(true);
-				return thread;
-			}
-		};
-
+		final ThreadFactory threadFactory = createThreadFactory(description);
 		final ExecutorScalingQueue<Runnable> queue = new ExecutorScalingQueue<Runnable>();
 		final ThreadPoolExecutor executor = new ThreadPoolExecutor(
 			Ints.constrainToRange(Runtime.getRuntime().availableProcessors(), 2, maxThreads), maxThreads, 
@@ -55,6 +44,20 @@ public class WorkerExecutorServiceFactory implements ExecutorServiceFactory {
 		return executor;
 	}
 	
+	/*Creates daemon threads in a dedicated thread group, named after the description*/
+	static ThreadFactory createThreadFactory(String description) {
+		final ThreadGroup group = new ThreadGroup(description);
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				final Thread thread = new Thread(group, r);
+				thread.setName(description + "-" + thread.getId());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+	
 	/*Elaticsearch maintained class, copied from EsExecutors*/
 	static class ExecutorScalingQueue<E> extends LinkedTransferQueue<E> {
 
@@ -27,9 +27,15 @@ import com.b2international.snowowl.eventbus.net4j.IEventBusProtocol;
 public class EventBusProtocolInjector implements IElementProcessor {
 
 	private final int numberOfWorkers;
+	private final boolean elastic;
 
 	public EventBusProtocolInjector(int numberOfWorkers) {
+		this(numberOfWorkers, false);
+	}
+	
+	public EventBusProtocolInjector(int numberOfWorkers, boolean elastic) {
 		this.numberOfWorkers = numberOfWorkers;
+		this.elastic = elastic;
 	}
 
 	@Override
@@ -38,7 +44,7 @@ public class EventBusProtocolInjector implements IElementProcessor {
 		if (element instanceof IEventBusProtocol) {
 			final IEventBusProtocol protocol = (EventBusProtocol) element;
 			if (protocol.getInfraStructure() == null) {
-				protocol.setInfraStructure(EventBusNet4jUtil.getBus(container, numberOfWorkers));
+				protocol.setInfraStructure(EventBusNet4jUtil.getBus(container, numberOfWorkers, elastic));
 			}
 		}
 		return element;
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.core.ecl;
+
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
+import org.eclipse.xtext.parser.IParser;
+import org.eclipse.xtext.serializer.ISerializer;
+import org.eclipse.xtext.validation.IResourceValidator;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.commons.options.MetadataImpl;
+import com.b2international.index.Index;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.index.revision.RevisionBranch.BranchState;
+import com.b2international.index.revision.RevisionIndex;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.core.branch.Branch;
+import com.b2international.snowowl.core.branch.BranchPathUtils;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.domain.DelegatingBranchContext;
+import com.b2international.snowowl.core.repository.RepositoryCommitNotification;
+import com.b2international.snowowl.snomed.core.tree.Trees;
+import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfiguration;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.b2international.snowowl.snomed.ecl.EclStandaloneSetup;
+import com.b2international.snowowl.test.commons.snomed.RandomSnomedIdentiferGenerator;
+import com.b2international.snowowl.test.commons.snomed.TestBranchContext;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
+
+/**
+ * @since 7.14
+ */
+public class EclEvaluationCacheTest extends BaseRevisionIndexTest {
+
+	private static final Injector INJECTOR = new EclStandaloneSetup().createInjectorAndDoEMFRegistration();
+
+	private static final String PARENT = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String INFERRED_CHILD = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String STATED_CHILD = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String CHILD_BRANCH = MAIN + Branch.SEPARATOR + "a";
+
+	private EclEvaluationCache cache;
+	private BranchContext context;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.of(SnomedConceptDocument.class, SnomedDescriptionIndexEntry.class, SnomedRelationshipIndexEntry.class, SnomedRefSetMemberIndexEntry.class);
+	}
+
+	@Override
+	protected void configureMapper(ObjectMapper mapper) {
+		super.configureMapper(mapper);
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Before
+	public void setup() {
+		cache = new EclEvaluationCache(1_000L);
+		context = TestBranchContext.on(MAIN)
+				.with(EclParser.class, new DefaultEclParser(INJECTOR.getInstance(IParser.class), INJECTOR.getInstance(IResourceValidator.class)))
+				.with(EclSerializer.class, new DefaultEclSerializer(INJECTOR.getInstance(ISerializer.class)))
+				.with(Index.class, rawIndex())
+				.with(RevisionIndex.class, index())
+				.with(SnomedCoreConfiguration.class, new SnomedCoreConfiguration())
+				.with(EclEvaluationCache.class, cache)
+				.build();
+
+		indexRevision(MAIN,
+			concept(PARENT).build(),
+			concept(INFERRED_CHILD).parents(PrimitiveSets.newLongSortedSet(Long.parseLong(PARENT))).build(),
+			concept(STATED_CHILD).statedParents(PrimitiveSets.newLongSortedSet(Long.parseLong(PARENT))).build());
+	}
+
+	@Test
+	public void cachedOnBranchHead() throws Exception {
+		final Set<String> ids = resolve(context, "<" + PARENT, Trees.INFERRED_FORM);
+
+		assertEquals(ImmutableSet.of(INFERRED_CHILD), ids);
+		assertSame(ids, resolve(context, "<" + PARENT, Trees.INFERRED_FORM));
+	}
+
+	@Test
+	public void keyedByExpressionForm() throws Exception {
+		final Set<String> inferred = resolve(context, "<" + PARENT, Trees.INFERRED_FORM);
+		final Set<String> stated = resolve(context, "<" + PARENT, Trees.STATED_FORM);
+
+		assertEquals(ImmutableSet.of(INFERRED_CHILD), inferred);
+		assertEquals(ImmutableSet.of(STATED_CHILD), stated);
+		assertSame(stated, cache.getIfPresent(context, "<" + PARENT, Trees.STATED_FORM));
+	}
+
+	@Test
+	public void keyedByRawExpression() throws Exception {
+		final Set<String> cached = cache.put(context, "<" + PARENT, Trees.INFERRED_FORM, ImmutableSet.of(PARENT));
+
+		// a cache hit on the raw expression does not parse the expression at all
+		final BranchContext contextWithoutParser = new DelegatingBranchContext(context) {
+			@Override
+			public <T> T service(Class<T> type) {
+				if (EclParser.class.equals(type)) {
+					throw new AssertionError("Cached expressions should not be parsed");
+				}
+				return super.service(type);
+			}
+		};
+		assertSame(cached, EclExpression.of(" <" + PARENT + " ", Trees.INFERRED_FORM).resolve(contextWithoutParser).getSync());
+
+		// expressions are not normalized, a different form of the same expression is evaluated separately
+		assertEquals(ImmutableSet.of(INFERRED_CHILD), resolve(context, "< " + PARENT, Trees.INFERRED_FORM));
+	}
+
+	@Test
+	public void keyedByParsedExpression() throws Exception {
+		final ExpressionConstraint constraint = context.service(EclParser.class).parse("<" + PARENT);
+		final Set<String> ids = index().read(MAIN, searcher -> EclExpression.of(constraint, Trees.INFERRED_FORM)
+				.resolve(withSearcher(context, searcher))
+				.getSync());
+
+		assertSame(ids, cache.getIfPresent(context, context.service(EclSerializer.class).serialize(constraint), Trees.INFERRED_FORM));
+	}
+
+	@Test
+	public void keyedByBranchHead() throws Exception {
+		final Set<String> ids = resolve(context, "<" + PARENT, Trees.INFERRED_FORM);
+
+		final BranchContext movedContext = withBranch(context, new Branch(1L, MAIN, "", 0L, 2L, false, new MetadataImpl(), BranchState.FORWARD, BranchPathUtils.createMainPath(), Collections.emptyList()));
+		assertNull(cache.getIfPresent(movedContext, "<" + PARENT, Trees.INFERRED_FORM));
+		assertNotSame(ids, resolve(movedContext, "<" + PARENT, Trees.INFERRED_FORM));
+	}
+
+	@Test
+	public void bypassOnHistoricalPath() throws Exception {
+		final String historicalPath = RevisionIndex.toBranchAtPath(MAIN, currentTime());
+		final BranchContext historicalContext = new DelegatingBranchContext(context) {
+			@Override
+			public String path() {
+				return historicalPath;
+			}
+		};
+
+		assertFalse(cache.canCache(historicalContext));
+		final Set<String> ids = index().read(historicalPath, searcher -> EclExpression.of("<" + PARENT, Trees.INFERRED_FORM)
+				.resolve(withSearcher(historicalContext, searcher))
+				.getSync());
+		assertEquals(ImmutableSet.of(INFERRED_CHILD), ids);
+		assertNull(cache.getIfPresent(context, "<" + PARENT, Trees.INFERRED_FORM));
+	}
+
+	@Test
+	public void invalidateOnCommit() throws Exception {
+		final BranchContext childContext = withBranch(context, new Branch(2L, "a", MAIN, 0L, 1L, false, new MetadataImpl(), BranchState.FORWARD, BranchPathUtils.createPath(CHILD_BRANCH), Collections.emptyList()));
+		cache.put(context, "<" + PARENT, Trees.INFERRED_FORM, ImmutableSet.of(INFERRED_CHILD));
+		cache.put(childContext, "<" + PARENT, Trees.INFERRED_FORM, ImmutableSet.of(INFERRED_CHILD));
+
+		// commits on a child branch do not affect the parent
+		cache.onCommit(commitNotification(context.id(), CHILD_BRANCH));
+		assertNull(cache.getIfPresent(childContext, "<" + PARENT, Trees.INFERRED_FORM));
+		assertEquals(ImmutableSet.of(INFERRED_CHILD), cache.getIfPresent(context, "<" + PARENT, Trees.INFERRED_FORM));
+
+		// commits on the parent drop the results of its descendants as well
+		cache.put(childContext, "<" + PARENT, Trees.INFERRED_FORM, ImmutableSet.of(INFERRED_CHILD));
+		cache.onCommit(commitNotification(context.id(), MAIN));
+		assertNull(cache.getIfPresent(context, "<" + PARENT, Trees.INFERRED_FORM));
+		assertNull(cache.getIfPresent(childContext, "<" + PARENT, Trees.INFERRED_FORM));
+	}
+
+	@Test
+	public void keepEntriesOnCommitToOtherRepository() throws Exception {
+		final Set<String> ids = resolve(context, "<" + PARENT, Trees.INFERRED_FORM);
+
+		cache.onCommit(commitNotification(UUID.randomUUID().toString(), MAIN));
+
+		assertSame(ids, cache.getIfPresent(context, "<" + PARENT, Trees.INFERRED_FORM));
+	}
+
+	private Set<String> resolve(BranchContext context, String ecl, String expressionForm) {
+		return index().read(MAIN, searcher -> EclExpression.of(ecl, expressionForm)
+				.resolve(withSearcher(context, searcher))
+				.getSync());
+	}
+
+	private static BranchContext withSearcher(BranchContext context, RevisionSearcher searcher) {
+		return context.inject().bind(RevisionSearcher.class, searcher).build();
+	}
+
+	private static BranchContext withBranch(BranchContext context, Branch branch) {
+		return new DelegatingBranchContext(context) {
+			@Override
+			public Branch branch() {
+				return branch;
+			}
+
+			@Override
+			public String path() {
+				return branch.path();
+			}
+		};
+	}
+
+	private static RepositoryCommitNotification commitNotification(String repositoryId, String branchPath) {
+		return new RepositoryCommitNotification(repositoryId,
+				UUID.randomUUID().toString(),
+				null,
+				branchPath,
+				System.currentTimeMillis(),
+				USER_ID,
+				"Commit",
+				Collections.emptyList(),
+				Collections.emptyList(),
+				Collections.emptyList(),
+				null);
+	}
+
+}
@@ -15,7 +15,6 @@
  */
 package com.b2international.snowowl.snomed.core.ecl;
 
-import static com.b2international.snowowl.core.repository.RevisionDocument.Expressions.id;
 import static com.b2international.snowowl.core.repository.RevisionDocument.Expressions.ids;
 import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedComponentDocument.Expressions.activeMemberOf;
 import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedComponentDocument.Fields.ACTIVE_MEMBER_OF;
@@ -375,9 +374,63 @@ public class SnomedEclEvaluationRequestTest extends BaseRevisionIndexTest {
 	@Test
 	public void selfAndNotOther() throws Exception {
 		final Expression actual = eval(ROOT_ID + " MINUS " + OTHER_ID);
+		// both sides are resolved to IDs, the difference is computed without the index
+		final Expression expected = ids(Collections.singleton(ROOT_ID));
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void selfMinusSelf() throws Exception {
+		final Expression actual = eval(ROOT_ID + " MINUS " + ROOT_ID);
+		final Expression expected = Expressions.matchNone();
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void idSetAndIdSet() throws Exception {
+		final Expression actual = eval(String.format("(%s OR %s) AND (%s OR %s)", ROOT_ID, OTHER_ID, OTHER_ID, SUBSTANCE));
+		final Expression expected = ids(Collections.singleton(OTHER_ID));
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void disjointIdSetAndIdSet() throws Exception {
+		final Expression actual = eval(String.format("(%s OR %s) AND (%s OR %s)", ROOT_ID, OTHER_ID, SUBSTANCE, HAS_ACTIVE_INGREDIENT));
+		final Expression expected = Expressions.matchNone();
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void idSetOrIdSet() throws Exception {
+		final Expression actual = eval(String.format("(%s MINUS %s) OR (%s MINUS %s)", ROOT_ID, OTHER_ID, SUBSTANCE, HAS_ACTIVE_INGREDIENT));
+		final Expression expected = ids(ImmutableSet.of(ROOT_ID, SUBSTANCE));
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void idSetMinusIdSet() throws Exception {
+		final Expression actual = eval(String.format("(%s OR %s) MINUS (%s OR %s)", ROOT_ID, OTHER_ID, OTHER_ID, SUBSTANCE));
+		final Expression expected = ids(Collections.singleton(ROOT_ID));
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void idSetAndDescendantOf() throws Exception {
+		final Expression actual = eval(String.format("(%s OR %s) AND <%s", OTHER_ID, SUBSTANCE, ROOT_ID));
+		// the right hand side is not resolved to IDs, the conjunction is evaluated by the index
+		final Expression expected = and(
+			ids(ImmutableSet.of(OTHER_ID, SUBSTANCE)),
+			descendantsOf(ROOT_ID)
+		);
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void idSetMinusDescendantOf() throws Exception {
+		final Expression actual = eval(String.format("(%s OR %s) MINUS <%s", OTHER_ID, SUBSTANCE, ROOT_ID));
 		final Expression expected = Expressions.builder()
-				.filter(id(ROOT_ID))
-				.mustNot(id(OTHER_ID))
+				.filter(ids(ImmutableSet.of(OTHER_ID, SUBSTANCE)))
+				.mustNot(descendantsOf(ROOT_ID))
 				.build();
 		assertEquals(expected, actual);
 	}
@@ -620,6 +673,43 @@ public class SnomedEclEvaluationRequestTest extends BaseRevisionIndexTest {
 		assertEquals(expected, actual);
 	}
 	
+	@Test
+	public void refinementOfIdSet() throws Exception {
+		generateDrugHierarchy();
+		
+		final Expression actual = eval(String.format("(%s OR %s):%s=%s", PANADOL_TABLET, ABACAVIR_TABLET, HAS_ACTIVE_INGREDIENT, INGREDIENT1));
+		// focus concepts are resolved to IDs, matching concepts are selected from them without the index
+		final Expression expected = ids(Collections.singleton(PANADOL_TABLET));
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void refinementCardinalityZeroToZeroOfIdSet() throws Exception {
+		generateDrugHierarchy();
+		
+		final Expression actual = eval(String.format("(%s OR %s): [0..0] %s=%s", PANADOL_TABLET, ABACAVIR_TABLET, HAS_ACTIVE_INGREDIENT, INGREDIENT1));
+		final Expression expected = ids(Collections.singleton(ABACAVIR_TABLET));
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void refinementWithAttributeConjunctionOfIdSet() throws Exception {
+		generateDrugHierarchy();
+		
+		final Expression actual = eval(String.format("(%s OR %s):%s=%s,%s=%s", PANADOL_TABLET, TRIPHASIL_TABLET, HAS_ACTIVE_INGREDIENT, INGREDIENT1, HAS_ACTIVE_INGREDIENT, INGREDIENT2));
+		final Expression expected = ids(Collections.singleton(TRIPHASIL_TABLET));
+		assertEquals(expected, actual);
+	}
+	
+	@Test
+	public void refinementWithAttributeDisjunctionOfIdSet() throws Exception {
+		generateDrugHierarchy();
+		
+		final Expression actual = eval(String.format("(%s OR %s OR %s):%s=%s OR %s=%s", PANADOL_TABLET, TRIPHASIL_TABLET, ABACAVIR_TABLET, HAS_ACTIVE_INGREDIENT, INGREDIENT1, HAS_ACTIVE_INGREDIENT, INGREDIENT2));
+		final Expression expected = ids(ImmutableSet.of(PANADOL_TABLET, TRIPHASIL_TABLET));
+		assertEquals(expected, actual);
+	}
+	
 	@Test
 	public void refinementWithAttributeConjunction() throws Exception {
 		generateDrugHierarchy();
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.core.ecl;
+
+import static com.b2international.snowowl.core.repository.RevisionDocument.Expressions.ids;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument.Expressions.ancestors;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument.Expressions.parents;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument.Expressions.statedAncestors;
+import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument.Expressions.statedParents;
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.relationship;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.xtext.parser.IParser;
+import org.eclipse.xtext.serializer.ISerializer;
+import org.eclipse.xtext.validation.IResourceValidator;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.index.Index;
+import com.b2international.index.query.Expression;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.index.revision.Revision;
+import com.b2international.index.revision.RevisionIndex;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.request.RevisionIndexReadRequest;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.tree.Trees;
+import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfiguration;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
+import com.b2international.snowowl.snomed.datastore.taxonomy.SnomedHierarchyIndex;
+import com.b2international.snowowl.snomed.ecl.EclStandaloneSetup;
+import com.b2international.snowowl.test.commons.snomed.RandomSnomedIdentiferGenerator;
+import com.b2international.snowowl.test.commons.snomed.TestBranchContext;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.inject.Injector;
+
+/**
+ * Hierarchical ECL operators are evaluated on the in-memory hierarchy of the branch when the {@link SnomedHierarchyIndex} is enabled. Small
+ * results are returned as ID filters, descendants of large subtrees are filtered by the parent and ancestor fields instead.
+ *
+ * @since 7.14
+ */
+@RunWith(Parameterized.class)
+public class SnomedEclHierarchyIndexTest extends BaseRevisionIndexTest {
+
+	private static final Injector INJECTOR = new EclStandaloneSetup().createInjectorAndDoEMFRegistration();
+
+	private static final String ROOT = Concepts.ROOT_CONCEPT;
+	private static final String A = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String B = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String C = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String D = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String INACTIVE = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String LARGE = RandomSnomedIdentiferGenerator.generateConceptId();
+
+	/*Larger than the maximum number of descendant IDs sent to the index as an ID filter*/
+	private static final int LARGE_SUBTREE_SIZE = 1_001;
+
+	private final String expressionForm;
+
+	private BranchContext context;
+
+	public SnomedEclHierarchyIndexTest(String expressionForm) {
+		this.expressionForm = expressionForm;
+	}
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] {
+			{ Trees.INFERRED_FORM },
+			{ Trees.STATED_FORM }
+		});
+	}
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.of(SnomedConceptDocument.class, SnomedDescriptionIndexEntry.class, SnomedRelationshipIndexEntry.class, SnomedRefSetMemberIndexEntry.class);
+	}
+
+	@Override
+	protected void configureMapper(ObjectMapper mapper) {
+		super.configureMapper(mapper);
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Before
+	public void setup() {
+		context = TestBranchContext.on(MAIN)
+				.with(EclParser.class, new DefaultEclParser(INJECTOR.getInstance(IParser.class), INJECTOR.getInstance(IResourceValidator.class)))
+				.with(EclSerializer.class, new DefaultEclSerializer(INJECTOR.getInstance(ISerializer.class)))
+				.with(Index.class, rawIndex())
+				.with(RevisionIndex.class, index())
+				.with(SnomedCoreConfiguration.class, new SnomedCoreConfiguration())
+				.with(SnomedHierarchyIndex.class, new SnomedHierarchyIndex(1))
+				.build();
+
+		// ROOT <- A <- B <- D, C is a child of both A and B, the inactive concept and its relationship are not part of the hierarchy
+		indexRevision(MAIN,
+			concept(ROOT).build(),
+			concept(A).build(),
+			concept(B).build(),
+			concept(C).build(),
+			concept(D).build(),
+			concept(INACTIVE).active(false).build(),
+			isa(A, ROOT),
+			isa(B, A),
+			isa(C, A),
+			isa(C, B),
+			isa(D, B),
+			isa(INACTIVE, A));
+	}
+
+	@Test
+	public void descendantOf() throws Exception {
+		assertEquals(ids(ImmutableSet.of(B, C, D)), eval("<" + A));
+	}
+
+	@Test
+	public void descendantOrSelfOf() throws Exception {
+		assertEquals(ids(ImmutableSet.of(A, B, C, D)), eval("<<" + A));
+	}
+
+	@Test
+	public void childOf() throws Exception {
+		assertEquals(ids(ImmutableSet.of(C, D)), eval("<!" + B));
+	}
+
+	@Test
+	public void parentOf() throws Exception {
+		assertEquals(ids(ImmutableSet.of(A, B)), eval(">!" + C));
+	}
+
+	@Test
+	public void ancestorOf() throws Exception {
+		assertEquals(ids(ImmutableSet.of(ROOT, A, B)), eval(">" + C));
+	}
+
+	@Test
+	public void descendantOfLeaf() throws Exception {
+		assertEquals(Expressions.matchNone(), eval("<" + D));
+	}
+
+	@Test
+	public void descendantOfLargeSubtree() throws Exception {
+		indexLargeSubtree();
+		final Expression expected = Expressions.builder()
+				.should(parentsExpression(LARGE))
+				.should(ancestorsExpression(LARGE))
+				.build();
+		assertEquals(expected, eval("<" + LARGE));
+	}
+
+	@Test
+	public void descendantOrSelfOfLargeSubtree() throws Exception {
+		indexLargeSubtree();
+		final Expression expected = Expressions.builder()
+				.should(ids(Collections.singleton(LARGE)))
+				.should(parentsExpression(LARGE))
+				.should(ancestorsExpression(LARGE))
+				.build();
+		assertEquals(expected, eval("<<" + LARGE));
+	}
+
+	@Test
+	public void childOfLargeSubtree() throws Exception {
+		indexLargeSubtree();
+		assertEquals(parentsExpression(LARGE), eval("<!" + LARGE));
+	}
+
+	private void indexLargeSubtree() {
+		final List<Revision> revisions = Lists.newArrayList();
+		revisions.add(concept(LARGE).build());
+		revisions.add(isa(LARGE, ROOT));
+		for (int i = 0; i < LARGE_SUBTREE_SIZE; i++) {
+			final String conceptId = RandomSnomedIdentiferGenerator.generateConceptId();
+			revisions.add(concept(conceptId).build());
+			revisions.add(isa(conceptId, LARGE));
+		}
+		indexRevision(MAIN, revisions.toArray(new Revision[revisions.size()]));
+	}
+
+	private Expression eval(String expression) {
+		return new RevisionIndexReadRequest<>(SnomedRequests.prepareEclEvaluation(expression).setExpressionForm(expressionForm).build())
+				.execute(context)
+				.getSync();
+	}
+
+	private SnomedRelationshipIndexEntry isa(String sourceId, String destinationId) {
+		final String characteristicTypeId = Trees.INFERRED_FORM.equals(expressionForm) ? Concepts.INFERRED_RELATIONSHIP : Concepts.STATED_RELATIONSHIP;
+		return relationship(sourceId, Concepts.IS_A, destinationId, characteristicTypeId).build();
+	}
+
+	private Expression parentsExpression(String conceptId) {
+		return Trees.INFERRED_FORM.equals(expressionForm) ? parents(Collections.singleton(conceptId)) : statedParents(Collections.singleton(conceptId));
+	}
+
+	private Expression ancestorsExpression(String conceptId) {
+		return Trees.INFERRED_FORM.equals(expressionForm) ? ancestors(Collections.singleton(conceptId)) : statedAncestors(Collections.singleton(conceptId));
+	}
+
+}
@@ -19,13 +19,18 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.b2international.snowowl.snomed.core.ecl.EclEvaluationCacheTest;
 import com.b2international.snowowl.snomed.core.ecl.SnomedEclEvaluationRequestTest;
+import com.b2international.snowowl.snomed.core.ecl.SnomedEclHierarchyIndexTest;
 import com.b2international.snowowl.snomed.core.ecl.SnomedEclRewriterTest;
 import com.b2international.snowowl.snomed.core.ecl.SnomedEclShortcutTest;
 import com.b2international.snowowl.snomed.core.ecl.SnomedStatedEclEvaluationTest;
 import com.b2international.snowowl.snomed.core.ql.SnomedQueryEvaluationRequestTest;
 import com.b2international.snowowl.snomed.core.ql.SnomedQueryLabelerRequestTest;
 import com.b2international.snowowl.snomed.core.tree.TerminologyTreeTest;
+import com.b2international.snowowl.snomed.datastore.converter.SnomedConceptConverterTest;
+import com.b2international.snowowl.snomed.datastore.converter.SnomedDescendantsExpanderTest;
+import com.b2international.snowowl.snomed.datastore.converter.SnomedMetadataConceptCacheTest;
 import com.b2international.snowowl.snomed.datastore.id.memory.DefaultSnomedIdentifierServiceRegressionTest;
 import com.b2international.snowowl.snomed.datastore.id.memory.DefaultSnomedIdentifierServiceTest;
 import com.b2international.snowowl.snomed.datastore.index.change.ConceptChangeProcessorAxiomTest;
@@ -40,10 +45,15 @@ import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConstraint
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntrySerializationTest;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberDocumentSerializationTest;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntrySerializationTest;
+import com.b2international.snowowl.snomed.datastore.index.taxonomy.ReasonerTaxonomyBuilderTest;
 import com.b2international.snowowl.snomed.datastore.internal.id.SnomedIdentifierTest;
 import com.b2international.snowowl.snomed.datastore.internal.id.reservations.ReservationImplTest;
 import com.b2international.snowowl.snomed.datastore.internal.id.reservations.SnomedIdentifierReservationServiceImplTest;
+import com.b2international.snowowl.snomed.datastore.request.SnomedConceptSearchRequestTest;
+import com.b2international.snowowl.snomed.datastore.request.rf2.importer.Rf2RowReaderTest;
+import com.b2international.snowowl.snomed.datastore.taxonomy.TaxonomyGraphTest;
 import com.b2international.snowowl.snomed.validation.SnomedQueryValidationRuleEvaluatorTest;
+import com.b2international.snowowl.snomed.validation.ValidateRequestTest;
 
 /**
  * @since 4.0
@@ -71,16 +81,29 @@ import com.b2international.snowowl.snomed.validation.SnomedQueryValidationRuleEv
 	PreferredDescriptionPreCommitHookTest.class,
 	ConceptChangeProcessorAxiomTest.class,
 	ConceptIconIdUpdaterTest.class,
+	TaxonomyGraphTest.class,
+	ReasonerTaxonomyBuilderTest.class,
 	// ECL test cases
 	SnomedEclEvaluationRequestTest.class,
 	SnomedStatedEclEvaluationTest.class,
+	SnomedEclHierarchyIndexTest.class,
+	EclEvaluationCacheTest.class,
 	SnomedEclRewriterTest.class,
 	// QL test cases
 	SnomedQueryEvaluationRequestTest.class,
 	SnomedQueryValidationRuleEvaluatorTest.class,
+	ValidateRequestTest.class,
 	SnomedQueryLabelerRequestTest.class,
 	SnomedEclShortcutTest.class,
-	SnomedDescriptionUtilsTest.class
+	SnomedDescriptionUtilsTest.class,
+	// search request test cases
+	SnomedConceptSearchRequestTest.class,
+	// RF2 test cases
+	Rf2RowReaderTest.class,
+	// converter test cases
+	SnomedDescendantsExpanderTest.class,
+	SnomedConceptConverterTest.class,
+	SnomedMetadataConceptCacheTest.class
 })
 public class AllSnomedDatastoreTests {
 
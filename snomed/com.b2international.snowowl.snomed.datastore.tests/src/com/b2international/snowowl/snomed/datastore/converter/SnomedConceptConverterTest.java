@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.converter;
+
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.index.Index;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.index.revision.RevisionIndex;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.domain.DelegatingBranchContext;
+import com.b2international.snowowl.core.events.util.ResponseHeaders;
+import com.b2international.snowowl.core.request.RevisionIndexReadRequest;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
+import com.b2international.snowowl.snomed.core.domain.SnomedConcepts;
+import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfiguration;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
+import com.b2international.snowowl.snomed.datastore.taxonomy.SnomedHierarchyIndex;
+import com.b2international.snowowl.test.commons.snomed.RandomSnomedIdentiferGenerator;
+import com.b2international.snowowl.test.commons.snomed.TestBranchContext;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * @since 7.14
+ */
+public class SnomedConceptConverterTest extends BaseRevisionIndexTest {
+
+	private static final String CONCEPT = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String SERVER_TIMING_HEADER = "Server-Timing";
+	private static final String TIMING = ";dur=\\d+\\.\\d";
+
+	private ResponseHeaders responseHeaders;
+	private SnomedConceptExpansionExecutor executor;
+	private BranchContext context;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.of(SnomedConceptDocument.class, SnomedDescriptionIndexEntry.class, SnomedRelationshipIndexEntry.class, SnomedRefSetMemberIndexEntry.class);
+	}
+
+	@Override
+	protected void configureMapper(ObjectMapper mapper) {
+		super.configureMapper(mapper);
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Before
+	public void setup() {
+		responseHeaders = new ResponseHeaders();
+		executor = new SnomedConceptExpansionExecutor(2);
+		context = TestBranchContext.on(MAIN)
+				.with(Index.class, rawIndex())
+				.with(RevisionIndex.class, index())
+				.with(SnomedCoreConfiguration.class, new SnomedCoreConfiguration())
+				.with(ResponseHeaders.class, responseHeaders)
+				.with(SnomedConceptExpansionExecutor.class, executor)
+				.build();
+
+		indexRevision(MAIN,
+			concept(Concepts.MODULE_SCT_CORE).build(),
+			concept(Concepts.PRIMITIVE).build(),
+			concept(CONCEPT).build());
+	}
+
+	@After
+	public void teardown() {
+		executor.dispose();
+	}
+
+	@Test
+	public void concurrentExpansions() throws Exception {
+		final SnomedConcept concept = getConcept(context, "module(),definitionStatus(),descendants(direct:true,limit:0)");
+
+		assertEquals(Concepts.MODULE_SCT_CORE, concept.getModule().getId());
+		assertEquals(Concepts.PRIMITIVE, concept.getDefinitionStatus().getId());
+		assertEquals(0, concept.getDescendants().getTotal());
+	}
+
+	@Test
+	public void sequentialExpansionsWithoutExecutor() throws Exception {
+		final AtomicReference<String> expansionThreadName = new AtomicReference<>();
+		final BranchContext sequentialContext = new DelegatingBranchContext(context) {
+			@Override
+			public <T> Optional<T> optionalService(Class<T> type) {
+				if (SnomedConceptExpansionExecutor.class.equals(type)) {
+					return Optional.empty();
+				} else if (SnomedHierarchyIndex.class.equals(type)) {
+					expansionThreadName.set(Thread.currentThread().getName());
+				}
+				return super.optionalService(type);
+			}
+		};
+
+		final SnomedConcept concept = getConcept(sequentialContext, "module(),definitionStatus(),descendants(direct:true,limit:0)");
+
+		assertEquals(Concepts.MODULE_SCT_CORE, concept.getModule().getId());
+		assertEquals(0, concept.getDescendants().getTotal());
+		assertEquals(Thread.currentThread().getName(), expansionThreadName.get());
+	}
+
+	@Test
+	public void serverTimingOfEachExpansion() throws Exception {
+		getConcept(context, "descendants(direct:true,limit:0),module(),definitionStatus()");
+
+		// nested conversions (eg. of the module concept) do not report their own timing, expansions are listed in a fixed order
+		assertThat(responseHeaders.headers().get(SERVER_TIMING_HEADER))
+			.matches("expand-module" + TIMING + ", expand-definitionStatus" + TIMING + ", expand-descendants" + TIMING);
+	}
+
+	@Test
+	public void serverTimingOfSingleExpansion() throws Exception {
+		getConcept(context, "module()");
+
+		assertThat(responseHeaders.headers().get(SERVER_TIMING_HEADER)).matches("expand-module" + TIMING);
+	}
+
+	@Test
+	public void noServerTimingWithoutExpansions() throws Exception {
+		getConcept(context, null);
+
+		assertThat(responseHeaders.headers()).doesNotContainKey(SERVER_TIMING_HEADER);
+	}
+
+	@Test
+	public void failedExpansionIsRethrown() throws Exception {
+		final IllegalStateException failure = new IllegalStateException("Failed to read hierarchy");
+		final AtomicReference<String> failedThreadName = new AtomicReference<>();
+
+		// the descendants expansion is the only one looking up the hierarchy index
+		final BranchContext failingContext = new DelegatingBranchContext(context) {
+			@Override
+			public <T> Optional<T> optionalService(Class<T> type) {
+				if (SnomedHierarchyIndex.class.equals(type)) {
+					failedThreadName.set(Thread.currentThread().getName());
+					throw failure;
+				}
+				return super.optionalService(type);
+			}
+		};
+
+		try {
+			getConcept(failingContext, "module(),definitionStatus(),descendants(direct:true,limit:0)");
+			fail("Expansion failure should have been propagated");
+		} catch (RuntimeException e) {
+			assertThat(Throwables.getCausalChain(e)).contains(failure);
+		}
+
+		assertNotNull(failedThreadName.get());
+		assertThat(failedThreadName.get()).startsWith("snomed-concept-expansion-");
+	}
+
+	private SnomedConcept getConcept(BranchContext context, String expand) {
+		final SnomedConcepts concepts = new RevisionIndexReadRequest<>(SnomedRequests.prepareSearchConcept()
+				.filterById(CONCEPT)
+				.setExpand(expand)
+				.build())
+				.execute(context);
+		assertEquals(1, concepts.getTotal());
+		return concepts.first().get();
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.converter;
+
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.relationship;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.index.Index;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.index.revision.RevisionIndex;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.request.RevisionIndexReadRequest;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
+import com.b2international.snowowl.snomed.core.domain.SnomedConcepts;
+import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfiguration;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
+import com.b2international.snowowl.snomed.datastore.taxonomy.SnomedHierarchyIndex;
+import com.b2international.snowowl.test.commons.snomed.RandomSnomedIdentiferGenerator;
+import com.b2international.snowowl.test.commons.snomed.TestBranchContext;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Ordering;
+
+/**
+ * Descendants are expanded from the in-memory hierarchy index when it is enabled and from the parent and ancestor fields of the concept
+ * documents otherwise, both must report the same counts and first pages.
+ *
+ * @since 7.14
+ */
+@RunWith(Parameterized.class)
+public class SnomedDescendantsExpanderTest extends BaseRevisionIndexTest {
+
+	private static final String ROOT = Concepts.ROOT_CONCEPT;
+	private static final String A = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String B = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String C = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String D = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String INACTIVE = RandomSnomedIdentiferGenerator.generateConceptId();
+
+	private final boolean hierarchyIndexEnabled;
+
+	private BranchContext context;
+
+	public SnomedDescendantsExpanderTest(boolean hierarchyIndexEnabled) {
+		this.hierarchyIndexEnabled = hierarchyIndexEnabled;
+	}
+
+	@Parameters(name = "hierarchyIndex={0}")
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] {
+			{ true },
+			{ false }
+		});
+	}
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.of(SnomedConceptDocument.class, SnomedDescriptionIndexEntry.class, SnomedRelationshipIndexEntry.class, SnomedRefSetMemberIndexEntry.class);
+	}
+
+	@Override
+	protected void configureMapper(ObjectMapper mapper) {
+		super.configureMapper(mapper);
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Before
+	public void setup() {
+		final TestBranchContext.Builder builder = TestBranchContext.on(MAIN)
+				.with(Index.class, rawIndex())
+				.with(RevisionIndex.class, index())
+				.with(SnomedCoreConfiguration.class, new SnomedCoreConfiguration());
+		if (hierarchyIndexEnabled) {
+			builder.with(SnomedHierarchyIndex.class, new SnomedHierarchyIndex(1));
+		}
+		context = builder.build();
+
+		// ROOT <- A <- B <- D, C is a child of both A and B, so A is its parent and its ancestor at the same time
+		indexRevision(MAIN,
+			concept(ROOT).build(),
+			concept(A).parents(ids(ROOT)).ancestors(ids(ROOT)).build(),
+			concept(B).parents(ids(A)).ancestors(ids(ROOT)).build(),
+			concept(C).parents(ids(A, B)).ancestors(ids(ROOT, A)).build(),
+			concept(D).parents(ids(B)).ancestors(ids(ROOT, A)).build(),
+			concept(INACTIVE).active(false).parents(ids(A)).ancestors(ids(ROOT)).build(),
+			relationship(A, Concepts.IS_A, ROOT).build(),
+			relationship(B, Concepts.IS_A, A).build(),
+			relationship(C, Concepts.IS_A, A).build(),
+			relationship(C, Concepts.IS_A, B).build(),
+			relationship(D, Concepts.IS_A, B).build(),
+			relationship(INACTIVE, Concepts.IS_A, A).active(false).build());
+	}
+
+	@Test
+	public void directDescendantsOfSingleConcept() throws Exception {
+		final Map<String, SnomedConcepts> descendants = expandDescendants("descendants(direct:true,limit:10)", A);
+		assertDescendants(descendants.get(A), 10, B, C);
+	}
+
+	@Test
+	public void allDescendantsOfSingleConcept() throws Exception {
+		final Map<String, SnomedConcepts> descendants = expandDescendants("descendants(direct:false,limit:10)", A);
+		assertDescendants(descendants.get(A), 10, B, C, D);
+	}
+
+	@Test
+	public void directDescendantsOfMultipleConcepts() throws Exception {
+		final Map<String, SnomedConcepts> descendants = expandDescendants("descendants(direct:true,limit:10)", ROOT, A, B, D);
+		assertDescendants(descendants.get(ROOT), 10, A);
+		assertDescendants(descendants.get(A), 10, B, C);
+		assertDescendants(descendants.get(B), 10, C, D);
+		assertDescendants(descendants.get(D), 10);
+	}
+
+	@Test
+	public void allDescendantsOfMultipleConcepts() throws Exception {
+		final Map<String, SnomedConcepts> descendants = expandDescendants("descendants(direct:false,limit:10)", ROOT, A, B, D);
+		assertDescendants(descendants.get(ROOT), 10, A, B, C, D);
+		assertDescendants(descendants.get(A), 10, B, C, D);
+		assertDescendants(descendants.get(B), 10, C, D);
+		assertDescendants(descendants.get(D), 10);
+	}
+
+	@Test
+	public void countDescendantsOfMultipleConceptsWithoutLimit() throws Exception {
+		final Map<String, SnomedConcepts> directDescendants = expandDescendants("descendants(direct:true,limit:0)", ROOT, A, B);
+		assertCount(directDescendants.get(ROOT), 1);
+		assertCount(directDescendants.get(A), 2);
+		assertCount(directDescendants.get(B), 2);
+
+		final Map<String, SnomedConcepts> allDescendants = expandDescendants("descendants(direct:false,limit:0)", ROOT, A, B);
+		assertCount(allDescendants.get(ROOT), 4);
+		assertCount(allDescendants.get(A), 3);
+		assertCount(allDescendants.get(B), 2);
+	}
+
+	@Test
+	public void firstPageOfDescendantsOfMultipleConcepts() throws Exception {
+		final Map<String, SnomedConcepts> descendants = expandDescendants("descendants(direct:false,limit:2)", ROOT, A);
+		assertDescendants(descendants.get(ROOT), 2, A, B, C, D);
+		assertDescendants(descendants.get(A), 2, B, C, D);
+	}
+
+	private Map<String, SnomedConcepts> expandDescendants(String expand, String...conceptIds) {
+		final SnomedConcepts concepts = new RevisionIndexReadRequest<>(SnomedRequests.prepareSearchConcept()
+				.filterByIds(ImmutableSet.copyOf(conceptIds))
+				.setLimit(conceptIds.length)
+				.setExpand(expand)
+				.build())
+				.execute(context);
+		assertEquals(conceptIds.length, concepts.getTotal());
+		return concepts.stream().collect(Collectors.toMap(SnomedConcept::getId, SnomedConcept::getDescendants));
+	}
+
+	private static void assertCount(SnomedConcepts descendants, int expectedTotal) {
+		assertEquals(expectedTotal, descendants.getTotal());
+		assertThat(descendants.getItems()).isEmpty();
+	}
+
+	/*Descendants are counted in full, but only the first page is returned in ID order*/
+	private static void assertDescendants(SnomedConcepts descendants, int limit, String...expectedIds) {
+		final List<String> sortedIds = Ordering.natural().sortedCopy(ImmutableList.copyOf(expectedIds));
+		assertEquals(expectedIds.length, descendants.getTotal());
+		assertEquals(limit, descendants.getLimit());
+		assertThat(descendants.getItems().stream().map(SnomedConcept::getId).collect(Collectors.toList()))
+			.containsExactlyElementsOf(sortedIds.subList(0, Math.min(limit, sortedIds.size())));
+	}
+
+	private static long[] ids(String...conceptIds) {
+		return Arrays.stream(conceptIds).mapToLong(Long::parseLong).toArray();
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.converter;
+
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.commons.options.OptionsBuilder;
+import com.b2international.index.Index;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.index.revision.RevisionIndex;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.domain.DelegatingBranchContext;
+import com.b2international.snowowl.core.repository.RepositoryCommitNotification;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
+import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfiguration;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.b2international.snowowl.test.commons.snomed.TestBranchContext;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * @since 7.14
+ */
+public class SnomedMetadataConceptCacheTest extends BaseRevisionIndexTest {
+
+	private SnomedMetadataConceptCache cache;
+	private BranchContext context;
+	private SnomedConceptDocument module;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.of(SnomedConceptDocument.class, SnomedDescriptionIndexEntry.class, SnomedRelationshipIndexEntry.class, SnomedRefSetMemberIndexEntry.class);
+	}
+
+	@Override
+	protected void configureMapper(ObjectMapper mapper) {
+		super.configureMapper(mapper);
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Before
+	public void setup() {
+		cache = new SnomedMetadataConceptCache(100L);
+		context = TestBranchContext.on(MAIN)
+				.with(Index.class, rawIndex())
+				.with(RevisionIndex.class, index())
+				.with(SnomedCoreConfiguration.class, new SnomedCoreConfiguration())
+				.with(SnomedMetadataConceptCache.class, cache)
+				.build();
+
+		module = concept(Concepts.MODULE_SCT_CORE).build();
+		indexRevision(MAIN, module);
+	}
+
+	@Test
+	public void cachedOnBranchHead() throws Exception {
+		assertTrue(cache.canCache(context));
+		assertSame(getModule(context, MAIN), getModule(context, MAIN));
+	}
+
+	@Test
+	public void invalidateOnCommit() throws Exception {
+		final SnomedConcept cached = getModule(context, MAIN);
+
+		// the branch head of the test context does not move, changes are not visible until the commit notification arrives
+		indexChange(MAIN, module, SnomedConceptDocument.builder(module).active(false).build());
+		assertSame(cached, getModule(context, MAIN));
+
+		cache.onCommit(commitNotification(context.id(), MAIN));
+
+		final SnomedConcept reloaded = getModule(context, MAIN);
+		assertNotSame(cached, reloaded);
+		assertFalse(reloaded.isActive());
+	}
+
+	@Test
+	public void keepEntriesOnCommitToOtherRepository() throws Exception {
+		final SnomedConcept cached = getModule(context, MAIN);
+
+		cache.onCommit(commitNotification(UUID.randomUUID().toString(), MAIN));
+
+		assertSame(cached, getModule(context, MAIN));
+	}
+
+	@Test
+	public void bypassOnHistoricalPath() throws Exception {
+		final String historicalPath = RevisionIndex.toBranchAtPath(MAIN, currentTime());
+		final BranchContext historicalContext = new DelegatingBranchContext(context) {
+			@Override
+			public String path() {
+				return historicalPath;
+			}
+		};
+
+		assertFalse(cache.canCache(historicalContext));
+
+		// every request on a point in time loads the concepts again, and does not populate the cache of the branch head
+		final SnomedConcept historical = getModule(historicalContext, historicalPath);
+		assertNotSame(historical, getModule(historicalContext, historicalPath));
+
+		final SnomedConcept head = getModule(context, MAIN);
+		assertNotSame(historical, head);
+		assertSame(head, getModule(context, MAIN));
+	}
+
+	private SnomedConcept getModule(BranchContext context, String path) {
+		return index().read(path, searcher -> cache.getConcepts(context.inject().bind(RevisionSearcher.class, searcher).build(),
+				Collections.singleton(Concepts.MODULE_SCT_CORE),
+				OptionsBuilder.newBuilder().build(),
+				Collections.emptyList())
+				.get(Concepts.MODULE_SCT_CORE));
+	}
+
+	private static RepositoryCommitNotification commitNotification(String repositoryId, String branchPath) {
+		return new RepositoryCommitNotification(repositoryId,
+				UUID.randomUUID().toString(),
+				null,
+				branchPath,
+				System.currentTimeMillis(),
+				USER_ID,
+				"Commit",
+				Collections.emptyList(),
+				Collections.emptyList(),
+				Collections.emptyList(),
+				null);
+	}
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.index.taxonomy;
+
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.relationship;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.collections.longs.LongIterator;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.b2international.snowowl.test.commons.snomed.RandomSnomedIdentiferGenerator;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+/**
+ * @since 7.14
+ */
+public class ReasonerTaxonomyBuilderTest extends BaseRevisionIndexTest {
+
+	private static final String ROOT = Concepts.ROOT_CONCEPT;
+	private static final String A = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String B = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String C = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String D = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String E = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String F = RandomSnomedIdentiferGenerator.generateConceptId();
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.of(SnomedConceptDocument.class, SnomedDescriptionIndexEntry.class, SnomedRelationshipIndexEntry.class, SnomedRefSetMemberIndexEntry.class);
+	}
+
+	@Override
+	protected void configureMapper(ObjectMapper mapper) {
+		super.configureMapper(mapper);
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Test
+	public void patchedTaxonomyEqualsFullBuild() throws Exception {
+		final SnomedConceptDocument conceptA = concept(A).build();
+		final SnomedConceptDocument conceptC = concept(C).build();
+		final SnomedRelationshipIndexEntry isaB = relationship(B, Concepts.IS_A, A, Concepts.STATED_RELATIONSHIP).build();
+		final SnomedRelationshipIndexEntry attributeD = relationship(D, Concepts.HAS_ACTIVE_INGREDIENT, A, Concepts.STATED_RELATIONSHIP).build();
+
+		indexRevision(MAIN,
+			concept(ROOT).build(),
+			conceptA,
+			concept(B).build(),
+			conceptC,
+			concept(D).build(),
+			concept(F).build(),
+			relationship(A, Concepts.IS_A, ROOT, Concepts.STATED_RELATIONSHIP).build(),
+			isaB,
+			relationship(C, Concepts.IS_A, ROOT, Concepts.STATED_RELATIONSHIP).build(),
+			relationship(D, Concepts.IS_A, C, Concepts.STATED_RELATIONSHIP).build(),
+			relationship(F, Concepts.IS_A, A, Concepts.STATED_RELATIONSHIP).build(),
+			attributeD,
+			relationship(A, Concepts.IS_A, ROOT).build(),
+			relationship(B, Concepts.IS_A, A).build(),
+			relationship(D, Concepts.HAS_ACTIVE_INGREDIENT, A).build());
+
+		final ReasonerTaxonomy previous = index().read(MAIN, this::buildTaxonomy);
+
+		// add a concept, change a concept and a relationship, inactivate a concept and a relationship in a single commit
+		index().prepareCommit(MAIN)
+			.stageNew(concept(E).build())
+			.stageNew(relationship(E, Concepts.IS_A, B, Concepts.STATED_RELATIONSHIP).build())
+			.stageChange(conceptC, SnomedConceptDocument.builder(conceptC).primitive(false).build())
+			.stageChange(isaB, SnomedRelationshipIndexEntry.builder(isaB).destinationId(C).build())
+			.stageChange(attributeD, SnomedRelationshipIndexEntry.builder(attributeD).active(false).build())
+			.stageChange(conceptA, SnomedConceptDocument.builder(conceptA).active(false).build())
+			.commit(currentTime(), USER_ID, "Commit");
+
+		// relationship changes are recorded under their source concept
+		final Set<String> changedConceptIds = ImmutableSet.of(A, B, C, D, E);
+
+		final ReasonerTaxonomy patched = index().read(MAIN, searcher -> new ReasonerTaxonomyBuilder()
+				.addTaxonomy(searcher, previous, changedConceptIds, Collections.emptySet(), false)
+				.build());
+		final ReasonerTaxonomy full = index().read(MAIN, this::buildTaxonomy);
+
+		assertTaxonomyEquals(full, patched);
+		// F is unchanged, but its only parent has been inactivated
+		assertThat(patched.getStatedAncestors().getDestinations(F, true)).isEmpty();
+		assertThat(patched.getStatedAncestors().getDestinations(B, true)).containsOnly(C);
+		assertThat(patched.getStatedAncestors().getDestinations(E, true)).containsOnly(B);
+	}
+
+	private ReasonerTaxonomy buildTaxonomy(RevisionSearcher searcher) {
+		return new ReasonerTaxonomyBuilder()
+				.addActiveConceptIds(searcher)
+				.finishConcepts()
+				.addConceptFlags(searcher)
+				.addActiveStatedEdges(searcher)
+				.addActiveStatedNonIsARelationships(searcher)
+				.addActiveInferredRelationships(searcher)
+				.addActiveAdditionalGroupedRelationships(searcher)
+				.addNeverGroupedTypeIds(searcher)
+				.addActiveAxioms(searcher)
+				.build();
+	}
+
+	private static void assertTaxonomyEquals(ReasonerTaxonomy expected, ReasonerTaxonomy actual) {
+		final Set<String> conceptIds = toSet(expected.getConceptMap().getSctIds());
+		assertThat(toSet(actual.getConceptMap().getSctIds())).isEqualTo(conceptIds);
+		assertThat(toSet(actual.getDefinedConceptMap().getSctIds())).isEqualTo(toSet(expected.getDefinedConceptMap().getSctIds()));
+		assertThat(toSet(actual.getExhaustiveConcepts().iterator())).isEqualTo(toSet(expected.getExhaustiveConcepts().iterator()));
+		assertThat(actual.getNeverGroupedTypeIds()).isEqualTo(expected.getNeverGroupedTypeIds());
+
+		for (String conceptId : conceptIds) {
+			assertThat(actual.getStatedAncestors().getDestinations(conceptId, true))
+				.as("Stated parents of %s", conceptId)
+				.isEqualTo(expected.getStatedAncestors().getDestinations(conceptId, true));
+			assertThat(actual.getStatedDescendants().getDestinations(conceptId, true))
+				.as("Stated children of %s", conceptId)
+				.isEqualTo(expected.getStatedDescendants().getDestinations(conceptId, true));
+			assertThat(toStrings(actual.getSubclassOfStatements().get(conceptId)))
+				.as("Stated relationships of %s", conceptId)
+				.isEqualTo(toStrings(expected.getSubclassOfStatements().get(conceptId)));
+			assertThat(toStrings(actual.getEquivalentStatements().get(conceptId)))
+				.as("Equivalent statements of %s", conceptId)
+				.isEqualTo(toStrings(expected.getEquivalentStatements().get(conceptId)));
+			assertThat(toStrings(actual.getExistingInferredRelationships().get(conceptId)))
+				.as("Inferred relationships of %s", conceptId)
+				.isEqualTo(toStrings(expected.getExistingInferredRelationships().get(conceptId)));
+			assertThat(toStrings(actual.getAdditionalGroupedRelationships().get(conceptId)))
+				.as("Additional relationships of %s", conceptId)
+				.isEqualTo(toStrings(expected.getAdditionalGroupedRelationships().get(conceptId)));
+			assertThat(toStrings(actual.getStatedAdditionalAxioms().get(conceptId)))
+				.as("Additional axioms of %s", conceptId)
+				.isEqualTo(toStrings(expected.getStatedAdditionalAxioms().get(conceptId)));
+		}
+	}
+
+	private static Set<String> toSet(LongIterator ids) {
+		final Set<String> result = Sets.newHashSet();
+		while (ids.hasNext()) {
+			result.add(Long.toString(ids.next()));
+		}
+		return result;
+	}
+
+	// statement fragments do not implement equals, but their string representation contains all of their properties
+	private static Set<String> toStrings(Collection<?> values) {
+		return values.stream().map(Object::toString).collect(Collectors.toSet());
+	}
+
+}
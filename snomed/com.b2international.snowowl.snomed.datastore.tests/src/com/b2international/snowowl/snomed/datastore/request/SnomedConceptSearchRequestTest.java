@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request;
+
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.description;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.xtext.parser.IParser;
+import org.eclipse.xtext.serializer.ISerializer;
+import org.eclipse.xtext.validation.IResourceValidator;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.index.Index;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.index.revision.Revision;
+import com.b2international.index.revision.RevisionIndex;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.request.RevisionIndexReadRequest;
+import com.b2international.snowowl.core.request.SearchIndexResourceRequest;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
+import com.b2international.snowowl.snomed.core.domain.SnomedConcepts;
+import com.b2international.snowowl.snomed.core.ecl.DefaultEclParser;
+import com.b2international.snowowl.snomed.core.ecl.DefaultEclSerializer;
+import com.b2international.snowowl.snomed.core.ecl.EclParser;
+import com.b2international.snowowl.snomed.core.ecl.EclSerializer;
+import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfiguration;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.b2international.snowowl.snomed.ecl.EclStandaloneSetup;
+import com.b2international.snowowl.test.commons.snomed.RandomSnomedIdentiferGenerator;
+import com.b2international.snowowl.test.commons.snomed.TestBranchContext;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.inject.Injector;
+
+/**
+ * @since 7.14
+ */
+public class SnomedConceptSearchRequestTest extends BaseRevisionIndexTest {
+
+	private static final Injector INJECTOR = new EclStandaloneSetup().createInjectorAndDoEMFRegistration();
+
+	private static final String PARENT = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String CHILD = RandomSnomedIdentiferGenerator.generateConceptId();
+
+	private BranchContext context;
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableSet.of(SnomedConceptDocument.class, SnomedDescriptionIndexEntry.class, SnomedRelationshipIndexEntry.class, SnomedRefSetMemberIndexEntry.class);
+	}
+
+	@Override
+	protected void configureMapper(ObjectMapper mapper) {
+		super.configureMapper(mapper);
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Before
+	public void setup() {
+		context = TestBranchContext.on(MAIN)
+				.with(EclParser.class, new DefaultEclParser(INJECTOR.getInstance(IParser.class), INJECTOR.getInstance(IResourceValidator.class)))
+				.with(EclSerializer.class, new DefaultEclSerializer(INJECTOR.getInstance(ISerializer.class)))
+				.with(Index.class, rawIndex())
+				.with(RevisionIndex.class, index())
+				.with(SnomedCoreConfiguration.class, new SnomedCoreConfiguration())
+				.build();
+	}
+
+	@Test
+	public void termMatchesRankedByBestDescriptionScore() throws Exception {
+		final String best = RandomSnomedIdentiferGenerator.generateConceptId();
+		final String worst = RandomSnomedIdentiferGenerator.generateConceptId();
+
+		indexRevision(MAIN,
+			concept(worst).build(),
+			description(RandomSnomedIdentiferGenerator.generateDescriptionId(), Concepts.SYNONYM, "Clinical finding of a rather long and unusual kind").conceptId(worst).build(),
+			concept(PARENT).build(),
+			description(RandomSnomedIdentiferGenerator.generateDescriptionId(), Concepts.SYNONYM, "Clinical finding of some kind").conceptId(PARENT).build(),
+			concept(best).build(),
+			// only the best scoring description of a concept counts
+			description(RandomSnomedIdentiferGenerator.generateDescriptionId(), Concepts.SYNONYM, "Clinical finding of an even longer, rather unusual kind").conceptId(best).build(),
+			description(RandomSnomedIdentiferGenerator.generateDescriptionId(), Concepts.SYNONYM, "Finding").conceptId(best).build(),
+			concept(CHILD).build(),
+			description(RandomSnomedIdentiferGenerator.generateDescriptionId(), Concepts.SYNONYM, "Disorder").conceptId(CHILD).build());
+
+		final SnomedConcepts matches = search(SnomedRequests.prepareSearchConcept()
+				.filterByTerm("finding")
+				.sortBy(SearchIndexResourceRequest.SCORE));
+
+		assertEquals(3, matches.getTotal());
+		assertThat(matches.stream().map(SnomedConcept::getId).collect(Collectors.toList())).containsExactly(best, PARENT, worst);
+	}
+
+	@Test
+	public void termMatchingMoreConceptsThanCollapseLimit() throws Exception {
+		final List<Revision> revisions = Lists.newArrayList();
+
+		// the parent and every unrelated concept has a short, best scoring matching description
+		revisions.add(concept(PARENT).build());
+		revisions.add(description(RandomSnomedIdentiferGenerator.generateDescriptionId(), Concepts.SYNONYM, "Clinical finding").conceptId(PARENT).build());
+		for (int i = 0; i < SnomedConceptSearchRequest.MAX_TERM_MATCHES; i++) {
+			final String conceptId = RandomSnomedIdentiferGenerator.generateConceptId();
+			revisions.add(concept(conceptId).build());
+			revisions.add(description(RandomSnomedIdentiferGenerator.generateDescriptionId(), Concepts.SYNONYM, "Clinical finding").conceptId(conceptId).build());
+		}
+
+		// the only concept matching the ECL expression scores lower than all others
+		revisions.add(concept(CHILD)
+				.parents(PrimitiveSets.newLongSortedSet(Long.parseLong(PARENT)))
+				.statedParents(PrimitiveSets.newLongSortedSet(Long.parseLong(PARENT)))
+				.build());
+		revisions.add(description(RandomSnomedIdentiferGenerator.generateDescriptionId(), Concepts.SYNONYM, "Clinical finding of a rather long and unusual kind")
+				.conceptId(CHILD)
+				.build());
+
+		indexRevision(MAIN, revisions.toArray(new Revision[revisions.size()]));
+
+		// only the best scoring concepts are considered, concept level filters are applied to them
+		final SnomedConcepts allMatches = search(SnomedRequests.prepareSearchConcept()
+				.setLimit(0)
+				.filterByTerm("finding"));
+
+		assertEquals(SnomedConceptSearchRequest.MAX_TERM_MATCHES, allMatches.getTotal());
+
+		final SnomedConcepts matchesOutsideTopConcepts = search(SnomedRequests.prepareSearchConcept()
+				.filterByTerm("finding")
+				.filterByEcl("<" + PARENT));
+
+		assertEquals(0, matchesOutsideTopConcepts.getTotal());
+	}
+
+	@Test
+	public void termMatchesFilteredByEcl() throws Exception {
+		indexRevision(MAIN,
+			concept(PARENT).build(),
+			description(RandomSnomedIdentiferGenerator.generateDescriptionId(), Concepts.SYNONYM, "Clinical finding").conceptId(PARENT).build(),
+			concept(CHILD)
+				.parents(PrimitiveSets.newLongSortedSet(Long.parseLong(PARENT)))
+				.statedParents(PrimitiveSets.newLongSortedSet(Long.parseLong(PARENT)))
+				.build(),
+			description(RandomSnomedIdentiferGenerator.generateDescriptionId(), Concepts.SYNONYM, "Clinical finding of a rather long and unusual kind").conceptId(CHILD).build());
+
+		final SnomedConcepts matches = search(SnomedRequests.prepareSearchConcept()
+				.filterByTerm("finding")
+				.filterByEcl("<" + PARENT));
+
+		assertEquals(1, matches.getTotal());
+		assertEquals(CHILD, matches.first().map(SnomedConcept::getId).orElse(null));
+	}
+
+	private SnomedConcepts search(SnomedConceptSearchRequestBuilder req) {
+		return new RevisionIndexReadRequest<>(req.build()).execute(context);
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request.rf2.importer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+
+/**
+ * @since 7.14
+ */
+public class Rf2RowReaderTest {
+
+	private static final byte[] BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+	@Test
+	public void lfLineEndings() throws Exception {
+		final List<String[]> rows = read(bytes("id\tactive\n1\t1\n2\t0\n"), 1 << 16, Integer.MAX_VALUE);
+
+		assertRows(rows, row("id", "active"), row("1", "1"), row("2", "0"));
+	}
+
+	@Test
+	public void crLfLineEndings() throws Exception {
+		final List<String[]> rows = read(bytes("id\tactive\r\n1\t1\r\n2\t0\r\n"), 1 << 16, Integer.MAX_VALUE);
+
+		assertRows(rows, row("id", "active"), row("1", "1"), row("2", "0"));
+	}
+
+	@Test
+	public void crLfSplitAcrossReads() throws Exception {
+		// the buffer boundary falls between the carriage return and the line feed
+		final List<String[]> rows = read(bytes("id\tactive\r\n1\t1\r\n"), 4, 1);
+
+		assertRows(rows, row("id", "active"), row("1", "1"));
+	}
+
+	@Test
+	public void byteOrderMark() throws Exception {
+		final List<String[]> rows = read(concat(BOM, bytes("id\tactive\r\n1\t1\r\n")), 1 << 16, Integer.MAX_VALUE);
+
+		assertRows(rows, row("id", "active"), row("1", "1"));
+	}
+
+	@Test
+	public void byteOrderMarkSplitAcrossReads() throws Exception {
+		final List<String[]> rows = read(concat(BOM, bytes("id\n1\n")), 2, 1);
+
+		assertRows(rows, row("id"), row("1"));
+	}
+
+	@Test
+	public void byteOrderMarkOnlyAtStartOfStream() throws Exception {
+		final List<String[]> rows = read(concat(bytes("id\n"), BOM, bytes("1\n")), 1 << 16, Integer.MAX_VALUE);
+
+		assertRows(rows, row("id"), row(new String(BOM, StandardCharsets.UTF_8) + "1"));
+	}
+
+	@Test
+	public void lineLongerThanBuffer() throws Exception {
+		final String term = Strings.repeat("x", 1_000);
+		final List<String[]> rows = read(bytes("id\tterm\n1\t" + term + "\n2\tshort\n"), 16, 7);
+
+		assertRows(rows, row("id", "term"), row("1", term), row("2", "short"));
+	}
+
+	@Test
+	public void multiByteCharactersAcrossReads() throws Exception {
+		// 2, 3 and 4 byte UTF-8 sequences, read one byte at a time into a buffer that does not align with the character boundaries
+		final String term = "Ménière's disease – 😀 áéíóú";
+		final List<String[]> rows = read(bytes("1\t" + term + "\r\n2\t" + term + "\r\n"), 5, 1);
+
+		assertRows(rows, row("1", term), row("2", term));
+	}
+
+	@Test
+	public void lastLineWithoutLineSeparator() throws Exception {
+		assertRows(read(bytes("id\tactive\n1\t1"), 1 << 16, Integer.MAX_VALUE), row("id", "active"), row("1", "1"));
+		assertRows(read(bytes("id\tactive\r\n1\t1"), 3, 2), row("id", "active"), row("1", "1"));
+	}
+
+	@Test
+	public void emptyLinesSkipped() throws Exception {
+		final List<String[]> rows = read(bytes("\r\nid\n\n1\t\t1\r\n\r\n"), 1 << 16, Integer.MAX_VALUE);
+
+		// empty columns are kept
+		assertRows(rows, row("id"), row("1", "", "1"));
+	}
+
+	@Test
+	public void emptyStream() throws Exception {
+		assertRows(read(new byte[0], 1 << 16, Integer.MAX_VALUE));
+		assertRows(read(BOM, 1 << 16, Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void lineNumbers() throws Exception {
+		try (Rf2RowReader reader = new Rf2RowReader(new ByteArrayInputStream(bytes("id\n\n1\n")), 4)) {
+			reader.next();
+			assertEquals(1, reader.getLineNumber());
+			reader.next();
+			assertEquals(3, reader.getLineNumber());
+			assertNull(reader.next());
+		}
+	}
+
+	private static List<String[]> read(byte[] content, int bufferSize, int maxBytesPerRead) throws IOException {
+		final List<String[]> rows = Lists.newArrayList();
+		try (Rf2RowReader reader = new Rf2RowReader(new ChunkedInputStream(content, maxBytesPerRead), bufferSize)) {
+			String[] row;
+			while ((row = reader.next()) != null) {
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+
+	private static void assertRows(List<String[]> actual, String[]... expected) {
+		assertEquals(expected.length, actual.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertArrayEquals(expected[i], actual.get(i));
+		}
+	}
+
+	private static String[] row(String... values) {
+		return values;
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] concat(byte[]... parts) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] part : parts) {
+			out.write(part);
+		}
+		return out.toByteArray();
+	}
+
+	/*Returns at most the given number of bytes from each read, like a slow network or decompressing stream would*/
+	private static final class ChunkedInputStream extends ByteArrayInputStream {
+
+		private final int maxBytesPerRead;
+
+		ChunkedInputStream(byte[] content, int maxBytesPerRead) {
+			super(content);
+			this.maxBytesPerRead = maxBytesPerRead;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			return super.read(b, off, Math.min(len, maxBytesPerRead));
+		}
+
+	}
+
+}
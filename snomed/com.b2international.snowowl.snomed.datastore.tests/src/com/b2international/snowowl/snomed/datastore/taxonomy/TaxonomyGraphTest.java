@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.taxonomy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveSets;
+
+/**
+ * @since 7.14
+ */
+public class TaxonomyGraphTest {
+
+	private static final long ROOT = 138875005L;
+	private static final long A = 100005L;
+	private static final long B = 200009L;
+	private static final long C = 300003L;
+	private static final long D = 400008L;
+	private static final long UNKNOWN = 500000L;
+	
+	private TaxonomyGraph graph;
+	
+	@Before
+	public void setup() {
+		// ROOT <- A <- C
+		// ROOT <- B <- C, D
+		graph = new TaxonomyGraph(5, 4);
+		graph.setCheckCycles(false);
+		graph.addNode(ROOT);
+		graph.addNode(A);
+		graph.addNode(B);
+		graph.addNode(C);
+		graph.addNode(D);
+		graph.addEdge("1", A, new long[] { ROOT });
+		graph.addEdge("2", B, new long[] { ROOT });
+		graph.addEdge("3", C, new long[] { A, B });
+		graph.addEdge("4", D, new long[] { B });
+		graph.update();
+	}
+	
+	@Test
+	public void directDescendantsOfMultipleNodes() throws Exception {
+		assertEquals(PrimitiveSets.newLongOpenHashSet(C, D), graph.getDescendantNodeIds(PrimitiveSets.newLongOpenHashSet(A, B, UNKNOWN)));
+	}
+	
+	@Test
+	public void allDescendantsOfMultipleNodes() throws Exception {
+		assertEquals(PrimitiveSets.newLongOpenHashSet(A, B, C, D), graph.getAllDescendantNodeIds(PrimitiveSets.newLongOpenHashSet(ROOT, B)));
+	}
+	
+	@Test
+	public void allDescendantsOfMultipleNodesWithinLimit() throws Exception {
+		assertEquals(PrimitiveSets.newLongOpenHashSet(C, D), graph.getAllDescendantNodeIds(PrimitiveSets.newLongOpenHashSet(A, B, UNKNOWN), 2));
+	}
+	
+	@Test
+	public void allDescendantsOfMultipleNodesAboveLimit() throws Exception {
+		assertNull(graph.getAllDescendantNodeIds(PrimitiveSets.newLongOpenHashSet(ROOT), 3));
+	}
+	
+	@Test
+	public void directAncestorsOfMultipleNodes() throws Exception {
+		assertEquals(PrimitiveSets.newLongOpenHashSet(A, B), graph.getAncestorNodeIds(PrimitiveSets.newLongOpenHashSet(C, D)));
+	}
+	
+	@Test
+	public void allAncestorsOfMultipleNodes() throws Exception {
+		assertEquals(PrimitiveSets.newLongOpenHashSet(ROOT, A, B), graph.getAllAncestorNodeIds(PrimitiveSets.newLongOpenHashSet(C, UNKNOWN)));
+	}
+	
+	@Test
+	public void removedEdgeIsNotTraversedAfterUpdate() throws Exception {
+		graph.removeEdge("3");
+		graph.addEdge("3", C, new long[] { A });
+		graph.update();
+		assertEquals(PrimitiveSets.newLongOpenHashSet(D), graph.getAllDescendantNodeIds(PrimitiveSets.newLongOpenHashSet(B)));
+	}
+	
+}
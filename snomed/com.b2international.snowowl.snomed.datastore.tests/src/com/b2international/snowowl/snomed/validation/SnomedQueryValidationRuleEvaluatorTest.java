@@ -23,6 +23,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.xtext.parser.IParser;
 import org.eclipse.xtext.serializer.ISerializer;
@@ -30,9 +31,11 @@ import org.eclipse.xtext.validation.IResourceValidator;
 import org.junit.Test;
 
 import com.b2international.snowowl.core.ComponentIdentifier;
+import com.b2international.snowowl.core.request.RevisionIndexReadRequest;
 import com.b2international.snowowl.core.validation.ValidationRequests;
 import com.b2international.snowowl.core.validation.eval.ValidationRuleEvaluator;
 import com.b2international.snowowl.core.validation.issue.ValidationIssues;
+import com.b2international.snowowl.core.validation.rule.ValidationRule;
 import com.b2international.snowowl.core.validation.rule.ValidationRule.Severity;
 import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
 import com.b2international.snowowl.snomed.common.SnomedTerminologyComponentConstants;
@@ -222,6 +225,48 @@ public class SnomedQueryValidationRuleEvaluatorTest extends BaseValidationTest {
 		assertThat(issues.getItems().get(0).getAffectedComponent()).isEqualTo(ComponentIdentifier.of(SnomedTerminologyComponentConstants.DESCRIPTION_NUMBER, description1));
 	}
 	
+	@Test
+	public void conceptRuleScopedEvaluation() throws Exception {
+		final String concept1 = RandomSnomedIdentiferGenerator.generateConceptId();
+		final String concept2 = RandomSnomedIdentiferGenerator.generateConceptId();
+		indexRevision(MAIN, 
+			concept(concept1).build(),
+			concept(concept2).build()
+		);
+		
+		final Map<String, Object> ruleQuery = ImmutableMap.<String, Object>builder()
+				.put("componentType", "concept")
+				.put("active", true)
+				.put("scoped", true)
+				.build();
+		
+		final String ruleId = createSnomedQueryRule(ruleQuery);
+		final ValidationRule rule = ValidationRequests.rules().prepareGet(ruleId).build().execute(context());
+		assertThat(evaluator.isScopeSupported(context(), rule)).isTrue();
+		
+		final List<?> issues = new RevisionIndexReadRequest<List<?>>(context -> {
+			try {
+				return evaluator.eval(context, rule, Map.of(), Set.of(concept1));
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}).execute(context());
+		
+		assertThat(issues).containsOnly(ComponentIdentifier.of(SnomedTerminologyComponentConstants.CONCEPT_NUMBER, concept1));
+	}
+	
+	@Test
+	public void conceptRuleNotScopedByDefault() throws Exception {
+		final Map<String, Object> ruleQuery = ImmutableMap.<String, Object>builder()
+				.put("componentType", "concept")
+				.put("active", true)
+				.build();
+		
+		final String ruleId = createSnomedQueryRule(ruleQuery);
+		final ValidationRule rule = ValidationRequests.rules().prepareGet(ruleId).build().execute(context());
+		assertThat(evaluator.isScopeSupported(context(), rule)).isFalse();
+	}
+	
 	private String createSnomedQueryRule(final Map<String, Object> ruleQuery) throws JsonProcessingException {
 		return ValidationRequests.rules().prepareCreate()
 			.setType(evaluator.type())
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.validation;
+
+import static com.b2international.snowowl.test.commons.snomed.DocumentBuilders.concept;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.b2international.index.Hits;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.RevisionBranch;
+import com.b2international.index.revision.RevisionBranch.BranchState;
+import com.b2international.snowowl.core.ComponentIdentifier;
+import com.b2international.snowowl.core.branch.Branch;
+import com.b2international.snowowl.core.branch.BranchPathUtils;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.domain.DelegatingBranchContext;
+import com.b2international.snowowl.core.internal.validation.ValidationCheckpoint;
+import com.b2international.snowowl.core.internal.validation.ValidationRepository;
+import com.b2international.snowowl.core.internal.validation.ValidationThreadPool;
+import com.b2international.snowowl.core.request.RevisionIndexReadRequest;
+import com.b2international.snowowl.core.validation.ValidationRequests;
+import com.b2international.snowowl.core.validation.eval.ValidationRuleEvaluator;
+import com.b2international.snowowl.core.validation.issue.ValidationIssue;
+import com.b2international.snowowl.core.validation.issue.ValidationIssues;
+import com.b2international.snowowl.core.validation.rule.ValidationRule;
+import com.b2international.snowowl.core.validation.rule.ValidationRule.Severity;
+import com.b2international.snowowl.snomed.common.SnomedTerminologyComponentConstants;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.test.commons.snomed.RandomSnomedIdentiferGenerator;
+import com.b2international.snowowl.test.commons.snomed.TestBranchContext.Builder;
+import com.b2international.snowowl.test.commons.validation.BaseValidationTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Splitter;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * @since 7.14
+ */
+public class ValidateRequestTest extends BaseValidationTest {
+
+	private static final String CONCEPT1 = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String CONCEPT2 = RandomSnomedIdentiferGenerator.generateConceptId();
+	private static final String CONCEPT3 = RandomSnomedIdentiferGenerator.generateConceptId();
+
+	@Override
+	protected Collection<Class<?>> getAdditionalTypes() {
+		return List.of(
+			SnomedConceptDocument.class,
+			SnomedDescriptionIndexEntry.class,
+			SnomedRefSetMemberIndexEntry.class
+		);
+	}
+
+	@Override
+	protected void configureContext(Builder context) {
+		super.configureContext(context);
+		// allow rules of the same run to be evaluated concurrently
+		context.with(ValidationThreadPool.class, new ValidationThreadPool(2, 2, 2));
+		for (ValidationRuleEvaluator evaluator : List.of(new SnomedQueryValidationRuleEvaluator(), new ConceptListRuleEvaluator())) {
+			if (!ValidationRuleEvaluator.Registry.types().contains(evaluator.type())) {
+				ValidationRuleEvaluator.Registry.register(evaluator);
+			}
+		}
+	}
+
+	@Override
+	protected Map<String, String> getTestCodeSystemPathMap() {
+		return Map.of(SnomedTerminologyComponentConstants.SNOMED_SHORT_NAME, MAIN);
+	}
+	
+	@After
+	public void teardown() {
+		ConceptListRuleEvaluator.FAILING_RULES.clear();
+		ConceptListRuleEvaluator.AWAITED_RULES.clear();
+	}
+
+	@Test
+	public void checkpointAfterRun() throws Exception {
+		indexRevision(MAIN, concept(CONCEPT1).active(false).build());
+		final String ruleId = createInactiveConceptRule(true);
+
+		final ValidationIssues issues = validate(ruleId, true);
+
+		assertAffectedComponents(issues, conceptId(CONCEPT1));
+		assertThat(getCheckpoint(ruleId).getTimestamp()).isEqualTo(getMainBranch().getHeadTimestamp());
+	}
+
+	@Test
+	public void noCheckpointWithoutIncremental() throws Exception {
+		indexRevision(MAIN, concept(CONCEPT1).active(false).build());
+		final String ruleId = createInactiveConceptRule(true);
+
+		validate(ruleId, false);
+
+		assertThat(getCheckpoint(ruleId)).isNull();
+	}
+
+	@Test
+	public void scopedRunEvaluatesChangedComponentsOnly() throws Exception {
+		final SnomedConceptDocument concept1 = concept(CONCEPT1).active(false).build();
+		indexRevision(MAIN, concept1, concept(CONCEPT2).active(false).build());
+		final String ruleId = createInactiveConceptRule(true);
+		validate(ruleId, true);
+
+		// an issue of an unchanged component is not reported again by a scoped run
+		removeIssue(ruleId, CONCEPT2);
+		indexChange(MAIN, concept1, SnomedConceptDocument.builder(concept1).active(true).build());
+		indexRevision(MAIN, concept(CONCEPT3).active(false).build());
+
+		assertAffectedComponents(validate(ruleId, true), conceptId(CONCEPT3));
+	}
+
+	@Test
+	public void scopedRunKeepsIssuesOfUnchangedComponents() throws Exception {
+		final SnomedConceptDocument concept1 = concept(CONCEPT1).active(false).build();
+		indexRevision(MAIN, concept1, concept(CONCEPT2).active(false).build());
+		final String ruleId = createInactiveConceptRule(true);
+		final String concept2IssueId = getIssueId(validate(ruleId, true), CONCEPT2);
+
+		indexChange(MAIN, concept1, SnomedConceptDocument.builder(concept1).active(true).build());
+
+		final ValidationIssues issues = validate(ruleId, true);
+		assertAffectedComponents(issues, conceptId(CONCEPT2));
+		assertThat(getIssueId(issues, CONCEPT2)).isEqualTo(concept2IssueId);
+	}
+
+	@Test
+	public void unscopedRuleEvaluatedOnAllComponents() throws Exception {
+		final SnomedConceptDocument concept1 = concept(CONCEPT1).active(false).build();
+		indexRevision(MAIN, concept1, concept(CONCEPT2).active(false).build());
+		final String ruleId = createInactiveConceptRule(false);
+		validate(ruleId, true);
+
+		removeIssue(ruleId, CONCEPT2);
+		indexChange(MAIN, concept1, SnomedConceptDocument.builder(concept1).active(true).build());
+
+		assertAffectedComponents(validate(ruleId, true), conceptId(CONCEPT2));
+	}
+
+	@Test
+	public void fullRunAfterRebase() throws Exception {
+		indexRevision(MAIN, concept(CONCEPT1).active(false).build(), concept(CONCEPT2).active(false).build());
+		final String ruleId = createInactiveConceptRule(true);
+		validate(ruleId, true);
+
+		removeIssue(ruleId, CONCEPT2);
+		indexRevision(MAIN, concept(CONCEPT3).active(false).build());
+
+		// changes brought in by a rebase are not recorded in the commits of the branch, so the rule is evaluated on all components again
+		final RevisionBranch main = getMainBranch();
+		assertAffectedComponents(validate(ruleId, true, main.getHeadTimestamp()), conceptId(CONCEPT1), conceptId(CONCEPT2), conceptId(CONCEPT3));
+	}
+
+	@Test
+	public void scopedRunIgnoresIssuesOutsideOfScope() throws Exception {
+		final SnomedConceptDocument concept1 = concept(CONCEPT1).build();
+		indexRevision(MAIN, concept1, concept(CONCEPT2).build());
+		// the evaluator of this rule does not support scoped evaluation, it always reports both concepts
+		final String ruleId = createRule(ConceptListRuleEvaluator.TYPE, CONCEPT1 + "," + CONCEPT2);
+		validate(ruleId, true);
+
+		removeIssue(ruleId, CONCEPT2);
+		indexChange(MAIN, concept1, SnomedConceptDocument.builder(concept1).active(false).build());
+
+		assertAffectedComponents(validate(ruleId, true), conceptId(CONCEPT1));
+	}
+
+	@Test
+	public void failedRuleKeepsExistingIssues() throws Exception {
+		indexRevision(MAIN, concept(CONCEPT1).build(), concept(CONCEPT2).build());
+		final String failingRuleId = createRule(ConceptListRuleEvaluator.TYPE, CONCEPT1);
+		final String ruleId = createRule(ConceptListRuleEvaluator.TYPE, CONCEPT2);
+		validate(Set.of(failingRuleId, ruleId), true);
+		final String concept1IssueId = getIssueId(getIssues(failingRuleId), CONCEPT1);
+		final long checkpoint = getCheckpoint(failingRuleId).getTimestamp();
+
+		ConceptListRuleEvaluator.FAILING_RULES.add(failingRuleId);
+		indexRevision(MAIN, concept(CONCEPT3).build());
+		validate(Set.of(failingRuleId, ruleId), true);
+
+		// the failed rule's issues and checkpoint are left intact, while the results of the other rule are persisted
+		final ValidationIssues issues = getIssues(failingRuleId);
+		assertAffectedComponents(issues, conceptId(CONCEPT1));
+		assertThat(getIssueId(issues, CONCEPT1)).isEqualTo(concept1IssueId);
+		assertThat(getCheckpoint(failingRuleId).getTimestamp()).isEqualTo(checkpoint);
+		assertAffectedComponents(getIssues(ruleId), conceptId(CONCEPT2));
+		assertThat(getCheckpoint(ruleId).getTimestamp()).isEqualTo(getMainBranch().getHeadTimestamp());
+	}
+
+	@Test
+	public void resultsPersistedInMultipleBatches() throws Exception {
+		indexRevision(MAIN, concept(CONCEPT1).build(), concept(CONCEPT2).build(), concept(CONCEPT3).build());
+		final String firstRuleId = createRule(ConceptListRuleEvaluator.TYPE, CONCEPT1 + "," + CONCEPT2);
+		final String secondRuleId = createRule(ConceptListRuleEvaluator.TYPE, CONCEPT3);
+		final String existingIssueId = getIssueId(validate(firstRuleId, true), CONCEPT1);
+
+		// the second rule reports its result only after the first rule's result has been persisted, so the run ends up with two batches
+		ConceptListRuleEvaluator.AWAITED_RULES.put(secondRuleId, firstRuleId);
+		removeCheckpoint(firstRuleId);
+		validate(Set.of(firstRuleId, secondRuleId), true);
+
+		// issues persisted by the first batch are not affected by the second one
+		final ValidationIssues firstRuleIssues = getIssues(firstRuleId);
+		assertAffectedComponents(firstRuleIssues, conceptId(CONCEPT1), conceptId(CONCEPT2));
+		assertThat(getIssueId(firstRuleIssues, CONCEPT1)).isEqualTo(existingIssueId);
+		assertAffectedComponents(getIssues(secondRuleId), conceptId(CONCEPT3));
+		assertThat(getCheckpoint(firstRuleId)).isNotNull();
+		assertThat(getCheckpoint(secondRuleId)).isNotNull();
+	}
+
+	private String createInactiveConceptRule(boolean scoped) throws Exception {
+		final Map<String, Object> ruleQuery = ImmutableMap.<String, Object>builder()
+				.put("componentType", "concept")
+				.put("active", false)
+				.put("scoped", scoped)
+				.build();
+		return createRule(new SnomedQueryValidationRuleEvaluator().type(), context().service(ObjectMapper.class).writeValueAsString(ruleQuery));
+	}
+
+	private String createRule(String type, String implementation) {
+		return ValidationRequests.rules().prepareCreate()
+				.setType(type)
+				.setMessageTemplate("Error")
+				.setSeverity(Severity.ERROR)
+				.setImplementation(implementation)
+				.setToolingId(SnomedTerminologyComponentConstants.TERMINOLOGY_ID)
+				.build()
+				.execute(context());
+	}
+
+	private ValidationIssues validate(String ruleId, boolean incremental) {
+		return validate(ruleId, incremental, getMainBranch().getBaseTimestamp());
+	}
+
+	private ValidationIssues validate(String ruleId, boolean incremental, long baseTimestamp) {
+		validate(Set.of(ruleId), incremental, baseTimestamp);
+		return getIssues(ruleId);
+	}
+	
+	private void validate(Set<String> ruleIds, boolean incremental) {
+		validate(ruleIds, incremental, getMainBranch().getBaseTimestamp());
+	}
+
+	/* Validates the rules on the current head of MAIN, the test context's branch does not move on its own */
+	private void validate(Set<String> ruleIds, boolean incremental, long baseTimestamp) {
+		final RevisionBranch main = getMainBranch();
+		final Branch branch = new Branch(main.getId(), main.getName(), main.getParentPath(), baseTimestamp, main.getHeadTimestamp(), false, main.metadata(),
+				BranchState.FORWARD, BranchPathUtils.createMainPath(), Collections.emptyList());
+		final BranchContext context = new DelegatingBranchContext(context()) {
+			@Override
+			public Branch branch() {
+				return branch;
+			}
+		};
+
+		new RevisionIndexReadRequest<>(ValidationRequests.prepareValidate()
+				.setRuleIds(ruleIds)
+				.setIncremental(incremental)
+				.build())
+				.execute(context);
+	}
+	
+	private ValidationIssues getIssues(String ruleId) {
+		return ValidationRequests.issues().prepareSearch().all().filterByRule(ruleId).build().execute(context());
+	}
+
+	private ValidationCheckpoint getCheckpoint(String ruleId) {
+		final Hits<ValidationCheckpoint> checkpoints = searchRaw(Query.select(ValidationCheckpoint.class)
+				.where(ValidationCheckpoint.Expressions.ruleIds(Set.of(ruleId)))
+				.build());
+		return checkpoints.stream().findFirst().orElse(null);
+	}
+	
+	private void removeCheckpoint(String ruleId) {
+		context().service(ValidationRepository.class).remove(ValidationCheckpoint.class, getCheckpoint(ruleId).getId());
+	}
+
+	private void removeIssue(String ruleId, String componentId) {
+		context().service(ValidationRepository.class).remove(ValidationIssue.class, getIssueId(getIssues(ruleId), componentId));
+	}
+
+	private static String getIssueId(ValidationIssues issues, String componentId) {
+		return issues.stream()
+				.filter(issue -> componentId.equals(issue.getAffectedComponent().getComponentId()))
+				.map(ValidationIssue::getId)
+				.findFirst()
+				.get();
+	}
+
+	private static ComponentIdentifier conceptId(String conceptId) {
+		return ComponentIdentifier.of(SnomedTerminologyComponentConstants.CONCEPT_NUMBER, conceptId);
+	}
+
+	/*
+	 * Reports the concepts listed in the rule's implementation, supports scoped evaluation but relies on the default implementation which
+	 * evaluates the rule on all components. Rules can be made to fail, or to wait for the checkpoint of another rule before reporting.
+	 */
+	private static final class ConceptListRuleEvaluator implements ValidationRuleEvaluator {
+
+		static final String TYPE = "test-concept-list";
+		static final Set<String> FAILING_RULES = ConcurrentHashMap.newKeySet();
+		static final Map<String, String> AWAITED_RULES = new ConcurrentHashMap<>();
+		
+		private static final long AWAIT_TIMEOUT_SECONDS = 10L;
+
+		@Override
+		public List<?> eval(BranchContext context, ValidationRule rule, Map<String, Object> params) throws Exception {
+			if (FAILING_RULES.contains(rule.getId())) {
+				throw new IllegalStateException("Rule '" + rule.getId() + "' failed");
+			}
+			if (AWAITED_RULES.containsKey(rule.getId())) {
+				awaitCheckpoint(context, AWAITED_RULES.get(rule.getId()));
+			}
+			return Splitter.on(',').splitToList(rule.getImplementation())
+					.stream()
+					.map(ValidateRequestTest::conceptId)
+					.collect(Collectors.toList());
+		}
+
+		@Override
+		public boolean isScopeSupported(BranchContext context, ValidationRule rule) {
+			return true;
+		}
+		
+		private void awaitCheckpoint(BranchContext context, String ruleId) throws IOException, InterruptedException {
+			final Query<ValidationCheckpoint> query = Query.select(ValidationCheckpoint.class)
+					.where(ValidationCheckpoint.Expressions.ruleIds(Set.of(ruleId)))
+					.build();
+			final Stopwatch w = Stopwatch.createStarted();
+			while (context.service(ValidationRepository.class).searcher().search(query).isEmpty()) {
+				if (w.elapsed(TimeUnit.SECONDS) > AWAIT_TIMEOUT_SECONDS) {
+					throw new IllegalStateException("Results of rule '" + ruleId + "' were not persisted in time");
+				}
+				Thread.sleep(10L);
+			}
+		}
+
+		@Override
+		public String type() {
+			return TYPE;
+		}
+
+	}
+
+}
@@ -29,12 +29,14 @@ import com.b2international.snowowl.core.config.SnowOwlConfiguration;
 import com.b2international.snowowl.core.domain.BranchContext;
 import com.b2international.snowowl.core.domain.ContextConfigurer;
 import com.b2international.snowowl.core.domain.IComponent;
+import com.b2international.snowowl.core.events.Notifications;
 import com.b2international.snowowl.core.internal.locks.DatastoreLockContextDescriptions;
 import com.b2international.snowowl.core.merge.ComponentRevisionConflictProcessor;
 import com.b2international.snowowl.core.plugin.Component;
 import com.b2international.snowowl.core.repository.ComponentDeletionPolicy;
 import com.b2international.snowowl.core.repository.CompositeComponentDeletionPolicy;
 import com.b2international.snowowl.core.repository.ContentAvailabilityInfoProvider;
+import com.b2international.snowowl.core.repository.RepositoryCommitNotification;
 import com.b2international.snowowl.core.repository.TerminologyRepositoryInitializer;
 import com.b2international.snowowl.core.repository.TerminologyRepositoryPlugin;
 import com.b2international.snowowl.core.request.ConceptMapMappingSearchRequestEvaluator;
@@ -57,6 +59,7 @@ import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSet;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMember;
 import com.b2international.snowowl.snomed.core.ecl.DefaultEclParser;
 import com.b2international.snowowl.snomed.core.ecl.DefaultEclSerializer;
+import com.b2international.snowowl.snomed.core.ecl.EclEvaluationCache;
 import com.b2international.snowowl.snomed.core.ecl.EclParser;
 import com.b2international.snowowl.snomed.core.ecl.EclSerializer;
 import com.b2international.snowowl.snomed.core.merge.SnomedComponentRevisionConflictProcessor;
@@ -73,6 +76,8 @@ import com.b2international.snowowl.snomed.core.request.SnomedQueryOptimizer;
 import com.b2international.snowowl.snomed.core.version.SnomedVersioningRequest;
 import com.b2international.snowowl.snomed.datastore.SnomedDatastoreActivator;
 import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfiguration;
+import com.b2international.snowowl.snomed.datastore.converter.SnomedConceptExpansionExecutor;
+import com.b2international.snowowl.snomed.datastore.converter.SnomedMetadataConceptCache;
 import com.b2international.snowowl.snomed.datastore.index.change.SnomedRepositoryPreCommitHook;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDocument;
 import com.b2international.snowowl.snomed.datastore.internal.SnomedRepositoryInitializer;
@@ -80,12 +85,15 @@ import com.b2international.snowowl.snomed.datastore.request.SnomedConceptMapSear
 import com.b2international.snowowl.snomed.datastore.request.SnomedMemberSearchRequestEvaluator;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
 import com.b2international.snowowl.snomed.datastore.request.Synonyms;
+import com.b2international.snowowl.snomed.datastore.taxonomy.SnomedHierarchyIndex;
 import com.b2international.snowowl.snomed.ecl.EclStandaloneSetup;
 import com.b2international.snowowl.snomed.ql.QLStandaloneSetup;
 import com.b2international.snowowl.snomed.validation.SnomedQueryValidationRuleEvaluator;
 import com.google.common.collect.ImmutableList;
 import com.google.inject.Injector;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * @since 7.0
  */
@@ -105,6 +113,18 @@ public final class SnomedPlugin extends TerminologyRepositoryPlugin {
 		final Injector injector = new EclStandaloneSetup().createInjectorAndDoEMFRegistration();
 		env.services().registerService(EclParser.class, new DefaultEclParser(injector.getInstance(IParser.class), injector.getInstance(IResourceValidator.class)));
 		env.services().registerService(EclSerializer.class, new DefaultEclSerializer(injector.getInstance(ISerializer.class)));
+		if (coreConfig.getMaxHierarchyIndexBranches() > 0) {
+			env.services().registerService(SnomedHierarchyIndex.class, new SnomedHierarchyIndex(coreConfig.getMaxHierarchyIndexBranches()));
+		}
+		if (coreConfig.getMaxEclCacheSize() > 0) {
+			env.services().registerService(EclEvaluationCache.class, new EclEvaluationCache(coreConfig.getMaxEclCacheSize()));
+		}
+		if (coreConfig.getMaxMetadataConceptCacheSize() > 0) {
+			env.services().registerService(SnomedMetadataConceptCache.class, new SnomedMetadataConceptCache(coreConfig.getMaxMetadataConceptCacheSize()));
+		}
+		if (coreConfig.getMaxConceptExpansionThreads() > 0) {
+			env.services().registerService(SnomedConceptExpansionExecutor.class, new SnomedConceptExpansionExecutor(coreConfig.getMaxConceptExpansionThreads()));
+		}
 		
 		final Injector qlInjector = new QLStandaloneSetup().createInjectorAndDoEMFRegistration();
 		env.services().registerService(SnomedQueryParser.class, new DefaultSnomedQueryParser(qlInjector.getInstance(IParser.class), qlInjector.getInstance(IResourceValidator.class)));
@@ -122,6 +142,20 @@ public final class SnomedPlugin extends TerminologyRepositoryPlugin {
 			RpcUtil.getInitialServerSession(env.container()).registerClassLoader(MrcmExporter.class, MrcmExporterImpl.class.getClassLoader());
 			env.services().registerService(MrcmImporter.class, new MrcmJsonImporter(env.provider(IEventBus.class)));
 			RpcUtil.getInitialServerSession(env.container()).registerClassLoader(MrcmImporter.class, MrcmJsonImporter.class.getClassLoader());
+			// drop cached ECL evaluation results of modified branches
+			env.optionalService(EclEvaluationCache.class).ifPresent(cache -> {
+				cache.bindTo(env.service(MeterRegistry.class));
+				env.service(Notifications.class)
+					.ofType(RepositoryCommitNotification.class)
+					.subscribe(cache::onCommit);
+			});
+			// drop cached metadata concepts of modified branches
+			env.optionalService(SnomedMetadataConceptCache.class).ifPresent(cache -> {
+				cache.bindTo(env.service(MeterRegistry.class));
+				env.service(Notifications.class)
+					.ofType(RepositoryCommitNotification.class)
+					.subscribe(cache::onCommit);
+			});
 		} else {
 			env.services().registerService(MrcmImporter.class, RpcUtil.createProxy(env.container(), MrcmImporter.class));
 			env.services().registerService(MrcmExporter.class, RpcUtil.createProxy(env.container(), MrcmExporter.class));
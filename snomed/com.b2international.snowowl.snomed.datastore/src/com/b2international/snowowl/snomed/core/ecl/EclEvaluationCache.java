@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.core.ecl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.Set;
+
+import com.b2international.snowowl.core.branch.Branch;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.repository.RepositoryCommitNotification;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+/**
+ * Keeps the concept ID sets of recently evaluated ECL expressions in memory. Entries are keyed by repository, branch path, the branch's base and
+ * head timestamps, expression form and the expression (the raw string as received, or the serialized form of an already parsed expression), so
+ * a result is never served once the branch has moved forward and a cache hit does not require parsing the expression. The cache is bounded by
+ * the total number of cached IDs and entries of a branch (and of its descendants) are dropped eagerly when a commit notification arrives for
+ * that branch.
+ *
+ * @since 7.14
+ */
+public final class EclEvaluationCache {
+
+	private final Cache<Key, Set<String>> cache;
+
+	public EclEvaluationCache(long maximumSize) {
+		this.cache = CacheBuilder.newBuilder()
+				.maximumWeight(maximumSize)
+				.weigher((Key key, Set<String> ids) -> Math.max(1, ids.size()))
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 * @param context
+	 * @return <code>true</code> if evaluation results on the given context can be cached, <code>false</code> if the context points to a
+	 *         historical point of the branch (eg. via a timestamp or base path modifier)
+	 */
+	public boolean canCache(BranchContext context) {
+		return context.branch().path().equals(context.path());
+	}
+
+	/**
+	 * @param context
+	 * @param ecl - the ECL expression
+	 * @param expressionForm - the expression form the ECL was evaluated in
+	 * @return the cached ID set or <code>null</code> if the expression has not been evaluated yet on the current head of the branch
+	 */
+	public Set<String> getIfPresent(BranchContext context, String ecl, String expressionForm) {
+		checkArgument(canCache(context), "ECL evaluation results cannot be cached on path '%s'.", context.path());
+		return cache.getIfPresent(new Key(context, ecl, expressionForm));
+	}
+
+	/**
+	 * Registers the evaluation result of the given ECL expression.
+	 *
+	 * @param context
+	 * @param ecl - the ECL expression
+	 * @param expressionForm - the expression form the ECL was evaluated in
+	 * @param ids - the result of the evaluation
+	 * @return an immutable copy of the given ID set that is now stored in the cache
+	 */
+	public Set<String> put(BranchContext context, String ecl, String expressionForm, Set<String> ids) {
+		checkArgument(canCache(context), "ECL evaluation results cannot be cached on path '%s'.", context.path());
+		final Set<String> result = ImmutableSet.copyOf(ids);
+		cache.put(new Key(context, ecl, expressionForm), result);
+		return result;
+	}
+
+	/**
+	 * Invalidates all cached results of the branch the commit was made on, including the results of its child branches.
+	 *
+	 * @param notification
+	 */
+	public void onCommit(RepositoryCommitNotification notification) {
+		final String repositoryId = notification.getRepositoryId();
+		final String branchPath = notification.getBranchPath();
+		if (branchPath == null) {
+			return;
+		}
+		final String childPathPrefix = branchPath + Branch.SEPARATOR;
+		cache.asMap().keySet().removeIf(key -> key.repositoryId.equals(repositoryId)
+				&& (key.path.equals(branchPath) || key.path.startsWith(childPathPrefix)));
+	}
+
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Registers the hit, miss, eviction and size metrics of this cache in the given registry.
+	 *
+	 * @param registry
+	 */
+	public void bindTo(MeterRegistry registry) {
+		GuavaCacheMetrics.monitor(registry, cache, "ecl");
+	}
+
+	private static final class Key {
+
+		private final String repositoryId;
+		private final String path;
+		private final long baseTimestamp;
+		private final long headTimestamp;
+		private final String expressionForm;
+		private final String ecl;
+
+		Key(BranchContext context, String ecl, String expressionForm) {
+			final Branch branch = context.branch();
+			this.repositoryId = context.id();
+			this.path = branch.path();
+			this.baseTimestamp = branch.baseTimestamp();
+			this.headTimestamp = branch.headTimestamp();
+			this.expressionForm = expressionForm;
+			this.ecl = ecl;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(repositoryId, path, baseTimestamp, headTimestamp, expressionForm, ecl);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (obj == null || getClass() != obj.getClass()) return false;
+			final Key other = (Key) obj;
+			return baseTimestamp == other.baseTimestamp
+					&& headTimestamp == other.headTimestamp
+					&& Objects.equals(repositoryId, other.repositoryId)
+					&& Objects.equals(path, other.path)
+					&& Objects.equals(expressionForm, other.expressionForm)
+					&& Objects.equals(ecl, other.ecl);
+		}
+
+	}
+
+}
@@ -16,11 +16,11 @@
 package com.b2international.snowowl.snomed.core.ecl;
 
 import static com.google.common.collect.Lists.newArrayListWithCapacity;
-import static com.google.common.collect.Sets.newHashSet;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
@@ -30,7 +30,6 @@ import com.b2international.index.query.Expression;
 import com.b2international.index.query.Expressions;
 import com.b2international.index.query.Query;
 import com.b2international.index.revision.RevisionSearcher;
-import com.b2international.snowowl.core.api.SnowowlRuntimeException;
 import com.b2international.snowowl.core.domain.BranchContext;
 import com.b2international.snowowl.core.events.util.Promise;
 import com.b2international.snowowl.core.repository.RevisionDocument;
@@ -57,6 +56,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.collect.Sets;
 
 /**
  * @since 5.4
@@ -103,29 +103,45 @@ public final class EclExpression {
 	
 	public Promise<Set<String>> resolve(final BranchContext context) {
 		if (promise == null) {
-			RevisionSearcher searcher = context.service(RevisionSearcher.class);
-			promise = resolveToExpression(context)
-				.then(expression -> {
-					// shortcut to extract IDs from the query itself if possible 
-					if (SnomedEclEvaluationRequest.canExtractIds(expression)) {
-						return SnomedEclEvaluationRequest.extractIds(expression);
-					}
-					try {
-						return newHashSet(searcher.search(Query.select(String.class)
-								.from(SnomedConceptDocument.class)
-								.fields(SnomedConceptDocument.Fields.ID)
-								.where(expression)
-								.limit(Integer.MAX_VALUE)
-								.build()));
-						
-					} catch (IOException e) {
-						throw new SnowowlRuntimeException(e);
-					}
-				});
+			final EclEvaluationCache cache = context.optionalService(EclEvaluationCache.class)
+					.filter(c -> c.canCache(context))
+					.orElse(null);
+			if (cache == null) {
+				promise = evaluate(context);
+			} else {
+				// raw expressions are looked up as is, a cache hit does not require parsing the expression
+				final String cacheKey = ecl != null ? ecl : context.service(EclSerializer.class).serialize(expressionConstraint);
+				final Set<String> cachedIds = cache.getIfPresent(context, cacheKey, expressionForm);
+				if (cachedIds != null) {
+					promise = Promise.immediate(cachedIds);
+				} else {
+					promise = evaluate(context).then(ids -> cache.put(context, cacheKey, expressionForm, ids));
+				}
+			}
 		}
 		return promise;
 	}
 	
+	private Promise<Set<String>> evaluate(final BranchContext context) {
+		RevisionSearcher searcher = context.service(RevisionSearcher.class);
+		return resolveToExpression(context)
+			.then(expression -> {
+				// shortcut to extract IDs from the query itself if possible 
+				if (SnomedEclEvaluationRequest.canExtractIds(expression)) {
+					return SnomedEclEvaluationRequest.extractIds(expression);
+				}
+				// stream matching IDs page-by-page instead of loading all hits at once
+				try (Stream<String> ids = searcher.stream(Query.select(String.class)
+						.from(SnomedConceptDocument.class)
+						.fields(SnomedConceptDocument.Fields.ID)
+						.where(expression)
+						.limit(Integer.MAX_VALUE)
+						.build())) {
+					return ids.collect(Collectors.toSet());
+				}
+			});
+	}
+	
 	public Promise<SnomedConcepts> resolveConcepts(final BranchContext context) {
 		if (conceptPromise == null) {
 			String eclToEvaluate;
@@ -147,7 +163,7 @@ public final class EclExpression {
 		if (expressionPromise == null) {
 			SnomedEclEvaluationRequest req = new SnomedEclEvaluationRequest();
 			req.setExpressionForm(expressionForm);
-			if (ecl != null) {
+			if (expressionConstraint == null) {
 				req.setExpression(ecl);
 				expressionPromise = req.execute(context);
 			} else {
@@ -169,6 +185,10 @@ public final class EclExpression {
 		return resolveToExpression(context)
 				.then(it -> {
 					if (!excludedMatches.isEmpty()) {
+						// focus concepts resolved to IDs already, exclude the matches in memory
+						if (SnomedEclEvaluationRequest.canExtractIds(it)) {
+							return SnomedEclEvaluationRequest.matchIdsOrNone().apply(Sets.difference(SnomedEclEvaluationRequest.extractIds(it), excludedMatches));
+						}
 						return Expressions.builder().filter(it).mustNot(RevisionDocument.Expressions.ids(excludedMatches)).build();
 					} else {
 						return it;
@@ -268,6 +288,10 @@ public final class EclExpression {
 		} else {
 			return resolveToExpression(context)
 					.then(left -> {
+						// focus concepts resolved to IDs already, intersect them with the matches in memory
+						if (SnomedEclEvaluationRequest.canExtractIds(left)) {
+							return SnomedEclEvaluationRequest.matchIdsOrNone().apply(Sets.intersection(SnomedEclEvaluationRequest.extractIds(left), matchingIds));
+						}
 						return Expressions.builder()
 								.filter(left)
 								.filter(RevisionDocument.Expressions.ids(matchingIds))
@@ -26,7 +26,11 @@ import static com.google.common.collect.Sets.newHashSet;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
@@ -35,7 +39,10 @@ import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.xtext.util.PolymorphicDispatcher;
 
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongSet;
 import com.b2international.commons.CompareUtils;
+import com.b2international.commons.collect.LongSets;
 import com.b2international.commons.exceptions.NotImplementedException;
 import com.b2international.index.query.Expression;
 import com.b2international.index.query.Expressions;
@@ -47,14 +54,18 @@ import com.b2international.snowowl.core.domain.BranchContext;
 import com.b2international.snowowl.core.domain.IComponent;
 import com.b2international.snowowl.core.events.Request;
 import com.b2international.snowowl.core.events.util.Promise;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
 import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
 import com.b2international.snowowl.snomed.core.tree.Trees;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.taxonomy.SnomedHierarchyIndex;
+import com.b2international.snowowl.snomed.datastore.taxonomy.TaxonomyGraph;
 import com.b2international.snowowl.snomed.ecl.Ecl;
 import com.b2international.snowowl.snomed.ecl.ecl.*;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Sets;
 
 /**
  * Evaluates the given ECL expression {@link String} or parsed {@link ExpressionConstraint} to an executable {@link Expression query expression}.
@@ -69,6 +80,9 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 
 	private static final long serialVersionUID = 5891665196136989183L;
 	
+	/*The maximum number of descendant IDs resolved from the hierarchy index that are sent to the index as an ID filter*/
+	private static final int MAX_HIERARCHY_ID_FILTER_SIZE = 1_000;
+	
 	private final PolymorphicDispatcher<Promise<Expression>> dispatcher = PolymorphicDispatcher.createForSingleTarget("eval", 2, 2, this);
 
 	@Nullable
@@ -157,12 +171,21 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 					.mustNot(parentsExpression(Collections.singleton(IComponent.ROOT_ID)))
 					.build());
 		} else {
+			final Optional<SnomedHierarchyIndex> hierarchyIndex = getHierarchyIndex(context);
 			return evaluate(context, inner)
 					.thenWith(resolveIds(context, inner, expressionForm))
-					.then(ids -> Expressions.builder()
-							.should(parentsExpression(ids))
-							.should(ancestorsExpression(ids))
-							.build());
+					.then(ids -> {
+						final Supplier<Expression> fieldExpression = () -> Expressions.builder()
+								.should(parentsExpression(ids))
+								.should(ancestorsExpression(ids))
+								.build();
+						if (hierarchyIndex.isPresent()) {
+							final LongSet descendantIds = readHierarchy(context, hierarchyIndex.get(), ids, 
+									(graph, nodeIds) -> graph.getAllDescendantNodeIds(nodeIds, getMaxIdFilterSize(ids, Collections.emptySet())));
+							return idsOrFieldExpression(descendantIds, Collections.emptySet(), fieldExpression);
+						}
+						return fieldExpression.get();
+					});
 		}
 	}
 	
@@ -176,13 +199,22 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 		if (isAnyExpression(inner)) {
 			return evaluate(context, inner);
 		} else {
+			final Optional<SnomedHierarchyIndex> hierarchyIndex = getHierarchyIndex(context);
 			return evaluate(context, inner)
 					.thenWith(resolveIds(context, inner, expressionForm))
-					.then(ids -> Expressions.builder()
-							.should(ids(ids))
-							.should(parentsExpression(ids))
-							.should(ancestorsExpression(ids))
-							.build());
+					.then(ids -> {
+						final Supplier<Expression> fieldExpression = () -> Expressions.builder()
+								.should(ids(ids))
+								.should(parentsExpression(ids))
+								.should(ancestorsExpression(ids))
+								.build();
+						if (hierarchyIndex.isPresent()) {
+							final LongSet descendantIds = readHierarchy(context, hierarchyIndex.get(), ids, 
+									(graph, nodeIds) -> graph.getAllDescendantNodeIds(nodeIds, getMaxIdFilterSize(ids, ids)));
+							return idsOrFieldExpression(descendantIds, ids, fieldExpression);
+						}
+						return fieldExpression.get();
+					});
 		}
 	}
 	
@@ -198,9 +230,17 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 					.mustNot(parentsExpression(Collections.singleton(IComponent.ROOT_ID)))
 					.build());
 		} else {
+			final Optional<SnomedHierarchyIndex> hierarchyIndex = getHierarchyIndex(context);
 			return evaluate(context, innerConstraint)
 					.thenWith(resolveIds(context, innerConstraint, expressionForm))
-					.then(ids -> parentsExpression(ids));
+					.then(ids -> {
+						if (hierarchyIndex.isPresent()) {
+							final LongSet childIds = readHierarchy(context, hierarchyIndex.get(), ids, TaxonomyGraph::getDescendantNodeIds);
+							final LongSet boundedChildIds = childIds.size() > getMaxIdFilterSize(ids, Collections.emptySet()) ? null : childIds;
+							return idsOrFieldExpression(boundedChildIds, Collections.emptySet(), () -> parentsExpression(ids));
+						}
+						return parentsExpression(ids);
+					});
 		}
 	}
 	
@@ -209,6 +249,13 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 	 * @see https://confluence.ihtsdotools.org/display/DOCECL/6.1+Simple+Expression+Constraints
 	 */
 	protected Promise<Expression> eval(BranchContext context, final ParentOf parentOf) {
+		final Optional<SnomedHierarchyIndex> hierarchyIndex = getHierarchyIndex(context);
+		if (hierarchyIndex.isPresent()) {
+			return EclExpression.of(parentOf.getConstraint(), expressionForm)
+					.resolve(context)
+					.then(ids -> LongSets.toStringSet(readHierarchy(context, hierarchyIndex.get(), ids, TaxonomyGraph::getAncestorNodeIds)))
+					.then(matchIdsOrNone());
+		}
 		return EclExpression.of(parentOf.getConstraint(), expressionForm)
 				.resolveConcepts(context)
 				.then(concepts -> {
@@ -226,6 +273,13 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 	 * @see https://confluence.ihtsdotools.org/display/DOCECL/6.1+Simple+Expression+Constraints
 	 */
 	protected Promise<Expression> eval(BranchContext context, final AncestorOf ancestorOf) {
+		final Optional<SnomedHierarchyIndex> hierarchyIndex = getHierarchyIndex(context);
+		if (hierarchyIndex.isPresent()) {
+			return EclExpression.of(ancestorOf.getConstraint(), expressionForm)
+					.resolve(context)
+					.then(ids -> LongSets.toStringSet(readHierarchy(context, hierarchyIndex.get(), ids, TaxonomyGraph::getAllAncestorNodeIds)))
+					.then(matchIdsOrNone());
+		}
 		return EclExpression.of(ancestorOf.getConstraint(), expressionForm)
 				.resolveConcepts(context)
 				.then(concepts -> {
@@ -245,9 +299,19 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 	 */
 	protected Promise<Expression> eval(BranchContext context, final AncestorOrSelfOf ancestorOrSelfOf) {
 		final ExpressionConstraint innerConstraint = ancestorOrSelfOf.getConstraint();
+		final Optional<SnomedHierarchyIndex> hierarchyIndex = getHierarchyIndex(context);
 		// >>* should eval to *
 		if (isAnyExpression(innerConstraint)) {
 			return evaluate(context, innerConstraint);
+		} else if (hierarchyIndex.isPresent()) {
+			return EclExpression.of(innerConstraint, expressionForm)
+					.resolve(context)
+					.then(ids -> {
+						final Set<String> ancestorsOrSelf = newHashSet(ids);
+						ancestorsOrSelf.addAll(LongSets.toStringSet(readHierarchy(context, hierarchyIndex.get(), ids, TaxonomyGraph::getAllAncestorNodeIds)));
+						return ancestorsOrSelf;
+					})
+					.then(matchIdsOrNone());
 		} else {
 			return EclExpression.of(innerConstraint, expressionForm)
 					.resolveConcepts(context)
@@ -298,6 +362,11 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 				.then(innerExpressions -> {
 					final Expression left = (Expression) innerExpressions.get(0);
 					final Expression right = (Expression) innerExpressions.get(1);
+					// both sides are resolved to IDs already, intersect them in memory
+					final Expression intersection = evalIds(left, right, Sets::intersection);
+					if (intersection != null) {
+						return intersection;
+					}
 					return Expressions.builder()
 							.filter(left)
 							.filter(right)
@@ -339,6 +408,11 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 				.then(innerExpressions -> {
 					final Expression left = (Expression) innerExpressions.get(0);
 					final Expression right = (Expression) innerExpressions.get(1);
+					// both sides are resolved to IDs already, compute their union in memory
+					final Expression union = evalIds(left, right, Sets::union);
+					if (union != null) {
+						return union;
+					}
 					return Expressions.builder()
 							.should(left)
 							.should(right)
@@ -361,6 +435,11 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 				return evaluate(context, exclusion.getLeft());
 			} else {
 				return evaluate(context, exclusion.getLeft()).then(left -> {
+					// both sides are resolved to IDs already, compute the difference in memory
+					final Expression difference = evalIds(left, right, Sets::difference);
+					if (difference != null) {
+						return difference;
+					}
 					// match left hand side query and not the right hand side query
 					return Expressions.builder().filter(left).mustNot(right).build();
 				});
@@ -447,6 +526,55 @@ final class SnomedEclEvaluationRequest implements Request<BranchContext, Promise
 		};
 	}
 	
+	/*
+	 * Applies the given set operation on the ID sets of two already resolved operands in memory, so only the resulting ID set is sent to the
+	 * index. Returns null if any of the operands is not an ID predicate, in which case the operation should be evaluated by the index.
+	 */
+	/*package*/ static Expression evalIds(Expression left, Expression right, BinaryOperator<Set<String>> operation) {
+		if (!canExtractIds(left) || !canExtractIds(right)) {
+			return null;
+		}
+		return matchIdsOrNone().apply(operation.apply(extractIds(left), extractIds(right)));
+	}
+	
+	/*Returns the in-memory hierarchy index if it is enabled and can serve the branch the request is executed on*/
+	private static Optional<SnomedHierarchyIndex> getHierarchyIndex(BranchContext context) {
+		return context.optionalService(SnomedHierarchyIndex.class)
+				.filter(hierarchyIndex -> hierarchyIndex.canRead(context));
+	}
+	
+	private LongSet readHierarchy(BranchContext context, SnomedHierarchyIndex hierarchyIndex, Set<String> ids, BiFunction<TaxonomyGraph, LongSet, LongSet> reader) {
+		final LongSet nodeIds = PrimitiveSets.newLongOpenHashSetWithExpectedSize(ids.size());
+		for (String id : ids) {
+			try {
+				nodeIds.add(Long.parseLong(id));
+			} catch (NumberFormatException e) {
+				// IDs that are not valid SNOMED CT identifiers can not be part of the hierarchy
+			}
+		}
+		final String characteristicTypeId = Trees.INFERRED_FORM.equals(expressionForm) ? Concepts.INFERRED_RELATIONSHIP : Concepts.STATED_RELATIONSHIP;
+		return hierarchyIndex.read(context, characteristicTypeId, graph -> reader.apply(graph, nodeIds));
+	}
+	
+	/*
+	 * Descendants resolved from the hierarchy index are only sent as an ID filter if it is not larger than the parent/ancestor filter on the focus
+	 * concepts, otherwise (eg. in case of << 404684003) the field based expression is cheaper to evaluate for the index. Returns the maximum number
+	 * of resolved descendants, so larger subtrees are not collected at all.
+	 */
+	private static int getMaxIdFilterSize(Set<String> focusIds, Set<String> selfIds) {
+		return Math.max(focusIds.size(), MAX_HIERARCHY_ID_FILTER_SIZE) - selfIds.size();
+	}
+	
+	/*Returns the ID filter of the resolved descendants, or the field based expression if there were too many of them to be resolved*/
+	private static Expression idsOrFieldExpression(@Nullable LongSet resolvedIds, Set<String> selfIds, Supplier<Expression> fieldExpression) {
+		if (resolvedIds == null) {
+			return fieldExpression.get();
+		}
+		final Set<String> ids = newHashSet(selfIds);
+		ids.addAll(LongSets.toStringSet(resolvedIds));
+		return matchIdsOrNone().apply(ids);
+	}
+	
 	private Expression parentsExpression(Set<String> ids) {
 		return Trees.INFERRED_FORM.equals(expressionForm) ? SnomedConceptDocument.Expressions.parents(ids) : SnomedConceptDocument.Expressions.statedParents(ids);
 	}
@@ -144,6 +144,11 @@ final class SnomedEclRefinementEvaluator {
 				.then(input -> {
 					final Expression left = (Expression) input.get(0);
 					final Expression right = (Expression) input.get(1);
+					// both sides are resolved to IDs already, intersect them in memory
+					final Expression intersection = SnomedEclEvaluationRequest.evalIds(left, right, Sets::intersection);
+					if (intersection != null) {
+						return intersection;
+					}
 					return Expressions.builder().filter(left).filter(right).build();
 				});
 	}
@@ -157,6 +162,11 @@ final class SnomedEclRefinementEvaluator {
 				.then(input -> {
 					final Expression left = (Expression) input.get(0);
 					final Expression right = (Expression) input.get(1);
+					// both sides are resolved to IDs already, compute their union in memory
+					final Expression union = SnomedEclEvaluationRequest.evalIds(left, right, Sets::union);
+					if (union != null) {
+						return union;
+					}
 					return Expressions.builder().should(left).should(right).build();
 				});
 	}
@@ -44,6 +44,12 @@ public class SnomedCoreConfiguration {
 	public static final int DEFAULT_MAXIMUM_REASONER_COUNT = 2;
 	public static final int DEFAULT_MAXIMUM_REASONER_RESULTS = 10;
 	public static final int DEFAULT_MAXIMUM_REASONER_RUNS = 1000;
+	public static final int DEFAULT_MAXIMUM_HIERARCHY_INDEX_BRANCHES = 0;
+	public static final int DEFAULT_MAXIMUM_REASONER_TAXONOMY_BRANCHES = 0;
+	public static final int DEFAULT_CLASSIFICATION_CHANGE_BATCH_SIZE = 10_000;
+	public static final long DEFAULT_MAXIMUM_ECL_CACHE_SIZE = 2_000_000L;
+	public static final long DEFAULT_MAXIMUM_METADATA_CONCEPT_CACHE_SIZE = 10_000L;
+	public static final int DEFAULT_MAXIMUM_CONCEPT_EXPANSION_THREADS = 4;
 	public static final String DEFAULT_NAMESPACE = ""; //$NON-NLS-1$
 	public static final String DEFAULT_MODULE = Concepts.MODULE_SCT_CORE;
 	
@@ -59,6 +65,30 @@ public class SnomedCoreConfiguration {
 	@Max(1_000_000)
 	private int maxReasonerRuns = DEFAULT_MAXIMUM_REASONER_RUNS;
 	
+	@Min(0)
+	@Max(100)
+	private int maxHierarchyIndexBranches = DEFAULT_MAXIMUM_HIERARCHY_INDEX_BRANCHES;
+	
+	@Min(0)
+	@Max(100)
+	private int maxReasonerTaxonomyBranches = DEFAULT_MAXIMUM_REASONER_TAXONOMY_BRANCHES;
+	
+	@Min(100)
+	@Max(1_000_000)
+	private int classificationChangeBatchSize = DEFAULT_CLASSIFICATION_CHANGE_BATCH_SIZE;
+	
+	private boolean refreshClassificationChangeBatches = false;
+	
+	@Min(0)
+	private long maxEclCacheSize = DEFAULT_MAXIMUM_ECL_CACHE_SIZE;
+	
+	@Min(0)
+	private long maxMetadataConceptCacheSize = DEFAULT_MAXIMUM_METADATA_CONCEPT_CACHE_SIZE;
+	
+	@Min(0)
+	@Max(64)
+	private int maxConceptExpansionThreads = DEFAULT_MAXIMUM_CONCEPT_EXPANSION_THREADS;
+	
 	@NotEmpty
 	private String defaultReasoner = DEFAULT_REASONER;
 	
@@ -149,6 +179,108 @@ public class SnomedCoreConfiguration {
 		this.maxReasonerRuns = maxReasonerRuns;
 	}
 	
+	/**
+	 * @return the number of branches whose IS A hierarchy is kept in memory for evaluating hierarchical ECL operators and descendant expansions.
+	 *         Both the inferred and the stated hierarchy of an International Edition sized branch can be kept, each occupying tens of megabytes of
+	 *         heap for up to an hour after its last use, so the index is disabled by default (<code>0</code>) and all hierarchical operators are
+	 *         evaluated by the index. Enable it only when the heap is sized accordingly.
+	 */
+	@JsonProperty
+	public int getMaxHierarchyIndexBranches() {
+		return maxHierarchyIndexBranches;
+	}
+	
+	@JsonProperty
+	public void setMaxHierarchyIndexBranches(int maxHierarchyIndexBranches) {
+		this.maxHierarchyIndexBranches = maxHierarchyIndexBranches;
+	}
+	
+	/**
+	 * @return the number of branches whose reasoner input taxonomy is kept in memory between classifications, so subsequent classifications
+	 *         only need to load the changes made since. Each cached taxonomy of an International Edition sized branch occupies several hundred
+	 *         megabytes of heap for up to an hour after its last use, so the cache is disabled by default (<code>0</code>) and every
+	 *         classification loads its input from the index. Enable it only when the heap is sized accordingly.
+	 */
+	@JsonProperty
+	public int getMaxReasonerTaxonomyBranches() {
+		return maxReasonerTaxonomyBranches;
+	}
+	
+	@JsonProperty
+	public void setMaxReasonerTaxonomyBranches(int maxReasonerTaxonomyBranches) {
+		this.maxReasonerTaxonomyBranches = maxReasonerTaxonomyBranches;
+	}
+	
+	/**
+	 * @return the number of inferred relationship and concrete domain member changes kept in memory while a classification is running,
+	 *         before they are written to the index.
+	 */
+	@JsonProperty
+	public int getClassificationChangeBatchSize() {
+		return classificationChangeBatchSize;
+	}
+	
+	@JsonProperty
+	public void setClassificationChangeBatchSize(int classificationChangeBatchSize) {
+		this.classificationChangeBatchSize = classificationChangeBatchSize;
+	}
+	
+	/**
+	 * @return whether each batch of classification changes should be made searchable as soon as it is written. When <code>false</code>
+	 *         (the default), the changes are refreshed once, when the classification completes.
+	 */
+	@JsonProperty
+	public boolean isRefreshClassificationChangeBatches() {
+		return refreshClassificationChangeBatches;
+	}
+	
+	@JsonProperty
+	public void setRefreshClassificationChangeBatches(boolean refreshClassificationChangeBatches) {
+		this.refreshClassificationChangeBatches = refreshClassificationChangeBatches;
+	}
+	
+	/**
+	 * @return the total number of concept IDs kept in memory across all cached ECL evaluation results. <code>0</code> disables the ECL
+	 *         evaluation result cache.
+	 */
+	@JsonProperty
+	public long getMaxEclCacheSize() {
+		return maxEclCacheSize;
+	}
+	
+	@JsonProperty
+	public void setMaxEclCacheSize(long maxEclCacheSize) {
+		this.maxEclCacheSize = maxEclCacheSize;
+	}
+	
+	/**
+	 * @return the number of converted metadata concepts (modules, definition statuses) kept in memory across all branches. <code>0</code>
+	 *         disables the metadata concept cache.
+	 */
+	@JsonProperty
+	public long getMaxMetadataConceptCacheSize() {
+		return maxMetadataConceptCacheSize;
+	}
+	
+	@JsonProperty
+	public void setMaxMetadataConceptCacheSize(long maxMetadataConceptCacheSize) {
+		this.maxMetadataConceptCacheSize = maxMetadataConceptCacheSize;
+	}
+	
+	/**
+	 * @return the number of threads shared by all requests to run the expansions of converted concepts concurrently. <code>0</code> runs
+	 *         expansions sequentially on the thread of the request.
+	 */
+	@JsonProperty
+	public int getMaxConceptExpansionThreads() {
+		return maxConceptExpansionThreads;
+	}
+	
+	@JsonProperty
+	public void setMaxConceptExpansionThreads(int maxConceptExpansionThreads) {
+		this.maxConceptExpansionThreads = maxConceptExpansionThreads;
+	}
+	
 	/**
 	 * @return the currently set default reasoner ID 
 	 */
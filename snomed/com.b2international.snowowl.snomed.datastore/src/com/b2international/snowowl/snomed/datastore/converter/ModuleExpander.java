@@ -25,7 +25,6 @@ import com.b2international.commons.options.Options;
 import com.b2international.snowowl.core.domain.BranchContext;
 import com.b2international.snowowl.snomed.core.domain.SnomedComponent;
 import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
-import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
 
 /**
  * @since 7.4
@@ -48,15 +47,7 @@ final class ModuleExpander {
 
 			final Set<String> moduleIds = results.stream().map(SnomedComponent::getModuleId).collect(Collectors.toSet());
 			
-			final Map<String, SnomedConcept> modulesById = SnomedRequests.prepareSearchConcept()
-				.all()
-				.filterByIds(moduleIds)
-				.setExpand(moduleOptions.getOptions("expand"))
-				.setLocales(locales)
-				.build()
-				.execute(context)
-				.stream()
-				.collect(Collectors.toMap(SnomedConcept::getId, c -> c));
+			final Map<String, SnomedConcept> modulesById = SnomedMetadataConceptCache.resolve(context, moduleIds, moduleOptions.getOptions("expand"), locales);
 			
 			for (SnomedComponent component : results) {
 				component.setModule(modulesById.get(component.getModuleId()));
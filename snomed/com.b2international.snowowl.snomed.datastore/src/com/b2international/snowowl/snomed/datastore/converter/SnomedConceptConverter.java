@@ -20,15 +20,22 @@ import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import com.b2international.commons.http.ExtendedLocale;
 import com.b2international.commons.options.Options;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
 import com.b2international.snowowl.core.domain.BranchContext;
 import com.b2international.snowowl.core.domain.IComponent;
+import com.b2international.snowowl.core.events.util.ResponseHeaders;
 import com.b2international.snowowl.core.request.BaseRevisionResourceConverter;
 import com.b2international.snowowl.core.request.DescendantsExpander;
 import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
@@ -45,18 +52,26 @@ import com.b2international.snowowl.snomed.datastore.SnomedDescriptionUtils;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
 import com.google.common.base.Functions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.TreeMultimap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * @since 4.5
  */
 final class SnomedConceptConverter extends BaseRevisionResourceConverter<SnomedConceptDocument, SnomedConcept, SnomedConcepts> {
 
+	private static final String MEMBERS = "members";
+	private static final String SERVER_TIMING_HEADER = "Server-Timing";
+	
+	private static final ThreadLocal<Boolean> EXPANSION_THREAD = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
 	private SnomedReferenceSetConverter referenceSetConverter;
 	
 	SnomedConceptConverter(final BranchContext context, Options expand, List<ExtendedLocale> locales) {
@@ -135,24 +150,28 @@ final class SnomedConceptConverter extends BaseRevisionResourceConverter<SnomedC
 		
 		final Set<String> conceptIds = FluentIterable.from(results).transform(SnomedConcept::getId).toSet();
 		
-		expandReferenceSet(results);
-		new InactivationPropertiesExpander(context(), expand(), locales(), Concepts.REFSET_CONCEPT_INACTIVITY_INDICATOR).expand(results, conceptIds);
-		new MembersExpander(context(), expand(), locales()).expand(results, conceptIds);
-		new ModuleExpander(context(), expand(), locales()).expand(results);
-		expandDefinitionStatus(results);
+		// expansions set different properties of the results, so they can be computed independently of each other
+		final Map<String, Runnable> expansions = new LinkedHashMap<>();
+		expansions.put(SnomedConcept.Expand.REFERENCE_SET, () -> expandReferenceSet(results));
+		expansions.put(SnomedConcept.Expand.INACTIVATION_PROPERTIES, () -> new InactivationPropertiesExpander(context(), expand(), locales(), Concepts.REFSET_CONCEPT_INACTIVITY_INDICATOR).expand(results, conceptIds));
+		expansions.put(MEMBERS, () -> new MembersExpander(context(), expand(), locales()).expand(results, conceptIds));
+		expansions.put(SnomedConcept.Expand.MODULE, () -> new ModuleExpander(context(), expand(), locales()).expand(results));
+		expansions.put(SnomedConcept.Expand.DEFINITION_STATUS, () -> expandDefinitionStatus(results));
 		
-		expandPreferredTerm(results, conceptIds);
-		expandFullySpecifiedName(results, conceptIds);
-		expandDescriptions(results, conceptIds);
+		expansions.put(SnomedConcept.Expand.PREFERRED_TERM, () -> expandPreferredTerm(results, conceptIds));
+		expansions.put(SnomedConcept.Expand.FULLY_SPECIFIED_NAME, () -> expandFullySpecifiedName(results, conceptIds));
+		expansions.put(SnomedConcept.Expand.DESCRIPTIONS, () -> expandDescriptions(results, conceptIds));
 		
-		expandRelationships(results, conceptIds);
-		expandInboundRelationships(results, conceptIds);
+		expansions.put(SnomedConcept.Expand.RELATIONSHIPS, () -> expandRelationships(results, conceptIds));
+		expansions.put(SnomedConcept.Expand.INBOUND_RELATIONSHIPS, () -> expandInboundRelationships(results, conceptIds));
 		
-		new SnomedDescendantsExpander(context(), expand(), locales(), SnomedConcept.Expand.DESCENDANTS).expand(results, conceptIds);
-		new SnomedDescendantsExpander(context(), expand(), locales(), SnomedConcept.Expand.STATED_DESCENDANTS).expand(results, conceptIds);
-		expandAncestors(results, conceptIds, SnomedConcept.Expand.ANCESTORS, false);
-		expandAncestors(results, conceptIds, SnomedConcept.Expand.STATED_ANCESTORS, true);
+		expansions.put(SnomedConcept.Expand.DESCENDANTS, () -> new SnomedDescendantsExpander(context(), expand(), locales(), SnomedConcept.Expand.DESCENDANTS).expand(results, conceptIds));
+		expansions.put(SnomedConcept.Expand.STATED_DESCENDANTS, () -> new SnomedDescendantsExpander(context(), expand(), locales(), SnomedConcept.Expand.STATED_DESCENDANTS).expand(results, conceptIds));
+		expansions.put(SnomedConcept.Expand.ANCESTORS, () -> expandAncestors(results, conceptIds, SnomedConcept.Expand.ANCESTORS, false));
+		expansions.put(SnomedConcept.Expand.STATED_ANCESTORS, () -> expandAncestors(results, conceptIds, SnomedConcept.Expand.STATED_ANCESTORS, true));
 		
+		expansions.keySet().retainAll(expand().keySet());
+		runExpansions(expansions);
 		
 		// XXX make sure we set the preferred descriptions field to null if the client did not explicitly request it
 		// it is necessary to expand this field for pt and fsn expand, but do not increase the payload unnecessarily
@@ -163,6 +182,59 @@ final class SnomedConceptConverter extends BaseRevisionResourceConverter<SnomedC
 		}
 	}
 
+	/*
+	 * Runs the given expansions concurrently (if the expansion executor is available) and reports the time spent in each in the Server-Timing
+	 * response header. Expansions of nested conversions (eg. the concepts returned by the descendants expansion) are already running on an
+	 * expansion thread, they are computed sequentially to avoid waiting for tasks queued behind them on the same executor.
+	 */
+	private void runExpansions(final Map<String, Runnable> expansions) {
+		final Map<String, Long> elapsedNanosByExpansion = new ConcurrentHashMap<>();
+		
+		final boolean nested = EXPANSION_THREAD.get();
+		final Optional<SnomedConceptExpansionExecutor> executor = context().optionalService(SnomedConceptExpansionExecutor.class);
+		
+		if (expansions.size() < 2 || nested || executor.isEmpty()) {
+			expansions.forEach((key, expansion) -> elapsedNanosByExpansion.put(key, measure(expansion)));
+		} else {
+			final List<ListenableFuture<?>> futures = newArrayList();
+			expansions.forEach((key, expansion) -> futures.add(executor.get().submit(() -> {
+				EXPANSION_THREAD.set(true);
+				try {
+					elapsedNanosByExpansion.put(key, measure(expansion));
+				} finally {
+					EXPANSION_THREAD.set(false);
+				}
+			})));
+			
+			try {
+				Futures.allAsList(futures).get();
+			} catch (InterruptedException e) {
+				futures.forEach(future -> future.cancel(true));
+				Thread.currentThread().interrupt();
+				throw new SnowowlRuntimeException(e);
+			} catch (ExecutionException e) {
+				futures.forEach(future -> future.cancel(true));
+				Throwables.throwIfUnchecked(e.getCause());
+				throw new SnowowlRuntimeException(e.getCause());
+			}
+		}
+		
+		// response headers are not thread-safe, only the top-level conversion reports its timing
+		if (!nested && !elapsedNanosByExpansion.isEmpty()) {
+			context().optionalService(ResponseHeaders.class).ifPresent(headers -> headers.set(SERVER_TIMING_HEADER, expansions.keySet()
+					.stream()
+					.filter(elapsedNanosByExpansion::containsKey)
+					.map(key -> String.format(Locale.ENGLISH, "expand-%s;dur=%.1f", key, elapsedNanosByExpansion.get(key) / 1_000_000.0))
+					.collect(Collectors.joining(", "))));
+		}
+	}
+	
+	private static long measure(Runnable expansion) {
+		final long start = System.nanoTime();
+		expansion.run();
+		return System.nanoTime() - start;
+	}
+	
 	private void expandDefinitionStatus(List<SnomedConcept> results) {
 		if (!expand().containsKey(SnomedConcept.Expand.DEFINITION_STATUS)) {
 			return;
@@ -174,15 +246,7 @@ final class SnomedConceptConverter extends BaseRevisionResourceConverter<SnomedC
 				.map(SnomedConcept::getDefinitionStatusId)
 				.collect(Collectors.toSet());
 		
-		Map<String, SnomedConcept> definitionStatusesById = SnomedRequests.prepareSearchConcept()
-			.filterByIds(definitionStatusIds)
-			.setLimit(definitionStatusIds.size())
-			.setExpand(definitionStatusExpand)
-			.setLocales(locales())
-			.build()
-			.execute(context())
-			.stream()
-			.collect(Collectors.toMap(SnomedConcept::getId, c -> c));
+		Map<String, SnomedConcept> definitionStatusesById = SnomedMetadataConceptCache.resolve(context(), definitionStatusIds, definitionStatusExpand, locales());
 		
 		for (SnomedConcept result : results) {
 			result.setDefinitionStatus(definitionStatusesById.get(result.getDefinitionStatusId()));
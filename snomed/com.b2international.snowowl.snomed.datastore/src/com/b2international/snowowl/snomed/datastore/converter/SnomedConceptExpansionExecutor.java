@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.converter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.b2international.snowowl.core.IDisposableService;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs the expansions of a single concept conversion concurrently. The number of threads and the number of waiting expansions are both
+ * bounded. When all threads are busy and the queue is full, the expansion runs on the thread of the request submitting it, which slows
+ * down the requests producing expansions instead of accumulating them in memory.
+ *
+ * @since 7.14
+ */
+public final class SnomedConceptExpansionExecutor implements IDisposableService {
+
+	private static final int QUEUED_EXPANSIONS_PER_THREAD = 16;
+	private static final long KEEP_ALIVE_SECONDS = 60L;
+
+	private final ListeningExecutorService executor;
+
+	public SnomedConceptExpansionExecutor(int maxThreads) {
+		checkArgument(maxThreads > 0, "Maximum number of expansion threads must be positive, got: %s", maxThreads);
+		final ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads,
+				maxThreads,
+				KEEP_ALIVE_SECONDS,
+				TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(maxThreads * QUEUED_EXPANSIONS_PER_THREAD),
+				new ThreadFactoryBuilder()
+					.setNameFormat("snomed-concept-expansion-%d")
+					.setDaemon(true)
+					.build(),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		pool.allowCoreThreadTimeOut(true);
+		this.executor = MoreExecutors.listeningDecorator(pool);
+	}
+
+	/**
+	 * Submits the given expansion for execution.
+	 *
+	 * @param expansion
+	 * @return a future completing when the expansion finishes
+	 */
+	public ListenableFuture<?> submit(Runnable expansion) {
+		return executor.submit(expansion);
+	}
+
+	@Override
+	public void dispose() {
+		executor.shutdownNow();
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return executor.isShutdown();
+	}
+
+}
@@ -21,34 +21,47 @@ import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedCon
 import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument.Expressions.statedParents;
 import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedDocument.Expressions.active;
 import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
 import static com.google.common.collect.Sets.newHashSet;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
-import com.b2international.commons.collect.LongSets;
+import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongIterator;
+import com.b2international.collections.longs.LongSet;
 import com.b2international.commons.http.ExtendedLocale;
 import com.b2international.commons.options.Options;
 import com.b2international.index.Hits;
+import com.b2international.index.query.Expression;
 import com.b2international.index.query.Expressions;
 import com.b2international.index.query.Expressions.ExpressionBuilder;
 import com.b2international.index.query.Query;
+import com.b2international.index.query.SortBy;
+import com.b2international.index.query.SortBy.Order;
 import com.b2international.index.revision.RevisionSearcher;
 import com.b2international.snowowl.core.api.SnowowlRuntimeException;
 import com.b2international.snowowl.core.domain.BranchContext;
 import com.b2international.snowowl.core.request.DescendantsExpander;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
 import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
 import com.b2international.snowowl.snomed.core.domain.SnomedConcepts;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
+import com.b2international.snowowl.snomed.datastore.taxonomy.SnomedHierarchyIndex;
+import com.b2international.snowowl.snomed.datastore.taxonomy.TaxonomyGraph;
 import com.google.common.base.Functions;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.TreeMultimap;
+import com.google.common.collect.MinMaxPriorityQueue;
+import com.google.common.collect.Ordering;
 
 /**
  * @since 7.7
@@ -66,82 +79,33 @@ public final class SnomedDescendantsExpander extends DescendantsExpander<SnomedC
 	protected void expand(List<SnomedConcept> results, final Set<String> conceptIds, Options descendantExpandOptions, boolean direct) {
 		try {
 			
-			final ExpressionBuilder expression = Expressions.builder();
-			expression.filter(active());
-			final ExpressionBuilder descendantFilter = Expressions.builder();
-			if (stated) {
-				descendantFilter.should(statedParents(conceptIds));
-				if (!direct) {
-					descendantFilter.should(statedAncestors(conceptIds));
-				}
+			final int limit = getLimit(descendantExpandOptions);
+			
+			// count descendants per concept and collect the IDs of the first page only, descendant documents are not loaded
+			final Map<String, Integer> descendantCounts = newHashMapWithExpectedSize(conceptIds.size());
+			final ListMultimap<String, String> descendantIdsByAncestor = ArrayListMultimap.create();
+			final Optional<SnomedHierarchyIndex> hierarchyIndex = context().optionalService(SnomedHierarchyIndex.class)
+					.filter(index -> index.canRead(context()));
+			if (hierarchyIndex.isPresent()) {
+				readDescendants(hierarchyIndex.get(), conceptIds, direct, limit, descendantCounts, descendantIdsByAncestor);
 			} else {
-				descendantFilter.should(parents(conceptIds));
-				if (!direct) {
-					descendantFilter.should(ancestors(conceptIds));
+				for (String conceptId : conceptIds) {
+					searchDescendants(conceptId, direct, limit, descendantCounts, descendantIdsByAncestor);
 				}
 			}
-			expression.filter(descendantFilter.build());
 			
-			final Query<SnomedConceptDocument> query = Query.select(SnomedConceptDocument.class)
-					.where(expression.build())
-					.limit(Integer.MAX_VALUE)
-					.build();
-			
-			final RevisionSearcher searcher = context().service(RevisionSearcher.class);
-			final Hits<SnomedConceptDocument> hits = searcher.search(query);
-			
-			if (hits.getTotal() < 1) {
+			if (descendantCounts.values().stream().allMatch(count -> count < 1)) {
 				final SnomedConcepts descendants = new SnomedConcepts(0, 0);
 				for (SnomedConcept concept : results) {
-					if (stated) {
-						concept.setStatedDescendants(descendants);
-					} else {
-						concept.setDescendants(descendants);
-					}
-				}
-				return;
-			}
-			
-			// in case of only one match and limit zero, use shortcut instead of loading all IDs and components
-			// XXX won't work if number of results is greater than one, either use custom ConceptSearch or figure out how to expand descendants effectively
-			final int limit = getLimit(descendantExpandOptions);
-			if (conceptIds.size() == 1 && limit == 0) {
-				for (SnomedConcept concept : results) {
-					final SnomedConcepts descendants = new SnomedConcepts(0, hits.getTotal());
-					if (stated) {
-						concept.setStatedDescendants(descendants);
-					} else {
-						concept.setDescendants(descendants);
-					}
+					setDescendants(concept, descendants);
 				}
 				return;
 			}
 			
-			final Multimap<String, String> descendantsByAncestor = TreeMultimap.create();
-			for (SnomedConceptDocument hit : hits) {
-				final Set<String> parentsAndAncestors = newHashSet();
-				if (stated) {
-					parentsAndAncestors.addAll(LongSets.toStringSet(hit.getStatedParents()));
-					if (!direct) {
-						parentsAndAncestors.addAll(LongSets.toStringSet(hit.getStatedAncestors()));
-					}
-				} else {
-					parentsAndAncestors.addAll(LongSets.toStringSet(hit.getParents()));
-					if (!direct) {
-						parentsAndAncestors.addAll(LongSets.toStringSet(hit.getAncestors()));
-					}
-				}
-				
-				parentsAndAncestors.retainAll(conceptIds);
-				for (String ancestor : parentsAndAncestors) {
-					descendantsByAncestor.put(ancestor, hit.getId());
-				}
-			}
-			
-			final Collection<String> componentIds = newHashSet(descendantsByAncestor.values());
+			final Set<String> componentIds = newHashSet(descendantIdsByAncestor.values());
 			
 			if (limit > 0 && !componentIds.isEmpty()) {
-				// query descendants again
+				// query the first page of descendants of each concept
 				final SnomedConcepts descendants = SnomedRequests.prepareSearchConcept()
 						.all()
 						.filterByIds(componentIds)
@@ -153,24 +117,13 @@ public final class SnomedDescendantsExpander extends DescendantsExpander<SnomedC
 				final Map<String, SnomedConcept> descendantsById = newHashMap();
 				descendantsById.putAll(Maps.uniqueIndex(descendants, SnomedConcept::getId));
 				for (SnomedConcept concept : results) {
-					final Collection<String> descendantIds = descendantsByAncestor.get(concept.getId());
-					final List<SnomedConcept> currentDescendants = FluentIterable.from(descendantIds).limit(limit).transform(Functions.forMap(descendantsById)).toList();
-					final SnomedConcepts descendantConcepts = new SnomedConcepts(currentDescendants, null, limit, descendantIds.size());
-					if (stated) {
-						concept.setStatedDescendants(descendantConcepts);
-					} else {
-						concept.setDescendants(descendantConcepts);
-					}
+					final List<String> descendantIds = descendantIdsByAncestor.get(concept.getId());
+					final List<SnomedConcept> currentDescendants = FluentIterable.from(descendantIds).transform(Functions.forMap(descendantsById)).toList();
+					setDescendants(concept, new SnomedConcepts(currentDescendants, null, limit, descendantCounts.getOrDefault(concept.getId(), 0)));
 				}
 			} else {
 				for (SnomedConcept concept : results) {
-					final Collection<String> descendantIds = descendantsByAncestor.get(concept.getId());
-					final SnomedConcepts descendants = new SnomedConcepts(limit, descendantIds.size());
-					if (stated) {
-						concept.setStatedDescendants(descendants);
-					} else {
-						concept.setDescendants(descendants);
-					}
+					setDescendants(concept, new SnomedConcepts(limit, descendantCounts.getOrDefault(concept.getId(), 0)));
 				}
 			}
 			
@@ -178,5 +131,91 @@ public final class SnomedDescendantsExpander extends DescendantsExpander<SnomedC
 			throw SnowowlRuntimeException.wrap(e);
 		}
 	}
+
+	/*Counts descendants of the given concepts using the in-memory hierarchy of the branch, without sending any query to the index*/
+	private void readDescendants(SnomedHierarchyIndex hierarchyIndex, Set<String> conceptIds, boolean direct, int limit, 
+			Map<String, Integer> descendantCounts, ListMultimap<String, String> descendantIdsByAncestor) {
+		final String characteristicTypeId = stated ? Concepts.STATED_RELATIONSHIP : Concepts.INFERRED_RELATIONSHIP;
+		hierarchyIndex.read(context(), characteristicTypeId, graph -> {
+			for (String conceptId : conceptIds) {
+				final LongSet descendantIds = getDescendantNodeIds(graph, conceptId, direct);
+				descendantCounts.put(conceptId, descendantIds.size());
+				if (limit > 0) {
+					final Collection<String> firstPage = createPage(limit);
+					for (final LongIterator iterator = descendantIds.iterator(); iterator.hasNext(); /* empty */) {
+						firstPage.add(Long.toString(iterator.next()));
+					}
+					descendantIdsByAncestor.putAll(conceptId, Ordering.natural().sortedCopy(firstPage));
+				}
+			}
+			return null;
+		});
+	}
+	
+	private static LongSet getDescendantNodeIds(TaxonomyGraph graph, String conceptId, boolean direct) {
+		final long nodeId;
+		try {
+			nodeId = Long.parseLong(conceptId);
+		} catch (NumberFormatException e) {
+			// IDs that are not valid SNOMED CT identifiers can not be part of the hierarchy
+			return PrimitiveSets.newLongOpenHashSet();
+		}
+		if (!graph.containsNode(nodeId)) {
+			return PrimitiveSets.newLongOpenHashSet();
+		}
+		return direct ? graph.getDescendantNodeIds(nodeId) : graph.getAllDescendantNodeIds(nodeId);
+	}
+	
+	/*
+	 * Counts descendants of a single concept with a query that returns the IDs of the first page only. Each concept is counted by its own query,
+	 * as a concept can be a direct and an indirect descendant of the same concept at the same time, and would be counted twice by an aggregation
+	 * on the parent and ancestor fields.
+	 */
+	private void searchDescendants(String conceptId, boolean direct, int limit, 
+			Map<String, Integer> descendantCounts, ListMultimap<String, String> descendantIdsByAncestor) throws IOException {
+		final Query<String> query = Query.select(String.class)
+				.from(SnomedConceptDocument.class)
+				.fields(SnomedConceptDocument.Fields.ID)
+				.where(descendantsOf(Collections.singleton(conceptId), direct))
+				.sortBy(SortBy.field(SnomedConceptDocument.Fields.ID, Order.ASC))
+				.limit(limit)
+				.build();
+		
+		final Hits<String> hits = context().service(RevisionSearcher.class).search(query);
+		descendantCounts.put(conceptId, hits.getTotal());
+		descendantIdsByAncestor.putAll(conceptId, hits.getHits());
+	}
+	
+	/*Keeps the smallest IDs only, in the same order as the ID sort of the index*/
+	private static Collection<String> createPage(int limit) {
+		return MinMaxPriorityQueue.maximumSize(limit).<String>create();
+	}
+	
+	private Expression descendantsOf(Set<String> conceptIds, boolean direct) {
+		final ExpressionBuilder descendantFilter = Expressions.builder();
+		if (stated) {
+			descendantFilter.should(statedParents(conceptIds));
+			if (!direct) {
+				descendantFilter.should(statedAncestors(conceptIds));
+			}
+		} else {
+			descendantFilter.should(parents(conceptIds));
+			if (!direct) {
+				descendantFilter.should(ancestors(conceptIds));
+			}
+		}
+		return Expressions.builder()
+				.filter(active())
+				.filter(descendantFilter.build())
+				.build();
+	}
+	
+	private void setDescendants(SnomedConcept concept, SnomedConcepts descendants) {
+		if (stated) {
+			concept.setStatedDescendants(descendants);
+		} else {
+			concept.setDescendants(descendants);
+		}
+	}
 	
 }
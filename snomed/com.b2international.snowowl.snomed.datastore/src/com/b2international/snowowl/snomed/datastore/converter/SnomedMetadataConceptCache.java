@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.converter;
+
+import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.b2international.commons.http.ExtendedLocale;
+import com.b2international.commons.options.Options;
+import com.b2international.snowowl.core.branch.Branch;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.core.repository.RepositoryCommitNotification;
+import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
+import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+/**
+ * Keeps converted metadata concepts (modules, definition statuses) that are referenced by almost every component in memory, so expanding
+ * them does not require an index round trip on each request. Entries are keyed by repository, branch path, the branch's base and head
+ * timestamps, concept ID, the nested expand options and the requested locales, so a concept is never served once the branch has moved
+ * forward. Entries of a branch (and of its descendants) are dropped eagerly when a commit notification arrives for that branch.
+ * <p>
+ * Cached concepts are shared between requests and must not be modified.
+ *
+ * @since 7.14
+ */
+public final class SnomedMetadataConceptCache {
+
+	private final Cache<Key, SnomedConcept> cache;
+
+	public SnomedMetadataConceptCache(long maximumSize) {
+		this.cache = CacheBuilder.newBuilder()
+				.maximumSize(maximumSize)
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 * @param context
+	 * @return <code>true</code> if concepts converted on the given context can be cached, <code>false</code> if the context points to a
+	 *         historical point of the branch (eg. via a timestamp or base path modifier)
+	 */
+	public boolean canCache(BranchContext context) {
+		return context.branch().path().equals(context.path());
+	}
+
+	/**
+	 * Returns the converted concepts with the given IDs, concepts not converted yet on the current head of the branch are loaded with a
+	 * single search request.
+	 *
+	 * @param context
+	 * @param conceptIds - the IDs of the metadata concepts to return
+	 * @param expand - the expand options to convert the concepts with
+	 * @param locales - the locales to convert the concepts with
+	 * @return the converted concepts by ID, concepts that do not exist on the branch are not included
+	 */
+	public Map<String, SnomedConcept> getConcepts(BranchContext context, Set<String> conceptIds, Options expand, List<ExtendedLocale> locales) {
+		if (!canCache(context)) {
+			return load(context, conceptIds, expand, locales);
+		}
+
+		final Map<String, SnomedConcept> conceptsById = newHashMapWithExpectedSize(conceptIds.size());
+		final Map<String, Key> missingKeys = newHashMapWithExpectedSize(conceptIds.size());
+		for (String conceptId : conceptIds) {
+			final Key key = new Key(context, conceptId, expand, locales);
+			final SnomedConcept concept = cache.getIfPresent(key);
+			if (concept != null) {
+				conceptsById.put(conceptId, concept);
+			} else {
+				missingKeys.put(conceptId, key);
+			}
+		}
+
+		if (!missingKeys.isEmpty()) {
+			load(context, missingKeys.keySet(), expand, locales).forEach((conceptId, concept) -> {
+				cache.put(missingKeys.get(conceptId), concept);
+				conceptsById.put(conceptId, concept);
+			});
+		}
+
+		return conceptsById;
+	}
+
+	/**
+	 * Returns the converted concepts with the given IDs via the cache registered in the context, or by searching for them if the cache is
+	 * disabled.
+	 * 
+	 * @see #getConcepts(BranchContext, Set, Options, List)
+	 */
+	static Map<String, SnomedConcept> resolve(BranchContext context, Set<String> conceptIds, Options expand, List<ExtendedLocale> locales) {
+		return context.optionalService(SnomedMetadataConceptCache.class)
+				.map(cache -> cache.getConcepts(context, conceptIds, expand, locales))
+				.orElseGet(() -> load(context, conceptIds, expand, locales));
+	}
+	
+	private static Map<String, SnomedConcept> load(BranchContext context, Set<String> conceptIds, Options expand, List<ExtendedLocale> locales) {
+		return SnomedRequests.prepareSearchConcept()
+				.all()
+				.filterByIds(conceptIds)
+				.setExpand(expand)
+				.setLocales(locales)
+				.build()
+				.execute(context)
+				.stream()
+				.collect(Collectors.toMap(SnomedConcept::getId, c -> c));
+	}
+
+	/**
+	 * Invalidates all cached concepts of the branch the commit was made on, including the concepts of its child branches.
+	 *
+	 * @param notification
+	 */
+	public void onCommit(RepositoryCommitNotification notification) {
+		final String repositoryId = notification.getRepositoryId();
+		final String branchPath = notification.getBranchPath();
+		if (branchPath == null) {
+			return;
+		}
+		final String childPathPrefix = branchPath + Branch.SEPARATOR;
+		cache.asMap().keySet().removeIf(key -> key.repositoryId.equals(repositoryId)
+				&& (key.path.equals(branchPath) || key.path.startsWith(childPathPrefix)));
+	}
+
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Registers the hit, miss, eviction and size metrics of this cache in the given registry.
+	 *
+	 * @param registry
+	 */
+	public void bindTo(MeterRegistry registry) {
+		GuavaCacheMetrics.monitor(registry, cache, "snomed-metadata-concepts");
+	}
+
+	private static final class Key {
+
+		private final String repositoryId;
+		private final String path;
+		private final long baseTimestamp;
+		private final long headTimestamp;
+		private final String conceptId;
+		private final Options expand;
+		private final List<ExtendedLocale> locales;
+
+		Key(BranchContext context, String conceptId, Options expand, List<ExtendedLocale> locales) {
+			final Branch branch = context.branch();
+			this.repositoryId = context.id();
+			this.path = branch.path();
+			this.baseTimestamp = branch.baseTimestamp();
+			this.headTimestamp = branch.headTimestamp();
+			this.conceptId = conceptId;
+			this.expand = expand;
+			this.locales = locales == null ? null : ImmutableList.copyOf(locales);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(repositoryId, path, baseTimestamp, headTimestamp, conceptId, expand, locales);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (obj == null || getClass() != obj.getClass()) return false;
+			final Key other = (Key) obj;
+			return baseTimestamp == other.baseTimestamp
+					&& headTimestamp == other.headTimestamp
+					&& Objects.equals(repositoryId, other.repositoryId)
+					&& Objects.equals(path, other.path)
+					&& Objects.equals(conceptId, other.conceptId)
+					&& Objects.equals(expand, other.expand)
+					&& Objects.equals(locales, other.locales);
+		}
+
+	}
+
+}
@@ -74,9 +74,8 @@ import com.google.common.collect.ImmutableMap;
 @Script(
 	name="doiFactor", 
 	script=
-	"double interest = params.useDoi ? (doc.doi.value - params.minDoi) / (params.maxDoi - params.minDoi) : 0;"
-	+ "String id = doc.id.value;" 
-	+ "return params.termScores.containsKey(id) ? params.termScores.get(id) + interest : 0.0d;")
+	"double interest = (doc.doi.value - params.minDoi) / (params.maxDoi - params.minDoi);"
+	+ "return _score + interest;")
 @Script(name="doi", script="return doc.doi.value")
 @Script(
 	name="termSort", 
@@ -22,6 +22,7 @@ import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.LongConsumer;
 
 import com.b2international.collections.PrimitiveMaps;
 import com.b2international.collections.PrimitiveSets;
@@ -60,20 +61,23 @@ public final class InternalIdEdges {
 					"Lists are not of equal size (sources: %s, destinations: %s)", sourceSctIds.size(), destinationSctIds.size());
 
 			for (int i = 0; i < sourceSctIds.size(); i++) {
-				final long sourceSctId = Long.parseLong(sourceSctIds.get(i));
-				final long destinationSctId = Long.parseLong(destinationSctIds.get(i));
-				final int sourceId = internalIdMap.getInternalIdChecked(sourceSctId);
-				final int destinationId = internalIdMap.getInternalIdChecked(destinationSctId);
-
-				IntSet destinationsForSource = edges[sourceId];
-				if (destinationsForSource == null) {
-					destinationsForSource = PrimitiveSets.newIntOpenHashSet();
-					edges[sourceId] = destinationsForSource;
-				}
+				addEdge(Long.parseLong(sourceSctIds.get(i)), Long.parseLong(destinationSctIds.get(i)));
+			}
+
+			return this;
+		}
+
+		public Builder addEdge(final long sourceSctId, final long destinationSctId) {
+			final int sourceId = internalIdMap.getInternalIdChecked(sourceSctId);
+			final int destinationId = internalIdMap.getInternalIdChecked(destinationSctId);
 
-				destinationsForSource.add(destinationId);
+			IntSet destinationsForSource = edges[sourceId];
+			if (destinationsForSource == null) {
+				destinationsForSource = PrimitiveSets.newIntOpenHashSet();
+				edges[sourceId] = destinationsForSource;
 			}
 
+			destinationsForSource.add(destinationId);
 			return this;
 		}
 
@@ -97,7 +101,7 @@ public final class InternalIdEdges {
 	private final InternalIdMap internalIdMap;
 	private final int[][] edges;
 	
-	// direct and indirect destinationCaches loaded on demand
+	// direct and indirect destinationCaches loaded on demand, guarded by their own monitor as instances can be shared between classifications
 	private final IntKeyMap<LongSet> directDestinationIdsCache;
 	private final IntKeyMap<LongSet> indirectDestinationIdsCache;
 
@@ -118,19 +122,44 @@ public final class InternalIdEdges {
 			return PrimitiveSets.emptyLongSet();
 		}
 
-		if (direct) {
-			if (!directDestinationIdsCache.containsKey(internalId)) {
-				final int[] destinations = edges[internalId];
-				directDestinationIdsCache.put(internalId, toSctIds(destinations));
+		final IntKeyMap<LongSet> cache = direct ? directDestinationIdsCache : indirectDestinationIdsCache;
+		synchronized (cache) {
+			final LongSet cachedDestinations = cache.get(internalId);
+			if (cachedDestinations != null) {
+				return cachedDestinations;
 			}
-			return directDestinationIdsCache.get(internalId);
+		}
+
+		final LongSet destinations;
+		if (direct) {
+			destinations = toSctIds(edges[internalId]);
 		} else {
-			if (!indirectDestinationIdsCache.containsKey(internalId)) {
-				final BitSet destinations = new BitSet(internalIdMap.size());
-				collectIndirectDestinations(internalId, destinations);
-				indirectDestinationIdsCache.put(internalId, toSctIds(destinations));
-			}
-			return indirectDestinationIdsCache.get(internalId);
+			final BitSet indirectDestinations = new BitSet(internalIdMap.size());
+			collectIndirectDestinations(internalId, indirectDestinations);
+			destinations = toSctIds(indirectDestinations);
+		}
+
+		synchronized (cache) {
+			cache.put(internalId, destinations);
+		}
+		return destinations;
+	}
+
+	/**
+	 * Passes the direct destinations of the given source SCTID to the consumer, without registering them in the destination cache.
+	 * 
+	 * @param key - the source SCTID
+	 * @param consumer - the consumer to receive destination SCTIDs
+	 */
+	public void forEachDirectDestination(final long key, final LongConsumer consumer) {
+		final int internalId = internalIdMap.getInternalId(key);
+		if (internalId == InternalIdMap.NO_INTERNAL_ID) {
+			return;
+		}
+
+		final int[] destinations = edges[internalId];
+		for (int i = 0; i < destinations.length; i++) {
+			consumer.accept(internalIdMap.getSctId(destinations[i]));
 		}
 	}
 
@@ -60,7 +60,7 @@ public final class InternalIdMap {
 			return addAll(longSctIds);
 		}
 
-		private Builder addAll(final LongSet sctIdsToAdd) {
+		public Builder addAll(final LongSet sctIdsToAdd) {
 			sctIdsToAdd.removeAll(sctIdToInternal.keySet());
 
 			for (final LongIterator itr = sctIdsToAdd.iterator(); itr.hasNext(); /*empty*/) {
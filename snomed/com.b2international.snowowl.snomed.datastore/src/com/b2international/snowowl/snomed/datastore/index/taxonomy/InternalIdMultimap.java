@@ -62,7 +62,7 @@ public final class InternalIdMultimap<T> {
 		}
 
 		@SuppressWarnings("unchecked")
-		private Builder<B> putAll(final long key, final Collection<B> values) {
+		public Builder<B> putAll(final long key, final Collection<B> values) {
 			final int internalId = internalIdMap.getInternalIdChecked(key);
 			ImmutableList.Builder<B> itemsForKey = (ImmutableList.Builder<B>) internalIdMultimap.get(internalId);
 			if (itemsForKey == null) {
@@ -27,6 +27,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
+import static com.google.common.collect.Sets.newHashSet;
 import static com.google.common.collect.Sets.newHashSetWithExpectedSize;
 
 import java.util.Collection;
@@ -39,6 +40,7 @@ import java.util.StringTokenizer;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -48,6 +50,7 @@ import com.b2international.collections.PrimitiveLists;
 import com.b2international.collections.PrimitiveMaps;
 import com.b2international.collections.PrimitiveSets;
 import com.b2international.collections.longs.LongCollections;
+import com.b2international.collections.longs.LongIterator;
 import com.b2international.collections.longs.LongKeyMap;
 import com.b2international.collections.longs.LongList;
 import com.b2international.collections.longs.LongSet;
@@ -80,6 +83,7 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimap;
 
 /**
  * Builds a snapshot of the ontology for reasoner input and normal form generation.
@@ -102,6 +106,8 @@ public final class ReasonerTaxonomyBuilder {
 			Concepts.INFERRED_RELATIONSHIP);
 	
 	private static final int SCROLL_LIMIT = 50_000;
+	
+	private static final int PATCH_BATCH_SIZE = 10_000;
 
 	private final Stopwatch stopwatch;
 	private final Set<String> excludedModuleIds;
@@ -155,10 +161,18 @@ public final class ReasonerTaxonomyBuilder {
 	}
 
 	public ReasonerTaxonomyBuilder addActiveConceptIds(final RevisionSearcher searcher) {
+		return addActiveConceptIds(searcher, null);
+	}
+
+	private ReasonerTaxonomyBuilder addActiveConceptIds(final RevisionSearcher searcher, final Collection<String> ids) {
 		entering("Registering active concept IDs using revision searcher");
 
 		final ExpressionBuilder whereExpressionBuilder = Expressions.builder().filter(active());
 		
+		if (ids != null) {
+			whereExpressionBuilder.filter(SnomedConceptDocument.Expressions.ids(ids));
+		}
+
 		if (!excludedModuleIds.isEmpty()) {
 			whereExpressionBuilder.mustNot(modules(excludedModuleIds));
 		}
@@ -244,6 +258,198 @@ public final class ReasonerTaxonomyBuilder {
 		return this;
 	}
 	
+	/**
+	 * Registers the content of a taxonomy built on an earlier state of the same branch, then reloads the state of changed concepts from the
+	 * index. Use it instead of the methods that scan all components with a {@link RevisionSearcher}; {@link #build()} can be called right after
+	 * this method returns.
+	 * <p>
+	 * The stated IS A edges and OWL axioms of a concept are only registered if their destination is active. Concepts whose statements point to
+	 * a concept that has been activated or inactivated in the meantime are therefore reloaded as well. Concrete domain members are reloaded
+	 * for all reloaded concepts and for the given relationships. "Never grouped" type IDs are always loaded in full; fully specified names are
+	 * not carried over.
+	 * 
+	 * @param searcher - the searcher to load the current state of changed components with
+	 * @param previous - the taxonomy to start from, without inferences
+	 * @param changedConceptIds - the IDs of concepts that have changed, or had any of their relationships or members changed, since
+	 *                            <code>previous</code> was built
+	 * @param changedRelationshipIds - the IDs of relationships that had any of their members changed since <code>previous</code> was built
+	 * @param concreteDomainSupported - whether concrete domain members should be registered
+	 * @return this builder
+	 * @since 7.14
+	 */
+	public ReasonerTaxonomyBuilder addTaxonomy(final RevisionSearcher searcher, 
+			final ReasonerTaxonomy previous,
+			final Set<String> changedConceptIds,
+			final Set<String> changedRelationshipIds,
+			final boolean concreteDomainSupported) {
+		
+		checkState(conceptMap != null, "finishConcepts() method was already called on taxonomy builder.");
+		entering("Registering previous taxonomy with changes using revision searcher");
+		
+		// Keep unchanged concepts, register changed concepts only if they are still active
+		final InternalIdMap previousConceptMap = previous.getConceptMap();
+		final LongSet changedConcepts = toLongSet(changedConceptIds);
+		conceptMap.addAll(getUnchangedConceptIds(previousConceptMap, changedConcepts));
+		definedConceptMap.addAll(getUnchangedConceptIds(previous.getDefinedConceptMap(), changedConcepts));
+		for (final List<String> batch : Iterables.partition(changedConceptIds, PATCH_BATCH_SIZE)) {
+			addActiveConceptIds(searcher, batch);
+		}
+		finishConcepts();
+		
+		final Set<String> reloadedConceptIds = newHashSet(changedConceptIds);
+		final List<String> activatedOrInactivatedConceptIds = changedConceptIds.stream()
+				.filter(conceptId -> builtConceptMap.containsKey(conceptId) != previousConceptMap.containsKey(conceptId))
+				.collect(Collectors.toList());
+		for (final List<String> batch : Iterables.partition(activatedOrInactivatedConceptIds, PATCH_BATCH_SIZE)) {
+			addReferringConceptIds(searcher, batch, reloadedConceptIds);
+		}
+		
+		// Copy everything else from the previous taxonomy
+		final LongSet reloadedConcepts = toLongSet(reloadedConceptIds);
+		final LongSet exhaustiveIds = PrimitiveSets.newLongOpenHashSet();
+		
+		for (final LongIterator itr = builtConceptMap.getSctIds(); itr.hasNext(); /* empty */) {
+			final long conceptId = itr.next();
+			if (reloadedConcepts.contains(conceptId)) {
+				continue;
+			}
+			
+			if (previous.getExhaustiveConcepts().contains(conceptId)) {
+				exhaustiveIds.add(conceptId);
+			}
+			
+			previous.getStatedAncestors().forEachDirectDestination(conceptId, destinationId -> {
+				if (builtConceptMap.containsKey(destinationId)) {
+					statedAncestors.addEdge(conceptId, destinationId);
+					statedDescendants.addEdge(destinationId, conceptId);
+				}
+			});
+			
+			copyValues(previous.getSubclassOfStatements(), subclassOfStatements, conceptId);
+			copyValues(previous.getEquivalentStatements(), equivalentStatements, conceptId);
+			copyValues(previous.getExistingInferredRelationships(), existingInferredRelationships, conceptId);
+			copyValues(previous.getAdditionalGroupedRelationships(), additionalGroupedRelationships, conceptId);
+			copyValues(previous.getStatedAdditionalAxioms(), statedAdditionalAxioms, conceptId);
+			
+			for (final String expression : previous.getStatedAdditionalAxioms().get(conceptId)) {
+				final StringTokenizer tok = new StringTokenizer(expression.toLowerCase(Locale.ENGLISH), "(): ");
+				try {
+					addPropertyChain(tok.nextToken(), tok);
+				} catch (NoSuchElementException | NumberFormatException e) {
+					// skip
+				}
+			}
+		}
+		
+		exhaustiveConcepts.addAll(exhaustiveIds);
+		
+		final Set<String> reloadedReferencedComponentIds = ImmutableSet.<String>builder()
+				.addAll(reloadedConceptIds)
+				.addAll(changedRelationshipIds)
+				.build();
+		
+		if (concreteDomainSupported) {
+			copyConcreteDomainMembers(previous.getStatedConcreteDomainMembers(), statedConcreteDomainMembers, reloadedReferencedComponentIds);
+			copyConcreteDomainMembers(previous.getInferredConcreteDomainMembers(), inferredConcreteDomainMembers, reloadedReferencedComponentIds);
+			copyConcreteDomainMembers(previous.getAdditionalGroupedConcreteDomainMembers(), additionalGroupedConcreteDomainMembers, reloadedReferencedComponentIds);
+		}
+		
+		// Reload changed concepts and the concepts referring to activated or inactivated concepts
+		for (final List<String> batch : Iterables.partition(reloadedConceptIds, PATCH_BATCH_SIZE)) {
+			addConceptFlags(searcher, batch);
+			addActiveStatedEdges(searcher, batch);
+			addActiveStatedNonIsARelationships(searcher, batch);
+			addActiveInferredRelationships(searcher, batch);
+			addActiveAdditionalGroupedRelationships(searcher, batch);
+			addActiveAxioms(searcher, batch);
+		}
+		
+		addNeverGroupedTypeIds(searcher);
+		
+		if (concreteDomainSupported) {
+			for (final List<String> batch : Iterables.partition(reloadedReferencedComponentIds, PATCH_BATCH_SIZE)) {
+				addActiveConcreteDomainMembers(searcher, batch);
+			}
+		}
+		
+		leaving("Registering previous taxonomy with changes using revision searcher");
+		return this;
+	}
+
+	private static LongSet toLongSet(final Collection<String> sctIds) {
+		final LongSet longSctIds = PrimitiveSets.newLongOpenHashSetWithExpectedSize(sctIds.size());
+		for (final String sctId : sctIds) {
+			longSctIds.add(Long.parseLong(sctId));
+		}
+		return longSctIds;
+	}
+	
+	private static LongSet getUnchangedConceptIds(final InternalIdMap conceptMap, final LongSet changedConcepts) {
+		final LongSet unchangedConceptIds = PrimitiveSets.newLongOpenHashSetWithExpectedSize(conceptMap.size());
+		for (final LongIterator itr = conceptMap.getSctIds(); itr.hasNext(); /* empty */) {
+			final long conceptId = itr.next();
+			if (!changedConcepts.contains(conceptId)) {
+				unchangedConceptIds.add(conceptId);
+			}
+		}
+		return unchangedConceptIds;
+	}
+	
+	private static <T> void copyValues(final InternalIdMultimap<T> source, final InternalIdMultimap.Builder<T> target, final long conceptId) {
+		final Collection<T> values = source.get(conceptId);
+		if (!values.isEmpty()) {
+			target.putAll(conceptId, values);
+		}
+	}
+	
+	private static void copyConcreteDomainMembers(final Multimap<String, ConcreteDomainFragment> source, 
+			final ImmutableMultimap.Builder<String, ConcreteDomainFragment> target, 
+			final Set<String> reloadedReferencedComponentIds) {
+		
+		source.asMap().forEach((referencedComponentId, fragments) -> {
+			if (!reloadedReferencedComponentIds.contains(referencedComponentId)) {
+				target.putAll(referencedComponentId, fragments);
+			}
+		});
+	}
+	
+	/*
+	 * Collects the source concepts of active stated IS A relationships and the referenced concepts of active OWL axioms pointing to any of
+	 * the given destinations.
+	 */
+	private void addReferringConceptIds(final RevisionSearcher searcher, final Collection<String> destinationIds, final Set<String> referringConceptIds) {
+		final Query<String> relationshipQuery = Query.select(String.class)
+				.from(SnomedRelationshipIndexEntry.class)
+				.fields(SnomedRelationshipIndexEntry.Fields.SOURCE_ID)
+				.where(Expressions.builder()
+						.filter(active())
+						.filter(typeId(Concepts.IS_A))
+						.filter(characteristicTypeId(Concepts.STATED_RELATIONSHIP))
+						.filter(SnomedRelationshipIndexEntry.Expressions.destinationIds(destinationIds))
+						.build())
+				.limit(SCROLL_LIMIT)
+				.build();
+		
+		for (final Hits<String> hits : searcher.scroll(relationshipQuery)) {
+			hits.forEach(referringConceptIds::add);
+		}
+		
+		final Query<String> axiomQuery = Query.select(String.class)
+				.from(SnomedRefSetMemberIndexEntry.class)
+				.fields(SnomedRefSetMemberIndexEntry.Fields.REFERENCED_COMPONENT_ID)
+				.where(Expressions.builder()
+						.filter(SnomedRefSetMemberIndexEntry.Expressions.active())
+						.filter(SnomedRefSetMemberIndexEntry.Expressions.refSetTypes(Collections.singleton(SnomedRefSetType.OWL_AXIOM)))
+						.filter(SnomedRefSetMemberIndexEntry.Expressions.owlExpressionDestination(destinationIds))
+						.build())
+				.limit(SCROLL_LIMIT)
+				.build();
+		
+		for (final Hits<String> hits : searcher.scroll(axiomQuery)) {
+			hits.forEach(referringConceptIds::add);
+		}
+	}
+	
 	public ReasonerTaxonomyBuilder addFullySpecifiedNames(final RevisionSearcher searcher) {
 		entering("Registering fully specified names using revision searcher");
 		
@@ -294,6 +500,10 @@ public final class ReasonerTaxonomyBuilder {
 	}
 
 	public ReasonerTaxonomyBuilder addActiveStatedEdges(final RevisionSearcher searcher) {
+		return addActiveStatedEdges(searcher, null);
+	}
+
+	private ReasonerTaxonomyBuilder addActiveStatedEdges(final RevisionSearcher searcher, final Collection<String> ids) {
 		entering("Registering active stated IS A graph edges using revision searcher");
 
 		final ExpressionBuilder whereExpressionBuilder = Expressions.builder()
@@ -301,6 +511,10 @@ public final class ReasonerTaxonomyBuilder {
 				.filter(typeId(Concepts.IS_A))
 				.filter(characteristicTypeId(Concepts.STATED_RELATIONSHIP));
 		
+		if (ids != null) {
+			whereExpressionBuilder.filter(SnomedRelationshipIndexEntry.Expressions.sourceIds(ids));
+		}
+
 		if (!excludedModuleIds.isEmpty()) {
 			whereExpressionBuilder.mustNot(modules(excludedModuleIds));
 		}
@@ -374,12 +588,20 @@ public final class ReasonerTaxonomyBuilder {
 	}
 
 	public ReasonerTaxonomyBuilder addConceptFlags(final RevisionSearcher searcher) {
+		return addConceptFlags(searcher, null);
+	}
+
+	private ReasonerTaxonomyBuilder addConceptFlags(final RevisionSearcher searcher, final Collection<String> ids) {
 		entering("Registering active concept flags (exhaustive) using revision searcher");
 
 		final ExpressionBuilder whereExpressionBuilder = Expressions.builder()
 				.filter(active())
 				.filter(exhaustive()); 
 		
+		if (ids != null) {
+			whereExpressionBuilder.filter(SnomedConceptDocument.Expressions.ids(ids));
+		}
+
 		if (!excludedModuleIds.isEmpty()) {
 			whereExpressionBuilder.mustNot(modules(excludedModuleIds));
 		}
@@ -434,6 +656,10 @@ public final class ReasonerTaxonomyBuilder {
 	}
 
 	public ReasonerTaxonomyBuilder addActiveStatedNonIsARelationships(final RevisionSearcher searcher) {
+		return addActiveStatedNonIsARelationships(searcher, null);
+	}
+
+	private ReasonerTaxonomyBuilder addActiveStatedNonIsARelationships(final RevisionSearcher searcher, final Collection<String> ids) {
 		entering("Registering active stated non-IS A relationships using revision searcher");
 
 		final ExpressionBuilder whereExpressionBuilder = Expressions.builder()
@@ -441,6 +667,10 @@ public final class ReasonerTaxonomyBuilder {
 				.filter(characteristicTypeId(Concepts.STATED_RELATIONSHIP))
 				.mustNot(typeId(Concepts.IS_A));
 		
+		if (ids != null) {
+			whereExpressionBuilder.filter(SnomedRelationshipIndexEntry.Expressions.sourceIds(ids));
+		}
+
 		if (!excludedModuleIds.isEmpty()) {
 			whereExpressionBuilder.mustNot(modules(excludedModuleIds));
 		}
@@ -472,6 +702,10 @@ public final class ReasonerTaxonomyBuilder {
 	}
 
 	public ReasonerTaxonomyBuilder addActiveAdditionalGroupedRelationships(final RevisionSearcher searcher) {
+		return addActiveAdditionalGroupedRelationships(searcher, null);
+	}
+
+	private ReasonerTaxonomyBuilder addActiveAdditionalGroupedRelationships(final RevisionSearcher searcher, final Collection<String> ids) {
 		entering("Registering active additional grouped relationships using revision searcher");
 	
 		final ExpressionBuilder whereExpressionBuilder = Expressions.builder()
@@ -479,6 +713,10 @@ public final class ReasonerTaxonomyBuilder {
 				.filter(group(1, Integer.MAX_VALUE))
 				.filter(characteristicTypeId(Concepts.ADDITIONAL_RELATIONSHIP));
 		
+		if (ids != null) {
+			whereExpressionBuilder.filter(SnomedRelationshipIndexEntry.Expressions.sourceIds(ids));
+		}
+
 		if (!excludedModuleIds.isEmpty()) {
 			whereExpressionBuilder.mustNot(modules(excludedModuleIds));
 		}
@@ -504,6 +742,10 @@ public final class ReasonerTaxonomyBuilder {
 	}
 
 	public ReasonerTaxonomyBuilder addActiveInferredRelationships(final RevisionSearcher searcher) {
+		return addActiveInferredRelationships(searcher, null);
+	}
+
+	private ReasonerTaxonomyBuilder addActiveInferredRelationships(final RevisionSearcher searcher, final Collection<String> ids) {
 		entering("Registering active inferred relationships using revision searcher");
 		
 		// Fetch both stated and inferred relationships to see if a stated pair exists
@@ -511,6 +753,10 @@ public final class ReasonerTaxonomyBuilder {
 				.filter(active())
 				.filter(characteristicTypeIds(INFERRED_RELATIONSHIP_CHARACTERISTIC_TYPE_IDS));
 		
+		if (ids != null) {
+			whereExpressionBuilder.filter(SnomedRelationshipIndexEntry.Expressions.sourceIds(ids));
+		}
+
 		if (!excludedModuleIds.isEmpty()) {
 			whereExpressionBuilder.mustNot(modules(excludedModuleIds));
 		}
@@ -774,12 +1020,20 @@ public final class ReasonerTaxonomyBuilder {
 	}
 	
 	public ReasonerTaxonomyBuilder addActiveAxioms(final RevisionSearcher searcher) {
+		return addActiveAxioms(searcher, null);
+	}
+
+	private ReasonerTaxonomyBuilder addActiveAxioms(final RevisionSearcher searcher, final Collection<String> ids) {
 		entering("Registering active stated OWL axioms using revision searcher");
 
 		final ExpressionBuilder whereExpressionBuilder = Expressions.builder()
 				.filter(SnomedRefSetMemberIndexEntry.Expressions.active())
 				.filter(SnomedRefSetMemberIndexEntry.Expressions.refSetTypes(Collections.singleton(SnomedRefSetType.OWL_AXIOM)));
 		
+		if (ids != null) {
+			whereExpressionBuilder.filter(SnomedRefSetMemberIndexEntry.Expressions.referencedComponentIds(ids));
+		}
+
 		if (!excludedModuleIds.isEmpty()) {
 			whereExpressionBuilder.mustNot(modules(excludedModuleIds));
 		}
@@ -840,18 +1094,8 @@ public final class ReasonerTaxonomyBuilder {
 				
 				try {
 					String firstToken = tok.nextToken();
-					if ("transitiveobjectproperty".equals(firstToken)) {
-						long propertyId = Long.parseLong(tok.nextToken());
-						propertyChains.add(new PropertyChain(propertyId, propertyId, propertyId));
-						additionalAxioms.add(expression);
-					} else if ("subobjectpropertyof".equals(firstToken)) {
-						String nextToken = tok.nextToken();
-						if ("objectpropertychain".equals(nextToken)) {
-							long sourceType = Long.parseLong(tok.nextToken());
-							long destinationType = Long.parseLong(tok.nextToken());
-							long inferredType = Long.parseLong(tok.nextToken());
-							propertyChains.add(new PropertyChain(sourceType, destinationType, inferredType));
-						}
+					if ("transitiveobjectproperty".equals(firstToken) || "subobjectpropertyof".equals(firstToken)) {
+						addPropertyChain(firstToken, tok);
 						additionalAxioms.add(expression);
 					} else if ("reflexiveobjectproperty".equals(firstToken)) {
 						additionalAxioms.add(expression);
@@ -903,6 +1147,25 @@ public final class ReasonerTaxonomyBuilder {
 		return this;
 	}
 	
+	/*
+	 * Registers the property chain described by a TransitiveObjectProperty or a SubObjectPropertyOf axiom, the first token of which has 
+	 * already been consumed. Malformed expressions result in a NoSuchElementException or NumberFormatException.
+	 */
+	private void addPropertyChain(final String firstToken, final StringTokenizer tok) {
+		if ("transitiveobjectproperty".equals(firstToken)) {
+			long propertyId = Long.parseLong(tok.nextToken());
+			propertyChains.add(new PropertyChain(propertyId, propertyId, propertyId));
+		} else if ("subobjectpropertyof".equals(firstToken)) {
+			String nextToken = tok.nextToken();
+			if ("objectpropertychain".equals(nextToken)) {
+				long sourceType = Long.parseLong(tok.nextToken());
+				long destinationType = Long.parseLong(tok.nextToken());
+				long inferredType = Long.parseLong(tok.nextToken());
+				propertyChains.add(new PropertyChain(sourceType, destinationType, inferredType));
+			}
+		}
+	}
+	
 	public ReasonerTaxonomyBuilder addNeverGroupedTypeIds(final RevisionSearcher searcher) {
 		entering("Registering 'never grouped' type IDs using revision searcher");
 		
@@ -942,6 +1205,10 @@ public final class ReasonerTaxonomyBuilder {
 		return this;
 	}
 	public ReasonerTaxonomyBuilder addActiveConcreteDomainMembers(final RevisionSearcher searcher) {
+		return addActiveConcreteDomainMembers(searcher, null);
+	}
+
+	private ReasonerTaxonomyBuilder addActiveConcreteDomainMembers(final RevisionSearcher searcher, final Collection<String> ids) {
 		entering("Registering active concrete domain members using revision searcher");
 
 		final ExpressionBuilder whereExpressionBuilder = Expressions.builder()
@@ -949,6 +1216,10 @@ public final class ReasonerTaxonomyBuilder {
 				.filter(refSetTypes(Collections.singleton(SnomedRefSetType.CONCRETE_DATA_TYPE)))
 				.filter(characteristicTypeIds(CD_CHARACTERISTIC_TYPE_IDS));
 		
+		if (ids != null) {
+			whereExpressionBuilder.filter(SnomedRefSetMemberIndexEntry.Expressions.referencedComponentIds(ids));
+		}
+
 		if (!excludedModuleIds.isEmpty()) {
 			whereExpressionBuilder.mustNot(modules(excludedModuleIds));
 		}
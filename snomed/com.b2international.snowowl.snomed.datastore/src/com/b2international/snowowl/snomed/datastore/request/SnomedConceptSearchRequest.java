@@ -23,18 +23,25 @@ import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedCon
 import static com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument.Expressions.statedParents;
 import static com.google.common.collect.Maps.newHashMap;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import com.b2international.commons.options.Options;
 import com.b2international.index.Hits;
 import com.b2international.index.query.Expression;
 import com.b2international.index.query.Expressions;
 import com.b2international.index.query.Expressions.ExpressionBuilder;
+import com.b2international.index.query.Query;
+import com.b2international.index.query.SortBy;
 import com.b2international.index.query.SortBy.Builder;
 import com.b2international.index.query.SortBy.Order;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
 import com.b2international.snowowl.core.domain.BranchContext;
 import com.b2international.snowowl.core.repository.RevisionDocument;
 import com.b2international.snowowl.core.request.TermFilter;
@@ -42,7 +49,6 @@ import com.b2international.snowowl.core.terminology.ComponentCategory;
 import com.b2international.snowowl.snomed.cis.SnomedIdentifiers;
 import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
 import com.b2international.snowowl.snomed.core.domain.SnomedConcepts;
-import com.b2international.snowowl.snomed.core.domain.SnomedDescription;
 import com.b2international.snowowl.snomed.core.ecl.EclExpression;
 import com.b2international.snowowl.snomed.core.ql.SnomedQueryExpression;
 import com.b2international.snowowl.snomed.core.tree.Trees;
@@ -51,7 +57,10 @@ import com.b2international.snowowl.snomed.datastore.converter.SnomedConverters;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDescriptionIndexEntry;
 import com.b2international.snowowl.snomed.datastore.index.entry.SnomedDocument;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimap;
 
 /**
  * @since 4.5
@@ -61,6 +70,17 @@ public class SnomedConceptSearchRequest extends SnomedComponentSearchRequest<Sno
 	private static final float MIN_DOI_VALUE = 1.05f;
 	private static final float MAX_DOI_VALUE = 10288.383f;
 	
+	/**
+	 * The maximum number of concepts with matching descriptions collected by a single collapsed description query. Term searches matching more
+	 * concepts than this only consider the best scoring ones.
+	 */
+	static final int MAX_TERM_MATCHES = 10_000;
+	
+	/**
+	 * The maximum number of score groups in a single boolean query, kept below the default clause limit of Elasticsearch.
+	 */
+	private static final int MAX_SCORE_CLAUSES = 1_000;
+	
 	public enum OptionKey {
 
 		/**
@@ -237,10 +257,14 @@ public class SnomedConceptSearchRequest extends SnomedComponentSearchRequest<Sno
 				throw new NoResultException();
 			}
 			
-			queryBuilder.filter(RevisionDocument.Expressions.ids(conceptScoreMap.keySet()));
+			queryBuilder.should(toTermScoreExpression(conceptScoreMap));
 			
 			final Expression q = addSearchProfile(searchProfileQuery, queryBuilder.build());
-			queryExpression = Expressions.scriptScore(q, "doiFactor", ImmutableMap.of("termScores", conceptScoreMap, "useDoi", containsKey(OptionKey.USE_DOI), "minDoi", MIN_DOI_VALUE, "maxDoi", MAX_DOI_VALUE));
+			if (containsKey(OptionKey.USE_DOI)) {
+				queryExpression = Expressions.scriptScore(q, "doiFactor", ImmutableMap.of("minDoi", MIN_DOI_VALUE, "maxDoi", MAX_DOI_VALUE));
+			} else {
+				queryExpression = q;
+			}
 		} else if (containsKey(OptionKey.USE_DOI)) {
 			final Expression q = addSearchProfile(searchProfileQuery, queryBuilder.build());
 			queryExpression = Expressions.scriptScore(q, "doi");
@@ -300,13 +324,36 @@ public class SnomedConceptSearchRequest extends SnomedComponentSearchRequest<Sno
 		}
 	}
 	
+	/*
+	 * Matches the given concepts and scores them with their best description score. Concepts with the same score are matched by a single
+	 * constant scoring terms query boosted with that score, so each concept ID is sent to the index only once, both for filtering and scoring.
+	 */
+	private static Expression toTermScoreExpression(Map<String, Float> conceptScores) {
+		final Multimap<Float, String> conceptsByScore = HashMultimap.create();
+		conceptScores.forEach((conceptId, score) -> conceptsByScore.put(score, conceptId));
+		
+		final List<Expression> scoreClauses = conceptsByScore.asMap().entrySet()
+				.stream()
+				.map(entry -> Expressions.boost(RevisionDocument.Expressions.ids(entry.getValue()), entry.getKey()))
+				.collect(Collectors.toList());
+		
+		final ExpressionBuilder termScoreQuery = Expressions.builder();
+		for (List<Expression> partition : Iterables.partition(scoreClauses, MAX_SCORE_CLAUSES)) {
+			final ExpressionBuilder partitionQuery = Expressions.builder();
+			partition.forEach(partitionQuery::should);
+			termScoreQuery.should(partitionQuery.build());
+		}
+		return termScoreQuery.build();
+	}
+	
+	/*
+	 * Returns the best description score of the top MAX_TERM_MATCHES concepts with matching descriptions. Hits are collapsed by concept ID, so
+	 * only the top description of each concept is returned, in a single request.
+	 */
 	private Map<String, Float> executeDescriptionSearch(BranchContext context, TermFilter termFilter) {
 		final SnomedDescriptionSearchRequestBuilder requestBuilder = SnomedRequests.prepareSearchDescription()
-			.all()
 			.filterByActive(true)
-			.filterByTerm(termFilter)
-			.setFields(SnomedDescriptionIndexEntry.Fields.ID, SnomedDescriptionIndexEntry.Fields.CONCEPT_ID)
-			.sortBy(SCORE);
+			.filterByTerm(termFilter);
 		
 		if (containsKey(SnomedDescriptionSearchRequest.OptionKey.LANGUAGE_REFSET)) {
 			requestBuilder.filterByLanguageRefSets(getCollection(SnomedDescriptionSearchRequest.OptionKey.LANGUAGE_REFSET, String.class));
@@ -324,17 +371,29 @@ public class SnomedConceptSearchRequest extends SnomedComponentSearchRequest<Sno
 			requestBuilder.filterBySemanticTags(semanticTags);
 		}
 		
-		final Collection<SnomedDescription> items = requestBuilder
-			.build()
-			.execute(context)
-			.getItems();
-		
 		final Map<String, Float> conceptMap = newHashMap();
+		final Expression descriptionQuery = ((SnomedDescriptionSearchRequest) requestBuilder.build()).toRawQuery(context);
+		if (descriptionQuery.isMatchNone()) {
+			return conceptMap;
+		}
 		
-		for (SnomedDescription description : items) {
-			if (!conceptMap.containsKey(description.getConceptId())) {
-				conceptMap.put(description.getConceptId(), description.getScore());
-			}
+		final RevisionSearcher searcher = context.service(RevisionSearcher.class);
+		final Hits<SnomedDescriptionIndexEntry> hits;
+		try {
+			hits = searcher.search(Query.select(SnomedDescriptionIndexEntry.class)
+					.fields(SnomedDescriptionIndexEntry.Fields.ID, SnomedDescriptionIndexEntry.Fields.CONCEPT_ID)
+					.where(descriptionQuery)
+					.collapse(SnomedDescriptionIndexEntry.Fields.CONCEPT_ID)
+					.sortBy(SortBy.SCORE)
+					.withScores(true)
+					.limit(MAX_TERM_MATCHES)
+					.build());
+		} catch (IOException e) {
+			throw new SnowowlRuntimeException(e);
+		}
+		
+		for (SnomedDescriptionIndexEntry description : hits) {
+			conceptMap.putIfAbsent(description.getConceptId(), description.getScore());
 		}
 		
 		return conceptMap;
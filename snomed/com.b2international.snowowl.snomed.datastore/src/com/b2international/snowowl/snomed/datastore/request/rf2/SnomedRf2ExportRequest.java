@@ -84,6 +84,7 @@ import com.b2international.snowowl.snomed.datastore.request.SnomedRefSetMemberSe
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
 import com.b2international.snowowl.snomed.datastore.request.rf2.exporter.Rf2ConceptExporter;
 import com.b2international.snowowl.snomed.datastore.request.rf2.exporter.Rf2DescriptionExporter;
+import com.b2international.snowowl.snomed.datastore.request.rf2.exporter.Rf2ExportPlan;
 import com.b2international.snowowl.snomed.datastore.request.rf2.exporter.Rf2LanguageRefSetExporter;
 import com.b2international.snowowl.snomed.datastore.request.rf2.exporter.Rf2RefSetDescriptorRefSetExporter;
 import com.b2international.snowowl.snomed.datastore.request.rf2.exporter.Rf2RefSetExporter;
@@ -263,7 +264,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 			// create main folder including release status and archive effective date
 			final Path releaseDirectory = createReleaseDirectory(exportDirectory, archiveEffectiveDate);
 
-			final Set<String> visitedComponentEffectiveTimes = newHashSet();
+			final Rf2ExportPlan exportPlan = new Rf2ExportPlan(releaseDirectory, context);
 			
 			final long effectiveTimeStart = startEffectiveTime != null ? startEffectiveTime : 0;
 			final long effectiveTimeEnd =  endEffectiveTime != null ? endEffectiveTime : Long.MAX_VALUE;
@@ -277,7 +278,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 						archiveEffectiveDateShort, 
 						effectiveTimeStart,
 						effectiveTimeEnd,
-						visitedComponentEffectiveTimes,
+						exportPlan,
 						availableLanguageCodes.get(branch));
 				
 			}
@@ -291,10 +292,13 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 						archiveEffectiveDateShort, 
 						EffectiveTimes.UNSET_EFFECTIVE_TIME,
 						EffectiveTimes.UNSET_EFFECTIVE_TIME,
-						visitedComponentEffectiveTimes,
+						exportPlan,
 						availableLanguageCodes.get(referenceBranch));
 			}
 
+			// Step 5: write the planned exports, different files are written in parallel
+			exportPlan.run(Runtime.getRuntime().availableProcessors());
+
 			// Step 6: compress to archive and upload to the file registry
 			final AttachmentRegistry fileRegistry = context.service(AttachmentRegistry.class);
 			registerResult(fileRegistry, exportId, exportDirectory);
@@ -605,7 +609,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 			final String archiveEffectiveTime, 
 			final long effectiveTimeFilterStart, 
 			final long effectiveTimeFilterEnd,
-			final Set<String> visitedComponentEffectiveTimes,
+			final Rf2ExportPlan exportPlan,
 			final Collection<String> languageCodes) throws IOException {
 
 		for (final String componentToExport : componentTypes) {
@@ -617,7 +621,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 							archiveEffectiveTime,
 							effectiveTimeFilterStart,
 							effectiveTimeFilterEnd,
-							visitedComponentEffectiveTimes);
+							exportPlan);
 					break;
 	
 				case SnomedTerminologyComponentConstants.DESCRIPTION:
@@ -629,7 +633,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 								effectiveTimeFilterStart,
 								effectiveTimeFilterEnd,
 								languageCode,
-								visitedComponentEffectiveTimes);
+								exportPlan);
 					}
 					break;
 	
@@ -640,7 +644,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 							archiveEffectiveTime,
 							effectiveTimeFilterStart,
 							effectiveTimeFilterEnd,
-							visitedComponentEffectiveTimes);
+							exportPlan);
 					break;
 	
 				case SnomedTerminologyComponentConstants.REFSET_MEMBER:
@@ -652,7 +656,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 								effectiveTimeFilterStart,
 								effectiveTimeFilterEnd,
 								languageCodes,
-								visitedComponentEffectiveTimes);
+								exportPlan);
 					} else {
 						exportIndividualRefSets(releaseDirectory,
 								context,
@@ -661,7 +665,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 								effectiveTimeFilterStart,
 								effectiveTimeFilterEnd,
 								languageCodes,
-								visitedComponentEffectiveTimes);
+								exportPlan);
 					}
 				break;
 
@@ -678,7 +682,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 					effectiveTimeFilterStart,
 					effectiveTimeFilterEnd,
 					languageCodes,
-					visitedComponentEffectiveTimes);
+					exportPlan);
 		}
 	}
 
@@ -689,7 +693,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 			long effectiveTimeFilterStart, 
 			long effectiveTimeFilterEnd, 
 			Collection<String> languageCodes, 
-			Set<String> visitedComponentEffectiveTimes) throws IOException {
+			Rf2ExportPlan exportPlan) throws IOException {
 		final Rf2RefSetDescriptorRefSetExporter exporter = new Rf2RefSetDescriptorRefSetExporter(releaseType, 
 				countryNamespaceElement, 
 				namespaceFilter,
@@ -697,7 +701,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 				archiveEffectiveTime,
 				modules);
 		
-		exporter.exportBranch(releaseDirectory, context, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd, visitedComponentEffectiveTimes);
+		exportPlan.add(exporter, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd);
 	}
 
 	private void exportConcepts(final Path releaseDirectory, 
@@ -706,7 +710,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 			final String archiveEffectiveTime, 
 			final long effectiveTimeFilterStart,
 			final long effectiveTimeFilterEnd,
-			final Set<String> visitedComponentEffectiveTimes) throws IOException {
+			final Rf2ExportPlan exportPlan) throws IOException {
 
 		final Rf2ConceptExporter conceptExporter = new Rf2ConceptExporter(releaseType, 
 				countryNamespaceElement, 
@@ -716,7 +720,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 				includePreReleaseContent,
 				modules);
 
-		conceptExporter.exportBranch(releaseDirectory, context, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd, visitedComponentEffectiveTimes);
+		exportPlan.add(conceptExporter, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd);
 	}
 
 	private void exportDescriptions(final Path releaseDirectory, 
@@ -726,7 +730,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 			final long effectiveTimeFilterStart,
 			final long effectiveTimeFilterEnd, 
 			final String languageCode,
-			final Set<String> visitedComponentEffectiveTimes) throws IOException {
+			final Rf2ExportPlan exportPlan) throws IOException {
 
 		final Set<String> descriptionTypes = execute(context, getBranchOrRangeTarget(branch), SnomedRequests.prepareSearchConcept()
 			.all()
@@ -755,8 +759,8 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 				ImmutableSet.of(Concepts.TEXT_DEFINITION),
 				languageCode);
 
-		descriptionExporter.exportBranch(releaseDirectory, context, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd, visitedComponentEffectiveTimes);
-		textDefinitionExporter.exportBranch(releaseDirectory, context, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd, visitedComponentEffectiveTimes);
+		exportPlan.add(descriptionExporter, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd);
+		exportPlan.add(textDefinitionExporter, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd);
 	}
 
 	private String getBranchOrRangeTarget(final String branch) {
@@ -773,7 +777,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 			final String archiveEffectiveTime, 
 			final long effectiveTimeFilterStart,
 			final long effectiveTimeFilterEnd,
-			final Set<String> visitedComponentEffectiveTimes) throws IOException {
+			final Rf2ExportPlan exportPlan) throws IOException {
 
 		final Set<String> characteristicTypes = execute(context, getBranchOrRangeTarget(branch), SnomedRequests.prepareSearchConcept()
 				.all()
@@ -800,8 +804,8 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 				modules, 
 				characteristicTypes);
 
-		statedRelationshipExporter.exportBranch(releaseDirectory, context, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd, visitedComponentEffectiveTimes);
-		relationshipExporter.exportBranch(releaseDirectory, context, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd, visitedComponentEffectiveTimes);
+		exportPlan.add(statedRelationshipExporter, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd);
+		exportPlan.add(relationshipExporter, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd);
 	}
 
 	private void exportCombinedRefSets(final Path releaseDirectory, 
@@ -811,7 +815,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 			final long effectiveTimeFilterStart,
 			final long effectiveTimeFilterEnd,  
 			final Collection<String> languageCodes,
-			final Set<String> visitedComponentEffectiveTimes) throws IOException {
+			final Rf2ExportPlan exportPlan) throws IOException {
 
 		final Multimap<SnomedRefSetType, SnomedConcept> referenceSetsByType = FluentIterable.from(getIdentifierConcepts(context, getBranchOrRangeTarget(branch)))
 				.index(c -> c.getReferenceSet().getType());
@@ -834,7 +838,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 					refSetType,
 					referenceSetsByType.get(refSetType));
 
-			refSetExporter.exportBranch(releaseDirectory, context, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd, visitedComponentEffectiveTimes);
+			exportPlan.add(refSetExporter, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd);
 		}
 
 		exportLanguageRefSets(releaseDirectory, 
@@ -845,7 +849,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 				effectiveTimeFilterEnd, 
 				languageCodes, 
 				referenceSetsByType.get(SnomedRefSetType.LANGUAGE),
-				visitedComponentEffectiveTimes);
+				exportPlan);
 	}
 
 	private void exportIndividualRefSets(final Path releaseDirectory, 
@@ -855,7 +859,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 			final long effectiveTimeFilterStart,
 			final long effectiveTimeFilterEnd, 
 			final Collection<String> languageCodes,
-			final Set<String> visitedComponentEffectiveTimes) throws IOException {
+			final Rf2ExportPlan exportPlan) throws IOException {
 
 		final Multimap<SnomedRefSetType, SnomedConcept> referenceSetsByType = FluentIterable.from(getIdentifierConcepts(context, getBranchOrRangeTarget(revisionRange)))
 				.index(c -> c.getReferenceSet().getType());
@@ -881,7 +885,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 					entry.getKey(),
 					ImmutableSet.of(entry.getValue()));
 
-			refSetExporter.exportBranch(releaseDirectory, context, revisionRange, effectiveTimeFilterStart, effectiveTimeFilterEnd, visitedComponentEffectiveTimes);
+			exportPlan.add(refSetExporter, revisionRange, effectiveTimeFilterStart, effectiveTimeFilterEnd);
 		}
 
 		exportLanguageRefSets(releaseDirectory, 
@@ -892,7 +896,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 				effectiveTimeFilterEnd, 
 				languageCodes, 
 				referenceSetsByType.get(SnomedRefSetType.LANGUAGE),
-				visitedComponentEffectiveTimes);
+				exportPlan);
 	}
 
 	private void exportLanguageRefSets(final Path releaseDirectory, 
@@ -903,7 +907,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 			final long effectiveTimeFilterEnd, 
 			final Collection<String> languageCodes, 
 			final Collection<SnomedConcept> languageRefSets,
-			final Set<String> visitedComponentEffectiveTimes) throws IOException {
+			final Rf2ExportPlan exportPlan) throws IOException {
 
 		if (languageRefSets.isEmpty()) {
 			return;
@@ -921,7 +925,7 @@ final class SnomedRf2ExportRequest extends ResourceRequest<BranchContext, Attach
 					languageRefSets,
 					languageCode);
 
-			languageExporter.exportBranch(releaseDirectory, context, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd, visitedComponentEffectiveTimes);
+			exportPlan.add(languageExporter, branch, effectiveTimeFilterStart, effectiveTimeFilterEnd);
 		}
 	}
 
@@ -15,14 +15,22 @@
  */
 package com.b2international.snowowl.snomed.datastore.request.rf2;
 
+import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
+import static com.google.common.collect.Maps.newHashMap;
+
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -66,18 +74,15 @@ import com.b2international.snowowl.snomed.datastore.request.rf2.importer.Rf2Effe
 import com.b2international.snowowl.snomed.datastore.request.rf2.importer.Rf2EffectiveTimeSlices;
 import com.b2international.snowowl.snomed.datastore.request.rf2.importer.Rf2Format;
 import com.b2international.snowowl.snomed.datastore.request.rf2.importer.Rf2ImportConfiguration;
+import com.b2international.snowowl.snomed.datastore.request.rf2.importer.Rf2RowReader;
 import com.b2international.snowowl.snomed.datastore.request.rf2.validation.Rf2GlobalValidator;
 import com.b2international.snowowl.snomed.datastore.request.rf2.validation.Rf2ValidationIssueReporter;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.MappingIterator;
-import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.dataformat.csv.CsvMapper;
-import com.fasterxml.jackson.dataformat.csv.CsvParser;
-import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @since 6.0.0
@@ -230,27 +235,49 @@ final class SnomedRf2ImportRequest implements Request<BranchContext, ImportRespo
 	}
 	
 	private void read(File rf2Archive, Rf2EffectiveTimeSlices slices, Rf2ValidationIssueReporter reporter) {
-		final CsvMapper csvMapper = new CsvMapper();
-		csvMapper.enable(CsvParser.Feature.WRAP_AS_ARRAY);
-		final CsvSchema schema = CsvSchema.emptySchema()
-				.withoutQuoteChar()
-				.withColumnSeparator('\t')
-				.withLineSeparator("\r\n");
-		final ObjectReader oReader = csvMapper.readerFor(String[].class).with(schema);
-
-		final Stopwatch w = Stopwatch.createStarted();
 		try (final ZipFile zip = new ZipFile(rf2Archive)) {
-			for (ZipEntry entry : Collections.list(zip.entries())) {
-				final String fileName = Paths.get(entry.getName()).getFileName().toString().toLowerCase();
-				if (fileName.endsWith(TXT_EXT)) {
-					if (fileName.contains(releaseType.toString().toLowerCase())) {
-						w.reset().start();
-						try (final InputStream in = zip.getInputStream(entry)) {
-							readFile(entry, in, oReader, slices, reporter);
-						}
-						LOG.info("{} - {}", entry.getName(), w);
-					}
+			// read the largest files first to keep all reader threads busy until the end
+			final List<ZipEntry> entries = zip.stream()
+					.filter(entry -> {
+						final String fileName = Paths.get(entry.getName()).getFileName().toString().toLowerCase();
+						return fileName.endsWith(TXT_EXT) && fileName.contains(releaseType.toString().toLowerCase());
+					})
+					.sorted(Comparator.comparingLong(ZipEntry::getSize).reversed())
+					.collect(Collectors.<ZipEntry>toList());
+			
+			if (entries.isEmpty()) {
+				return;
+			}
+			
+			final int numberOfReaders = Math.min(entries.size(), Runtime.getRuntime().availableProcessors());
+			final ExecutorService readers = Executors.newFixedThreadPool(numberOfReaders, new ThreadFactoryBuilder()
+					.setNameFormat("rf2-import-reader-%d")
+					.setDaemon(true)
+					.build());
+			
+			try {
+				final List<Future<?>> futures = entries.stream()
+						.map(entry -> readers.submit(() -> {
+							final Stopwatch w = Stopwatch.createStarted();
+							try (final Rf2RowReader reader = new Rf2RowReader(zip.getInputStream(entry))) {
+								readFile(entry, reader, slices, reporter);
+							}
+							LOG.info("{} - {}", entry.getName(), w);
+							return null;
+						}))
+						.collect(Collectors.toList());
+				
+				for (Future<?> future : futures) {
+					future.get();
 				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SnowowlRuntimeException("Interrupted while reading RF2 files", e);
+			} catch (ExecutionException e) {
+				Throwables.throwIfUnchecked(e.getCause());
+				throw new SnowowlRuntimeException(e.getCause());
+			} finally {
+				readers.shutdownNow();
 			}
 		} catch (IOException e) {
 			throw new SnowowlRuntimeException(e);
@@ -259,41 +286,50 @@ final class SnomedRf2ImportRequest implements Request<BranchContext, ImportRespo
 		slices.flushAll();
 	}
 
-	private void readFile(ZipEntry entry, final InputStream in, final ObjectReader oReader, Rf2EffectiveTimeSlices effectiveTimeSlices, Rf2ValidationIssueReporter reporter)
-			throws IOException, JsonProcessingException {
+	private void readFile(ZipEntry entry, final Rf2RowReader reader, Rf2EffectiveTimeSlices effectiveTimeSlices, Rf2ValidationIssueReporter reporter)
+			throws IOException {
 		
 		final String entryName = entry.getName();
 		final ImportDefectAcceptor defectAcceptor = reporter.getDefectAcceptor(entryName);
 		
-		boolean header = true;
+		final String[] header = reader.next();
+		if (header == null) {
+			return;
+		}
+		
 		Rf2ContentType<?> resolver = null;
-		int lineNumber = 1;
+		for (Rf2ContentType<?> contentType : Rf2Format.getContentTypes()) {
+			if (contentType.canResolve(header)) {
+				resolver = contentType;
+				break;
+			}
+		}
+
+		if (resolver == null) {
+			LOG.warn("Unrecognized RF2 file: {}", entryName);
+			return;
+		}
 		
-		MappingIterator<String[]> mi = oReader.readValues(in);
-		while (mi.hasNext()) {
-			String[] line = mi.next();
+		// rows are validated by the reader thread, then registered in their effective time slice in batches
+		final Map<Rf2EffectiveTimeSlice, List<String[]>> batches = newHashMap();
+		String[] line;
+		while ((line = reader.next()) != null) {
+			final ImportDefectBuilder defectBuilder = defectAcceptor.on(Integer.toString(reader.getLineNumber()));
+			resolver.validate(defectBuilder, line);
 			
-			if (header) {
-				for (Rf2ContentType<?> contentType : Rf2Format.getContentTypes()) {
-					if (contentType.canResolve(line)) {
-						resolver = contentType;
-						break;
-					}
-				}
-
-				if (resolver == null) {
-					LOG.warn("Unrecognized RF2 file: {}", entryName);
-					break;
-				}
-				
-				header = false;
-			} else {
-				final String effectiveTimeKey = getEffectiveTimeKey(line[1]);
-				final ImportDefectBuilder defectBuilder = defectAcceptor.on(Integer.toString(lineNumber));
-				resolver.register(line, effectiveTimeSlices.getOrCreate(effectiveTimeKey), defectBuilder);
+			final Rf2EffectiveTimeSlice slice = effectiveTimeSlices.getOrCreate(getEffectiveTimeKey(line[1]));
+			final List<String[]> batch = batches.computeIfAbsent(slice, key -> newArrayListWithExpectedSize(Rf2EffectiveTimeSlice.BATCH_SIZE));
+			batch.add(line);
+			if (batch.size() >= Rf2EffectiveTimeSlice.BATCH_SIZE) {
+				slice.register(resolver, batch);
+				batch.clear();
+			}
+		}
+		
+		for (Entry<Rf2EffectiveTimeSlice, List<String[]>> batch : batches.entrySet()) {
+			if (!batch.getValue().isEmpty()) {
+				batch.getKey().register(resolver, batch.getValue());
 			}
-
-			lineNumber++;
 		}
 	}
 
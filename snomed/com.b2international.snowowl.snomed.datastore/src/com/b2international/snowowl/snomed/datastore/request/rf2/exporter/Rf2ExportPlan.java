@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request.rf2.exporter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
+import com.b2international.snowowl.core.domain.RepositoryContext;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Collects the exporters of each branch segment of an RF2 export, then runs them grouped by output file. Different files are written in
+ * parallel, while the exports targeting the same file are executed in the order they were added, so rows of older branch segments always
+ * precede the rows of newer ones. Each file is written through a single reusable direct buffer, and each writer loads the next batch of
+ * components on a shared prefetch executor while the current batch is being written.
+ *
+ * @since 7.14
+ */
+public final class Rf2ExportPlan {
+
+	private static final int WRITE_BUFFER_SIZE = 1 << 20; // 1MB
+
+	private final Path releaseDirectory;
+	private final RepositoryContext context;
+	private final Set<String> visitedComponentEffectiveTimes = ConcurrentHashMap.newKeySet();
+	private final ListMultimap<Path, Export> exportsByFile = MultimapBuilder.linkedHashKeys().arrayListValues().build();
+
+	public Rf2ExportPlan(Path releaseDirectory, RepositoryContext context) {
+		this.releaseDirectory = releaseDirectory;
+		this.context = context;
+	}
+
+	/**
+	 * Registers the export of the given branch (segment) with the exporter.
+	 *
+	 * @param exporter
+	 * @param branch
+	 * @param effectiveTimeStart
+	 * @param effectiveTimeEnd
+	 */
+	public void add(Rf2Exporter<?, ?, ?> exporter, String branch, long effectiveTimeStart, long effectiveTimeEnd) {
+		exportsByFile.put(exporter.getExportFile(releaseDirectory), new Export(exporter, branch, effectiveTimeStart, effectiveTimeEnd));
+	}
+
+	/**
+	 * Executes all registered exports, using at most the given number of threads.
+	 *
+	 * @param parallelism
+	 * @throws IOException
+	 */
+	public void run(int parallelism) throws IOException {
+		if (exportsByFile.isEmpty()) {
+			return;
+		}
+
+		final int numberOfWriters = Math.max(1, Math.min(parallelism, exportsByFile.keySet().size()));
+		final ExecutorService writers = Executors.newFixedThreadPool(numberOfWriters, new ThreadFactoryBuilder()
+				.setNameFormat("rf2-export-writer-%d")
+				.setDaemon(true)
+				.build());
+
+		// each writer has at most one outstanding prefetch, rejected prefetches are fetched on the writer's thread on demand
+		final ThreadPoolExecutor prefetchers = new ThreadPoolExecutor(numberOfWriters, 
+				numberOfWriters, 
+				0L, 
+				TimeUnit.MILLISECONDS, 
+				new ArrayBlockingQueue<>(numberOfWriters), 
+				new ThreadFactoryBuilder()
+					.setNameFormat("rf2-export-prefetch-%d")
+					.setDaemon(true)
+					.build());
+
+		try {
+			final List<Future<?>> futures = exportsByFile.asMap()
+					.values()
+					.stream()
+					.map(exports -> writers.submit(() -> {
+						export(exports, prefetchers);
+						return null;
+					}))
+					.collect(Collectors.toList());
+
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SnowowlRuntimeException("Interrupted while exporting RF2 files", e);
+		} catch (ExecutionException e) {
+			Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+			Throwables.throwIfUnchecked(e.getCause());
+			throw new SnowowlRuntimeException(e.getCause());
+		} finally {
+			writers.shutdownNow();
+			prefetchers.shutdownNow();
+		}
+	}
+
+	private void export(Collection<Export> exports, Executor prefetchExecutor) throws IOException {
+		final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+		for (Export export : exports) {
+			export.exporter.exportBranch(releaseDirectory,
+					context,
+					export.branch,
+					export.effectiveTimeStart,
+					export.effectiveTimeEnd,
+					visitedComponentEffectiveTimes,
+					writeBuffer,
+					prefetchExecutor);
+		}
+	}
+
+	private static final class Export {
+
+		private final Rf2Exporter<?, ?, ?> exporter;
+		private final String branch;
+		private final long effectiveTimeStart;
+		private final long effectiveTimeEnd;
+
+		Export(Rf2Exporter<?, ?, ?> exporter, String branch, long effectiveTimeStart, long effectiveTimeEnd) {
+			this.exporter = exporter;
+			this.branch = branch;
+			this.effectiveTimeStart = effectiveTimeStart;
+			this.effectiveTimeEnd = effectiveTimeEnd;
+		}
+
+	}
+
+}
@@ -18,13 +18,19 @@ package com.b2international.snowowl.snomed.datastore.request.rf2.exporter;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -42,7 +48,6 @@ import com.b2international.snowowl.core.request.SearchResourceRequestIterator;
 import com.b2international.snowowl.snomed.core.domain.Rf2ReleaseType;
 import com.b2international.snowowl.snomed.core.domain.SnomedComponent;
 import com.b2international.snowowl.snomed.datastore.request.SnomedSearchRequestBuilder;
-import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 
 /**
@@ -108,33 +113,47 @@ public abstract class Rf2Exporter<B extends SnomedSearchRequestBuilder<B, R>, R
 		return BooleanUtils.toString(component.isActive());
 	}
 
+	/**
+	 * @param releaseDirectory
+	 * @return the path of the file this exporter writes its rows to
+	 */
+	public final Path getExportFile(final Path releaseDirectory) {
+		return releaseDirectory.resolve(getRelativeDirectory()).resolve(getFileName());
+	}
+	
 	public final void exportBranch(
 			final Path releaseDirectory, 
 			final RepositoryContext context, 
 			final String branch, 
 			final long effectiveTimeStart, 
 			final long effectiveTimeEnd,
-			final Set<String> visitedComponentEffectiveTimes) throws IOException {
+			final Set<String> visitedComponentEffectiveTimes,
+			final ByteBuffer writeBuffer,
+			final Executor prefetchExecutor) throws IOException {
 
 		LOG.info("Exporting {} branch to '{}'", branch, getFileName());
 		
 		// Ensure that the path leading to the export file exists
-		final Path exportFileDirectory = releaseDirectory.resolve(getRelativeDirectory());
-		Files.createDirectories(exportFileDirectory);
+		final Path exportFile = getExportFile(releaseDirectory);
+		Files.createDirectories(exportFile.getParent());
 
-		final Path exportFile = exportFileDirectory.resolve(getFileName());
 		try (RandomAccessFile randomAccessFile = new RandomAccessFile(exportFile.toFile(), "rw")) {
 			try (FileChannel fileChannel = randomAccessFile.getChannel()) {
 
+				// We want to append rows, if the file already exists, so jump to the end
+				fileChannel.position(fileChannel.size());
+				
+				writeBuffer.clear();
+				final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+						.onMalformedInput(CodingErrorAction.REPLACE)
+						.onUnmappableCharacter(CodingErrorAction.REPLACE);
+				final StringBuilder line = new StringBuilder();
+
 				// Add a header if the file is empty
 				if (randomAccessFile.length() == 0L) {
-					fileChannel.write(toByteBuffer(TAB_JOINER.join(getHeader())));
-					fileChannel.write(toByteBuffer(CR_LF));
+					writeRow(Arrays.asList(getHeader()), line, encoder, writeBuffer, fileChannel);
 				}
 
-				// We want to append rows, if the file already exists, so jump to the end
-				fileChannel.position(fileChannel.size());
-
 				/*
 				 * XXX: createSearchRequestBuilder() should handle namespace/language code
 				 * filtering, if applicable; we will only handle the effective time and module
@@ -148,13 +167,14 @@ public abstract class Rf2Exporter<B extends SnomedSearchRequestBuilder<B, R>, R
 						.filterByEffectiveTime(effectiveTimeStart, effectiveTimeEnd)
 						.setLimit(BATCH_SIZE);
 				
+				// fetch the next batch in the background while the current one is written to the file
 				final SearchResourceRequestIterator<B, R> iterator = new SearchResourceRequestIterator<>(requestBuilder, scrolledBuilder -> {
 					return new BranchRequest<R>(
 						branch, 
 						new RevisionIndexReadRequest<>(scrolledBuilder.build())
 					)
 					.execute(context);
-				});
+				}, prefetchExecutor);
 				
 				while (iterator.hasNext()) {
 					final R hits = iterator.next();
@@ -169,18 +189,35 @@ public abstract class Rf2Exporter<B extends SnomedSearchRequestBuilder<B, R>, R
 							}
 							
 							try {
-								fileChannel.write(toByteBuffer(TAB_JOINER.join(row)));
-								fileChannel.write(toByteBuffer(CR_LF));
+								writeRow(row, line, encoder, writeBuffer, fileChannel);
 							} catch (final IOException e) {
 								throw new SnowowlRuntimeException("Failed to write contents for file '" + exportFile.getFileName() + "'.");
 							}
 						});
 				}
+				
+				flush(writeBuffer, fileChannel);
 			}
 		}
 	}
 
-	private static ByteBuffer toByteBuffer(final String s) {
-		return ByteBuffer.wrap(s.getBytes(Charsets.UTF_8));
+	/*Encodes the row into the write buffer, the buffer is written to the channel whenever it becomes full*/
+	private static void writeRow(final List<String> row, final StringBuilder line, final CharsetEncoder encoder, final ByteBuffer writeBuffer, final FileChannel fileChannel) throws IOException {
+		line.setLength(0);
+		TAB_JOINER.appendTo(line, row).append(CR_LF);
+		
+		final CharBuffer chars = CharBuffer.wrap(line);
+		encoder.reset();
+		while (encoder.encode(chars, writeBuffer, true).isOverflow()) {
+			flush(writeBuffer, fileChannel);
+		}
+	}
+
+	private static void flush(final ByteBuffer writeBuffer, final FileChannel fileChannel) throws IOException {
+		writeBuffer.flip();
+		while (writeBuffer.hasRemaining()) {
+			fileChannel.write(writeBuffer);
+		}
+		writeBuffer.clear();
 	}
 }
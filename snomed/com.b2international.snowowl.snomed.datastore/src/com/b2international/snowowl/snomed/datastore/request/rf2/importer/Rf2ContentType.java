@@ -35,13 +35,6 @@ import com.google.common.base.Strings;
  */
 public interface Rf2ContentType<T extends SnomedComponent> {
 
-	default void register(String[] values, Rf2EffectiveTimeSlice slice, ImportDefectBuilder defectBuilder) {
-		
-		final String containerId = getContainerId(values);
-		slice.register(containerId, this, values, defectBuilder);
-		slice.registerDependencies(getDependentComponentId(values), getDependencies(values));
-	}
-
 	default long getDependentComponentId(String[] values) {
 		return Long.parseLong(values[0]);
 	}
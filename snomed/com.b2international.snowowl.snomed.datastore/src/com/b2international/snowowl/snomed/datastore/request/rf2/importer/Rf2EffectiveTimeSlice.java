@@ -48,7 +48,6 @@ import com.b2international.snowowl.core.domain.IComponent;
 import com.b2international.snowowl.core.id.IDs;
 import com.b2international.snowowl.core.internal.locks.DatastoreLockContextDescriptions;
 import com.b2international.snowowl.core.repository.RepositoryRequests;
-import com.b2international.snowowl.core.request.io.ImportDefectAcceptor.ImportDefectBuilder;
 import com.b2international.snowowl.core.terminology.ComponentCategory;
 import com.b2international.snowowl.core.uri.ComponentURI;
 import com.b2international.snowowl.snomed.cis.SnomedIdentifiers;
@@ -75,7 +74,7 @@ import com.google.common.collect.Multimap;
 public final class Rf2EffectiveTimeSlice {
 	
 	private static final Logger LOG = LoggerFactory.getLogger("import");
-	private static final int BATCH_SIZE = 5000;
+	public static final int BATCH_SIZE = 5000;
 
 	public static final String SNAPSHOT_SLICE = "snapshot";
 
@@ -133,13 +132,30 @@ public final class Rf2EffectiveTimeSlice {
 		throw new IllegalArgumentException("Unrecognized RF2 component: " + componentId + " - " + Arrays.toString(valuesWithType));
 	}
 	
-	public void register(String containerId, Rf2ContentType<?> type, String[] values, ImportDefectBuilder defectBuilder) {
+	/**
+	 * Registers a batch of already validated rows of the given content type. Rows can be registered concurrently by multiple readers, each batch
+	 * is written to the slice atomically.
+	 * 
+	 * @param type - the content type of the rows
+	 * @param rows - the column values of each row
+	 */
+	public synchronized void register(Rf2ContentType<?> type, List<String[]> rows) {
+		for (String[] values : rows) {
+			register(type, values);
+		}
+		if (tmpComponentsById.size() >= BATCH_SIZE) {
+			flush();
+		}
+	}
+	
+	private void register(Rf2ContentType<?> type, String[] values) {
 		
 		String[] valuesWithType = new String[values.length + 1];
 		valuesWithType[0] = type.getType();
 		System.arraycopy(values, 0, valuesWithType, 1, values.length);
 
 		final String componentId = values[0];
+		final String containerId = type.getContainerId(values);
 		final long containerIdL = Long.parseLong(containerId);
 
 		// track refset members via membersByReferencedComponent map
@@ -155,15 +171,11 @@ public final class Rf2EffectiveTimeSlice {
 			}
 		}
 		
-		type.validate(defectBuilder, values);
-		
 		tmpComponentsById.put(componentId, valuesWithType);
-		if (tmpComponentsById.size() >= BATCH_SIZE) {
-			flush();
-		}
+		registerDependencies(type.getDependentComponentId(values), type.getDependencies(values));
 	}
 	
-	public void registerDependencies(long componentId, LongSet dependencies) {
+	public synchronized void registerDependencies(long componentId, LongSet dependencies) {
 		if (!dependenciesByComponent.containsKey(componentId)) {
 			dependenciesByComponent.put(componentId, dependencies);
 		} else {
@@ -179,7 +191,7 @@ public final class Rf2EffectiveTimeSlice {
 		return membersByReferencedComponent;
 	}
 
-	public void flush() {
+	public synchronized void flush() {
 		if (!tmpComponentsById.isEmpty()) {
 			componentsById.putAll(tmpComponentsById);
 		}
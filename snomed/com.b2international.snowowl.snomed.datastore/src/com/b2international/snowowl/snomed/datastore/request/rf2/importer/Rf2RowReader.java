@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.request.rf2.importer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the rows of a tab separated RF2 file. Rows are located and split directly in the byte buffer the stream is read into, and each column is
+ * decoded from the buffer into its final {@link String} value without any intermediate character or token copies. Empty lines are skipped, both
+ * <code>\r\n</code> and <code>\n</code> line endings are accepted.
+ * <p>
+ * Instances are not thread-safe, use a separate reader for each file.
+ *
+ * @since 7.14
+ */
+public final class Rf2RowReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final InputStream in;
+
+	private byte[] buffer;
+	private int position;
+	private int limit;
+	private boolean endOfStream;
+	private int lineNumber;
+
+	public Rf2RowReader(InputStream in) {
+		this(in, BUFFER_SIZE);
+	}
+
+	/*The buffer grows on demand, smaller initial sizes are used in tests to cover rows spanning multiple reads*/
+	Rf2RowReader(InputStream in, int initialBufferSize) {
+		checkArgument(initialBufferSize > 0, "Initial buffer size must be positive, got: %s", initialBufferSize);
+		this.in = in;
+		this.buffer = new byte[initialBufferSize];
+	}
+
+	/**
+	 * @return the columns of the next non-empty row, or <code>null</code> if the end of the stream has been reached
+	 * @throws IOException
+	 */
+	public String[] next() throws IOException {
+		if (lineNumber == 0) {
+			skipByteOrderMark();
+		}
+
+		int scanFrom = position;
+		while (true) {
+			int lineEnd = indexOf((byte) '\n', scanFrom, limit);
+			if (lineEnd == -1) {
+				if (!endOfStream) {
+					// continue scanning for the line separator where the previous scan stopped
+					scanFrom = limit - position;
+					fill();
+					scanFrom += position;
+					continue;
+				} else if (position == limit) {
+					return null;
+				} else {
+					// last line without a line separator
+					lineEnd = limit;
+				}
+			}
+
+			final int start = position;
+			int end = lineEnd;
+			position = Math.min(lineEnd + 1, limit);
+			scanFrom = position;
+			lineNumber++;
+
+			if (end > start && buffer[end - 1] == '\r') {
+				end--;
+			}
+			if (end > start) {
+				return split(start, end);
+			}
+		}
+	}
+
+	/**
+	 * @return the (1-based) number of the line the last returned row was read from
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	private String[] split(int start, int end) {
+		int columns = 1;
+		for (int i = start; i < end; i++) {
+			if (buffer[i] == '\t') {
+				columns++;
+			}
+		}
+
+		final String[] values = new String[columns];
+		int column = 0;
+		int columnStart = start;
+		for (int i = start; i < end; i++) {
+			if (buffer[i] == '\t') {
+				values[column++] = new String(buffer, columnStart, i - columnStart, StandardCharsets.UTF_8);
+				columnStart = i + 1;
+			}
+		}
+		values[column] = new String(buffer, columnStart, end - columnStart, StandardCharsets.UTF_8);
+		return values;
+	}
+
+	/*Moves the unread part of the buffer to the beginning (growing the buffer if it is full), then reads more bytes after it*/
+	private void fill() throws IOException {
+		final int remaining = limit - position;
+		if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, remaining);
+		} else if (remaining == buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+		position = 0;
+		limit = remaining;
+
+		final int read = in.read(buffer, limit, buffer.length - limit);
+		if (read == -1) {
+			endOfStream = true;
+		} else {
+			limit += read;
+		}
+	}
+
+	private void skipByteOrderMark() throws IOException {
+		while (limit - position < 3 && !endOfStream) {
+			fill();
+		}
+		if (limit - position >= 3
+				&& buffer[position] == (byte) 0xEF
+				&& buffer[position + 1] == (byte) 0xBB
+				&& buffer[position + 2] == (byte) 0xBF) {
+			position += 3;
+		}
+	}
+
+	private int indexOf(byte b, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (buffer[i] == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
@@ -15,10 +15,9 @@
  */
 package com.b2international.snowowl.snomed.datastore.request.rf2.validation;
 
-import static com.google.common.collect.Maps.newHashMap;
-
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -33,7 +32,7 @@ import com.google.common.primitives.Ints;
  */
 public final class Rf2ValidationIssueReporter {
 	
-	private final Map<String, ImportDefectAcceptor> defectsByFile = newHashMap();
+	private final Map<String, ImportDefectAcceptor> defectsByFile = new ConcurrentHashMap<>();
 	
 	public ImportDefectAcceptor getDefectAcceptor(final String file) {
 		return defectsByFile.computeIfAbsent(file, key -> new ImportDefectAcceptor(key));
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.datastore.taxonomy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.b2international.commons.CompareUtils;
+import com.b2international.index.Hits;
+import com.b2international.index.mapping.DocumentMapping;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.Commit;
+import com.b2international.index.revision.CommitDetail;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
+import com.b2international.snowowl.core.branch.Branch;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.refset.SnomedRefSetType;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedOWLRelationshipDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRefSetMemberIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+/**
+ * Keeps the inferred and stated IS A hierarchy of the most recently accessed branches in memory as {@link TaxonomyGraph}s, so hierarchical ECL
+ * operators can be answered from primitive arrays instead of sending large terms queries to the index.
+ * <p>
+ * Graphs are keyed by branch path and versioned by the branch head timestamp. When the head moves, the components recorded in the {@link Commit}s
+ * made since the last refresh are reloaded and patched into the existing graph. A full rebuild happens only when the branch has been rebased,
+ * something has been merged into it, or the change set is too large to be applied incrementally.
+ * </p>
+ *
+ * @since 7.14
+ */
+public final class SnomedHierarchyIndex {
+
+	private static final Logger LOG = LoggerFactory.getLogger("repository");
+
+	/**
+	 * The maximum number of changed components that will be patched into an existing graph, above this limit the graph will be rebuilt from scratch.
+	 */
+	private static final int PATCH_LIMIT = 50_000;
+
+	private static final int BATCH_SIZE = 10_000;
+
+	private static final String CONCEPT_TYPE = DocumentMapping.getType(SnomedConceptDocument.class);
+	private static final String RELATIONSHIP_TYPE = DocumentMapping.getType(SnomedRelationshipIndexEntry.class);
+	private static final String MEMBER_TYPE = DocumentMapping.getType(SnomedRefSetMemberIndexEntry.class);
+
+	private final Cache<String, HierarchyEntry> entries;
+
+	public SnomedHierarchyIndex(int maxBranches) {
+		this.entries = CacheBuilder.newBuilder()
+				// every branch can have an inferred and a stated graph registered
+				.maximumSize(maxBranches * 2L)
+				.expireAfterAccess(1L, TimeUnit.HOURS)
+				.build();
+	}
+
+	/**
+	 * @param context
+	 * @return <code>true</code> if the hierarchy of the branch can be read via this index, <code>false</code> if the context does not point to the
+	 *         head of a branch (eg. the request is executed on a point in time or on the base of the branch).
+	 */
+	public boolean canRead(BranchContext context) {
+		return context.branch().path().equals(context.path());
+	}
+	
+	/**
+	 * Applies the given read function on the up-to-date {@link TaxonomyGraph} of the branch the given context is opened on. The function must not
+	 * modify the graph and should not hold on to it after returning.
+	 *
+	 * @param context - the context to use for reading the hierarchy, should have a {@link RevisionSearcher} bound to it
+	 * @param characteristicTypeId - the characteristic type of the hierarchy, either {@link Concepts#INFERRED_RELATIONSHIP} or {@link Concepts#STATED_RELATIONSHIP}
+	 * @param reader - the function to apply on the graph
+	 * @return the result of the read function
+	 * @see #canRead(BranchContext)
+	 */
+	public <T> T read(BranchContext context, String characteristicTypeId, Function<TaxonomyGraph, T> reader) {
+		checkArgument(canRead(context), "Hierarchy of branch '%s' cannot be read on path '%s'.", context.branch().path(), context.path());
+		final Branch branch = context.branch();
+		final HierarchyEntry entry;
+		try {
+			entry = entries.get(branch.path() + "#" + characteristicTypeId, () -> new HierarchyEntry(characteristicTypeId));
+		} catch (ExecutionException e) {
+			throw new SnowowlRuntimeException(e.getCause());
+		}
+		return entry.read(context.service(RevisionSearcher.class), branch, reader);
+	}
+
+	/**
+	 * Drops all cached hierarchies.
+	 */
+	public void clear() {
+		entries.invalidateAll();
+	}
+
+	private static final class HierarchyEntry {
+
+		private final String characteristicTypeId;
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+		private TaxonomyGraph graph;
+		private long branchId = -1L;
+		private long headTimestamp = -1L;
+
+		HierarchyEntry(String characteristicTypeId) {
+			this.characteristicTypeId = characteristicTypeId;
+		}
+
+		<T> T read(RevisionSearcher searcher, Branch branch, Function<TaxonomyGraph, T> reader) {
+			lock.readLock().lock();
+			try {
+				if (isCurrent(branch)) {
+					return reader.apply(graph);
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+
+			lock.writeLock().lock();
+			try {
+				if (!isCurrent(branch)) {
+					refresh(searcher, branch);
+				}
+				// downgrade to a read lock before reading the graph
+				lock.readLock().lock();
+			} finally {
+				lock.writeLock().unlock();
+			}
+
+			try {
+				return reader.apply(graph);
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		/*a graph refreshed by a more recent request is still up-to-date, as searchers always read the current state of the branch*/
+		private boolean isCurrent(Branch branch) {
+			return graph != null && branchId == branch.branchId() && headTimestamp >= branch.headTimestamp();
+		}
+
+		private void refresh(RevisionSearcher searcher, Branch branch) {
+			try {
+				if (graph == null || branchId != branch.branchId() || !patch(searcher, branch)) {
+					graph = build(searcher, characteristicTypeId);
+				}
+				branchId = branch.branchId();
+				headTimestamp = branch.headTimestamp();
+			} catch (IOException e) {
+				graph = null;
+				throw new SnowowlRuntimeException(e);
+			} catch (RuntimeException e) {
+				// a partially patched graph can not be used anymore
+				graph = null;
+				throw e;
+			}
+		}
+
+		private boolean patch(RevisionSearcher searcher, Branch branch) throws IOException {
+			final Hits<Commit> commits = searcher.searcher().search(Query.select(Commit.class)
+					.where(Expressions.builder()
+							.filter(Commit.Expressions.branches(branch.path()))
+							.filter(Commit.Expressions.timestampRange(headTimestamp + 1, branch.headTimestamp()))
+							.build())
+					.limit(Integer.MAX_VALUE)
+					.build());
+
+			final Set<String> conceptIds = newHashSet();
+			final Set<String> relationshipIds = newHashSet();
+			final Set<String> memberIds = newHashSet();
+
+			for (Commit commit : commits) {
+				// regular merge commits do not record the merged components
+				if (commit.getMergeSource() != null && !Boolean.TRUE.equals(commit.getSquashMerge())) {
+					return false;
+				}
+				for (CommitDetail detail : commit.getDetails()) {
+					collect(detail.getObjectType(), detail.getObjects(), conceptIds, relationshipIds, memberIds);
+					if (detail.getComponents() != null) {
+						for (Set<String> components : detail.getComponents()) {
+							collect(detail.getComponentType(), components, conceptIds, relationshipIds, memberIds);
+						}
+					}
+				}
+				if (conceptIds.size() + relationshipIds.size() + memberIds.size() > PATCH_LIMIT) {
+					return false;
+				}
+			}
+
+			LOG.trace("Patching {} hierarchy of '{}' with {} concept, {} relationship and {} member changes.",
+					characteristicTypeId, branch.path(), conceptIds.size(), relationshipIds.size(), memberIds.size());
+
+			for (List<String> batch : Iterables.partition(conceptIds, BATCH_SIZE)) {
+				final Set<String> activeConceptIds = ImmutableSet.copyOf(searcher.search(Query.select(String.class)
+						.from(SnomedConceptDocument.class)
+						.fields(SnomedConceptDocument.Fields.ID)
+						.where(Expressions.builder()
+								.filter(SnomedConceptDocument.Expressions.ids(batch))
+								.filter(SnomedConceptDocument.Expressions.active())
+								.build())
+						.limit(batch.size())
+						.build()));
+				for (String conceptId : batch) {
+					if (activeConceptIds.contains(conceptId)) {
+						graph.addNode(conceptId);
+					} else {
+						graph.removeNode(conceptId);
+					}
+				}
+			}
+
+			for (List<String> batch : Iterables.partition(relationshipIds, BATCH_SIZE)) {
+				final Set<String> activeIsaRelationshipIds = newHashSet();
+				final Hits<String[]> activeIsaRelationships = searcher.search(Query.select(String[].class)
+						.from(SnomedRelationshipIndexEntry.class)
+						.fields(SnomedRelationshipIndexEntry.Fields.ID, SnomedRelationshipIndexEntry.Fields.SOURCE_ID, SnomedRelationshipIndexEntry.Fields.DESTINATION_ID)
+						.where(Expressions.builder()
+								.filter(SnomedRelationshipIndexEntry.Expressions.ids(batch))
+								.filter(SnomedRelationshipIndexEntry.Expressions.active())
+								.filter(SnomedRelationshipIndexEntry.Expressions.typeId(Concepts.IS_A))
+								.filter(SnomedRelationshipIndexEntry.Expressions.characteristicTypeId(characteristicTypeId))
+								.build())
+						.limit(batch.size())
+						.build());
+				for (String[] relationship : activeIsaRelationships) {
+					activeIsaRelationshipIds.add(relationship[0]);
+					graph.addEdge(relationship[0], Long.parseLong(relationship[1]), new long[] { Long.parseLong(relationship[2]) });
+				}
+				for (String relationshipId : batch) {
+					if (!activeIsaRelationshipIds.contains(relationshipId)) {
+						graph.removeEdge(relationshipId);
+					}
+				}
+			}
+
+			if (Concepts.STATED_RELATIONSHIP.equals(characteristicTypeId)) {
+				for (List<String> batch : Iterables.partition(memberIds, BATCH_SIZE)) {
+					final Set<String> axiomIds = newHashSet();
+					final Hits<SnomedRefSetMemberIndexEntry> activeAxioms = searcher.search(Query.select(SnomedRefSetMemberIndexEntry.class)
+							.where(Expressions.builder()
+									.filter(SnomedRefSetMemberIndexEntry.Expressions.ids(batch))
+									.filter(SnomedRefSetMemberIndexEntry.Expressions.active())
+									.filter(SnomedRefSetMemberIndexEntry.Expressions.refSetTypes(ImmutableSet.of(SnomedRefSetType.OWL_AXIOM)))
+									.build())
+							.limit(batch.size())
+							.build());
+					for (SnomedRefSetMemberIndexEntry axiom : activeAxioms) {
+						if (!CompareUtils.isEmpty(axiom.getClassAxiomRelationships())) {
+							final long[] destinationIds = axiom.getClassAxiomRelationships()
+									.stream()
+									.filter(classAxiom -> Concepts.IS_A.equals(classAxiom.getTypeId()))
+									.map(SnomedOWLRelationshipDocument::getDestinationId)
+									.mapToLong(Long::parseLong)
+									.toArray();
+							axiomIds.add(axiom.getId());
+							graph.addEdge(axiom.getId(), Long.parseLong(axiom.getReferencedComponentId()), destinationIds);
+						}
+					}
+					for (String memberId : batch) {
+						if (!axiomIds.contains(memberId)) {
+							graph.removeEdge(memberId);
+						}
+					}
+				}
+			}
+
+			graph.update();
+			return true;
+		}
+
+		private static void collect(String type, Collection<String> ids, Set<String> conceptIds, Set<String> relationshipIds, Set<String> memberIds) {
+			if (CompareUtils.isEmpty(ids)) {
+				return;
+			}
+			if (CONCEPT_TYPE.equals(type)) {
+				conceptIds.addAll(ids);
+			} else if (RELATIONSHIP_TYPE.equals(type)) {
+				relationshipIds.addAll(ids);
+			} else if (MEMBER_TYPE.equals(type)) {
+				memberIds.addAll(ids);
+			}
+		}
+
+		private static TaxonomyGraph build(RevisionSearcher searcher, String characteristicTypeId) throws IOException {
+			LOG.trace("Building {} hierarchy of '{}'.", characteristicTypeId, searcher.branch());
+
+			final Hits<String> activeConceptIds = searcher.search(Query.select(String.class)
+					.from(SnomedConceptDocument.class)
+					.fields(SnomedConceptDocument.Fields.ID)
+					.where(SnomedConceptDocument.Expressions.active())
+					.limit(Integer.MAX_VALUE)
+					.build());
+			final Collection<Object[]> isaStatements = Taxonomies.getAllStatements(searcher, characteristicTypeId);
+
+			final TaxonomyGraph graph = new TaxonomyGraph(activeConceptIds.getTotal(), isaStatements.size());
+			// the graph is used for evaluating queries only, cycles are reported when committing content
+			graph.setCheckCycles(false);
+
+			for (String conceptId : activeConceptIds) {
+				graph.addNode(conceptId);
+			}
+			for (Object[] isaStatement : isaStatements) {
+				graph.addEdge((String) isaStatement[0], (long) isaStatement[1], (long[]) isaStatement[2]);
+			}
+
+			graph.update();
+			return graph;
+		}
+
+	}
+
+}
@@ -27,6 +27,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.b2international.collections.PrimitiveSets;
+import com.b2international.collections.longs.LongCollection;
+import com.b2international.collections.longs.LongIterator;
 import com.b2international.collections.longs.LongSet;
 import com.b2international.commons.CompareUtils;
 import com.b2international.commons.arrays.LongBidiMapWithInternalId;
@@ -258,6 +260,103 @@ public final class TaxonomyGraph {
 		return processElements(conceptId, superTypeMap);
 	}
 
+	/**
+	 * Returns the IDs of the direct descendants of all given nodes. Node IDs not registered in this graph are ignored.
+	 * 
+	 * @param nodeIds - the nodes to collect the direct descendants of
+	 * @return the union of the direct descendant node IDs
+	 */
+	public LongSet getDescendantNodeIds(final LongCollection nodeIds) {
+		checkState();
+		final BitSet subTypeMap = new BitSet(getConceptCount());
+		for (final LongIterator it = nodeIds.iterator(); it.hasNext(); /* empty */) {
+			final int id = nodes.getInternalId(it.next());
+			if (id >= 0) {
+				for (final int subType : descendants[id]) {
+					subTypeMap.set(subType);
+				}
+			}
+		}
+		return toNodeIds(subTypeMap);
+	}
+	
+	/**
+	 * Returns the IDs of the direct ancestors of all given nodes. Node IDs not registered in this graph are ignored.
+	 * 
+	 * @param nodeIds - the nodes to collect the direct ancestors of
+	 * @return the union of the direct ancestor node IDs
+	 */
+	public LongSet getAncestorNodeIds(final LongCollection nodeIds) {
+		checkState();
+		final BitSet superTypeMap = new BitSet(getConceptCount());
+		for (final LongIterator it = nodeIds.iterator(); it.hasNext(); /* empty */) {
+			final int id = nodes.getInternalId(it.next());
+			if (id >= 0) {
+				for (final int superType : ancestors[id]) {
+					superTypeMap.set(superType);
+				}
+			}
+		}
+		return toNodeIds(superTypeMap);
+	}
+	
+	/**
+	 * Returns the IDs of all direct and indirect descendants of the given nodes. Node IDs not registered in this graph are ignored. 
+	 * 
+	 * @param nodeIds - the nodes to collect the descendants of
+	 * @return the union of all descendant node IDs
+	 */
+	public LongSet getAllDescendantNodeIds(final LongCollection nodeIds) {
+		checkState();
+		final BitSet subTypeMap = new BitSet(getConceptCount());
+		for (final LongIterator it = nodeIds.iterator(); it.hasNext(); /* empty */) {
+			final int id = nodes.getInternalId(it.next());
+			if (id >= 0) {
+				collectDescendants(id, subTypeMap);
+			}
+		}
+		return toNodeIds(subTypeMap);
+	}
+	
+	/**
+	 * Returns the IDs of all direct and indirect descendants of the given nodes, unless there are more than the given number of them. The traversal
+	 * stops as soon as the limit is exceeded, so the IDs of large subtrees are never collected. Node IDs not registered in this graph are ignored.
+	 * 
+	 * @param nodeIds - the nodes to collect the descendants of
+	 * @param maxDescendants - the maximum number of descendants to collect
+	 * @return the union of all descendant node IDs, or <code>null</code> if the given nodes have more than <code>maxDescendants</code> descendants
+	 */
+	public LongSet getAllDescendantNodeIds(final LongCollection nodeIds, final int maxDescendants) {
+		checkState();
+		final BitSet subTypeMap = new BitSet(getConceptCount());
+		int remaining = maxDescendants;
+		for (final LongIterator it = nodeIds.iterator(); it.hasNext() && remaining >= 0; /* empty */) {
+			final int id = nodes.getInternalId(it.next());
+			if (id >= 0) {
+				remaining = collectDescendants(id, subTypeMap, remaining);
+			}
+		}
+		return remaining < 0 ? null : toNodeIds(subTypeMap);
+	}
+	
+	/**
+	 * Returns the IDs of all direct and indirect ancestors of the given nodes. Node IDs not registered in this graph are ignored. 
+	 * 
+	 * @param nodeIds - the nodes to collect the ancestors of
+	 * @return the union of all ancestor node IDs
+	 */
+	public LongSet getAllAncestorNodeIds(final LongCollection nodeIds) {
+		checkState();
+		final BitSet superTypeMap = new BitSet(getConceptCount());
+		for (final LongIterator it = nodeIds.iterator(); it.hasNext(); /* empty */) {
+			final int id = nodes.getInternalId(it.next());
+			if (id >= 0) {
+				collectAncestors(id, superTypeMap);
+			}
+		}
+		return toNodeIds(superTypeMap);
+	}
+
 	public long getSourceNodeId(final String edgeId) {
 		return getEdge(edgeId).sourceId;
 	}
@@ -322,6 +421,15 @@ public final class TaxonomyGraph {
 		return $;
 	}
 	
+	/*converts the internal IDs set in the given bit set to node IDs without checking for cycles*/
+	private LongSet toNodeIds(final BitSet bitSet) {
+		final LongSet $ = PrimitiveSets.newLongOpenHashSetWithExpectedSize(bitSet.cardinality());
+		for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+			$.add(getNodeId(i));
+		}
+		return $;
+	}
+	
 	private LongSet processElements(final long conceptId, final int... internalIds) {
 		if (CompareUtils.isEmpty(internalIds)) {
 			return PrimitiveSets.newLongOpenHashSet();
@@ -374,6 +482,20 @@ public final class TaxonomyGraph {
 		}
 	}
 
+	/*Returns the number of descendants that can still be collected after visiting the given type, a negative value if the limit was exceeded*/
+	private int collectDescendants(final int type, final BitSet descendants, int remaining) {
+		final int[] relationships = this.descendants[type];
+		if (relationships != null) {
+			for (int i = 0; i < relationships.length && remaining >= 0; i++) {
+				if (!descendants.get(relationships[i])) {
+					descendants.set(relationships[i]); //set to true
+					remaining = collectDescendants(relationships[i], descendants, remaining - 1);
+				}
+			}
+		}
+		return remaining;
+	}
+
 	private int getConceptCount() {
 		return nodes.size();
 	}
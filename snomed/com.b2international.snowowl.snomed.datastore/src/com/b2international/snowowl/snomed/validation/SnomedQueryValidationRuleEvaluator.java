@@ -18,9 +18,11 @@ package com.b2international.snowowl.snomed.validation;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -79,12 +81,29 @@ public final class SnomedQueryValidationRuleEvaluator implements ValidationRuleE
 	private static final int RULE_LIMIT = 25_000;
 	private static final TypeReference<SnomedComponentValidationQuery<?, PageableCollectionResource<SnomedComponent>, SnomedComponent>> TYPE_REF = new TypeReference<SnomedComponentValidationQuery<?, PageableCollectionResource<SnomedComponent>, SnomedComponent>>() {};
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Override
 	public List<?> eval(BranchContext context, ValidationRule rule, Map<String, Object> params) throws Exception {
+		return eval(context, rule, params, null);
+	}
+	
+	@Override
+	public boolean isScopeSupported(BranchContext context, ValidationRule rule) {
+		if (!type().equals(rule.getType())) {
+			return false;
+		}
+		try {
+			return readQuery(context, rule).scoped;
+		} catch (IOException e) {
+			// invalid rules are evaluated on all components, and fail there
+			return false;
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public List<?> eval(BranchContext context, ValidationRule rule, Map<String, Object> params, Set<String> componentIds) throws Exception {
 		checkArgument(type().equals(rule.getType()), "'%s' is not recognizable by this evaluator (accepts: %s)", rule, type());
-		SnomedComponentValidationQuery<?, PageableCollectionResource<SnomedComponent>, SnomedComponent> validationQuery = context.service(ObjectMapper.class)
-				.<SnomedComponentValidationQuery<?, PageableCollectionResource<SnomedComponent>, SnomedComponent>>readValue(rule.getImplementation(), TYPE_REF);
+		SnomedComponentValidationQuery<?, PageableCollectionResource<SnomedComponent>, SnomedComponent> validationQuery = readQuery(context, rule);
 		
 		SnomedSearchRequestBuilder<?, PageableCollectionResource<SnomedComponent>> req = validationQuery
 				.prepareSearch();
@@ -97,6 +116,10 @@ public final class SnomedQueryValidationRuleEvaluator implements ValidationRuleE
 			expressionBuilder.filter(SnomedDocument.Expressions.effectiveTime(EffectiveTimes.UNSET_EFFECTIVE_TIME));
 		}
 		
+		if (componentIds != null) {
+			expressionBuilder.filter(SnomedDocument.Expressions.ids(componentIds));
+		}
+		
 		Expression where = expressionBuilder.build();
 		
 		// TODO check if the expression contains only the ID list, then skip scrolling and just report them
@@ -126,6 +149,11 @@ public final class SnomedQueryValidationRuleEvaluator implements ValidationRuleE
 		return issues == null ? Collections.emptyList() : issues;
 	}
 
+	private SnomedComponentValidationQuery<?, PageableCollectionResource<SnomedComponent>, SnomedComponent> readQuery(BranchContext context, ValidationRule rule) throws IOException {
+		return context.service(ObjectMapper.class)
+				.<SnomedComponentValidationQuery<?, PageableCollectionResource<SnomedComponent>, SnomedComponent>>readValue(rule.getImplementation(), TYPE_REF);
+	}
+
 	@Override
 	public String type() {
 		return "snomed-query";
@@ -144,6 +172,11 @@ public final class SnomedQueryValidationRuleEvaluator implements ValidationRuleE
 		@JsonProperty private String effectiveTime;
 		@JsonProperty private String module;
 		@JsonProperty private Boolean released;
+		/*
+		 * Whether the rule can be evaluated on the changed components only. Rules matching components based on other components, eg. on their
+		 * hierarchy (ecl, parent) or on the members referencing them (isActiveMemberOf), must not be scoped.
+		 */
+		@JsonProperty private boolean scoped;
 
 		public final SB prepareSearch() {
 			return prepareSearch(createSearch());
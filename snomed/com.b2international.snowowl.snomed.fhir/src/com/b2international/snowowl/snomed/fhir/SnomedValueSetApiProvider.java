@@ -57,13 +57,14 @@ import com.b2international.snowowl.snomed.core.domain.SnomedConcepts;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedRefSetType;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSet;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMember;
-import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSetMembers;
 import com.b2international.snowowl.snomed.core.domain.refset.SnomedReferenceSets;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
 import com.b2international.snowowl.snomed.datastore.request.SnomedConceptSearchRequestBuilder;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRefSetSearchRequestBuilder;
 import com.b2international.snowowl.snomed.datastore.request.SnomedRequests;
 import com.b2international.snowowl.snomed.fhir.SnomedUri.QueryPart;
 import com.b2international.snowowl.snomed.fhir.SnomedUri.QueryPartDefinition;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -76,6 +77,12 @@ import com.google.common.collect.Sets;
  */
 public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider implements IValueSetApiProvider {
 
+	//maximum number of concepts returned in a single expansion, also used when no count is specified
+	private static final int MAX_EXPANSION_COUNT = 1_000;
+	
+	//number of concepts returned by default when expanding the entire SNOMED CT
+	private static final int DEFAULT_ROOT_EXPANSION_COUNT = 50;
+
 	@Component
 	public static final class Factory implements IValueSetApiProvider.Factory {
 		
@@ -156,12 +163,12 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 	}
 
 	@Override
-	public ValueSet expandValueSet(LogicalId logicalId) {
+	public ValueSet expandValueSet(LogicalId logicalId, ExpandValueSetRequest request) {
 		
 		CodeSystemVersionEntry codeSystemVersion = findCodeSystemVersion(logicalId);
 
 		if (!logicalId.isMemberId()) {
-			return buildSimpleTypeRefsetValueSet(logicalId.getComponentId(), codeSystemVersion);
+			return buildSimpleTypeRefsetValueSet(logicalId.getComponentId(), codeSystemVersion, request);
 		} 
 		else {
 			//Query type reference set member
@@ -175,7 +182,7 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 				.execute(getBus())
 				.then(members -> {
 					return members.stream()
-						.map(member -> buildExpandedQueryTypeValueSet(member, (SnomedConcept) member.getReferencedComponent(), codeSystemVersion, getLocales()))
+						.map(member -> buildExpandedQueryTypeValueSet(member, (SnomedConcept) member.getReferencedComponent(), codeSystemVersion, request))
 						.map(ValueSet.Builder::build)
 						.collect(Collectors.toList());
 				})
@@ -186,17 +193,14 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 		}
 	}
 	
-	private ValueSet buildSimpleTypeRefsetValueSet(String componentId, CodeSystemVersionEntry codeSystemVersion) {
-		
-		int all = Integer.MAX_VALUE;
+	private ValueSet buildSimpleTypeRefsetValueSet(String componentId, CodeSystemVersionEntry codeSystemVersion, ExpandValueSetRequest request) {
 		
 		return getSimpleTypeRefsetSearchRequestBuilder(componentId)
-			.setExpand("members(expand(referencedComponent(expand(pt()))), limit:"+ all +")")
 			.build(repositoryId, codeSystemVersion.getPath())
 			.execute(getBus())
 			.then(refsets -> {
 				return refsets.stream()
-					.map(r -> buildExpandedSimpleTypeValueSet(r, codeSystemVersion, getLocales()))
+					.map(r -> buildExpandedSimpleTypeValueSet(r, codeSystemVersion, request))
 					.map(ValueSet.Builder::build)
 					.collect(Collectors.toList());
 			})
@@ -210,8 +214,7 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 	 * Implicit value set expansion
 	 */
 	//url=http://snomed.info/sct?fhir_vs=isa/SCT_ID for SNOMED CT
-	@Override
-	public ValueSet expandValueSet(String uriString) {
+	private ValueSet expandValueSet(String uriString, ExpandValueSetRequest request) {
 		
 		String locationName = "$expand.url";
 		SnomedUri snomedUri = SnomedUri.fromUriString(uriString, locationName);
@@ -230,14 +233,14 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 				
 				case NONE:
 					//Entire SNOMED CT, makes no real sense
-					return buildSubsumptionValueSet(Concepts.ROOT_CONCEPT, codeSystemVersion, false);
+					return buildSubsumptionValueSet(Concepts.ROOT_CONCEPT, codeSystemVersion, request, DEFAULT_ROOT_EXPANSION_COUNT);
 				case REFSET:
-					return buildSimpleTypeRefsetValueSet(queryPart.getQueryValue(), codeSystemVersion);
+					return buildSimpleTypeRefsetValueSet(queryPart.getQueryValue(), codeSystemVersion, request);
 				case REFSETS:
 					//All simple type refsets
 					return buildSimpleTypeRefsetValueSets(codeSystemVersion);
 				case ISA:
-					return buildSubsumptionValueSet(queryPart.getQueryValue(), codeSystemVersion, true);
+					return buildSubsumptionValueSet(queryPart.getQueryValue(), codeSystemVersion, request, MAX_EXPANSION_COUNT);
 				default:
 					//should not happen
 					throw new BadRequestException("Unknown query part definition '" + queryPartDefinition + "'.", locationName);
@@ -250,7 +253,7 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 	public ValueSet expandValueSet(ExpandValueSetRequest request) {
 		//same as the GET url parameter
 		if (request.getValueSet() == null) {
-			return expandValueSet(request.getUrl().getUriValue());
+			return expandValueSet(request.getUrl().getUriValue(), request);
 		}
 		
 		//valueset is sent for expansion
@@ -605,7 +608,7 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 		return builder.build();		
 	}
 	
-	private ValueSet buildSubsumptionValueSet(String parentConceptId, CodeSystemVersionEntry codeSystemVersion, boolean fetchAll) {
+	private ValueSet buildSubsumptionValueSet(String parentConceptId, CodeSystemVersionEntry codeSystemVersion, ExpandValueSetRequest request, int defaultCount) {
 		
 		Builder builder = ValueSet.builder(UUID.randomUUID().toString());
 		
@@ -631,39 +634,16 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 			.div(narrativeText)
 			.build());
 		
-		//evaluate the ECL expression
-		SnomedConceptSearchRequestBuilder snomedConceptSearchRequestBuilder = SnomedRequests.prepareSearchConcept()
-			.filterByEcl("<<" + parentConceptId)
-			.filterByActive(true)
-			.setLocales(getLocales())
-			.setExpand("pt()");
-		
-		if (fetchAll) {
-			snomedConceptSearchRequestBuilder.all();
-		}
-		
-		SnomedConcepts snomedConcepts  = snomedConceptSearchRequestBuilder.build(repositoryId, codeSystemVersion.getPath())
-			.execute(getBus())
-			.getSync();
-		
 		com.b2international.snowowl.fhir.core.model.valueset.expansion.Expansion.Builder expansionBuilder = Expansion.builder()
 				.identifier("1")
 				.timestamp(new Date())
-				.total(snomedConcepts.getTotal())
 				.addParameter(UriParameter.builder()
 					.name("version")
 					.value(uri.toUri())
 					.build());
 		
-		snomedConcepts.forEach(c -> {
-			
-			Contains content = Contains.builder()
-					.system(SnomedUri.SNOMED_BASE_URI)
-					.code(c.getId())
-					.display(getPreferredTermOrId(c))
-					.build();
-			expansionBuilder.addContains(content);
-		});
+		//evaluate the ECL expression
+		addConcepts(expansionBuilder, codeSystemVersion.getPath(), "<<" + parentConceptId, request, defaultCount);
 		
 		builder.name(String.format("SNOMED CT concept [ID: %s] and descendants (<<%s)", parentConceptId, parentConceptId))
 			.expansion(expansionBuilder.build());
@@ -671,7 +651,7 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 		return builder.build();
 	}
 
-	private ValueSet.Builder buildExpandedQueryTypeValueSet(SnomedReferenceSetMember refsetMember, SnomedConcept referencedComponent, CodeSystemVersionEntry codeSystemVersion, List<ExtendedLocale> locales) {
+	private ValueSet.Builder buildExpandedQueryTypeValueSet(SnomedReferenceSetMember refsetMember, SnomedConcept referencedComponent, CodeSystemVersionEntry codeSystemVersion, ExpandValueSetRequest request) {
 		
 		LogicalId logicalId = new LogicalId(repositoryId, codeSystemVersion.getPath(), refsetMember.getReferenceSetId(), refsetMember.getId());
 		
@@ -686,37 +666,18 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 		
 		String eclExpression = (String) refsetMember.getProperties().get(SnomedRf2Headers.FIELD_QUERY);
 
-		//evaluate the ECL expression
-		SnomedConcepts snomedConcepts = SnomedRequests.prepareSearchConcept()
-			.all()
-			.filterByEcl(eclExpression)
-			.filterByActive(true)
-			.setLocales(locales)
-			.setExpand("pt()")
-			.build(repositoryId, logicalId.getBranchPath())
-			.execute(getBus())
-			.getSync();
-		
 		SnomedUri uri = SnomedUri.builder().version(codeSystemVersion.getEffectiveDate()).build();
 		
 		com.b2international.snowowl.fhir.core.model.valueset.expansion.Expansion.Builder expansionBuilder = Expansion.builder()
 				.identifier(refsetMember.getId())
 				.timestamp(new Date())
-				.total(snomedConcepts.getTotal())
 				.addParameter(UriParameter.builder()
 					.name("version")
 					.value(uri.toUri())
 					.build());
 		
-		snomedConcepts.forEach(c -> {
-			
-			Contains content = Contains.builder()
-					.system(SnomedUri.SNOMED_BASE_URI)
-					.code(c.getId())
-					.display(getPreferredTermOrId(c))
-					.build();
-			expansionBuilder.addContains(content);
-		});
+		//evaluate the ECL expression
+		addConcepts(expansionBuilder, logicalId.getBranchPath(), eclExpression, request, MAX_EXPANSION_COUNT);
 		
 		String pt = getPreferredTermOrId(referencedComponent);
 		return builder
@@ -746,41 +707,102 @@ public final class SnomedValueSetApiProvider extends SnomedFhirApiProvider imple
 		return builder.compose(compose);
 	}
 	
-	private ValueSet.Builder buildExpandedSimpleTypeValueSet(SnomedReferenceSet referenceSet, CodeSystemVersionEntry codeSystemVersion, final List<ExtendedLocale> locales) {
+	private ValueSet.Builder buildExpandedSimpleTypeValueSet(SnomedReferenceSet referenceSet, CodeSystemVersionEntry codeSystemVersion, ExpandValueSetRequest request) {
 		
 		LogicalId logicalId = new LogicalId(repositoryId, codeSystemVersion.getPath(), referenceSet.getId());
 		
 		Builder builder = createValueSetBuilder(logicalId, referenceSet, codeSystemVersion);
 		addSimpleTypeProperties(builder, referenceSet, codeSystemVersion);
 		
-		SnomedReferenceSetMembers members = referenceSet.getMembers();
-		
 		SnomedUri uri = SnomedUri.builder().version(codeSystemVersion.getEffectiveDate()).build();
 		
 		com.b2international.snowowl.fhir.core.model.valueset.expansion.Expansion.Builder expansionBuilder = Expansion.builder()
 			.identifier(referenceSet.getId())
 			.timestamp(new Date())
-			.total(members.getTotal())
 			.addParameter(UriParameter.builder()
 				.name("version")
 				.value(uri.toUri())
 				.build());
+		
+		//active members of the reference set
+		addConcepts(expansionBuilder, codeSystemVersion.getPath(), "^" + referenceSet.getId(), request, MAX_EXPANSION_COUNT);
+		return builder.expansion(expansionBuilder.build());
+	}
+	
+	/*
+	 * Adds the active concepts matching the given ECL expression to the expansion, applying the filter, offset and count parameters of the
+	 * request. At most MAX_EXPANSION_COUNT concepts are returned, clients can page through larger value sets using the reported total. The
+	 * parameters are validated and the page is loaded before the value set is returned, so a failing request results in an error response.
+	 */
+	private void addConcepts(Expansion.Builder expansionBuilder, String branchPath, String ecl, ExpandValueSetRequest request, int defaultCount) {
+		
+		final int offset = request.getOffset() == null ? 0 : request.getOffset();
+		final int count = request.getCount() == null ? defaultCount : request.getCount();
+		
+		if (offset < 0) {
+			throw new BadRequestException("Offset must be equal to or larger than 0.", "$expand.offset");
+		}
+		
+		if (count < 0) {
+			throw new BadRequestException("Count must be equal to or larger than 0.", "$expand.count");
+		}
+		
+		if (request.getOffset() != null) {
+			expansionBuilder.offset(offset);
+		}
+		
+		//position the searchAfter cursor at the requested offset with a single request, fetching the IDs of the skipped concepts only
+		String searchAfter = null;
+		if (offset > 0) {
+			final SnomedConcepts skipped = prepareConceptSearch(ecl, request.getFilter())
+				.setFields(SnomedConceptDocument.Fields.ID)
+				.setLimit(offset)
+				.build(repositoryId, branchPath)
+				.execute(getBus())
+				.getSync();
 			
-		for (SnomedReferenceSetMember snomedReferenceSetMember : members) {
-			
-			//skip inactive members
-			if (!snomedReferenceSetMember.isActive()) continue;
-			
-			SnomedConcept concept = (SnomedConcept) snomedReferenceSetMember.getReferencedComponent();
+			//the offset is past the last concept
+			if (skipped.getItems().size() < offset || skipped.getSearchAfter() == null) {
+				expansionBuilder.total(skipped.getTotal());
+				return;
+			}
 			
-			Contains content = Contains.builder()
-					.system(SnomedUri.SNOMED_BASE_URI)
-					.code(concept.getId())
-					.display(getPreferredTermOrId(concept))
-					.build();
-			expansionBuilder.addContains(content);
+			searchAfter = skipped.getSearchAfter();
 		}
-		return builder.expansion(expansionBuilder.build());
+		
+		//load the requested page (or just the total if no concepts are requested)
+		final SnomedConcepts page = prepareConceptSearch(ecl, request.getFilter())
+			.setLocales(getLocales())
+			.setExpand("pt()")
+			.setLimit(Math.min(count, MAX_EXPANSION_COUNT))
+			.setSearchAfter(searchAfter)
+			.build(repositoryId, branchPath)
+			.execute(getBus())
+			.getSync();
+		
+		expansionBuilder
+			.total(page.getTotal())
+			.addContains(page.stream().map(this::toContains).collect(Collectors.toList()));
+	}
+	
+	private SnomedConceptSearchRequestBuilder prepareConceptSearch(String ecl, String filter) {
+		SnomedConceptSearchRequestBuilder requestBuilder = SnomedRequests.prepareSearchConcept()
+			.filterByEcl(ecl)
+			.filterByActive(true);
+		
+		if (!Strings.isNullOrEmpty(filter)) {
+			requestBuilder.filterByTerm(filter);
+		}
+		
+		return requestBuilder;
+	}
+	
+	private Contains toContains(SnomedConcept concept) {
+		return Contains.builder()
+			.system(SnomedUri.SNOMED_BASE_URI)
+			.code(concept.getId())
+			.display(getPreferredTermOrId(concept))
+			.build();
 	}
 	
 	//Collect every version on every extension
@@ -19,10 +19,12 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.b2international.snowowl.snomed.reasoner.diff.ChangeBatchWriterTest;
 import com.b2international.snowowl.snomed.reasoner.index.entry.ClassificationTaskSerializationTest;
 import com.b2international.snowowl.snomed.reasoner.index.entry.ConcreteDomainChangeSerializationTest;
 import com.b2international.snowowl.snomed.reasoner.index.entry.EquivalentConceptSetSerializationTest;
 import com.b2international.snowowl.snomed.reasoner.index.entry.RelationshipChangeSerializationTest;
+import com.b2international.snowowl.snomed.reasoner.normalform.NormalFormGeneratorTest;
 
 /**
  * @since 4.0
@@ -33,6 +35,8 @@ import com.b2international.snowowl.snomed.reasoner.index.entry.RelationshipChang
 	EquivalentConceptSetSerializationTest.class,
 	RelationshipChangeSerializationTest.class,
 	ConcreteDomainChangeSerializationTest.class,
+	NormalFormGeneratorTest.class,
+	ChangeBatchWriterTest.class,
 })
 public class AllSnomedReasonerTests {
 
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.reasoner.diff;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveCollectionModule;
+import com.b2international.index.Writer;
+import com.b2international.index.query.Query;
+import com.b2international.index.revision.BaseRevisionIndexTest;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.datastore.ConcreteDomainFragment;
+import com.b2international.snowowl.snomed.datastore.StatementFragment;
+import com.b2international.snowowl.snomed.reasoner.diff.concretedomain.ConcreteDomainChangeOrdering;
+import com.b2international.snowowl.snomed.reasoner.diff.concretedomain.ConcreteDomainWriter;
+import com.b2international.snowowl.snomed.reasoner.diff.relationship.RelationshipWriter;
+import com.b2international.snowowl.snomed.reasoner.diff.relationship.StatementFragmentOrdering;
+import com.b2international.snowowl.snomed.reasoner.index.ConcreteDomainChangeDocument;
+import com.b2international.snowowl.snomed.reasoner.index.RelationshipChangeDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * @since 7.14
+ */
+public class ChangeBatchWriterTest extends BaseRevisionIndexTest {
+
+	private static final long CONCEPT_ID = 100000001L;
+	private static final int BATCH_SIZE = 2;
+
+	// five new relationships: two full batches and one pending change
+	private static final List<StatementFragment> TARGET_STATEMENTS = ImmutableList.of(
+			new StatementFragment(Long.parseLong(Concepts.IS_A), 100000002L),
+			new StatementFragment(Long.parseLong(Concepts.IS_A), 100000003L),
+			new StatementFragment(Long.parseLong(Concepts.HAS_ACTIVE_INGREDIENT), 100000004L),
+			new StatementFragment(Long.parseLong(Concepts.HAS_ACTIVE_INGREDIENT), 100000005L),
+			new StatementFragment(Long.parseLong(Concepts.HAS_ACTIVE_INGREDIENT), 100000006L));
+
+	private static final ConcreteDomainFragment TARGET_MEMBER = new ConcreteDomainFragment(UUID.randomUUID().toString(), 
+			Long.parseLong(Concepts.REFSET_CONCRETE_DOMAIN_TYPE), 0, "5", 100000007L, false);
+
+	@Override
+	protected void configureMapper(final ObjectMapper mapper) {
+		mapper.registerModule(new PrimitiveCollectionModule());
+	}
+
+	@Override
+	protected Collection<Class<?>> getTypes() {
+		return ImmutableList.<Class<?>>of(RelationshipChangeDocument.class, ConcreteDomainChangeDocument.class);
+	}
+
+	@Test
+	public void commitFullBatchesWithoutRefresh() throws Exception {
+		final String classificationId = UUID.randomUUID().toString();
+
+		rawIndex().write(writer -> {
+			final Writer spyWriter = spy(writer);
+			final ChangeBatchWriter batchWriter = new ChangeBatchWriter(classificationId, spyWriter, BATCH_SIZE, false);
+			final RelationshipWriter relationshipWriter = new RelationshipWriter(batchWriter);
+
+			relationshipWriter.apply(CONCEPT_ID, Collections.emptyList(), TARGET_STATEMENTS, StatementFragmentOrdering.INSTANCE);
+
+			assertEquals(5L, relationshipWriter.getChangeCount());
+			assertEquals(2, batchWriter.getBatches());
+			assertEquals(4L, batchWriter.getWrittenDocuments());
+			assertEquals(1, batchWriter.getPendingDocuments());
+			verify(spyWriter, times(2)).commit(false);
+			verify(spyWriter, never()).commit(true);
+			assertEquals(0, countChanges(classificationId));
+
+			// the final commit refreshes every batch at once
+			spyWriter.commit();
+			verify(spyWriter).commit(true);
+			return null;
+		});
+
+		assertEquals(5, countChanges(classificationId));
+	}
+
+	@Test
+	public void commitFullBatchesWithRefresh() throws Exception {
+		final String classificationId = UUID.randomUUID().toString();
+
+		rawIndex().write(writer -> {
+			final Writer spyWriter = spy(writer);
+			final ChangeBatchWriter batchWriter = new ChangeBatchWriter(classificationId, spyWriter, BATCH_SIZE, true);
+			final RelationshipWriter relationshipWriter = new RelationshipWriter(batchWriter);
+
+			relationshipWriter.apply(CONCEPT_ID, Collections.emptyList(), TARGET_STATEMENTS, StatementFragmentOrdering.INSTANCE);
+
+			assertEquals(2, batchWriter.getBatches());
+			verify(spyWriter, times(2)).commit(true);
+			verify(spyWriter, never()).commit(false);
+
+			// refreshed batches are searchable before the final commit, the pending change is not
+			assertEquals(4, countChanges(classificationId));
+
+			spyWriter.commit();
+			return null;
+		});
+
+		assertEquals(5, countChanges(classificationId));
+	}
+
+	@Test
+	public void noCommitBelowBatchSize() throws Exception {
+		final String classificationId = UUID.randomUUID().toString();
+
+		rawIndex().write(writer -> {
+			final Writer spyWriter = spy(writer);
+			final ChangeBatchWriter batchWriter = new ChangeBatchWriter(classificationId, spyWriter, TARGET_STATEMENTS.size() + 1, false);
+			final RelationshipWriter relationshipWriter = new RelationshipWriter(batchWriter);
+
+			relationshipWriter.apply(CONCEPT_ID, Collections.emptyList(), TARGET_STATEMENTS, StatementFragmentOrdering.INSTANCE);
+
+			assertEquals(0, batchWriter.getBatches());
+			assertEquals(0L, batchWriter.getWrittenDocuments());
+			assertEquals(TARGET_STATEMENTS.size(), batchWriter.getPendingDocuments());
+			verify(spyWriter, never()).commit(false);
+			verify(spyWriter, never()).commit(true);
+
+			spyWriter.commit();
+			return null;
+		});
+
+		assertEquals(5, countChanges(classificationId));
+	}
+
+	@Test
+	public void refreshBatchesWithoutPendingChanges() throws Exception {
+		final String classificationId = UUID.randomUUID().toString();
+
+		rawIndex().write(writer -> {
+			final Writer spyWriter = spy(writer);
+			final ChangeBatchWriter batchWriter = new ChangeBatchWriter(classificationId, spyWriter, BATCH_SIZE, false);
+			final RelationshipWriter relationshipWriter = new RelationshipWriter(batchWriter);
+
+			// the number of changes is a multiple of the batch size, nothing is left for the final commit
+			relationshipWriter.apply(CONCEPT_ID, Collections.emptyList(), TARGET_STATEMENTS.subList(0, 2 * BATCH_SIZE), StatementFragmentOrdering.INSTANCE);
+
+			assertEquals(2, batchWriter.getBatches());
+			assertEquals(0, batchWriter.getPendingDocuments());
+			assertEquals(0, countChanges(classificationId));
+
+			spyWriter.commit();
+			return null;
+		});
+
+		assertEquals(2 * BATCH_SIZE, countChanges(classificationId));
+	}
+
+	@Test
+	public void refreshBatchesWithPendingChangesOfOtherType() throws Exception {
+		final String classificationId = UUID.randomUUID().toString();
+
+		rawIndex().write(writer -> {
+			final Writer spyWriter = spy(writer);
+			final ChangeBatchWriter batchWriter = new ChangeBatchWriter(classificationId, spyWriter, BATCH_SIZE, false);
+			final RelationshipWriter relationshipWriter = new RelationshipWriter(batchWriter);
+			final ConcreteDomainWriter concreteDomainWriter = new ConcreteDomainWriter(batchWriter);
+
+			relationshipWriter.apply(CONCEPT_ID, Collections.emptyList(), TARGET_STATEMENTS.subList(0, 2 * BATCH_SIZE), StatementFragmentOrdering.INSTANCE);
+			// the final batch only holds a concrete domain change, the relationship index is not written by the final commit
+			concreteDomainWriter.apply(CONCEPT_ID, Collections.emptyList(), ImmutableList.of(TARGET_MEMBER), ConcreteDomainChangeOrdering.INSTANCE);
+
+			assertEquals(2, batchWriter.getBatches());
+			assertEquals(1, batchWriter.getPendingDocuments());
+
+			spyWriter.commit();
+			return null;
+		});
+
+		assertEquals(2 * BATCH_SIZE, countChanges(classificationId));
+		assertEquals(1, countConcreteDomainChanges(classificationId));
+	}
+
+	private int countChanges(final String classificationId) {
+		return searchRaw(Query.select(RelationshipChangeDocument.class)
+				.where(RelationshipChangeDocument.Expressions.classificationId(classificationId))
+				.limit(0)
+				.build())
+				.getTotal();
+	}
+
+	private int countConcreteDomainChanges(final String classificationId) {
+		return searchRaw(Query.select(ConcreteDomainChangeDocument.class)
+				.where(ConcreteDomainChangeDocument.Expressions.classificationId(classificationId))
+				.limit(0)
+				.build())
+				.getTotal();
+	}
+
+}
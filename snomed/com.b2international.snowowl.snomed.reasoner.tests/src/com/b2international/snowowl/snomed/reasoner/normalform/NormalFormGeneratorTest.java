@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.reasoner.normalform;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Test;
+
+import com.b2international.collections.PrimitiveLists;
+import com.b2international.collections.longs.LongList;
+import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
+import com.b2international.snowowl.snomed.core.domain.SnomedConcept;
+import com.b2international.snowowl.snomed.core.domain.SnomedRelationship;
+import com.b2international.snowowl.snomed.datastore.ConcreteDomainFragment;
+import com.b2international.snowowl.snomed.datastore.StatementFragment;
+import com.b2international.snowowl.snomed.datastore.index.taxonomy.InternalIdEdges;
+import com.b2international.snowowl.snomed.datastore.index.taxonomy.InternalSctIdMultimap;
+import com.b2international.snowowl.snomed.datastore.index.taxonomy.InternalSctIdSet;
+import com.b2international.snowowl.snomed.datastore.index.taxonomy.ReasonerTaxonomy;
+import com.b2international.snowowl.snomed.datastore.index.taxonomy.ReasonerTaxonomyBuilder;
+import com.b2international.snowowl.snomed.reasoner.classification.ReasonerTaxonomyInferrer;
+import com.b2international.snowowl.snomed.reasoner.diff.OntologyChangeProcessor;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * @since 7.14
+ */
+public class NormalFormGeneratorTest {
+
+	private static final String ROOT = Concepts.ROOT_CONCEPT;
+	private static final String A = "100000001";
+	private static final String B = "100000002";
+	private static final String C = "100000003";
+	private static final String X = "100000004";
+	private static final String Y = "100000005";
+	private static final String V1 = "100000006";
+	private static final String V2 = "100000007";
+	private static final String ATTRIBUTE = Concepts.HAS_ACTIVE_INGREDIENT;
+
+	private static final List<String> EXPECTED_CHANGES = ImmutableList.of(
+			"+" + A + "|" + Concepts.IS_A + "|" + ROOT + "|0",
+			"+" + A + "|" + ATTRIBUTE + "|" + V1 + "|0",
+			"+" + X + "|" + Concepts.IS_A + "|" + ROOT + "|0",
+			"+" + V1 + "|" + Concepts.IS_A + "|" + ROOT + "|0",
+			"-" + B + "|" + Concepts.IS_A + "|" + ROOT + "|0",
+			"+" + B + "|" + ATTRIBUTE + "|" + V1 + "|0",
+			"+" + Y + "|" + Concepts.IS_A + "|" + X + "|0",
+			"+" + V2 + "|" + Concepts.IS_A + "|" + V1 + "|0",
+			"+" + C + "|" + Concepts.IS_A + "|" + B + "|0",
+			"+" + C + "|" + ATTRIBUTE + "|" + V2 + "|0");
+
+	@Test
+	public void singleThread() throws Exception {
+		assertEquals(EXPECTED_CHANGES, computeChanges(1));
+	}
+
+	@Test
+	public void parentsAndChildrenInSameLayer() throws Exception {
+		// C depends on the result of B, which depends on the result of A; all three are in the same layer and must end up in separate batches
+		assertEquals(EXPECTED_CHANGES, computeChanges(4));
+	}
+
+	private static List<String> computeChanges(final int parallelism) {
+		final List<String> changes = Lists.newArrayList();
+
+		final OntologyChangeProcessor<StatementFragment> statementProcessor = new OntologyChangeProcessor<StatementFragment>() {
+			@Override
+			protected void handleAddedSubject(final String conceptId, final StatementFragment addedSubject) {
+				changes.add("+" + toString(conceptId, addedSubject));
+			}
+
+			@Override
+			protected void handleRemovedSubject(final String conceptId, final StatementFragment removedSubject) {
+				changes.add("-" + toString(conceptId, removedSubject));
+			}
+
+			private String toString(final String conceptId, final StatementFragment statement) {
+				return conceptId + "|" + statement.getTypeId() + "|" + statement.getDestinationId() + "|" + statement.getGroup();
+			}
+		};
+
+		final OntologyChangeProcessor<ConcreteDomainFragment> concreteDomainProcessor = new OntologyChangeProcessor<ConcreteDomainFragment>() {
+			@Override
+			protected void handleAddedSubject(final String conceptId, final ConcreteDomainFragment addedSubject) {
+				changes.add("+" + conceptId + "|" + addedSubject.getTypeId() + "|" + addedSubject.getSerializedValue());
+			}
+		};
+
+		new NormalFormGenerator(createTaxonomy(), parallelism).computeChanges(new NullProgressMonitor(), statementProcessor, concreteDomainProcessor);
+		return changes;
+	}
+
+	private static ReasonerTaxonomy createTaxonomy() {
+		final ReasonerTaxonomy taxonomy = new ReasonerTaxonomyBuilder()
+				.addActiveConceptIds(Stream.of(ROOT, A, B, C, X, Y, V1, V2, ATTRIBUTE).map(NormalFormGeneratorTest::concept))
+				.finishConcepts()
+				.addActiveStatedEdges(Stream.of(
+						relationship("200000011", A, Concepts.IS_A, ROOT, Concepts.STATED_RELATIONSHIP),
+						relationship("200000021", B, Concepts.IS_A, A, Concepts.STATED_RELATIONSHIP),
+						relationship("200000031", C, Concepts.IS_A, B, Concepts.STATED_RELATIONSHIP),
+						relationship("200000041", X, Concepts.IS_A, ROOT, Concepts.STATED_RELATIONSHIP),
+						relationship("200000051", Y, Concepts.IS_A, X, Concepts.STATED_RELATIONSHIP),
+						relationship("200000061", V1, Concepts.IS_A, ROOT, Concepts.STATED_RELATIONSHIP),
+						relationship("200000071", V2, Concepts.IS_A, V1, Concepts.STATED_RELATIONSHIP)))
+				.addActiveStatedNonIsARelationships(Stream.of(
+						relationship("200000012", A, ATTRIBUTE, V1, Concepts.STATED_RELATIONSHIP),
+						relationship("200000032", C, ATTRIBUTE, V2, Concepts.STATED_RELATIONSHIP)))
+				.addActiveInferredRelationships(Stream.of(
+						relationship("200000023", B, Concepts.IS_A, A, Concepts.INFERRED_RELATIONSHIP),
+						relationship("200000024", B, Concepts.IS_A, ROOT, Concepts.INFERRED_RELATIONSHIP)))
+				.build();
+
+		final InternalIdEdges.Builder inferredAncestors = InternalIdEdges.builder(taxonomy.getConceptMap());
+		inferredAncestors.addEdge(Long.parseLong(A), Long.parseLong(ROOT));
+		inferredAncestors.addEdge(Long.parseLong(B), Long.parseLong(A));
+		inferredAncestors.addEdge(Long.parseLong(C), Long.parseLong(B));
+		inferredAncestors.addEdge(Long.parseLong(X), Long.parseLong(ROOT));
+		inferredAncestors.addEdge(Long.parseLong(Y), Long.parseLong(X));
+		inferredAncestors.addEdge(Long.parseLong(V1), Long.parseLong(ROOT));
+		inferredAncestors.addEdge(Long.parseLong(V2), Long.parseLong(V1));
+
+		// A single layer without depth change markers, where children follow their parents closely
+		final LongList iterationOrder = PrimitiveLists.newLongArrayList();
+		for (final String conceptId : ImmutableList.of(ROOT, A, X, V1, B, Y, V2, C)) {
+			iterationOrder.add(Long.parseLong(conceptId));
+		}
+		iterationOrder.add(ReasonerTaxonomyInferrer.DEPTH_CHANGE);
+
+		return taxonomy.withInferences(inferredAncestors.build(),
+				InternalSctIdSet.builder(taxonomy.getConceptMap()).build(),
+				InternalSctIdMultimap.builder(taxonomy.getConceptMap()).build(),
+				iterationOrder);
+	}
+
+	private static SnomedConcept concept(final String id) {
+		final SnomedConcept concept = new SnomedConcept(id);
+		concept.setActive(true);
+		concept.setModuleId(Concepts.MODULE_SCT_CORE);
+		concept.setDefinitionStatusId(Concepts.PRIMITIVE);
+		return concept;
+	}
+
+	private static SnomedRelationship relationship(final String id, final String sourceId, final String typeId, final String destinationId, final String characteristicTypeId) {
+		final SnomedRelationship relationship = new SnomedRelationship(id);
+		relationship.setActive(true);
+		relationship.setModuleId(Concepts.MODULE_SCT_CORE);
+		relationship.setSourceId(sourceId);
+		relationship.setTypeId(typeId);
+		relationship.setDestinationId(destinationId);
+		relationship.setCharacteristicTypeId(characteristicTypeId);
+		relationship.setModifierId(Concepts.EXISTENTIAL_RESTRICTION_MODIFIER);
+		relationship.setGroup(0);
+		relationship.setUnionGroup(0);
+		return relationship;
+	}
+
+}
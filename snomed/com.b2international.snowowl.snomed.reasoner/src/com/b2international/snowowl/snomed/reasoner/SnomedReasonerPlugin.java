@@ -31,6 +31,7 @@ import com.b2international.snowowl.snomed.datastore.SnomedDatastoreActivator;
 import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfiguration;
 import com.b2international.snowowl.snomed.datastore.index.constraint.SnomedConstraintDocument;
 import com.b2international.snowowl.snomed.reasoner.classification.ClassificationTracker;
+import com.b2international.snowowl.snomed.reasoner.classification.ReasonerTaxonomyCache;
 import com.b2international.snowowl.snomed.reasoner.index.ClassificationTaskDocument;
 import com.b2international.snowowl.snomed.reasoner.index.ConceptChangeDocument;
 import com.b2international.snowowl.snomed.reasoner.index.ConcreteDomainChangeDocument;
@@ -52,9 +53,17 @@ public final class SnomedReasonerPlugin extends Plugin implements TerminologyRep
 			final SnomedCoreConfiguration snomedConfig = configuration.getModuleConfig(SnomedCoreConfiguration.class);
 			final int maximumReasonerRuns = snomedConfig.getMaxReasonerRuns();
 			final long cleanUpInterval = TimeUnit.MINUTES.toMillis(5L); // TODO: make this configurable
-			final ClassificationTracker classificationTracker = new ClassificationTracker(repositoryIndex, maximumReasonerRuns, cleanUpInterval);
+			final ClassificationTracker classificationTracker = new ClassificationTracker(repositoryIndex, 
+					maximumReasonerRuns, 
+					cleanUpInterval, 
+					snomedConfig.getClassificationChangeBatchSize(), 
+					snomedConfig.isRefreshClassificationChangeBatches());
 			
 			env.services().registerService(ClassificationTracker.class, classificationTracker);
+			
+			if (snomedConfig.getMaxReasonerTaxonomyBranches() > 0) {
+				env.services().registerService(ReasonerTaxonomyCache.class, new ReasonerTaxonomyCache(snomedConfig.getMaxReasonerTaxonomyBranches()));
+			}
 		}
 	}
 	
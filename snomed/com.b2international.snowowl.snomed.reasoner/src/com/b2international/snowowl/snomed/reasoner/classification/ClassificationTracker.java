@@ -24,6 +24,7 @@ import java.util.TimerTask;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
@@ -53,6 +54,7 @@ import com.b2international.snowowl.core.jobs.RemoteJob;
 import com.b2international.snowowl.snomed.datastore.index.taxonomy.IInternalSctIdMultimap;
 import com.b2international.snowowl.snomed.datastore.index.taxonomy.IInternalSctIdSet;
 import com.b2international.snowowl.snomed.datastore.index.taxonomy.IReasonerTaxonomy;
+import com.b2international.snowowl.snomed.reasoner.diff.ChangeBatchWriter;
 import com.b2international.snowowl.snomed.reasoner.diff.concretedomain.ConcreteDomainWriter;
 import com.b2international.snowowl.snomed.reasoner.diff.relationship.RelationshipWriter;
 import com.b2international.snowowl.snomed.reasoner.domain.ClassificationStatus;
@@ -60,6 +62,7 @@ import com.b2international.snowowl.snomed.reasoner.index.ClassificationTaskDocum
 import com.b2international.snowowl.snomed.reasoner.index.ConcreteDomainChangeDocument;
 import com.b2international.snowowl.snomed.reasoner.index.EquivalentConceptSetDocument;
 import com.b2international.snowowl.snomed.reasoner.index.RelationshipChangeDocument;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -173,9 +176,25 @@ public final class ClassificationTracker implements IDisposableService {
 	private final Index index;
 	private final ClassificationJobListener listener;
 	private final CleanUpTask cleanUp;
-
-	public ClassificationTracker(final Index index, final int maximumReasonerRuns, final long cleanUpInterval) {
+	private final int changeBatchSize;
+	private final boolean refreshChangeBatches;
+
+	/**
+	 * @param index - the index to store classification tasks and results in
+	 * @param maximumReasonerRuns - the number of classification tasks to keep
+	 * @param cleanUpInterval - the time between removing tasks over the limit, in milliseconds
+	 * @param changeBatchSize - the number of classification changes to keep in memory before they are written to the index
+	 * @param refreshChangeBatches - whether each written batch of changes should be refreshed immediately
+	 */
+	public ClassificationTracker(final Index index, 
+			final int maximumReasonerRuns, 
+			final long cleanUpInterval, 
+			final int changeBatchSize, 
+			final boolean refreshChangeBatches) {
+		
 		this.index = index;
+		this.changeBatchSize = changeBatchSize;
+		this.refreshChangeBatches = refreshChangeBatches;
 
 		this.index.write(writer -> {
 			// Set classification statuses where a process was interrupted by a shutdown to FAILED
@@ -252,19 +271,45 @@ public final class ClassificationTracker implements IDisposableService {
 		});
 	}
 
+	/**
+	 * Records the equivalent concept sets and the inferred changes of a completed classification. Changes are written to the index in
+	 * batches while the normal form is being generated, so they are never collected in memory in their entirety.
+	 * 
+	 * @param classificationId - the identifier of the classification
+	 * @param inferredTaxonomy - the taxonomy with inferences
+	 * @param normalFormGenerator - the generator reporting inferred relationship and concrete domain member changes
+	 * @param monitor - the progress monitor to report normal form generation progress to, may be <code>null</code>
+	 */
 	public void classificationCompleted(final String classificationId, 
 			final IReasonerTaxonomy inferredTaxonomy, 
-			final INormalFormGenerator normalFormGenerator) {
+			final INormalFormGenerator normalFormGenerator,
+			final IProgressMonitor monitor) {
 		
 		index.write(writer -> {
 
+			final Stopwatch phase = Stopwatch.createStarted();
 			indexUnsatisfiableConcepts(writer, classificationId, inferredTaxonomy.getUnsatisfiableConcepts());
 			indexEquivalentConcepts(writer, classificationId, inferredTaxonomy.getEquivalentConcepts());
-
-			final RelationshipWriter relationshipWriter = new RelationshipWriter(classificationId, writer);
-			final ConcreteDomainWriter concreteDomainWriter = new ConcreteDomainWriter(classificationId, writer);
-
-			normalFormGenerator.computeChanges(null, relationshipWriter, concreteDomainWriter);
+			LOG.info("Classification '{}': indexed {} unsatisfiable concepts and {} equivalent concept sets [{}]", 
+					classificationId, 
+					inferredTaxonomy.getUnsatisfiableConcepts().size(), 
+					inferredTaxonomy.getEquivalentConcepts().keySet().size(), 
+					phase);
+
+			phase.reset().start();
+			final ChangeBatchWriter batchWriter = new ChangeBatchWriter(classificationId, writer, changeBatchSize, refreshChangeBatches);
+			final RelationshipWriter relationshipWriter = new RelationshipWriter(batchWriter);
+			final ConcreteDomainWriter concreteDomainWriter = new ConcreteDomainWriter(batchWriter);
+
+			normalFormGenerator.computeChanges(monitor, relationshipWriter, concreteDomainWriter);
+			LOG.info("Classification '{}': generated {} relationship and {} concrete domain member changes, wrote {} in {} batches ({} ms spent committing) [{}]", 
+					classificationId,
+					relationshipWriter.getChangeCount(),
+					concreteDomainWriter.getChangeCount(),
+					batchWriter.getWrittenDocuments(),
+					batchWriter.getBatches(),
+					batchWriter.getCommitTimeMillis(),
+					phase);
 
 			final boolean hasEquivalentConcepts = !inferredTaxonomy.getUnsatisfiableConcepts().isEmpty()
 					|| !inferredTaxonomy.getEquivalentConcepts().isEmpty();
@@ -280,7 +325,12 @@ public final class ClassificationTracker implements IDisposableService {
 							"hasInferredChanges", hasInferredChanges,
 							"hasRedundantStatedChanges", hasRedundantStatedChanges)));
 
+			phase.reset().start();
 			writer.commit();
+			LOG.info("Classification '{}': committed {} remaining changes and completion status [{}]", 
+					classificationId, 
+					batchWriter.getPendingDocuments(), 
+					phase);
 			return null;
 		});
 	}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.reasoner.classification;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.b2international.commons.CompareUtils;
+import com.b2international.index.mapping.DocumentMapping;
+import com.b2international.index.query.Expressions;
+import com.b2international.index.query.Query;
+import com.b2international.index.query.SortBy;
+import com.b2international.index.query.SortBy.Order;
+import com.b2international.index.revision.Commit;
+import com.b2international.index.revision.CommitDetail;
+import com.b2international.index.revision.ObjectId;
+import com.b2international.index.revision.RevisionSearcher;
+import com.b2international.snowowl.core.api.SnowowlRuntimeException;
+import com.b2international.snowowl.core.branch.Branch;
+import com.b2international.snowowl.core.domain.BranchContext;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedConceptDocument;
+import com.b2international.snowowl.snomed.datastore.index.entry.SnomedRelationshipIndexEntry;
+import com.b2international.snowowl.snomed.datastore.index.taxonomy.ReasonerTaxonomy;
+import com.b2international.snowowl.snomed.datastore.index.taxonomy.ReasonerTaxonomyBuilder;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Keeps the stated {@link ReasonerTaxonomy} of the most recently classified branches in memory, so a classification only has to load the
+ * components changed since the previous classification of the same branch, instead of scanning all concepts, relationships and members.
+ * <p>
+ * Taxonomies are keyed by branch path and versioned by the branch head timestamp. When the head moves, the concepts and relationships recorded
+ * in the {@link Commit}s made since the last classification are reloaded and patched into a copy of the existing taxonomy. A full rebuild
+ * happens only when the branch has been rebased, something has been merged into it, or the change set is too large to be applied incrementally.
+ * </p>
+ * Returned taxonomies do not carry inferences and can be shared between concurrent classifications of the same branch.
+ *
+ * @since 7.14
+ */
+public final class ReasonerTaxonomyCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger("reasoner-taxonomy");
+
+	/**
+	 * The maximum number of changed concepts and relationships that will be patched into an existing taxonomy, above this limit the taxonomy
+	 * will be rebuilt from scratch.
+	 */
+	private static final int PATCH_LIMIT = 50_000;
+
+	/**
+	 * The number of commits read at once when collecting the changes made since the last classification.
+	 */
+	private static final int COMMIT_PAGE_SIZE = 100;
+
+	private static final String CONCEPT_TYPE = DocumentMapping.getType(SnomedConceptDocument.class);
+	private static final String RELATIONSHIP_TYPE = DocumentMapping.getType(SnomedRelationshipIndexEntry.class);
+
+	private final Cache<String, TaxonomyEntry> entries;
+
+	public ReasonerTaxonomyCache(int maxBranches) {
+		this.entries = CacheBuilder.newBuilder()
+				.maximumSize(maxBranches)
+				.expireAfterAccess(1L, TimeUnit.HOURS)
+				.build();
+	}
+
+	/**
+	 * @param context
+	 * @return <code>true</code> if the taxonomy of the branch can be retrieved via this cache, <code>false</code> if the context does not point
+	 *         to the head of a branch.
+	 */
+	public boolean canRead(BranchContext context) {
+		return context.branch().path().equals(context.path());
+	}
+
+	/**
+	 * Returns the up-to-date stated taxonomy of the branch the given context is opened on. The returned instance must not be modified.
+	 *
+	 * @param context - the context to load changed components with, should have a {@link RevisionSearcher} bound to it
+	 * @param excludedModuleIds - the module IDs of components that should not be registered in the taxonomy
+	 * @param concreteDomainSupported - whether concrete domain members should be registered in the taxonomy
+	 * @return the taxonomy of the branch, without inferences
+	 * @see #canRead(BranchContext)
+	 */
+	public ReasonerTaxonomy getTaxonomy(BranchContext context, Set<String> excludedModuleIds, boolean concreteDomainSupported) {
+		checkArgument(canRead(context), "Taxonomy of branch '%s' cannot be read on path '%s'.", context.branch().path(), context.path());
+		final Branch branch = context.branch();
+		final TaxonomyEntry entry;
+		try {
+			entry = entries.get(branch.path(), TaxonomyEntry::new);
+		} catch (ExecutionException e) {
+			throw new SnowowlRuntimeException(e.getCause());
+		}
+		return entry.get(context.service(RevisionSearcher.class), branch, ImmutableSet.copyOf(excludedModuleIds), concreteDomainSupported);
+	}
+
+	/**
+	 * Drops all cached taxonomies.
+	 */
+	public void clear() {
+		entries.invalidateAll();
+	}
+
+	private static final class TaxonomyEntry {
+
+		private ReasonerTaxonomy taxonomy;
+		private long branchId = -1L;
+		private long headTimestamp = -1L;
+		private Set<String> excludedModuleIds;
+		private boolean concreteDomainSupported;
+
+		synchronized ReasonerTaxonomy get(RevisionSearcher searcher, Branch branch, Set<String> excludedModuleIds, boolean concreteDomainSupported) {
+			if (!isCurrent(branch, excludedModuleIds, concreteDomainSupported)) {
+				refresh(searcher, branch, excludedModuleIds, concreteDomainSupported);
+			}
+			return taxonomy;
+		}
+
+		/*a taxonomy refreshed by a more recent request is still up-to-date, as searchers always read the current state of the branch*/
+		private boolean isCurrent(Branch branch, Set<String> excludedModuleIds, boolean concreteDomainSupported) {
+			return taxonomy != null
+					&& branchId == branch.branchId()
+					&& headTimestamp >= branch.headTimestamp()
+					&& this.excludedModuleIds.equals(excludedModuleIds)
+					&& this.concreteDomainSupported == concreteDomainSupported;
+		}
+
+		private void refresh(RevisionSearcher searcher, Branch branch, Set<String> excludedModuleIds, boolean concreteDomainSupported) {
+			// patching creates a new instance, the previous taxonomy is only replaced if it was built successfully
+			final ReasonerTaxonomy previous = taxonomy;
+			try {
+				final boolean canPatch = previous != null
+						&& branchId == branch.branchId()
+						&& this.excludedModuleIds.equals(excludedModuleIds)
+						&& this.concreteDomainSupported == concreteDomainSupported;
+
+				ReasonerTaxonomy patched = null;
+				if (canPatch) {
+					patched = patch(searcher, branch, previous, excludedModuleIds, concreteDomainSupported);
+				}
+
+				if (patched != null) {
+					taxonomy = patched;
+				} else {
+					LOG.info("Building reasoner taxonomy of '{}'.", branch.path());
+					final ReasonerTaxonomyBuilder builder = new ReasonerTaxonomyBuilder(excludedModuleIds)
+							.addActiveConceptIds(searcher)
+							.finishConcepts()
+							.addConceptFlags(searcher)
+							.addActiveStatedEdges(searcher)
+							.addActiveStatedNonIsARelationships(searcher)
+							.addActiveInferredRelationships(searcher)
+							.addActiveAdditionalGroupedRelationships(searcher)
+							.addNeverGroupedTypeIds(searcher)
+							.addActiveAxioms(searcher);
+
+					if (concreteDomainSupported) {
+						builder.addActiveConcreteDomainMembers(searcher);
+					}
+
+					taxonomy = builder.build();
+				}
+
+				this.branchId = branch.branchId();
+				this.headTimestamp = branch.headTimestamp();
+				this.excludedModuleIds = excludedModuleIds;
+				this.concreteDomainSupported = concreteDomainSupported;
+			} catch (IOException e) {
+				throw new SnowowlRuntimeException(e);
+			}
+		}
+
+		/*returns null if the changes can not be applied incrementally*/
+		private ReasonerTaxonomy patch(RevisionSearcher searcher, Branch branch, ReasonerTaxonomy previous, Set<String> excludedModuleIds, boolean concreteDomainSupported) throws IOException {
+			final Set<String> conceptIds = newHashSet();
+			final Set<String> relationshipIds = newHashSet();
+
+			// commits are read page by page, and reading stops as soon as the change set is known to be too large to patch
+			try (Stream<Commit> commits = searcher.searcher().stream(Query.select(Commit.class)
+					.where(Expressions.builder()
+							.filter(Commit.Expressions.branches(branch.path()))
+							.filter(Commit.Expressions.timestampRange(headTimestamp + 1, branch.headTimestamp()))
+							.build())
+					.sortBy(SortBy.field(Commit.Fields.TIMESTAMP, Order.ASC))
+					.limit(Integer.MAX_VALUE)
+					.build(), COMMIT_PAGE_SIZE)) {
+
+				final Iterator<Commit> iterator = commits.iterator();
+				while (iterator.hasNext()) {
+					final Commit commit = iterator.next();
+					// regular merge commits do not record the merged components
+					if (commit.getMergeSource() != null && !Boolean.TRUE.equals(commit.getSquashMerge())) {
+						return null;
+					}
+					for (CommitDetail detail : commit.getDetails()) {
+						// relationships and members are recorded under their container concept (or relationship, in case of concrete domain members)
+						collect(detail.getObjectType(), detail.getObjects(), conceptIds, relationshipIds);
+						if (CONCEPT_TYPE.equals(detail.getComponentType()) && detail.getComponents() != null) {
+							detail.getComponents().forEach(components -> collect(CONCEPT_TYPE, components, conceptIds, relationshipIds));
+						}
+					}
+					if (conceptIds.size() + relationshipIds.size() > PATCH_LIMIT) {
+						return null;
+					}
+				}
+			}
+
+			LOG.info("Patching reasoner taxonomy of '{}' with {} concept and {} relationship changes.", branch.path(), conceptIds.size(), relationshipIds.size());
+			return new ReasonerTaxonomyBuilder(excludedModuleIds)
+					.addTaxonomy(searcher, previous, conceptIds, relationshipIds, concreteDomainSupported)
+					.build();
+		}
+
+		private static void collect(String type, Collection<String> ids, Set<String> conceptIds, Set<String> relationshipIds) {
+			if (CompareUtils.isEmpty(ids)) {
+				return;
+			}
+			final Set<String> target;
+			if (CONCEPT_TYPE.equals(type)) {
+				target = conceptIds;
+			} else if (RELATIONSHIP_TYPE.equals(type)) {
+				target = relationshipIds;
+			} else {
+				return;
+			}
+			// new and removed concepts are registered under the root object
+			ids.stream()
+				.filter(id -> !ObjectId.ROOT.equals(id))
+				.forEach(target::add);
+		}
+
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 B2i Healthcare Pte Ltd, http://b2i.sg
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.b2international.snowowl.snomed.reasoner.diff;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.b2international.index.IndexException;
+import com.b2international.index.Writer;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Writes the change documents of a classification to the index in bounded batches, as they are reported by {@link OntologyChangeWriter}s.
+ * At most <code>batchSize</code> documents are kept in memory, regardless of the number of change writers sharing the same instance.
+ * <p>
+ * Intermediate batches are only refreshed if requested; the documents of the last batch are committed along with the completion of the
+ * classification.
+ *
+ * @since 7.14
+ */
+public final class ChangeBatchWriter {
+
+	private final String classificationId;
+	private final Writer writer;
+	private final int batchSize;
+	private final boolean refreshBatches;
+	private final Stopwatch commitTime = Stopwatch.createUnstarted();
+
+	private int pendingDocuments;
+	private long writtenDocuments;
+	private int batches;
+
+	public ChangeBatchWriter(final String classificationId, final Writer writer, final int batchSize, final boolean refreshBatches) {
+		checkArgument(batchSize > 0, "Batch size should be positive, got '%s'.", batchSize);
+		this.classificationId = classificationId;
+		this.writer = writer;
+		this.batchSize = batchSize;
+		this.refreshBatches = refreshBatches;
+	}
+
+	public String getClassificationId() {
+		return classificationId;
+	}
+
+	public void put(final Object doc) {
+		writer.put(UUID.randomUUID().toString(), doc);
+		pendingDocuments++;
+		if (pendingDocuments >= batchSize) {
+			commitBatch();
+		}
+	}
+
+	private void commitBatch() {
+		commitTime.start();
+		try {
+			writer.commit(refreshBatches);
+		} catch (final IOException e) {
+			throw new IndexException(String.format("Failed to index classification changes for ID '%s'.", classificationId), e);
+		} finally {
+			commitTime.stop();
+		}
+		writtenDocuments += pendingDocuments;
+		pendingDocuments = 0;
+		batches++;
+	}
+
+	/**
+	 * @return the number of change documents committed so far (documents of the last, incomplete batch are not included)
+	 */
+	public long getWrittenDocuments() {
+		return writtenDocuments;
+	}
+
+	/**
+	 * @return the number of change documents waiting for the next commit
+	 */
+	public int getPendingDocuments() {
+		return pendingDocuments;
+	}
+
+	/**
+	 * @return the number of intermediate batches committed so far
+	 */
+	public int getBatches() {
+		return batches;
+	}
+
+	/**
+	 * @return the total time spent committing intermediate batches, in milliseconds
+	 */
+	public long getCommitTimeMillis() {
+		return commitTime.elapsed(TimeUnit.MILLISECONDS);
+	}
+}
@@ -15,12 +15,8 @@
  */
 package com.b2international.snowowl.snomed.reasoner.diff;
 
-import java.io.IOException;
 import java.io.Serializable;
-import java.util.UUID;
 
-import com.b2international.index.IndexException;
-import com.b2international.index.Writer;
 import com.b2international.snowowl.snomed.reasoner.domain.ChangeNature;
 
 /**
@@ -29,16 +25,14 @@ import com.b2international.snowowl.snomed.reasoner.domain.ChangeNature;
  */
 public abstract class OntologyChangeWriter<T extends Serializable> extends OntologyChangeProcessor<T> {
 
-	private static final int WRITES_PER_COMMIT = 10_000;
-
 	protected final String classificationId;
-	protected final Writer writer;
-	private int writeOps;
+	private final ChangeBatchWriter batchWriter;
+	private long changeCount;
 	private boolean hasInferredChanges;
 
-	public OntologyChangeWriter(final String classificationId, final Writer writer) {
-		this.classificationId = classificationId;
-		this.writer = writer;
+	public OntologyChangeWriter(final ChangeBatchWriter batchWriter) {
+		this.classificationId = batchWriter.getClassificationId();
+		this.batchWriter = batchWriter;
 	}
 
 	@Override
@@ -57,18 +51,18 @@ public abstract class OntologyChangeWriter<T extends Serializable> extends Ontol
 		return hasInferredChanges;
 	}
 	
+	/**
+	 * @return the number of change documents reported by this writer
+	 * @since 7.14
+	 */
+	public long getChangeCount() {
+		return changeCount;
+	}
+	
 	protected abstract void indexChange(final String conceptId, final T subject, final ChangeNature nature);
 
 	protected void indexChange(final Object doc) {
-		writer.put(UUID.randomUUID().toString(), doc);
-		writeOps++;
-		if (writeOps > WRITES_PER_COMMIT) {
-			try {
-				writer.commit();
-			} catch (final IOException e) {
-				throw new IndexException(String.format("Failed to index classification changes for ID '%s'.", classificationId), e);
-			}
-			writeOps = 0;
-		}
+		batchWriter.put(doc);
+		changeCount++;
 	}
 }
@@ -15,9 +15,9 @@
  */
 package com.b2international.snowowl.snomed.reasoner.diff.concretedomain;
 
-import com.b2international.index.Writer;
 import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
 import com.b2international.snowowl.snomed.datastore.ConcreteDomainFragment;
+import com.b2international.snowowl.snomed.reasoner.diff.ChangeBatchWriter;
 import com.b2international.snowowl.snomed.reasoner.diff.OntologyChangeWriter;
 import com.b2international.snowowl.snomed.reasoner.domain.ChangeNature;
 import com.b2international.snowowl.snomed.reasoner.index.ConcreteDomainChangeDocument;
@@ -27,8 +27,8 @@ import com.b2international.snowowl.snomed.reasoner.index.ConcreteDomainChangeDoc
  */
 public final class ConcreteDomainWriter extends OntologyChangeWriter<ConcreteDomainFragment> {
 
-	public ConcreteDomainWriter(final String classificationId, final Writer writer) {
-		super(classificationId, writer);
+	public ConcreteDomainWriter(final ChangeBatchWriter batchWriter) {
+		super(batchWriter);
 	}
 
 	@Override
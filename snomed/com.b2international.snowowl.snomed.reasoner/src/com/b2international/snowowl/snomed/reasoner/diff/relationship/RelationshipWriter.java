@@ -15,9 +15,9 @@
  */
 package com.b2international.snowowl.snomed.reasoner.diff.relationship;
 
-import com.b2international.index.Writer;
 import com.b2international.snowowl.snomed.common.SnomedConstants.Concepts;
 import com.b2international.snowowl.snomed.datastore.StatementFragment;
+import com.b2international.snowowl.snomed.reasoner.diff.ChangeBatchWriter;
 import com.b2international.snowowl.snomed.reasoner.diff.OntologyChangeWriter;
 import com.b2international.snowowl.snomed.reasoner.domain.ChangeNature;
 import com.b2international.snowowl.snomed.reasoner.index.RelationshipChangeDocument;
@@ -29,8 +29,8 @@ public final class RelationshipWriter extends OntologyChangeWriter<StatementFrag
 
 	private boolean hasRedundantStatedChanges;
 	
-	public RelationshipWriter(final String classificationId, final Writer writer) {
-		super(classificationId, writer);
+	public RelationshipWriter(final ChangeBatchWriter batchWriter) {
+		super(batchWriter);
 	}
 
 	@Override
@@ -19,19 +19,27 @@
  */
 package com.b2international.snowowl.snomed.reasoner.normalform;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.b2international.collections.PrimitiveLists;
 import com.b2international.collections.PrimitiveMaps;
 import com.b2international.collections.PrimitiveSets;
 import com.b2international.collections.longs.LongIterator;
@@ -68,9 +76,13 @@ public final class NormalFormGenerator implements INormalFormGenerator {
 	private static final Logger LOGGER = LoggerFactory.getLogger(NormalFormGenerator.class);
 	private static final long IS_A = Long.parseLong(Concepts.IS_A);
 
+	// The maximum number of concepts processed in parallel before results are handed over to change processors
+	private static final int MAX_BATCH_SIZE = 10_000;
+
 	private final ReasonerTaxonomy reasonerTaxonomy;
-	private final LongKeyMap<Collection<StatementFragment>> statementCache = PrimitiveMaps.newLongKeyOpenHashMap();
-	private final LongKeyMap<Collection<ConcreteDomainFragment>> concreteDomainCache = PrimitiveMaps.newLongKeyOpenHashMap();
+	private final int parallelism;
+	private final Map<Long, Collection<StatementFragment>> statementCache = new ConcurrentHashMap<>();
+	private final Map<Long, Collection<ConcreteDomainFragment>> concreteDomainCache = new ConcurrentHashMap<>();
 	private final Map<Long, NodeGraph> transitiveNodeGraphs = newHashMap();
 	
 	/**
@@ -81,7 +93,24 @@ public final class NormalFormGenerator implements INormalFormGenerator {
 	 *                         contents of the branch (may not be {@code null})
 	 */
 	public NormalFormGenerator(final ReasonerTaxonomy reasonerTaxonomy) {
+		this(reasonerTaxonomy, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new distribution normal form generator instance that processes
+	 * independent concepts of the iteration order on the specified number of
+	 * threads. Changes are reported in iteration order regardless of the
+	 * number of threads.
+	 *
+	 * @param reasonerTaxonomy used for querying the concept hierarchy inferred by
+	 *                         the reasoner, as well as the pre-classification
+	 *                         contents of the branch (may not be {@code null})
+	 * @param parallelism      the number of threads to use (must be positive)
+	 */
+	public NormalFormGenerator(final ReasonerTaxonomy reasonerTaxonomy, final int parallelism) {
+		checkArgument(parallelism > 0, "Parallelism should be positive, got '%s'.", parallelism);
 		this.reasonerTaxonomy = reasonerTaxonomy;
+		this.parallelism = parallelism;
 	}
 
 	@Override
@@ -94,11 +123,12 @@ public final class NormalFormGenerator implements INormalFormGenerator {
 
 		final LongList entries = reasonerTaxonomy.getIterationOrder();
 		final SubMonitor subMonitor = SubMonitor.convert(monitor, "Generating distribution normal form...", entries.size() * 2);
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
 
 		try {
 
-			LongSet previousLayer = null;
-			LongSet currentLayer = PrimitiveSets.newLongOpenHashSet();
+			final List<long[]> batches = getBatches(entries);
+			LOGGER.info("--- Processing {} concepts in {} batches using {} threads", entries.size(), batches.size(), parallelism);
 			
 			final Set<Long> graphTypeIds = reasonerTaxonomy.getPropertyChains()
 					.stream()
@@ -116,31 +146,23 @@ public final class NormalFormGenerator implements INormalFormGenerator {
 			
 
 				// Round 1: build alternative hierarchies
-				for (final LongIterator itr = entries.iterator(); itr.hasNext(); /* empty */) {
-					final long conceptId = itr.next();
-	
-					if (conceptId == ReasonerTaxonomyInferrer.DEPTH_CHANGE) {
-						if (previousLayer != null) {
-							invalidate(previousLayer);
-						}
-	
-						previousLayer = currentLayer;
-						currentLayer = PrimitiveSets.newLongOpenHashSet();
-						continue;
+				for (final long[] batch : batches) {
+					computeInParallel(pool, batch, conceptId -> {
+						precomputeProperties(conceptId, false);
+						return statementCache.get(conceptId);
+					});
+
+					// Node graphs are not thread-safe, and not used in this round; update them in iteration order after each batch
+					for (final long conceptId : batch) {
+						final Collection<StatementFragment> inferredNonIsAFragments = statementCache.get(conceptId);
+						inferredNonIsAFragments.stream()
+							.filter(r -> transitiveNodeGraphs.keySet().contains(r.getTypeId()))
+							.forEachOrdered(r -> transitiveNodeGraphs.get(r.getTypeId())
+									.addParent(conceptId, r.getDestinationId()));
 					}
-	
-					precomputeProperties(conceptId, false);
-					
-					final Collection<StatementFragment> inferredNonIsAFragments = statementCache.get(conceptId);
-					inferredNonIsAFragments.stream()
-						.filter(r -> transitiveNodeGraphs.keySet().contains(r.getTypeId()))
-						.forEachOrdered(r -> transitiveNodeGraphs.get(r.getTypeId())
-								.addParent(conceptId, r.getDestinationId()));
 				}
 				
-				// Clear the last layer of concepts
-				previousLayer = null;
-				currentLayer = PrimitiveSets.newLongOpenHashSet();
+				// Clear the cached results of the first round
 				statementCache.clear();
 				concreteDomainCache.clear();
 				
@@ -151,47 +173,97 @@ public final class NormalFormGenerator implements INormalFormGenerator {
 			LOGGER.info("--- Use node graphs for hierarchy computation");
 			
 			// Round 2: record changes using the hierarchies
-			for (final LongIterator itr = entries.iterator(); itr.hasNext(); /* empty */) {
-				final long conceptId = itr.next();
-
-				if (conceptId == ReasonerTaxonomyInferrer.DEPTH_CHANGE) {
-					if (previousLayer != null) {
-						invalidate(previousLayer);
-					}
-
-					previousLayer = currentLayer;
-					currentLayer = PrimitiveSets.newLongOpenHashSet();
-					continue;
-				}
-
+			for (final long[] batch : batches) {
+				
 				// Run costly comparison of property chain hierarchies only if there are any
-				precomputeProperties(conceptId, propertyChainsPresent);
-
-				final Collection<StatementFragment> existingStatements = reasonerTaxonomy.getExistingInferredRelationships().get(conceptId);
-				final Collection<StatementFragment> targetStatements = getTargetRelationships(conceptId);
-				statementProcessor.apply(conceptId, existingStatements, targetStatements, StatementFragmentOrdering.INSTANCE, subMonitor.newChild(1));
+				final List<ConceptTarget> targets = computeInParallel(pool, batch, conceptId -> {
+					precomputeProperties(conceptId, propertyChainsPresent);
+					return new ConceptTarget(conceptId, getTargetRelationships(conceptId), getTargetMembers(conceptId));
+				});
+
+				// Processors receive the results in iteration order, independently of the number of threads
+				for (final ConceptTarget target : targets) {
+					final long conceptId = target.conceptId;
+					
+					final Collection<StatementFragment> existingStatements = reasonerTaxonomy.getExistingInferredRelationships().get(conceptId);
+					statementProcessor.apply(conceptId, existingStatements, target.statements, StatementFragmentOrdering.INSTANCE, subMonitor.newChild(1));
 
-				final Collection<ConcreteDomainFragment> existingMembers = reasonerTaxonomy.getInferredConcreteDomainMembers().get(Long.toString(conceptId));
-				final Collection<ConcreteDomainFragment> targetMembers = getTargetMembers(conceptId);
-				concreteDomainProcessor.apply(conceptId, existingMembers, targetMembers, ConcreteDomainChangeOrdering.INSTANCE, subMonitor.newChild(1));
+					final Collection<ConcreteDomainFragment> existingMembers = reasonerTaxonomy.getInferredConcreteDomainMembers().get(Long.toString(conceptId));
+					concreteDomainProcessor.apply(conceptId, existingMembers, target.members, ConcreteDomainChangeOrdering.INSTANCE, subMonitor.newChild(1));
+				}
 			}
 
 		} finally {
+			pool.shutdown();
 			subMonitor.done();
 			LOGGER.info("<<< Distribution normal form generation [{}]", stopwatch.toString());
 		}
 	}
 
 	/**
-	 * Indicates that the breadth-first iteration has reached a new level in the tree.
-	 * Generators are free to drop caches associated with components in the previous
-	 * "slice".
+	 * Splits the breadth-first iteration order into batches of concepts that can
+	 * be processed independently of each other. A batch ends at each depth change
+	 * marker, when it reaches the maximum batch size, and before the first concept
+	 * that has a direct parent in the same batch, as the results of all parents
+	 * must be available in the cache when a concept is processed.
 	 * 
-	 * @param keysToInvalidate 
+	 * @param entries the iteration order, including depth change markers
+	 * @return the batches of concept IDs, in iteration order
 	 */
-	private void invalidate(final LongSet keysToInvalidate) {
-		statementCache.keySet().removeAll(keysToInvalidate);
-		concreteDomainCache.keySet().removeAll(keysToInvalidate);
+	private List<long[]> getBatches(final LongList entries) {
+		final List<long[]> batches = newArrayList();
+		final LongList batch = PrimitiveLists.newLongArrayList();
+		final LongSet batchIds = PrimitiveSets.newLongOpenHashSet();
+		
+		for (final LongIterator itr = entries.iterator(); itr.hasNext(); /* empty */) {
+			final long conceptId = itr.next();
+			
+			if (conceptId == ReasonerTaxonomyInferrer.DEPTH_CHANGE 
+					|| batch.size() >= MAX_BATCH_SIZE 
+					|| hasParentIn(conceptId, batchIds)) {
+				
+				if (!batch.isEmpty()) {
+					batches.add(batch.toArray());
+					batch.clear();
+					batchIds.clear();
+				}
+			}
+			
+			if (conceptId != ReasonerTaxonomyInferrer.DEPTH_CHANGE) {
+				batch.add(conceptId);
+				batchIds.add(conceptId);
+			}
+		}
+		
+		if (!batch.isEmpty()) {
+			batches.add(batch.toArray());
+		}
+		
+		return batches;
+	}
+
+	private boolean hasParentIn(final long conceptId, final LongSet conceptIds) {
+		final LongSet parentIds = reasonerTaxonomy.getInferredAncestors().getDestinations(conceptId, true);
+		for (final LongIterator itr = parentIds.iterator(); itr.hasNext(); /* empty */) {
+			if (conceptIds.contains(itr.next())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*returns the results in the order of the given concept IDs*/
+	private <T> List<T> computeInParallel(final ForkJoinPool pool, final long[] batch, final LongFunction<T> function) {
+		if (batch.length == 1) {
+			return ImmutableList.of(function.apply(batch[0]));
+		}
+		
+		// Parallel streams started from a task use the pool of the task
+		return pool.submit(() -> LongStream.of(batch)
+				.parallel()
+				.mapToObj(function)
+				.collect(Collectors.toList()))
+				.join();
 	}
 
 	private void precomputeProperties(final long conceptId, final boolean useNodeGraphs) {
@@ -535,4 +607,16 @@ public final class NormalFormGenerator implements INormalFormGenerator {
 	private Collection<ConcreteDomainFragment> getTargetMembers(final long conceptId) {
 		return concreteDomainCache.get(conceptId);
 	}
+
+	private static final class ConceptTarget {
+		private final long conceptId;
+		private final Collection<StatementFragment> statements;
+		private final Collection<ConcreteDomainFragment> members;
+
+		private ConceptTarget(final long conceptId, final Collection<StatementFragment> statements, final Collection<ConcreteDomainFragment> members) {
+			this.conceptId = conceptId;
+			this.statements = statements;
+			this.members = members;
+		}
+	}
 }
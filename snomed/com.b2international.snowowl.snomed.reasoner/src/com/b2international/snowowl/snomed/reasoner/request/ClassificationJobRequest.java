@@ -16,12 +16,14 @@
 package com.b2international.snowowl.snomed.reasoner.request;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import javax.validation.constraints.NotNull;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.hibernate.validator.constraints.NotEmpty;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.IRI;
@@ -50,6 +52,7 @@ import com.b2international.snowowl.snomed.datastore.config.SnomedCoreConfigurati
 import com.b2international.snowowl.snomed.datastore.index.taxonomy.ReasonerTaxonomy;
 import com.b2international.snowowl.snomed.datastore.index.taxonomy.ReasonerTaxonomyBuilder;
 import com.b2international.snowowl.snomed.reasoner.classification.ClassificationTracker;
+import com.b2international.snowowl.snomed.reasoner.classification.ReasonerTaxonomyCache;
 import com.b2international.snowowl.snomed.reasoner.classification.ReasonerTaxonomyInferrer;
 import com.b2international.snowowl.snomed.reasoner.exceptions.ReasonerApiException;
 import com.b2international.snowowl.snomed.reasoner.normalform.NormalFormGenerator;
@@ -123,9 +126,17 @@ final class ClassificationJobRequest implements Request<BranchContext, Boolean>,
 		final SnomedCoreConfiguration configuration = context.service(SnomedCoreConfiguration.class);
 		final boolean concreteDomainSupported = configuration.isConcreteDomainSupported();
 
+		final Set<String> excludedModuleIds = configuration.getReasonerExcludedModuleIds();
+		
+		// Additional concepts are not part of the branch content, taxonomies including them are not cached
+		final Optional<ReasonerTaxonomyCache> taxonomyCache = context.optionalService(ReasonerTaxonomyCache.class)
+				.filter(cache -> additionalConcepts.isEmpty() && cache.canRead(context));
+		
 		final ReasonerTaxonomy taxonomy;
 		try (Locks locks = Locks.on(context).lock(DatastoreLockContextDescriptions.CLASSIFY, parentLockContext)) {
-			taxonomy = buildTaxonomy(revisionSearcher, context.service(SnomedCoreConfiguration.class).getReasonerExcludedModuleIds(), concreteDomainSupported);
+			taxonomy = taxonomyCache
+					.map(cache -> cache.getTaxonomy(context, excludedModuleIds, concreteDomainSupported))
+					.orElseGet(() -> buildTaxonomy(revisionSearcher, excludedModuleIds, concreteDomainSupported));
 		} catch (final OperationLockException e) {
 			throw new ReasonerApiException("Couldn't acquire exclusive access to terminology store for classification; %s", e.getMessage(), e);
 		}
@@ -141,7 +152,9 @@ final class ClassificationJobRequest implements Request<BranchContext, Boolean>,
 			final ReasonerTaxonomy inferredTaxonomy = inferrer.addInferences(taxonomy);
 			final NormalFormGenerator normalFormGenerator = new NormalFormGenerator(inferredTaxonomy);
 			
-			tracker.classificationCompleted(classificationId, inferredTaxonomy, normalFormGenerator);
+			// report normal form generation progress to the remote job tracker
+			final IProgressMonitor monitor = context.optionalService(IProgressMonitor.class).orElse(null);
+			tracker.classificationCompleted(classificationId, inferredTaxonomy, normalFormGenerator, monitor);
 
 		} catch (final OWLOntologyCreationException e) {
 			throw new ReasonerApiException("Exception caught while creating ontology instance.", e);